@@ -0,0 +1,384 @@
+import benchmarks.GeneradorFixtures;
+import benchmarks.RegistroLatencias;
+import benchmarks.ReporteBenchmark;
+import excepciones.ProductoNoEncontradoException;
+import excepciones.SaldoInsuficienteException;
+import excepciones.StockInsuficienteException;
+import org.json.JSONObject;
+import productos.Producto;
+import usuarios.Rol;
+import usuarios.SistemaAutenticacion;
+import usuarios.Usuario;
+import usuarios.clientes.Cliente;
+import usuarios.vendedores.Vendedor;
+import ventas.Venta;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga: simula compradores y vendedores usando SistemaComercio a la vez, sobre un
+ * conjunto de datos generado con GeneradorFixtures (en una carpeta temporal, no toca data/).
+ *
+ * La carga es de lazo abierto: cada usuario simulado tiene su propio hilo y sus operaciones llegan
+ * con tiempos entre llegadas exponenciales (proceso de Poisson), sin esperar a que termine la
+ * anterior para decidir cuándo llega la siguiente. Si el sistema no da abasto las operaciones se
+ * atrasan, y la latencia se mide desde el momento en que la operación debía empezar, así el atraso
+ * aparece en los percentiles en lugar de esconderse bajando la tasa.
+ *
+ * Operaciones (el peso de cada una se configura con carga.mezcla):
+ * - navegar: obtenerProductosDisponibles
+ * - buscar: buscarProductoPorNombre
+ * - comprar: compra directa de un cliente (comprarProducto, el mismo camino que comprarProductoPorNombre)
+ * - vender: venta de un vendedor a un cliente con 1 a 3 productos (venderProductos, que arma la
+ *   venta y llama a procesarVenta)
+ * - saldo: carga de saldo de un cliente (agregarSaldo)
+ *
+ * Al terminar se controla la consistencia: para cada producto el stock final tiene que ser el
+ * inicial menos lo vendido (y nunca negativo), y la suma de los saldos de los clientes tiene que
+ * ser la inicial más las cargas menos lo cobrado.
+ *
+ * Configuración (propiedades del sistema):
+ * - carga.usuarios: usuarios simulados concurrentes (por defecto 50)
+ * - carga.tasa: operaciones por segundo entre todos los usuarios (por defecto 200)
+ * - carga.segundos: duración de la prueba (por defecto 30)
+ * - carga.gracia: segundos extra para terminar operaciones atrasadas (por defecto 30)
+ * - carga.mezcla: pesos de las operaciones (por defecto "navegar=40,buscar=30,comprar=15,vender=5,saldo=10")
+ * - carga.productos: productos del catálogo generado (por defecto 1000)
+ * - carga.cuentas: usuarios del archivo generado, 90% clientes y 10% vendedores (por defecto 500)
+ * - carga.semilla: semilla de los datos y de las operaciones (por defecto 42)
+ *
+ * Uso (desde la raíz del proyecto, con las clases de src y bench compiladas en "out"):
+ *   java -Dcarga.tasa=500 -cp out:json.jar GeneradorCarga
+ */
+public class GeneradorCarga {
+    private enum TipoOperacion { NAVEGAR, BUSCAR, COMPRAR, VENDER, SALDO }
+
+    private static final double[] PERCENTILES = {0.50, 0.99, 0.999, 1.0};
+
+    private final SistemaComercio sistema;
+    private final List<Producto> productos;
+    private final int[] stockInicial;
+    private final AtomicLongArray vendidos;
+    private final List<Cliente> clientes;
+    private final List<Vendedor> vendedores;
+    private final double saldoInicial;
+    private final DoubleAdder recargado;
+    private final DoubleAdder cobrado;
+    private final TipoOperacion[] ruleta;
+    private final Map<TipoOperacion, RegistroLatencias> latencias;
+    private final Map<TipoOperacion, LongAdder> exitosas;
+    private final Map<TipoOperacion, LongAdder> rechazadas;
+    private final Map<TipoOperacion, LongAdder> errores;
+    private final LongAdder noAtendidas;
+    private final AtomicReference<String> primerError;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param sistema sistema ya cargado con el conjunto de datos
+     * @param mezcla pesos de las operaciones, por ejemplo "navegar=40,buscar=30,comprar=15,vender=5,saldo=10"
+     * @param capacidadMuestras cantidad máxima de latencias que se guardan por operación
+     */
+    public GeneradorCarga(SistemaComercio sistema, String mezcla, int capacidadMuestras) {
+        this.sistema = sistema;
+        this.productos = sistema.obtenerProductosDisponibles();
+        this.stockInicial = new int[productos.size()];
+        for (int i = 0; i < productos.size(); i++) {
+            stockInicial[i] = sistema.obtenerCantidad(productos.get(i).getId());
+        }
+        this.vendidos = new AtomicLongArray(productos.size());
+
+        SistemaAutenticacion autenticacion = sistema.getSistemaAutenticacion();
+        this.clientes = new ArrayList<>();
+        for (Usuario usuario : autenticacion.buscarUsuarios(Rol.CLIENTE, "", null, Integer.MAX_VALUE).getUsuarios()) {
+            clientes.add((Cliente) usuario);
+        }
+        this.vendedores = new ArrayList<>();
+        for (Usuario usuario : autenticacion.buscarUsuarios(Rol.VENDEDOR, "", null, Integer.MAX_VALUE).getUsuarios()) {
+            vendedores.add((Vendedor) usuario);
+        }
+        if (productos.isEmpty() || clientes.isEmpty() || vendedores.isEmpty()) {
+            throw new IllegalStateException("El conjunto de datos necesita productos, clientes y vendedores.");
+        }
+        this.saldoInicial = sumarSaldos();
+        this.recargado = new DoubleAdder();
+        this.cobrado = new DoubleAdder();
+
+        this.ruleta = armarRuleta(mezcla);
+        this.latencias = new EnumMap<>(TipoOperacion.class);
+        this.exitosas = new EnumMap<>(TipoOperacion.class);
+        this.rechazadas = new EnumMap<>(TipoOperacion.class);
+        this.errores = new EnumMap<>(TipoOperacion.class);
+        for (TipoOperacion tipo : TipoOperacion.values()) {
+            latencias.put(tipo, new RegistroLatencias(capacidadMuestras));
+            exitosas.put(tipo, new LongAdder());
+            rechazadas.put(tipo, new LongAdder());
+            errores.put(tipo, new LongAdder());
+        }
+        this.noAtendidas = new LongAdder();
+        this.primerError = new AtomicReference<>();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int usuarios = Integer.getInteger("carga.usuarios", 50);
+        double tasa = Double.parseDouble(System.getProperty("carga.tasa", "200"));
+        double segundos = Double.parseDouble(System.getProperty("carga.segundos", "30"));
+        double gracia = Double.parseDouble(System.getProperty("carga.gracia", "30"));
+        String mezcla = System.getProperty("carga.mezcla", "navegar=40,buscar=30,comprar=15,vender=5,saldo=10");
+        int cantidadProductos = Integer.getInteger("carga.productos", 1_000);
+        int cuentas = Integer.getInteger("carga.cuentas", 500);
+        long semilla = Long.getLong("carga.semilla", 42L);
+
+        PrintStream consola = System.out;
+        File carpeta = Files.createTempDirectory("bench-carga").toFile();
+        File archivoStock = new File(carpeta, "stock.json");
+        File archivoUsuarios = new File(carpeta, "usuarios.json");
+        GeneradorFixtures.generarStock(cantidadProductos, archivoStock);
+        GeneradorFixtures.generarUsuarios(cuentas, 0, archivoUsuarios);
+
+        // El sistema informa cada venta por consola; durante la prueba esa salida se descarta
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        GeneradorCarga generador;
+        long nanosReales;
+        try {
+            SistemaComercio sistema = new SistemaComercio(archivoStock.getPath(), archivoUsuarios.getPath());
+            generador = new GeneradorCarga(sistema, mezcla, (int) Math.min(20_000_000, tasa * segundos * 2 + 1_000));
+            nanosReales = generador.ejecutar(usuarios, tasa, segundos, gracia, semilla);
+        } finally {
+            System.setOut(consola);
+        }
+
+        consola.println(String.format("Usuarios: %d | Tasa objetivo: %.1f ops/s | Duración: %.1fs | Mezcla: %s", usuarios, tasa, segundos, mezcla));
+        JSONObject resumen = generador.informar(consola, tasa, nanosReales);
+        resumen.put("usuarios", usuarios);
+        resumen.put("tasaObjetivo", tasa);
+        resumen.put("segundos", segundos);
+        resumen.put("mezcla", mezcla);
+        resumen.put("productos", cantidadProductos);
+        resumen.put("cuentas", cuentas);
+        ReporteBenchmark reporte = new ReporteBenchmark("carga");
+        reporte.agregar(resumen);
+        consola.println("Reporte: " + reporte.guardar().getPath());
+
+        for (File archivo : new File[] {archivoStock, archivoUsuarios, carpeta}) {
+            archivo.delete();
+        }
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Ejecuta la prueba
+     * @param usuarios usuarios simulados (un hilo virtual por usuario)
+     * @param tasa operaciones por segundo entre todos los usuarios
+     * @param segundos duración de la prueba
+     * @param gracia segundos extra para terminar operaciones atrasadas
+     * @param semilla semilla para elegir operaciones y tiempos de llegada
+     * @return la duración real en nanosegundos
+     * @throws InterruptedException si se interrumpe la espera de los usuarios simulados
+     */
+    public long ejecutar(int usuarios, double tasa, double segundos, double gracia, long semilla) throws InterruptedException {
+        double tasaPorUsuario = tasa / usuarios;
+        SplittableRandom raiz = new SplittableRandom(semilla);
+        List<Thread> hilos = new ArrayList<>();
+
+        long inicio = System.nanoTime();
+        long fin = inicio + (long) (segundos * 1e9);
+        long limite = fin + (long) (gracia * 1e9);
+        for (int u = 0; u < usuarios; u++) {
+            SplittableRandom aleatorio = raiz.split();
+            hilos.add(Thread.ofVirtual().name("usuario-simulado-" + u).start(() -> simularUsuario(aleatorio, tasaPorUsuario, inicio, fin, limite)));
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Ciclo de un usuario simulado: espera hasta el momento de llegada de cada operación (si no está
+     * atrasado), la ejecuta y registra la latencia desde ese momento
+     */
+    private void simularUsuario(SplittableRandom aleatorio, double tasaPorUsuario, long inicio, long fin, long limite) {
+        long llegada = inicio + proximaLlegada(aleatorio, tasaPorUsuario);
+        while (llegada < fin) {
+            long ahora = System.nanoTime();
+            if (ahora > limite) {
+                noAtendidas.increment();
+            } else {
+                if (ahora < llegada) {
+                    LockSupport.parkNanos(llegada - ahora);
+                }
+                TipoOperacion tipo = ruleta[aleatorio.nextInt(ruleta.length)];
+                ejecutarOperacion(tipo, aleatorio);
+                latencias.get(tipo).registrar(System.nanoTime() - llegada);
+            }
+            llegada += proximaLlegada(aleatorio, tasaPorUsuario);
+        }
+    }
+
+    private static long proximaLlegada(SplittableRandom aleatorio, double tasa) {
+        return (long) (-Math.log(1.0 - aleatorio.nextDouble()) / tasa * 1e9);
+    }
+
+    private void ejecutarOperacion(TipoOperacion tipo, SplittableRandom aleatorio) {
+        try {
+            switch (tipo) {
+                case NAVEGAR:
+                    sistema.obtenerProductosDisponibles();
+                    break;
+                case BUSCAR:
+                    sistema.buscarProductoPorNombre(productos.get(aleatorio.nextInt(productos.size())).getNombre());
+                    break;
+                case COMPRAR: {
+                    int indice = aleatorio.nextInt(productos.size());
+                    Cliente cliente = clientes.get(aleatorio.nextInt(clientes.size()));
+                    double total = sistema.comprarProducto(cliente, productos.get(indice).getNombre(), 1, null);
+                    cobrado.add(total);
+                    vendidos.incrementAndGet(indice);
+                    break;
+                }
+                case VENDER: {
+                    Map<String, Integer> pedido = new LinkedHashMap<>();
+                    List<Integer> indices = new ArrayList<>();
+                    int cantidad = 1 + aleatorio.nextInt(3);
+                    while (indices.size() < cantidad) {
+                        int indice = aleatorio.nextInt(productos.size());
+                        if (pedido.putIfAbsent(productos.get(indice).getNombre(), 1) == null) {
+                            indices.add(indice);
+                        }
+                    }
+                    Vendedor vendedor = vendedores.get(aleatorio.nextInt(vendedores.size()));
+                    Cliente cliente = clientes.get(aleatorio.nextInt(clientes.size()));
+                    Venta venta = sistema.venderProductos(vendedor, cliente, null, pedido);
+                    cobrado.add(venta.getTotal());
+                    for (int indice : indices) {
+                        vendidos.incrementAndGet(indice);
+                    }
+                    break;
+                }
+                case SALDO: {
+                    double monto = 100_000 + aleatorio.nextInt(900_000);
+                    sistema.agregarSaldo(clientes.get(aleatorio.nextInt(clientes.size())), monto);
+                    recargado.add(monto);
+                    break;
+                }
+            }
+            exitosas.get(tipo).increment();
+        } catch (StockInsuficienteException | SaldoInsuficienteException | ProductoNoEncontradoException e) {
+            // Rechazos normales del negocio: sin stock, sin saldo o producto agotado
+            rechazadas.get(tipo).increment();
+        } catch (Exception e) {
+            errores.get(tipo).increment();
+            primerError.compareAndSet(null, tipo + ": " + e);
+        }
+    }
+
+    /**
+     * Imprime los resultados y controla la consistencia del stock y de los saldos
+     * @param consola donde se imprime
+     * @param tasa tasa objetivo
+     * @param nanosReales duración real de la prueba
+     * @return el resumen en JSON
+     */
+    public JSONObject informar(PrintStream consola, double tasa, long nanosReales) {
+        JSONObject resumen = new JSONObject();
+        JSONObject porOperacion = new JSONObject();
+        long totalOperaciones = 0;
+
+        consola.println(String.format("%-9s %9s %9s %10s %8s %11s %11s %11s %11s",
+                "operación", "total", "exitosas", "rechazadas", "errores", "p50", "p99", "p99.9", "max"));
+        for (TipoOperacion tipo : TipoOperacion.values()) {
+            RegistroLatencias registro = latencias.get(tipo);
+            long[] p = registro.percentiles(PERCENTILES);
+            totalOperaciones += registro.getCantidad();
+            consola.println(String.format("%-9s %9d %9d %10d %8d %9.2fms %9.2fms %9.2fms %9.2fms",
+                    tipo.name().toLowerCase(), registro.getCantidad(), exitosas.get(tipo).sum(), rechazadas.get(tipo).sum(),
+                    errores.get(tipo).sum(), p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, p[3] / 1e6));
+
+            JSONObject json = new JSONObject();
+            json.put("total", registro.getCantidad());
+            json.put("exitosas", exitosas.get(tipo).sum());
+            json.put("rechazadas", rechazadas.get(tipo).sum());
+            json.put("errores", errores.get(tipo).sum());
+            json.put("p50Ms", p[0] / 1e6);
+            json.put("p99Ms", p[1] / 1e6);
+            json.put("p999Ms", p[2] / 1e6);
+            json.put("maximoMs", p[3] / 1e6);
+            porOperacion.put(tipo.name().toLowerCase(), json);
+        }
+        double throughput = totalOperaciones / (nanosReales / 1e9);
+        consola.println(String.format("Throughput: %.1f ops/s (objetivo %.1f) | No atendidas: %d", throughput, tasa, noAtendidas.sum()));
+        if (primerError.get() != null) {
+            consola.println("Primer error: " + primerError.get());
+        }
+
+        // Consistencia del stock: inicial - vendido == final, y nunca negativo
+        int sobreventas = 0;
+        int inconsistenciasStock = 0;
+        for (int i = 0; i < productos.size(); i++) {
+            int actual = sistema.obtenerCantidad(productos.get(i).getId());
+            if (actual < 0) {
+                sobreventas++;
+            }
+            if (actual != stockInicial[i] - vendidos.get(i)) {
+                inconsistenciasStock++;
+            }
+        }
+        // Consistencia de los saldos: inicial + cargas - cobros == final (con tolerancia de redondeo)
+        double saldoEsperado = saldoInicial + recargado.sum() - cobrado.sum();
+        double diferenciaSaldos = sumarSaldos() - saldoEsperado;
+        boolean saldosConsistentes = Math.abs(diferenciaSaldos) <= 1e-6 * Math.max(1.0, Math.abs(saldoEsperado));
+        consola.println(String.format("Consistencia: sobreventas=%d, productos con stock inconsistente=%d, diferencia de saldos=%.2f %s",
+                sobreventas, inconsistenciasStock, diferenciaSaldos,
+                sobreventas == 0 && inconsistenciasStock == 0 && saldosConsistentes ? "✅" : "❌"));
+
+        resumen.put("operaciones", porOperacion);
+        resumen.put("throughput", throughput);
+        resumen.put("noAtendidas", noAtendidas.sum());
+        resumen.put("sobreventas", sobreventas);
+        resumen.put("inconsistenciasStock", inconsistenciasStock);
+        resumen.put("diferenciaSaldos", diferenciaSaldos);
+        resumen.put("saldosConsistentes", saldosConsistentes);
+        return resumen;
+    }
+
+    private double sumarSaldos() {
+        double total = 0;
+        for (Cliente cliente : clientes) {
+            total += cliente.getSaldo();
+        }
+        return total;
+    }
+
+    private static TipoOperacion[] armarRuleta(String mezcla) {
+        List<TipoOperacion> ruleta = new ArrayList<>();
+        for (String parte : mezcla.split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + parte);
+            }
+            TipoOperacion tipo = TipoOperacion.valueOf(claveValor[0].trim().toUpperCase());
+            int peso = Integer.parseInt(claveValor[1].trim());
+            for (int i = 0; i < peso; i++) {
+                ruleta.add(tipo);
+            }
+        }
+        if (ruleta.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene operaciones.");
+        }
+        return ruleta.toArray(new TipoOperacion[0]);
+    }
+}
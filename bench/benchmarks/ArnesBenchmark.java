@@ -0,0 +1,137 @@
+package benchmarks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Arnés mínimo para medir operaciones del sistema sin dependencias externas (solo el JDK).
+ *
+ * Cada medición tiene una fase de calentamiento (para que el JIT compile el código medido) y una
+ * fase de medición de duración fija. En la medición se toma el tiempo de cada muestra con
+ * System.nanoTime y al final se calculan el throughput, los percentiles de latencia, los bytes
+ * asignados por operación (ThreadMXBean del hilo que mide) y la actividad del GC.
+ *
+ * Las operaciones muy cortas (nanosegundos) se miden en lotes: una muestra ejecuta la operación
+ * "opsPorMuestra" veces y la latencia informada es el promedio dentro del lote.
+ *
+ * Configuración (propiedades del sistema):
+ * - bench.calentamiento: segundos de calentamiento por benchmark (por defecto 2)
+ * - bench.segundos: segundos de medición por benchmark (por defecto 3)
+ */
+public class ArnesBenchmark {
+    private static final int MAXIMO_MUESTRAS = 2_000_000;
+
+    // Los resultados de las operaciones se acumulan acá para que el JIT no elimine el código medido
+    private static volatile long sumidero;
+
+    private final long nanosCalentamiento;
+    private final long nanosMedicion;
+
+    /**
+     * Operación a medir. Devuelve un valor cualquiera derivado del resultado, que el arnés consume
+     */
+    public interface Operacion {
+        long ejecutar() throws Exception;
+    }
+
+    // ---------------------- CONSTRUCTORES ----------------------
+    public ArnesBenchmark() {
+        this(Double.parseDouble(System.getProperty("bench.calentamiento", "2")),
+             Double.parseDouble(System.getProperty("bench.segundos", "3")));
+    }
+
+    public ArnesBenchmark(double segundosCalentamiento, double segundosMedicion) {
+        if (segundosCalentamiento < 0 || segundosMedicion <= 0) {
+            throw new IllegalArgumentException("Los tiempos de calentamiento y medición deben ser positivos.");
+        }
+        this.nanosCalentamiento = (long) (segundosCalentamiento * 1e9);
+        this.nanosMedicion = (long) (segundosMedicion * 1e9);
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Mide una operación
+     * @param nombre nombre del benchmark
+     * @param tamanio tamaño del catálogo (o del conjunto de datos) sobre el que se mide
+     * @param opsPorMuestra veces que se ejecuta la operación en cada muestra
+     * @param operacion operación a medir
+     * @return el resultado de la medición
+     * @throws Exception si la operación falla
+     */
+    public ResultadoBenchmark medir(String nombre, int tamanio, int opsPorMuestra, Operacion operacion) throws Exception {
+        // Calentamiento
+        long fin = System.nanoTime() + nanosCalentamiento;
+        long acumulado = 0;
+        while (System.nanoTime() < fin) {
+            for (int i = 0; i < opsPorMuestra; i++) {
+                acumulado += operacion.ejecutar();
+            }
+        }
+        System.gc();
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean midiendoMemoria = hilos.isThreadAllocatedMemorySupported() && hilos.isThreadAllocatedMemoryEnabled();
+        long[] gcAntes = actividadGC();
+        long bytesAntes = midiendoMemoria ? hilos.getCurrentThreadAllocatedBytes() : 0;
+
+        // Medición
+        long[] muestras = new long[1024];
+        int cantidadMuestras = 0;
+        long inicio = System.nanoTime();
+        fin = inicio + nanosMedicion;
+        long ahora = inicio;
+        while (ahora < fin && cantidadMuestras < MAXIMO_MUESTRAS) {
+            long antes = ahora;
+            for (int i = 0; i < opsPorMuestra; i++) {
+                acumulado += operacion.ejecutar();
+            }
+            ahora = System.nanoTime();
+            if (cantidadMuestras == muestras.length) {
+                muestras = Arrays.copyOf(muestras, muestras.length * 2);
+            }
+            muestras[cantidadMuestras++] = ahora - antes;
+        }
+        long nanosTotales = ahora - inicio;
+
+        long bytes = midiendoMemoria ? hilos.getCurrentThreadAllocatedBytes() - bytesAntes : -1;
+        long[] gcDespues = actividadGC();
+        sumidero += acumulado;
+
+        long operaciones = (long) cantidadMuestras * opsPorMuestra;
+        Arrays.sort(muestras, 0, cantidadMuestras);
+        return new ResultadoBenchmark(nombre, tamanio, operaciones, nanosTotales,
+                percentil(muestras, cantidadMuestras, 0.50) / opsPorMuestra,
+                percentil(muestras, cantidadMuestras, 0.90) / opsPorMuestra,
+                percentil(muestras, cantidadMuestras, 0.99) / opsPorMuestra,
+                percentil(muestras, cantidadMuestras, 0.999) / opsPorMuestra,
+                (double) muestras[cantidadMuestras - 1] / opsPorMuestra,
+                bytes < 0 ? -1 : (double) bytes / operaciones,
+                gcDespues[0] - gcAntes[0], gcDespues[1] - gcAntes[1]);
+    }
+
+    /**
+     * @return el valor acumulado de todas las operaciones medidas (solo para que no se descarte)
+     */
+    public static long getSumidero() {
+        return sumidero;
+    }
+
+    private static double percentil(long[] ordenadas, int cantidad, double percentil) {
+        int indice = (int) Math.ceil(percentil * cantidad) - 1;
+        return ordenadas[Math.max(0, Math.min(cantidad - 1, indice))];
+    }
+
+    /**
+     * @return {cantidad de recolecciones, milisegundos en recolecciones} sumando todos los recolectores
+     */
+    private static long[] actividadGC() {
+        long cantidad = 0;
+        long milisegundos = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            cantidad += Math.max(0, gc.getCollectionCount());
+            milisegundos += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {cantidad, milisegundos};
+    }
+}
@@ -0,0 +1,133 @@
+package benchmarks;
+
+import descuentos.DescuentoMetodoPago;
+import inventario.Stock;
+import persistencia.StockJSON;
+import productos.Producto;
+import usuarios.clientes.Cliente;
+import usuarios.clientes.MetodoPago;
+import usuarios.vendedores.Vendedor;
+import ventas.Venta;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks del camino de compra sobre catálogos sintéticos de distintos tamaños:
+ *
+ * - armarCarrito: crear una venta y agregarle 3 productos (valida stock de cada uno)
+ * - checkout: armar el carrito y procesar la venta (Venta.procesarVenta, que llama a
+ *   DescuentoMetodoPago y a Stock.eliminarProducto)
+ * - descuento: DescuentoMetodoPago.calcularMontoFinal
+ * - buscarPorNombre: Stock.buscarProductoPorNombre de un producto al azar
+ * - guardarStock: StockJSON.guardarStock del catálogo completo a un archivo temporal
+ *
+ * Ninguna de las operaciones medidas escribe en la consola (Venta.procesarVenta no imprime nada: los
+ * mensajes de una venta los muestra InterfazUsuario), así System.out no se redirige.
+ *
+ * Uso (desde la raíz del proyecto, con las clases de src y bench compiladas en "out"):
+ *   java -cp out:json.jar benchmarks.BenchmarkCheckout [tamaños separados por coma]
+ *
+ * Por defecto se miden catálogos de 1.000, 100.000 y 1.000.000 de productos. guardarStock solo se
+ * mide hasta bench.persistencia.maximo productos (por defecto 100.000) porque el JSON completo de
+ * un millón de productos no entra en un heap chico. Los resultados también se guardan en JSON
+ * (ver ReporteBenchmark).
+ */
+public class BenchmarkCheckout {
+    private static final int[] TAMANIOS_POR_DEFECTO = {1_000, 100_000, 1_000_000};
+    private static final int PRODUCTOS_POR_CARRITO = 3;
+    // Cada tantas ventas se usa un cliente y un vendedor nuevos para que sus historiales no crezcan sin límite
+    private static final int VENTAS_POR_CLIENTE = 1_000;
+    private static final long SEMILLA = 42;
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanios = args.length > 0 ? parsearTamanios(args[0]) : TAMANIOS_POR_DEFECTO;
+        int maximoPersistencia = Integer.getInteger("bench.persistencia.maximo", 100_000);
+        ArnesBenchmark arnes = new ArnesBenchmark();
+
+        ReporteBenchmark reporte = new ReporteBenchmark("checkout");
+        int mediciones = 0;
+        System.out.println(ResultadoBenchmark.encabezado());
+
+        for (int tamanio : tamanios) {
+            CatalogoSintetico catalogo = new CatalogoSintetico(tamanio, SEMILLA);
+            List<ResultadoBenchmark> delTamanio = new ArrayList<>();
+
+            delTamanio.add(arnes.medir("armarCarrito", tamanio, 1, () -> armarCarrito(catalogo, null, null).getCantidadTotalItems()));
+            delTamanio.add(arnes.medir("checkout", tamanio, 1, new Checkout(catalogo)));
+            delTamanio.add(arnes.medir("descuento", tamanio, 1_000, () -> {
+                double monto = catalogo.productoAlAzar().getPrecio();
+                return (long) DescuentoMetodoPago.calcularMontoFinal(monto, MetodoPago.QR);
+            }));
+            delTamanio.add(arnes.medir("buscarPorNombre", tamanio, 1, () -> {
+                String nombre = catalogo.productoAlAzar().getNombre();
+                Producto producto = catalogo.getStock().buscarProductoPorNombre(nombre);
+                return producto == null ? 0 : producto.getId();
+            }));
+            if (tamanio <= maximoPersistencia) {
+                File archivo = File.createTempFile("bench-stock", ".json");
+                archivo.deleteOnExit();
+                StockJSON stockJSON = new StockJSON();
+                delTamanio.add(arnes.medir("guardarStock", tamanio, 1, () -> {
+                    stockJSON.guardarStock(catalogo.getStock(), archivo.getPath());
+                    return archivo.length();
+                }));
+            }
+
+            for (ResultadoBenchmark resultado : delTamanio) {
+                System.out.println(resultado);
+                reporte.agregar(resultado.aJson());
+            }
+            mediciones += delTamanio.size();
+        }
+        System.out.println("(sumidero " + ArnesBenchmark.getSumidero() + ", " + mediciones + " mediciones)");
+        System.out.println("Reporte: " + reporte.guardar().getPath());
+    }
+
+    /**
+     * Arma una venta con productos al azar del catálogo
+     */
+    static Venta armarCarrito(CatalogoSintetico catalogo, Cliente cliente, Vendedor vendedor) throws Exception {
+        Venta venta = new Venta(cliente, vendedor, catalogo.metodoPagoAlAzar());
+        Stock stock = catalogo.getStock();
+        for (int i = 0; i < PRODUCTOS_POR_CARRITO; i++) {
+            venta.agregarProducto(catalogo.productoAlAzar(), 1, stock);
+        }
+        return venta;
+    }
+
+    static int[] parsearTamanios(String texto) {
+        String[] partes = texto.split(",");
+        int[] tamanios = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            tamanios[i] = Integer.parseInt(partes[i].trim().replace("_", ""));
+        }
+        return tamanios;
+    }
+
+    /**
+     * Checkout completo. Guarda el cliente y el vendedor actuales para renovarlos cada VENTAS_POR_CLIENTE ventas
+     */
+    private static class Checkout implements ArnesBenchmark.Operacion {
+        private final CatalogoSintetico catalogo;
+        private Cliente cliente;
+        private Vendedor vendedor;
+        private int ventas;
+
+        Checkout(CatalogoSintetico catalogo) {
+            this.catalogo = catalogo;
+        }
+
+        @Override
+        public long ejecutar() throws Exception {
+            if (ventas++ % VENTAS_POR_CLIENTE == 0) {
+                cliente = catalogo.nuevoCliente();
+                vendedor = catalogo.nuevoVendedor();
+            }
+            Venta venta = armarCarrito(catalogo, cliente, vendedor);
+            venta.procesarVenta(catalogo.getStock());
+            return (long) venta.getTotal();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package benchmarks;
+
+import org.json.JSONObject;
+import productos.AlmacenProductos;
+import productos.CategoriaProducto;
+import productos.Producto;
+import productos.VistaProducto;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmark de memoria del catálogo: cuántos bytes de heap ocupa cada producto guardado como
+ * objetos Producto y en el almacén en columnas (AlmacenProductos).
+ *
+ * Se miden dos formas de catálogo del mismo tamaño:
+ * - "unicos": cada producto con modelo, descripción y especificaciones propios (como CatalogoSintetico).
+ * - "variantes": 20 variantes (color, capacidad) por modelo, que comparten modelo y descripción, y
+ *   400 plantillas de especificaciones, como un catálogo real.
+ *
+ * Para cada forma se arma el catálogo entero (el almacén se compacta al terminar, como después de
+ * una carga), se piden varios GC y se mide el heap vivo contra el de antes de armarlo. Los Producto
+ * se generan de a uno y el almacén copia sus datos, así lo medido es solo lo que retiene cada
+ * representación. El resultado se guarda en JSON con ReporteBenchmark.
+ *
+ * Uso (desde la raíz del proyecto, con las clases de src y bench compiladas en "out"):
+ *   java -cp out:json.jar benchmarks.BenchmarkMemoriaCatalogo [productos]
+ * donde productos es una lista separada por coma, por ejemplo: 100000,1000000
+ */
+public class BenchmarkMemoriaCatalogo {
+    private static final int[] PRODUCTOS_POR_DEFECTO = {100_000, 1_000_000};
+    private static final String[] MARCAS = {"Lenovo", "Samsung", "Apple", "Logitech", "HP", "Dell", "Asus", "Sony"};
+    private static final String[] COLORES = {"negro", "blanco", "gris", "azul", "rojo"};
+    private static final int VARIANTES_POR_MODELO = 20;
+    private static final int PLANTILLAS_ESPECIFICACIONES = 400;
+
+    private final ReporteBenchmark reporte;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public BenchmarkMemoriaCatalogo() {
+        this.reporte = new ReporteBenchmark("memoria-catalogo");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanios = args.length > 0 ? BenchmarkCheckout.parsearTamanios(args[0]) : PRODUCTOS_POR_DEFECTO;
+        BenchmarkMemoriaCatalogo benchmark = new BenchmarkMemoriaCatalogo();
+
+        System.out.println(String.format("%-10s %10s %16s %16s %10s", "catálogo", "productos", "Producto B/SKU", "columnas B/SKU", "reducción"));
+        for (int tamanio : tamanios) {
+            benchmark.medir("unicos", tamanio, BenchmarkMemoriaCatalogo::productoUnico);
+            benchmark.medir("variantes", tamanio, BenchmarkMemoriaCatalogo::productoVariante);
+        }
+        System.out.println("Reporte: " + benchmark.reporte.guardar().getPath());
+    }
+
+    // ---------------------- CATALOGOS ----------------------
+    private static Producto productoUnico(int i) {
+        CategoriaProducto[] categorias = CategoriaProducto.values();
+        return new Producto(CatalogoSintetico.nombreProducto(i), "Producto sintético " + i, categorias[i % categorias.length],
+                1_000 + (i * 7919L) % 2_000_000, MARCAS[i % MARCAS.length], "M-" + i, "Especificaciones del producto " + i);
+    }
+
+    private static Producto productoVariante(int i) {
+        CategoriaProducto[] categorias = CategoriaProducto.values();
+        int modelo = i / VARIANTES_POR_MODELO;
+        int plantilla = modelo % PLANTILLAS_ESPECIFICACIONES;
+        String marca = MARCAS[modelo % MARCAS.length];
+        CategoriaProducto categoria = categorias[modelo % categorias.length];
+        String nombreModelo = marca + " Serie " + modelo;
+        return new Producto(CatalogoSintetico.nombreProducto(i) + " " + COLORES[i % COLORES.length], categoria.getNombre() + " " + nombreModelo,
+                categoria, 1_000 + (modelo * 7919L) % 2_000_000, marca, nombreModelo,
+                "Procesador de " + (4 + plantilla % 12) + " núcleos, " + (8 * (1 + plantilla % 8)) + "GB de RAM, "
+                        + (128 * (1 + plantilla % 4)) + "GB de almacenamiento, garantía oficial de " + (12 * (1 + plantilla % 3)) + " meses");
+    }
+
+    // ---------------------- METODOS ----------------------
+    private void medir(String catalogo, int tamanio, IntFunction<Producto> generador) {
+        long base = heapVivo();
+        Producto[] objetos = new Producto[tamanio];
+        for (int i = 0; i < tamanio; i++) {
+            objetos[i] = generador.apply(i);
+        }
+        long bytesObjetos = heapVivo() - base;
+        Producto muestra = objetos[tamanio / 2];
+        objetos = null;
+
+        base = heapVivo();
+        AlmacenProductos almacen = new AlmacenProductos(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            almacen.agregar(generador.apply(i));
+        }
+        almacen.compactar();
+        long bytesColumnas = heapVivo() - base;
+        verificar(almacen, muestra);
+
+        double porProducto = bytesObjetos / (double) tamanio;
+        double porProductoColumnas = bytesColumnas / (double) tamanio;
+        JSONObject json = new JSONObject();
+        json.put("catalogo", catalogo);
+        json.put("productos", tamanio);
+        json.put("bytesObjetos", bytesObjetos);
+        json.put("bytesColumnas", bytesColumnas);
+        json.put("bytesColumnasEstimados", almacen.getBytesOcupados());
+        json.put("textosDistintos", almacen.getCantidadTextos());
+        json.put("bytesPorProductoObjetos", porProducto);
+        json.put("bytesPorProductoColumnas", porProductoColumnas);
+        json.put("reduccion", porProducto / porProductoColumnas);
+        reporte.agregar(json);
+        System.out.println(String.format("%-10s %10d %16.1f %16.1f %9.1fx", catalogo, tamanio, porProducto, porProductoColumnas,
+                porProducto / porProductoColumnas));
+    }
+
+    /**
+     * Controla que el almacén devuelva los mismos datos que el producto original
+     */
+    private static void verificar(AlmacenProductos almacen, Producto original) {
+        // Las dos pasadas generan los mismos datos, pero cada Producto tomó un ID distinto: se busca por posición
+        VistaProducto vista = almacen.vista(almacen.getTamanio() / 2);
+        if (!vista.getNombre().equals(original.getNombre()) || !vista.getEspecificaciones().equals(original.getEspecificaciones())
+                || vista.getPrecio() != original.getPrecio() || vista.getCategoria() != original.getCategoria()
+                || almacen.buscar(vista.getId()) == null) {
+            throw new IllegalStateException("El almacén en columnas no devolvió los datos del producto " + original.getNombre());
+        }
+    }
+
+    private static long heapVivo() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
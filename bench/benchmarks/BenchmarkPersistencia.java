@@ -0,0 +1,200 @@
+package benchmarks;
+
+import inventario.Stock;
+import org.json.JSONObject;
+import persistencia.GestorUsuariosJSON;
+import persistencia.StockJSON;
+import usuarios.SistemaAutenticacion;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Benchmarks de persistencia: guardar y cargar stock.json y usuarios.json con distintos tamaños de
+ * catálogo, cantidades de usuarios y largos de historial (ver GeneradorFixtures).
+ *
+ * Cada operación se repite varias veces (después de una repetición de calentamiento) y se informa
+ * el tiempo mínimo, la mediana y el máximo, los bytes del archivo y el pico de heap durante la
+ * operación. Antes de cada repetición se pide un GC y se reinician los picos de los pools de heap,
+ * así el pico refleja lo que ocupa esa operación más lo que ya estaba vivo (la base, que también
+ * se informa). El resultado se guarda en JSON con ReporteBenchmark para comparar corridas.
+ *
+ * Uso (desde la raíz del proyecto, con las clases de src y bench compiladas en "out"):
+ *   java -cp out:json.jar benchmarks.BenchmarkPersistencia [productos] [usuarios] [historiales]
+ * donde cada argumento es una lista separada por coma, por ejemplo: 1000,100000 1000,10000 0,50
+ *
+ * Configuración (propiedades del sistema):
+ * - bench.repeticiones: repeticiones medidas por operación (por defecto 5)
+ */
+public class BenchmarkPersistencia {
+    private static final int[] PRODUCTOS_POR_DEFECTO = {1_000, 10_000, 100_000};
+    private static final int[] USUARIOS_POR_DEFECTO = {1_000, 10_000, 100_000};
+    private static final int[] HISTORIALES_POR_DEFECTO = {0, 50};
+
+    private final int repeticiones;
+    private final ReporteBenchmark reporte;
+    private final PrintStream consola;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public BenchmarkPersistencia(int repeticiones, PrintStream consola) {
+        this.repeticiones = repeticiones;
+        this.reporte = new ReporteBenchmark("persistencia");
+        this.consola = consola;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] productos = args.length > 0 ? BenchmarkCheckout.parsearTamanios(args[0]) : PRODUCTOS_POR_DEFECTO;
+        int[] usuarios = args.length > 1 ? BenchmarkCheckout.parsearTamanios(args[1]) : USUARIOS_POR_DEFECTO;
+        int[] historiales = args.length > 2 ? BenchmarkCheckout.parsearTamanios(args[2]) : HISTORIALES_POR_DEFECTO;
+
+        // Las clases de persistencia informan errores por consola; mientras se mide se descarta esa salida
+        PrintStream consola = System.out;
+        BenchmarkPersistencia benchmark = new BenchmarkPersistencia(Integer.getInteger("bench.repeticiones", 5), consola);
+        File carpeta = Files.createTempDirectory("bench-persistencia").toFile();
+
+        consola.println(String.format("%-16s %9s %9s %11s %11s %11s %12s %12s",
+                "operación", "elementos", "historial", "min", "mediana", "max", "archivo", "pico heap"));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int cantidad : productos) {
+                benchmark.medirStock(carpeta, cantidad);
+            }
+            for (int cantidad : usuarios) {
+                for (int historial : historiales) {
+                    benchmark.medirUsuarios(carpeta, cantidad, historial);
+                }
+            }
+        } finally {
+            System.setOut(consola);
+            borrar(carpeta);
+        }
+        consola.println("Reporte: " + benchmark.reporte.guardar().getPath());
+    }
+
+    // ---------------------- METODOS ----------------------
+    private void medirStock(File carpeta, int cantidad) throws Exception {
+        File fixture = new File(carpeta, "stock-" + cantidad + ".json");
+        File salida = new File(carpeta, "stock-" + cantidad + "-salida.json");
+        GeneradorFixtures.generarStock(cantidad, fixture);
+
+        StockJSON stockJSON = new StockJSON();
+        medir("cargarStock", cantidad, 0, fixture, () -> stockJSON.cargarStock(fixture.getPath()));
+
+        Stock cargado = stockJSON.cargarStock(fixture.getPath());
+        medir("guardarStock", cantidad, 0, salida, () -> {
+            stockJSON.guardarStock(cargado, salida.getPath());
+            return salida;
+        });
+    }
+
+    private void medirUsuarios(File carpeta, int cantidad, int historial) throws Exception {
+        File fixture = new File(carpeta, "usuarios-" + cantidad + "-" + historial + ".json");
+        File salida = new File(carpeta, "usuarios-" + cantidad + "-" + historial + "-salida.json");
+        GeneradorFixtures.generarUsuarios(cantidad, historial, fixture);
+
+        // Igual que SistemaAutenticacion al iniciar: usuarios y credenciales se leen por separado
+        GestorUsuariosJSON gestor = new GestorUsuariosJSON();
+        medir("cargarUsuarios", cantidad, historial, fixture, () -> {
+            int leidos = gestor.cargarUsuarios(fixture.getPath()).size();
+            return leidos + gestor.cargarUsuariosConCredenciales(fixture.getPath()).size();
+        });
+
+        SistemaAutenticacion sistema = new SistemaAutenticacion(fixture.getPath());
+        medir("guardarUsuarios", cantidad, historial, salida, () -> {
+            gestor.guardarUsuarios(sistema, salida.getPath());
+            return salida;
+        });
+    }
+
+    /**
+     * Mide una operación y agrega el resultado al reporte
+     * @param operacion nombre de la operación
+     * @param elementos productos o usuarios del archivo
+     * @param historial largo del historial de cada usuario (0 para el stock)
+     * @param archivo archivo leído o escrito (para informar su tamaño)
+     * @param tarea operación a medir
+     */
+    private void medir(String operacion, int elementos, int historial, File archivo, Callable<Object> tarea) throws Exception {
+        long[] nanos = new long[repeticiones];
+        long picoHeap = 0;
+        long baseHeap = Long.MAX_VALUE;
+        Object resultado = tarea.call(); // calentamiento
+
+        for (int i = 0; i < repeticiones; i++) {
+            resultado = null;
+            System.gc();
+            long base = heapUsado();
+            reiniciarPicosHeap();
+
+            long inicio = System.nanoTime();
+            resultado = tarea.call();
+            nanos[i] = System.nanoTime() - inicio;
+
+            picoHeap = Math.max(picoHeap, picoHeap());
+            baseHeap = Math.min(baseHeap, base);
+        }
+        Arrays.sort(nanos);
+        if (resultado == null) {
+            throw new IllegalStateException("La operación " + operacion + " no devolvió resultado.");
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("operacion", operacion);
+        json.put("elementos", elementos);
+        json.put("historial", historial);
+        json.put("repeticiones", repeticiones);
+        json.put("msMinimo", nanos[0] / 1e6);
+        json.put("msMediana", nanos[nanos.length / 2] / 1e6);
+        json.put("msMaximo", nanos[nanos.length - 1] / 1e6);
+        json.put("bytesArchivo", archivo.length());
+        json.put("picoHeapBytes", picoHeap);
+        json.put("baseHeapBytes", baseHeap);
+        reporte.agregar(json);
+
+        consola.println(String.format("%-16s %9d %9d %9.1fms %9.1fms %9.1fms %10.1fMB %10.1fMB",
+                operacion, elementos, historial, nanos[0] / 1e6, nanos[nanos.length / 2] / 1e6, nanos[nanos.length - 1] / 1e6,
+                archivo.length() / (1024.0 * 1024), picoHeap / (1024.0 * 1024)));
+    }
+
+    private static long heapUsado() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void reiniciarPicosHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Suma de los picos de los pools de heap desde el último reinicio (cota superior del pico real)
+     */
+    private static long picoHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static void borrar(File archivo) {
+        File[] hijos = archivo.listFiles();
+        if (hijos != null) {
+            for (File hijo : hijos) {
+                borrar(hijo);
+            }
+        }
+        archivo.delete();
+    }
+}
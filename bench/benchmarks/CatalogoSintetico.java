@@ -0,0 +1,94 @@
+package benchmarks;
+
+import inventario.Stock;
+import productos.CategoriaProducto;
+import productos.Producto;
+import usuarios.Rol;
+import usuarios.clientes.Cliente;
+import usuarios.clientes.MetodoPago;
+import usuarios.vendedores.Vendedor;
+
+import java.util.SplittableRandom;
+
+/**
+ * Catálogo de productos generado para los benchmarks. Siempre se genera igual para un mismo
+ * tamaño y semilla, así las mediciones de distintas versiones son comparables.
+ *
+ * La cantidad en stock de cada producto se reparte para que el stock total no desborde un int
+ * y alcance para varios minutos de ventas sin reponer.
+ */
+public class CatalogoSintetico {
+    private static final String[] MARCAS = {"Lenovo", "Samsung", "Apple", "Logitech", "HP", "Dell", "Asus", "Sony"};
+    private static final int STOCK_TOTAL_OBJETIVO = 1_000_000_000;
+
+    private final Stock stock;
+    private final Producto[] productos;
+    private final SplittableRandom aleatorio;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param tamanio cantidad de productos distintos
+     * @param semilla semilla para generar siempre el mismo catálogo
+     */
+    public CatalogoSintetico(int tamanio, long semilla) {
+        this.stock = new Stock();
+        this.productos = new Producto[tamanio];
+        this.aleatorio = new SplittableRandom(semilla);
+
+        CategoriaProducto[] categorias = CategoriaProducto.values();
+        int cantidadPorProducto = Math.max(1_000, STOCK_TOTAL_OBJETIVO / tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            String marca = MARCAS[i % MARCAS.length];
+            Producto producto = new Producto(nombreProducto(i), "Producto sintético " + i, categorias[i % categorias.length],
+                    1_000 + aleatorio.nextInt(2_000_000), marca, "M-" + i, "Especificaciones del producto " + i);
+            productos[i] = producto;
+            stock.agregarProducto(producto, cantidadPorProducto);
+        }
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param indice posición del producto en el catálogo
+     * @return el nombre que recibe el producto en esa posición
+     */
+    public static String nombreProducto(int indice) {
+        return "Producto " + indice;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public int getTamanio() {
+        return productos.length;
+    }
+
+    /**
+     * @return un producto al azar del catálogo
+     */
+    public Producto productoAlAzar() {
+        return productos[aleatorio.nextInt(productos.length)];
+    }
+
+    /**
+     * @return un método de pago al azar
+     */
+    public MetodoPago metodoPagoAlAzar() {
+        MetodoPago[] metodos = MetodoPago.values();
+        return metodos[aleatorio.nextInt(metodos.length)];
+    }
+
+    /**
+     * @return un cliente nuevo con saldo suficiente para cualquier cantidad de compras del benchmark
+     */
+    public Cliente nuevoCliente() {
+        return new Cliente("Cliente", "Benchmark", "cliente@bench.local", Rol.CLIENTE, 1, "00000000", 0, MetodoPago.EFECTIVO, 1e15, "", "");
+    }
+
+    /**
+     * @return un vendedor nuevo
+     */
+    public Vendedor nuevoVendedor() {
+        return new Vendedor("Vendedor", "Benchmark", "vendedor@bench.local", Rol.VENDEDOR, 1, "00000001", 0.0);
+    }
+}
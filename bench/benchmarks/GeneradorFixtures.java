@@ -0,0 +1,113 @@
+package benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import persistencia.OperacionesLectoEscritura;
+import persistencia.StockJSON;
+import usuarios.clientes.MetodoPago;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Genera archivos stock.json y usuarios.json con el mismo formato que escribe el sistema, para
+ * medir la persistencia con catálogos, cantidades de usuarios e historiales de distintos tamaños.
+ *
+ * El stock se genera con CatalogoSintetico y se guarda con StockJSON, así el archivo es igual al
+ * que guardaría el sistema. Los usuarios se escriben directamente en JSON (90% clientes y 10%
+ * vendedores) porque crearlos con SistemaAutenticacion calcularía un hash PBKDF2 por usuario; la
+ * contraseña es un hash con el mismo formato y largo que los reales.
+ *
+ * Uso:
+ *   java -cp out:json.jar benchmarks.GeneradorFixtures <carpeta> <productos> <usuarios> <historial por usuario>
+ */
+public class GeneradorFixtures {
+    private static final String[] NOMBRES = {"Juan", "María", "Pedro", "Lucía", "Ana", "José", "Sofía", "Martín", "Valentina", "Mateo"};
+    private static final String[] APELLIDOS = {"Pérez", "Gómez", "Rodríguez", "López", "Fernández", "García", "Martínez", "Sánchez", "Romero", "Díaz"};
+    private static final String HASH_EJEMPLO = "pbkdf2$210000$3q2+7w1sTqJb0n5m8k4e9A$Yk1mX3F0c2l0b3J5LWhhc2gtZGUtZWplbXBsby0zMmJ5dGVz";
+    private static final int PORCENTAJE_VENDEDORES = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Uso: GeneradorFixtures <carpeta> <productos> <usuarios> <historial por usuario>");
+            return;
+        }
+        File carpeta = new File(args[0]);
+        carpeta.mkdirs();
+        generarStock(Integer.parseInt(args[1]), new File(carpeta, "stock.json"));
+        generarUsuarios(Integer.parseInt(args[2]), Integer.parseInt(args[3]), new File(carpeta, "usuarios.json"));
+        System.out.println("Fixtures generados en " + carpeta.getAbsolutePath());
+    }
+
+    /**
+     * Genera un stock.json con la cantidad de productos pedida
+     * @param productos cantidad de productos distintos
+     * @param destino archivo a escribir
+     */
+    public static void generarStock(int productos, File destino) {
+        CatalogoSintetico catalogo = new CatalogoSintetico(productos, 42);
+        new StockJSON().guardarStock(catalogo.getStock(), destino.getPath());
+    }
+
+    /**
+     * Genera un usuarios.json con la cantidad de usuarios pedida
+     * @param usuarios cantidad de usuarios
+     * @param historial cantidad de compras (clientes) o ventas (vendedores) en el historial de cada usuario
+     * @param destino archivo a escribir
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public static void generarUsuarios(int usuarios, int historial, File destino) throws IOException {
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        MetodoPago[] metodos = MetodoPago.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        JSONArray usuariosArray = new JSONArray();
+
+        for (int id = 1; id <= usuarios; id++) {
+            JSONObject usuario = new JSONObject();
+            boolean esVendedor = aleatorio.nextInt(100) < PORCENTAJE_VENDEDORES;
+            usuario.put("id", id);
+            usuario.put("nombre", NOMBRES[aleatorio.nextInt(NOMBRES.length)]);
+            usuario.put("apellido", APELLIDOS[aleatorio.nextInt(APELLIDOS.length)]);
+            usuario.put("email", "usuario" + id + "@bench.local");
+            usuario.put("rol", esVendedor ? "VENDEDOR" : "CLIENTE");
+            usuario.put("estado", 1);
+            usuario.put("dni", String.format("%08d", 10_000_000 + id));
+            usuario.put("fechaRegistro", base.plusMinutes(id).toString());
+            usuario.put("password", HASH_EJEMPLO);
+
+            JSONArray historialArray = new JSONArray();
+            for (int i = 0; i < historial; i++) {
+                String fecha = base.plusMinutes(id + i * 37L).toString();
+                double total = 1_000 + aleatorio.nextInt(500_000);
+                historialArray.put(fecha + " - Venta #" + (id * historial + i) + " - " + (1 + aleatorio.nextInt(5)) + " productos - Total: $" + String.format("%.2f", total));
+            }
+
+            if (esVendedor) {
+                usuario.put("tipoUsuario", "VENDEDOR");
+                usuario.put("salario", 1_000_000 + aleatorio.nextInt(3_000_000));
+                usuario.put("comision", aleatorio.nextInt(30));
+                usuario.put("totalComisiones", 0);
+                usuario.put("ventasRealizadas", historialArray);
+                usuario.put("totalVentas", historial);
+            } else {
+                usuario.put("tipoUsuario", "CLIENTE");
+                usuario.put("cantProductosComprados", historial);
+                usuario.put("metodoPago", metodos[aleatorio.nextInt(metodos.length)].toString());
+                usuario.put("saldo", aleatorio.nextInt(5_000_000));
+                usuario.put("direccion", "Calle " + aleatorio.nextInt(5_000) + ", Mar del Plata");
+                usuario.put("telefono", "223" + (4_000_000 + aleatorio.nextInt(999_999)));
+                usuario.put("historialCompras", historialArray);
+            }
+            usuariosArray.put(usuario);
+        }
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("usuarios", usuariosArray);
+        jsonObject.put("fechaActualizacion", LocalDateTime.now().toString());
+        jsonObject.put("totalUsuarios", usuarios);
+        jsonObject.put("contadorUsuarios", usuarios);
+        OperacionesLectoEscritura.grabar(destino.getPath(), jsonObject);
+    }
+}
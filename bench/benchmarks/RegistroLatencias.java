@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de latencias que pueden escribir muchos hilos a la vez. Guarda las muestras en un
+ * arreglo de tamaño fijo (si se llena, se siguen contando pero ya no se guardan) y al final las
+ * ordena para calcular percentiles exactos.
+ */
+public class RegistroLatencias {
+    private final long[] muestras;
+    private final AtomicInteger siguiente;
+    private final LongAdder total;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param capacidad cantidad máxima de muestras que se guardan
+     */
+    public RegistroLatencias(int capacidad) {
+        this.muestras = new long[capacidad];
+        this.siguiente = new AtomicInteger();
+        this.total = new LongAdder();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param nanos latencia de una operación en nanosegundos
+     */
+    public void registrar(long nanos) {
+        total.increment();
+        int indice = siguiente.getAndIncrement();
+        if (indice < muestras.length) {
+            muestras[indice] = nanos;
+        }
+    }
+
+    /**
+     * @return la cantidad de operaciones registradas (incluye las que no entraron en el arreglo)
+     */
+    public long getCantidad() {
+        return total.sum();
+    }
+
+    /**
+     * Calcula percentiles. Se llama al final, cuando ya no se registran muestras
+     * @param percentiles percentiles a calcular (0.5, 0.99, ...)
+     * @return la latencia en nanosegundos de cada percentil (0 si no hay muestras)
+     */
+    public long[] percentiles(double... percentiles) {
+        int cantidad = Math.min(siguiente.get(), muestras.length);
+        long[] ordenadas = Arrays.copyOf(muestras, cantidad);
+        Arrays.sort(ordenadas);
+
+        long[] resultado = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length && cantidad > 0; i++) {
+            int indice = (int) Math.ceil(percentiles[i] * cantidad) - 1;
+            resultado[i] = ordenadas[Math.max(0, Math.min(cantidad - 1, indice))];
+        }
+        return resultado;
+    }
+}
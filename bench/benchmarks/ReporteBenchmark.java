@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import persistencia.OperacionesLectoEscritura;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Reporte en JSON de una corrida de benchmarks, pensado para guardarlo y comparar corridas a lo
+ * largo del tiempo. Además de los resultados guarda los datos del entorno (JDK, núcleos, heap).
+ *
+ * El archivo se escribe en la ruta de la propiedad bench.reporte o, si no está, en
+ * "resultados-bench/<suite>-<fecha>.json".
+ */
+public class ReporteBenchmark {
+    private final String suite;
+    private final JSONArray resultados;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param suite nombre de la suite (checkout, persistencia, ...)
+     */
+    public ReporteBenchmark(String suite) {
+        this.suite = suite;
+        this.resultados = new JSONArray();
+    }
+
+    // ---------------------- METODOS ----------------------
+    public void agregar(JSONObject resultado) {
+        resultados.put(resultado);
+    }
+
+    /**
+     * Escribe el reporte
+     * @return el archivo escrito
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public File guardar() throws IOException {
+        LocalDateTime ahora = LocalDateTime.now();
+        String ruta = System.getProperty("bench.reporte",
+                "resultados-bench/" + suite + "-" + ahora.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        JSONObject entorno = new JSONObject();
+        entorno.put("java", System.getProperty("java.version"));
+        entorno.put("vm", System.getProperty("java.vm.name"));
+        entorno.put("so", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        entorno.put("nucleos", Runtime.getRuntime().availableProcessors());
+        entorno.put("heapMaximoBytes", Runtime.getRuntime().maxMemory());
+
+        JSONObject reporte = new JSONObject();
+        reporte.put("suite", suite);
+        reporte.put("fecha", ahora.toString());
+        reporte.put("entorno", entorno);
+        reporte.put("resultados", resultados);
+
+        OperacionesLectoEscritura.grabar(ruta, reporte);
+        return new File(ruta);
+    }
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import org.json.JSONObject;
+
+/**
+ * Resultado de una medición de ArnesBenchmark. Las latencias están en nanosegundos por operación.
+ */
+public class ResultadoBenchmark {
+    private final String nombre;
+    private final int tamanio;
+    private final long operaciones;
+    private final long nanosTotales;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+    private final double maximo;
+    private final double bytesPorOperacion;
+    private final long recoleccionesGC;
+    private final long milisegundosGC;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public ResultadoBenchmark(String nombre, int tamanio, long operaciones, long nanosTotales, double p50, double p90,
+                              double p99, double p999, double maximo, double bytesPorOperacion, long recoleccionesGC, long milisegundosGC) {
+        this.nombre = nombre;
+        this.tamanio = tamanio;
+        this.operaciones = operaciones;
+        this.nanosTotales = nanosTotales;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.maximo = maximo;
+        this.bytesPorOperacion = bytesPorOperacion;
+        this.recoleccionesGC = recoleccionesGC;
+        this.milisegundosGC = milisegundosGC;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public String getNombre() {
+        return nombre;
+    }
+    public int getTamanio() {
+        return tamanio;
+    }
+    public long getOperaciones() {
+        return operaciones;
+    }
+    public double getOperacionesPorSegundo() {
+        return operaciones / (nanosTotales / 1e9);
+    }
+    public double getP50() {
+        return p50;
+    }
+    public double getP90() {
+        return p90;
+    }
+    public double getP99() {
+        return p99;
+    }
+    public double getP999() {
+        return p999;
+    }
+    public double getMaximo() {
+        return maximo;
+    }
+    public double getBytesPorOperacion() {
+        return bytesPorOperacion;
+    }
+    /**
+     * @return megabytes asignados por segundo durante la medición
+     */
+    public double getMegabytesPorSegundo() {
+        return bytesPorOperacion < 0 ? -1 : bytesPorOperacion * getOperacionesPorSegundo() / (1024 * 1024);
+    }
+    public long getRecoleccionesGC() {
+        return recoleccionesGC;
+    }
+    public long getMilisegundosGC() {
+        return milisegundosGC;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @return el encabezado de la tabla que arma toString
+     */
+    public static String encabezado() {
+        return String.format("%-24s %9s %14s %11s %11s %11s %11s %12s %10s %9s",
+                "benchmark", "tamaño", "ops/s", "p50", "p90", "p99", "p99.9", "B/op", "MB/s", "gc(ms)");
+    }
+
+    private static String formatearNanos(double nanos) {
+        if (nanos >= 1e6) {
+            return String.format("%.2fms", nanos / 1e6);
+        }
+        if (nanos >= 1e3) {
+            return String.format("%.2fus", nanos / 1e3);
+        }
+        return String.format("%.1fns", nanos);
+    }
+
+    /**
+     * @return el resultado como JSON, para ReporteBenchmark
+     */
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("benchmark", nombre);
+        json.put("tamanio", tamanio);
+        json.put("operaciones", operaciones);
+        json.put("operacionesPorSegundo", getOperacionesPorSegundo());
+        json.put("p50Ns", p50);
+        json.put("p90Ns", p90);
+        json.put("p99Ns", p99);
+        json.put("p999Ns", p999);
+        json.put("maximoNs", maximo);
+        json.put("bytesPorOperacion", bytesPorOperacion);
+        json.put("recoleccionesGC", recoleccionesGC);
+        json.put("milisegundosGC", milisegundosGC);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s %9d %14.1f %11s %11s %11s %11s %12.1f %10.1f %4d(%d)",
+                nombre, tamanio, getOperacionesPorSegundo(), formatearNanos(p50), formatearNanos(p90),
+                formatearNanos(p99), formatearNanos(p999), bytesPorOperacion, getMegabytesPorSegundo(),
+                milisegundosGC, recoleccionesGC);
+    }
+}
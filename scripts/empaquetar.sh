@@ -0,0 +1,109 @@
+#!/usr/bin/env bash
+# Arma el paquete del sistema en build/paquete y el archivo de clases compartidas (AppCDS) del lanzador:
+#
+#   build/paquete/tpfinal.jar   clases del sistema (Main-Class: Main)
+#   build/paquete/lib/json.jar  dependencia org.json
+#   build/paquete/tpfinal.jsa   clases ya cargadas, verificadas y enlazadas durante el calentamiento
+#
+# El archivo .jsa se arma corriendo "Main --calentamiento" (ver src/Calentamiento.java) con
+# -XX:ArchiveClassesAtExit: carga stock y usuarios de archivo, levanta el servidor, importa el
+# catálogo, compra y vende. Después se mide el arranque con y sin el archivo (milisegundos hasta
+# la primera respuesta del servidor y hasta la primera respuesta del catálogo).
+#
+# Variables:
+#   JAVA_HOME     JDK 21 o posterior (por defecto, el java del PATH)
+#   JSON_JAR      jar de org.json (por defecto, el del repositorio local de Maven)
+#   PRODUCTOS     productos del catálogo de calentamiento (por defecto 2000)
+#   MEDICIONES    arranques medidos por variante (por defecto 3; 0 para no medir)
+#   PUERTO        puerto para las mediciones (por defecto 18090)
+set -euo pipefail
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+PAQUETE="$RAIZ/build/paquete"
+JSON_JAR="${JSON_JAR:-$HOME/.m2/repository/org/json/json/20250517/json-20250517.jar}"
+PRODUCTOS="${PRODUCTOS:-2000}"
+MEDICIONES="${MEDICIONES:-3}"
+PUERTO="${PUERTO:-18090}"
+if [ -n "${JAVA_HOME:-}" ]; then BIN="$JAVA_HOME/bin/"; else BIN=""; fi
+
+if [ ! -f "$JSON_JAR" ]; then
+    echo "No se encontró el jar de org.json en $JSON_JAR (indicarlo con JSON_JAR=...)" >&2
+    exit 1
+fi
+
+# El sistema usa hilos virtuales (servidor HTTP, bitácora, generador de carga): hace falta JDK 21
+VERSION_JAVA="$("${BIN}javac" -version 2>&1 | sed -E 's/^javac ([0-9]+).*/\1/')"
+if ! [[ "$VERSION_JAVA" =~ ^[0-9]+$ ]] || [ "$VERSION_JAVA" -lt 21 ]; then
+    echo "Hace falta JDK 21 o posterior (javac encontrado: $("${BIN}javac" -version 2>&1)). Indicarlo con JAVA_HOME=..." >&2
+    exit 1
+fi
+
+# ---------------------- COMPILACION ----------------------
+echo "📦 Compilando en $PAQUETE"
+rm -rf "$PAQUETE"
+mkdir -p "$PAQUETE/clases" "$PAQUETE/lib"
+cp "$JSON_JAR" "$PAQUETE/lib/json.jar"
+find "$RAIZ/src" -name "*.java" > "$PAQUETE/fuentes.txt"
+"${BIN}javac" --release 21 -encoding UTF-8 -nowarn -d "$PAQUETE/clases" -cp "$PAQUETE/lib/json.jar" @"$PAQUETE/fuentes.txt"
+rm "$PAQUETE/fuentes.txt"
+
+# El Class-Path relativo del manifiesto hace que el jar arranque con "java -jar" desde cualquier directorio
+printf 'Main-Class: Main\nClass-Path: lib/json.jar\n' > "$PAQUETE/manifiesto.txt"
+"${BIN}jar" --create --file "$PAQUETE/tpfinal.jar" --manifest "$PAQUETE/manifiesto.txt" -C "$PAQUETE/clases" .
+rm -rf "$PAQUETE/clases" "$PAQUETE/manifiesto.txt"
+
+# ---------------------- CALENTAMIENTO ----------------------
+# Corre en un directorio aparte: el calentamiento usa datos temporales, pero así tampoco deja nada en el proyecto
+echo "🔥 Calentando ($PRODUCTOS productos) para armar el archivo de clases compartidas"
+TRABAJO="$(mktemp -d)"
+trap 'rm -rf "$TRABAJO"' EXIT
+(cd "$TRABAJO" && "${BIN}java" -XX:ArchiveClassesAtExit="$PAQUETE/tpfinal.jsa" \
+    -jar "$PAQUETE/tpfinal.jar" --calentamiento "$PRODUCTOS" > "$TRABAJO/calentamiento.log" 2>&1) || {
+    cat "$TRABAJO/calentamiento.log" >&2
+    exit 1
+}
+grep "Calentamiento terminado" "$TRABAJO/calentamiento.log" || true
+echo "✅ Paquete listo: $PAQUETE (iniciar con scripts/iniciar.sh)"
+
+# ---------------------- MEDICION ----------------------
+# Arranca el servidor sobre una copia de data/ y mide hasta la primera respuesta y hasta la del catálogo
+medir() {
+    local corrida="$TRABAJO/corrida"
+    rm -rf "$corrida" && mkdir -p "$corrida"
+    [ -d "$RAIZ/data" ] && cp -r "$RAIZ/data" "$corrida/data"
+    local inicio primera catalogo pid
+    inicio=$(date +%s%N)
+    (cd "$corrida" && exec "${BIN}java" "$@" Main --servidor "$PUERTO" > "$corrida/servidor.log" 2>&1) &
+    pid=$!
+    until curl -s -o /dev/null "http://localhost:$PUERTO/api/metricas"; do
+        if ! kill -0 "$pid" 2>/dev/null; then cat "$corrida/servidor.log" >&2; return 1; fi
+        sleep 0.02
+    done
+    primera=$(date +%s%N)
+    curl -s -o /dev/null "http://localhost:$PUERTO/api/productos"
+    catalogo=$(date +%s%N)
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    echo "$(( (primera - inicio) / 1000000 )) $(( (catalogo - inicio) / 1000000 ))"
+}
+
+reportar() {
+    local titulo="$1"; shift
+    local total_primera=0 total_catalogo=0 primera catalogo
+    for _ in $(seq "$MEDICIONES"); do
+        read -r primera catalogo < <(medir "$@")
+        total_primera=$((total_primera + primera))
+        total_catalogo=$((total_catalogo + catalogo))
+    done
+    printf '  %-28s primera respuesta %6d ms   catálogo %6d ms\n' "$titulo" \
+        $((total_primera / MEDICIONES)) $((total_catalogo / MEDICIONES))
+}
+
+if [ "$MEDICIONES" -gt 0 ]; then
+    if ! command -v curl > /dev/null; then
+        echo "No se mide el arranque: falta curl" >&2
+        exit 0
+    fi
+    echo "⏱  Arranque del servidor sobre data/ (promedio de $MEDICIONES):"
+    reportar "sin archivo de clases" -Xshare:auto -cp "$PAQUETE/tpfinal.jar"
+    reportar "con archivo de clases" -XX:SharedArchiveFile="$PAQUETE/tpfinal.jsa" -cp "$PAQUETE/tpfinal.jar"
+fi
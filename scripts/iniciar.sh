@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Inicia el sistema empaquetado por scripts/empaquetar.sh, con el archivo de clases compartidas si
+# está (si no, arranca igual, solo que más lento). Los argumentos pasan tal cual a Main:
+#
+#   scripts/iniciar.sh                      menú de consola
+#   scripts/iniciar.sh --servidor [puerto]  API HTTP
+#
+# Los datos (data/) y la bitácora (logs/) quedan en el directorio desde donde se lo llama.
+# Variables: JAVA_HOME (JDK 21 o posterior), JAVA_OPTS (opciones extra de la JVM).
+set -euo pipefail
+
+PAQUETE="$(cd "$(dirname "$0")/.." && pwd)/build/paquete"
+if [ -n "${JAVA_HOME:-}" ]; then BIN="$JAVA_HOME/bin/"; else BIN=""; fi
+
+if [ ! -f "$PAQUETE/tpfinal.jar" ]; then
+    echo "Falta el paquete: correr antes scripts/empaquetar.sh" >&2
+    exit 1
+fi
+
+OPCIONES=()
+if [ -f "$PAQUETE/tpfinal.jsa" ]; then
+    OPCIONES+=("-XX:SharedArchiveFile=$PAQUETE/tpfinal.jsa")
+fi
+
+# shellcheck disable=SC2086
+exec "${BIN}java" "${OPCIONES[@]}" ${JAVA_OPTS:-} -jar "$PAQUETE/tpfinal.jar" "$@"
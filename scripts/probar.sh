@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Compila el sistema y las pruebas de test/ (JUnit 5) en build/pruebas y las corre.
+#
+# Variables:
+#   JAVA_HOME     JDK 21 o posterior (por defecto, el java del PATH)
+#   JSON_JAR      jar de org.json (por defecto, el del repositorio local de Maven)
+#   JUNIT_JAR     jar junit-platform-console-standalone (por defecto, el del repositorio local de Maven)
+#
+# Los argumentos se pasan al lanzador de JUnit, por ejemplo para correr una sola clase:
+#   scripts/probar.sh --select-class usuarios.LimitadorIntentosTest
+set -euo pipefail
+
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+SALIDA="$RAIZ/build/pruebas"
+JSON_JAR="${JSON_JAR:-$HOME/.m2/repository/org/json/json/20250517/json-20250517.jar}"
+JUNIT_JAR="${JUNIT_JAR:-$HOME/.m2/repository/org/junit/platform/junit-platform-console-standalone/1.8.1/junit-platform-console-standalone-1.8.1.jar}"
+if [ -n "${JAVA_HOME:-}" ]; then BIN="$JAVA_HOME/bin/"; else BIN=""; fi
+
+if [ ! -f "$JSON_JAR" ]; then
+    echo "No se encontró el jar de org.json en $JSON_JAR (indicarlo con JSON_JAR=...)" >&2
+    exit 1
+fi
+if [ ! -f "$JUNIT_JAR" ]; then
+    echo "No se encontró junit-platform-console-standalone en $JUNIT_JAR (indicarlo con JUNIT_JAR=...)" >&2
+    exit 1
+fi
+
+# ---------------------- COMPILACION ----------------------
+rm -rf "$SALIDA"
+mkdir -p "$SALIDA"
+find "$RAIZ/src" "$RAIZ/test" -name "*.java" > "$SALIDA/fuentes.txt"
+"${BIN}javac" --release 21 -encoding UTF-8 -nowarn -d "$SALIDA" -cp "$JSON_JAR:$JUNIT_JAR" @"$SALIDA/fuentes.txt"
+rm "$SALIDA/fuentes.txt"
+
+# ---------------------- PRUEBAS ----------------------
+# Corren en un directorio aparte: así los datos que escriban no quedan en el proyecto
+TRABAJO="$(mktemp -d)"
+trap 'rm -rf "$TRABAJO"' EXIT
+if [ $# -eq 0 ]; then set -- --scan-classpath "$SALIDA"; fi
+cd "$TRABAJO"
+"${BIN}java" -jar "$JUNIT_JAR" --class-path "$SALIDA:$JSON_JAR" --disable-banner --details=tree "$@"
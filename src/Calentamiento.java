@@ -0,0 +1,168 @@
+import importacion.FormatoImportacion;
+import importacion.ImportadorCatalogo;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import productos.CategoriaProducto;
+import registro.Bitacora;
+import usuarios.Rol;
+import usuarios.vendedores.Vendedor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Ejercita los caminos del arranque y de las operaciones más usadas sobre datos de prueba, para
+ * armar el archivo de clases compartidas (AppCDS) del lanzador (ver scripts/empaquetar.sh).
+ *
+ * La JVM guarda en el archivo las clases que se cargaron mientras corría, ya verificadas y
+ * enlazadas; con el archivo, el próximo arranque las mapea en lugar de leerlas y verificarlas una
+ * por una (las de org.json, las del servidor HTTP y las de usuarios, productos y persistencia).
+ * Por eso acá se recorre todo lo que hace un arranque real: cargar el stock y los usuarios de
+ * archivo, levantar el servidor, iniciar sesión, importar y exportar el catálogo, comprar y vender.
+ *
+ * Los datos se generan en una carpeta temporal que se borra al terminar; no toca data/.
+ *
+ * Uso: java -XX:ArchiveClassesAtExit=tpfinal.jsa -jar tpfinal.jar --calentamiento [productos]
+ */
+public class Calentamiento {
+    private static final int PRODUCTOS_POR_DEFECTO = 2000;
+    private static final String PASSWORD = "Calentamiento123!";
+    private static final Bitacora BITACORA = Bitacora.de(Calentamiento.class);
+
+    public static void main(String[] args) throws Exception {
+        int productos = args.length > 0 ? Integer.parseInt(args[0]) : PRODUCTOS_POR_DEFECTO;
+        long inicio = System.nanoTime();
+        Path carpeta = Files.createTempDirectory("calentamiento");
+        try {
+            String archivoStock = new File(carpeta.toFile(), "stock.json").getPath();
+            String archivoUsuarios = new File(carpeta.toFile(), "usuarios.json").getPath();
+
+            // Primer arranque (sin archivos): se cargan los datos por la API, como en producción
+            SistemaComercio sistema = new SistemaComercio(archivoStock, archivoUsuarios);
+            // La API solo deja dar de alta vendedores a otro vendedor: el primero se registra desde acá, como en la consola
+            sistema.getSistemaAutenticacion().registrarUsuario(
+                    new Vendedor("Vera", "Calentamiento", "vendedor@calentamiento.local", Rol.VENDEDOR, 1, "10000001", 0.0), PASSWORD);
+            ServidorHTTP servidor = new ServidorHTTP(sistema);
+            servidor.iniciar(0);
+            try {
+                ejercitarServidor("http://localhost:" + servidor.getPuerto(), productos);
+            } finally {
+                servidor.detener();
+            }
+
+            // Segundo arranque: ahora el stock y los usuarios se leen de los archivos guardados
+            SistemaComercio reiniciado = new SistemaComercio(archivoStock, archivoUsuarios);
+            int disponibles = reiniciado.obtenerProductosDisponibles().size();
+            int usuarios = reiniciado.obtenerUsuarios().size();
+            reiniciado.exportarCatalogo(OutputStream.nullOutputStream(), FormatoImportacion.CSV);
+
+            BITACORA.info("calentamiento.completado", "Calentamiento terminado", "productos", disponibles, "usuarios", usuarios,
+                    "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
+            System.out.println("🔥 Calentamiento terminado: " + disponibles + " productos, " + usuarios + " usuarios, "
+                    + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        } finally {
+            borrar(carpeta);
+        }
+        // Los hilos del servidor y de la bitácora no frenan la salida (al salir se escribe el archivo de clases)
+        System.exit(0);
+    }
+
+    // ---------------------- OPERACIONES ----------------------
+    private static void ejercitarServidor(String base, int productos) throws IOException {
+        enviar(base, "POST", "/api/usuarios", null, new JSONObject().put("nombre", "Ciro").put("apellido", "Calentamiento")
+                .put("email", "cliente@calentamiento.local").put("dni", "10000002").put("rol", "CLIENTE").put("password", PASSWORD)
+                .put("direccion", "Calle 1").put("telefono", "1100000000").toString());
+        String vendedor = iniciarSesion(base, "vendedor@calentamiento.local");
+        enviar(base, "POST", "/api/usuarios", vendedor, new JSONObject().put("nombre", "Otto").put("apellido", "Calentamiento")
+                .put("email", "vendedor2@calentamiento.local").put("dni", "10000003").put("rol", "VENDEDOR").put("password", PASSWORD).toString());
+        String cliente = iniciarSesion(base, "cliente@calentamiento.local");
+
+        enviar(base, "POST", "/api/productos/importacion?formato=csv", vendedor, catalogoCsv(productos));
+        enviar(base, "GET", "/api/productos", null, null);
+        enviar(base, "GET", "/api/productos?nombre=Producto%201", null, null);
+        enviar(base, "GET", "/api/productos/1", null, null);
+        enviar(base, "GET", "/api/stock/1", null, null);
+        enviar(base, "POST", "/api/productos/1/precio", vendedor, new JSONObject().put("precio", 1234.5).toString());
+        enviar(base, "GET", "/api/productos/1/precios", null, null);
+
+        enviar(base, "POST", "/api/saldo", cliente, new JSONObject().put("monto", 1e9).toString());
+        for (int i = 0; i < 20; i++) {
+            enviar(base, "POST", "/api/compras", cliente, new JSONObject().put("producto", "Producto " + (i % productos))
+                    .put("cantidad", 1).toString());
+            JSONArray pedido = new JSONArray().put(new JSONObject().put("nombre", "Producto " + ((i + 7) % productos)).put("cantidad", 1));
+            enviar(base, "POST", "/api/ventas", vendedor, new JSONObject().put("cliente", "cliente@calentamiento.local")
+                    .put("productos", pedido).toString());
+        }
+
+        enviar(base, "GET", "/api/productos/exportacion?formato=jsonl", vendedor, null);
+        enviar(base, "GET", "/api/stock/reposicion", vendedor, null);
+        enviar(base, "GET", "/api/usuarios?rol=CLIENTE", vendedor, null);
+        enviar(base, "GET", "/api/analitica", vendedor, null);
+        enviar(base, "GET", "/api/metricas", vendedor, null);
+        enviar(base, "DELETE", "/api/sesion", cliente, null);
+    }
+
+    private static String iniciarSesion(String base, String email) throws IOException {
+        String respuesta = enviar(base, "POST", "/api/sesion", null, new JSONObject().put("email", email).put("password", PASSWORD).toString());
+        return new JSONObject(respuesta).getString("token");
+    }
+
+    private static String catalogoCsv(int productos) {
+        CategoriaProducto[] categorias = CategoriaProducto.values();
+        StringBuilder csv = new StringBuilder(String.join(",", ImportadorCatalogo.COLUMNAS)).append('\n');
+        for (int i = 0; i < productos; i++) {
+            csv.append("Producto ").append(i).append(",Producto de calentamiento ").append(i).append(',')
+                    .append(categorias[i % categorias.length].name()).append(',').append(1000 + i % 500).append(",Marca ")
+                    .append(i % 20).append(",Modelo ").append(i).append(",\"Color negro, 128gb\",").append(100).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Hace una petición al servidor. Las respuestas de error no cortan el calentamiento: lo que
+     * importa es recorrer el código, no el resultado
+     * @return el cuerpo de la respuesta
+     */
+    private static String enviar(String base, String metodo, String ruta, String token, String cuerpo) throws IOException {
+        HttpURLConnection conexion = (HttpURLConnection) URI.create(base + ruta).toURL().openConnection();
+        conexion.setRequestMethod(metodo);
+        if (token != null) {
+            conexion.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (cuerpo != null) {
+            conexion.setDoOutput(true);
+            try (OutputStream salida = conexion.getOutputStream()) {
+                salida.write(cuerpo.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int codigo = conexion.getResponseCode();
+        InputStream entrada = codigo < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+        ByteArrayOutputStream respuesta = new ByteArrayOutputStream();
+        if (entrada != null) {
+            try (InputStream cerrar = entrada) {
+                cerrar.transferTo(respuesta);
+            }
+        }
+        if (codigo >= 400) {
+            BITACORA.advertencia("calentamiento.respuestaError", "La petición de calentamiento respondió " + codigo,
+                    "metodo", metodo, "ruta", ruta, "codigo", codigo);
+        }
+        return respuesta.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void borrar(Path carpeta) throws IOException {
+        try (Stream<Path> archivos = Files.walk(carpeta)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+}
@@ -1,4 +1,14 @@
+import productos.CambioPrecio;
 import productos.CategoriaProducto;
+import productos.Producto;
+import inventario.CatalogoInstantanea;
+import inventario.ProyeccionAgotamiento;
+import inventario.Stock;
+import importacion.ImportadorCatalogo;
+import importacion.ResultadoImportacion;
+import ventas.DetalleVenta;
+import ventas.Venta;
+import descuentos.DescuentoMetodoPago;
 import usuarios.Usuario;
 import usuarios.clientes.Cliente;
 import usuarios.clientes.MetodoPago;
@@ -7,20 +17,42 @@ import excepciones.ProductoNoEncontradoException;
 import excepciones.StockInsuficienteException;
 import excepciones.SaldoInsuficienteException;
 import excepciones.UsuarioNoEncontradoException;
+import excepciones.ErrorPersistenciaException;
+import liquidaciones.Liquidacion;
+import liquidaciones.ReciboComision;
+import metricas.Metricas;
+import registro.AnotadorAsincrono;
+import registro.DestinoEventos;
+import registro.Evento;
+import registro.Nivel;
 
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
  * Clase que maneja la interfaz de usuario del sistema de comercio.
  * Proporciona una interfaz amigable para interactuar con todas las funcionalidades.
+ *
+ * Todo lo que se muestra por consola sale de acá: las clases del núcleo (Stock, Venta, Cliente,
+ * persistencia) no imprimen, emiten eventos en la bitácora. Las vistas de inventario, ventas,
+ * historial y descuentos están en la sección VISTAS, y DestinoConsola muestra las advertencias
+ * y errores de la bitácora.
  */
 public class InterfazUsuario {
+    private static final int DIAS_ALERTA_REPOSICION = 7;
     private SistemaComercio sistema;
     private Scanner scanner;
     private boolean sistemaActivo;
+    private boolean menuConInicioSesion; // si el último menú sin sesión ofrecía iniciar sesión
     
     // ---------------------- CONSTRUCTOR ----------------------
     public InterfazUsuario() {
+        // Antes de crear el sistema, así se ven los errores de carga de los archivos
+        AnotadorAsincrono.global().agregarDestino(new DestinoConsola(Nivel.ADVERTENCIA));
         this.sistema = new SistemaComercio();
         this.scanner = new Scanner(System.in);
         this.sistemaActivo = true;
@@ -69,7 +101,9 @@ public class InterfazUsuario {
         System.out.println("🔐 MENÚ PRINCIPAL");
         System.out.println("═══════════════════════════════════");
         
-        if (sistema.hayUsuariosRegistrados()) {
+        // Las opciones se numeran según este menú: procesarOpcionNoLogueado usa el mismo dato
+        menuConInicioSesion = sistema.hayUsuariosRegistrados();
+        if (menuConInicioSesion) {
             System.out.println("1. 🔑 Iniciar Sesión");
             System.out.println("2. 📝 Registrarse");
             System.out.println("3. ❌ Salir");
@@ -125,7 +159,9 @@ public class InterfazUsuario {
         System.out.println("4. 💰 Vender Productos");
         System.out.println("5. 📊 Ver Mis Ventas");
         System.out.println("6. 👥 Gestionar Usuarios");
-        System.out.println("7. 🚪 Cerrar Sesión");
+        System.out.println("7. 📈 Ver Métricas del Sistema");
+        System.out.println("8. 🧾 Liquidar Comisiones");
+        System.out.println("9. 🚪 Cerrar Sesión");
         System.out.println("═══════════════════════════════════");
     }
     
@@ -148,7 +184,7 @@ public class InterfazUsuario {
      * @param opcion opción elegida por el usuario no logueado
      * */
     private void procesarOpcionNoLogueado(int opcion) {
-        if (sistema.hayUsuariosRegistrados()) {
+        if (menuConInicioSesion) {
             // Menú con opción de iniciar sesión
             switch (opcion) {
                 case 1:
@@ -237,8 +273,7 @@ public class InterfazUsuario {
                 mostrarInfoVendedor();
                 break;
             case 2:
-                sistema.mostrarInventario();
-                pausar();
+                verStock();
                 break;
             case 3:
                 agregarProductoAlStock();
@@ -254,6 +289,14 @@ public class InterfazUsuario {
                 gestionarUsuarios();
                 break;
             case 7:
+                System.out.println("📈 MÉTRICAS DEL SISTEMA");
+                System.out.println(Metricas.aTexto());
+                pausar();
+                break;
+            case 8:
+                liquidarComisiones();
+                break;
+            case 9:
                 sistema.logout();
                 break;
             default:
@@ -323,11 +366,12 @@ public class InterfazUsuario {
                     double comision = solicitarNumero("Comisión por venta (%): ", "comision");
                     
                     usuario = new Vendedor(nombre, apellido, email, usuarios.Rol.VENDEDOR, 1, dni, salario);
-                    ((Vendedor) usuario).setComisionPorVenta(comision);
+                    ((Vendedor) usuario).cambiarComision(comision, Vendedor.VIGENCIA_INICIAL);
                 }
                 
                 if (usuario != null) {
                     if (sistema.registrarUsuario(usuario, password)) {
+                        System.out.println("✅ Usuario registrado exitosamente.");
                         registroExitoso = true;
                     }
                 }
@@ -577,6 +621,30 @@ public class InterfazUsuario {
         System.out.println(vendedor.toString());
         pausar();
     }
+
+    /**
+     * Liquida las comisiones de un mes (por defecto el anterior) y muestra los recibos
+     */
+    private void liquidarComisiones() {
+        System.out.println("🧾 LIQUIDAR COMISIONES");
+        System.out.println("═══════════════════════════════════");
+
+        YearMonth anterior = YearMonth.now().minusMonths(1);
+        System.out.print("Período a liquidar (AAAA-MM) [" + anterior + "]: ");
+        String periodoStr = scanner.nextLine().trim();
+        try {
+            YearMonth periodo = periodoStr.isEmpty() ? anterior : YearMonth.parse(periodoStr);
+            if (sistema.getMotorLiquidaciones().getLiquidacion(periodo) != null) {
+                System.out.println("ℹ️ El período ya estaba liquidado: se recalcula y reemplaza.");
+            }
+            mostrarLiquidacion(sistema.liquidarComisiones(periodo));
+        } catch (DateTimeParseException e) {
+            System.out.println("❌ Período inválido. Use el formato AAAA-MM.");
+        } catch (ErrorPersistenciaException e) {
+            System.out.println("❌ Error: " + e.getMessage());
+        }
+        pausar();
+    }
     
     /**
      * Proceso de compra para clientes
@@ -712,21 +780,22 @@ public class InterfazUsuario {
             System.out.print("Seleccione una opción: ");
             int opcion = Integer.parseInt(scanner.nextLine());
             
+            MetodoPago elegido = null;
             switch (opcion) {
                 case 1:
-                    cliente.cambiarMetodoPagoPorDefecto(MetodoPago.QR);
+                    elegido = MetodoPago.QR;
                     break;
                 case 2:
-                    cliente.cambiarMetodoPagoPorDefecto(MetodoPago.DEBITO);
+                    elegido = MetodoPago.DEBITO;
                     break;
                 case 3:
-                    cliente.cambiarMetodoPagoPorDefecto(MetodoPago.BILLETERA_VIRTUAL);
+                    elegido = MetodoPago.BILLETERA_VIRTUAL;
                     break;
                 case 4:
-                    cliente.cambiarMetodoPagoPorDefecto(MetodoPago.TARJETA_CREDITO);
+                    elegido = MetodoPago.TARJETA_CREDITO;
                     break;
                 case 5:
-                    cliente.cambiarMetodoPagoPorDefecto(MetodoPago.EFECTIVO);
+                    elegido = MetodoPago.EFECTIVO;
                     break;
                 case 0:
                     System.out.println("❌ Operación cancelada.");
@@ -734,6 +803,10 @@ public class InterfazUsuario {
                 default:
                     System.out.println("❌ Opción no válida.");
             }
+            if (elegido != null) {
+                cliente.cambiarMetodoPagoPorDefecto(elegido);
+                System.out.println("✅ Método de pago por defecto actualizado a: " + cliente.getMetodoPago());
+            }
         } catch (NumberFormatException e) {
             System.out.println("❌ Debe ingresar un número válido.");
             e.printStackTrace();
@@ -803,6 +876,8 @@ public class InterfazUsuario {
                     boolean procesada = sistema.procesarVenta(venta);
                     if (procesada) {
                         System.out.println("✅ Venta procesada exitosamente!");
+                        System.out.println("💰 Saldo restante del cliente: $" + String.format("%.2f", venta.getCliente().getSaldo()));
+                        mostrarDetallesVenta(venta);
                     } else {
                         System.out.println("❌ Error al procesar la venta.");
                     }
@@ -815,12 +890,46 @@ public class InterfazUsuario {
         pausar();
     }
 
+    /**
+     *  Muestra el inventario y permite exportar el catálogo a un archivo
+     * */
+    private void verStock() {
+        sistema.mostrarInventario();
+        System.out.print("\nPara exportar el catálogo ingrese la ruta del archivo (.csv o .jsonl), o Enter para volver: ");
+        String ruta = scanner.nextLine().trim();
+        if (ruta.isEmpty()) {
+            return;
+        }
+        try {
+            long exportados = sistema.exportarCatalogo(ruta);
+            System.out.println("✅ " + exportados + " productos exportados a " + ruta);
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo escribir el archivo: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ Error: " + e.getMessage());
+        }
+        pausar();
+    }
+
     /**
      *  Permite agregar productos al stock
      * */
     private void agregarProductoAlStock() {
         System.out.println("➕ AGREGAR PRODUCTO AL STOCK");
         System.out.println("═══════════════════════════════════");
+        System.out.println("1. Cargar un producto");
+        System.out.println("2. Importar catálogo de un proveedor (CSV o JSONL)");
+        System.out.println("3. Cambiar el precio de un producto");
+        System.out.print("Seleccione una opción [1]: ");
+        String modo = scanner.nextLine().trim();
+        if (modo.equals("2")) {
+            importarCatalogo();
+            return;
+        }
+        if (modo.equals("3")) {
+            cambiarPrecio();
+            return;
+        }
         
         try {
             // Solicitamos los datos del producto
@@ -886,6 +995,49 @@ public class InterfazUsuario {
         pausar();
     }
     
+    /**
+     *  Cambia el precio de un producto, mostrando antes sus precios anteriores
+     * */
+    private void cambiarPrecio() {
+        System.out.println("\n🏷️ CAMBIAR PRECIO");
+        String nombre = solicitarDato("Nombre del producto", "texto");
+        Producto producto = sistema.buscarProductoPorNombre(nombre);
+        if (producto == null) {
+            System.out.println("❌ Producto no encontrado: " + nombre);
+            pausar();
+            return;
+        }
+        mostrarHistorialPrecios(producto, sistema.getHistorialPrecios().getCambios(producto.getId(), null, null));
+
+        double precio = solicitarNumero("Precio nuevo: $", "precio");
+        try {
+            sistema.cambiarPrecio(producto.getId(), precio);
+            System.out.println("✅ Precio actualizado: " + producto.getNombre() + " | $" + String.format("%.2f", precio));
+        } catch (ProductoNoEncontradoException | IllegalArgumentException e) {
+            System.out.println("❌ Error: " + e.getMessage());
+        }
+        pausar();
+    }
+
+    /**
+     *  Importa en bloque los productos de un archivo de proveedor
+     * */
+    private void importarCatalogo() {
+        System.out.println("\n📦 IMPORTAR CATÁLOGO");
+        System.out.println("Columnas: " + String.join(", ", ImportadorCatalogo.COLUMNAS) + " (descripcion, especificaciones y cantidad son opcionales)");
+        System.out.println("Los productos con la misma marca y modelo que uno del stock se actualizan y suman la cantidad.");
+        System.out.print("Ruta del archivo (.csv o .jsonl): ");
+        String ruta = scanner.nextLine().trim();
+        try {
+            mostrarResultadoImportacion(sistema.importarCatalogo(ruta));
+        } catch (IOException e) {
+            System.out.println("❌ No se pudo leer el archivo: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ Error: " + e.getMessage());
+        }
+        pausar();
+    }
+    
     // ---------------------- METODOS DE GESTION DE USUARIOS (VENDEDOR) ----------------------
     
     /**
@@ -896,7 +1048,7 @@ public class InterfazUsuario {
         System.out.println("👥 GESTIÓN DE USUARIOS");
         System.out.println("═══════════════════════════════════");
         System.out.println("1. 📋 Listar Todos los Usuarios");
-        System.out.println("2. 🔍 Buscar Usuario por Email");
+        System.out.println("2. 🔍 Buscar Usuario (Email, DNI o ID)");
         System.out.println("3. ❌ Dar de Baja Usuario");
         System.out.println("4. ✅ Reactivar Usuario");
         System.out.println("5. ✏️ Modificar Usuario");
@@ -948,7 +1100,8 @@ public class InterfazUsuario {
     }
     
     /**
-     * Busca un usuario por email y muestra su información
+     * Busca un usuario por email, DNI o ID y muestra su información.
+     * Si el dato tiene "@" es un email, si tiene 8 dígitos es un DNI y si no es un ID
      */
     private void buscarUsuario() {
         limpiarPantalla();
@@ -956,18 +1109,27 @@ public class InterfazUsuario {
         System.out.println("═══════════════════════════════════");
         
         try {
-            System.out.print("Ingrese el email del usuario: ");
-            String email = scanner.nextLine().trim();
+            System.out.print("Ingrese el email, DNI o ID del usuario: ");
+            String dato = scanner.nextLine().trim();
             
-            if (email.isEmpty()) {
-                System.out.println("❌ El email no puede estar vacío.");
+            if (dato.isEmpty()) {
+                System.out.println("❌ El dato no puede estar vacío.");
                 pausar();
                 return;
             }
             
-            Usuario usuario = sistema.buscarUsuarioPorEmail(email);
+            Usuario usuario;
+            if (dato.contains("@")) {
+                usuario = sistema.buscarUsuarioPorEmail(dato);
+            } else if (validarDNI(dato)) {
+                usuario = sistema.buscarUsuarioPorDni(dato);
+            } else {
+                usuario = sistema.buscarUsuarioPorId(Integer.parseInt(dato));
+            }
             System.out.println("\n" + usuario.toString());
             
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Debe ingresar un email, un DNI de 8 dígitos o un ID numérico.");
         } catch (UsuarioNoEncontradoException e) {
             System.out.println("❌ Error: " + e.getMessage());
         } catch (Exception e) {
@@ -1001,7 +1163,9 @@ public class InterfazUsuario {
             String confirmacion = scanner.nextLine().toLowerCase();
             
             if (confirmacion.equals("s") || confirmacion.equals("si") || confirmacion.equals("sí")) {
-                sistema.darBajaUsuario(email);
+                if (sistema.darBajaUsuario(email)) {
+                    System.out.println("✅ Usuario dado de baja exitosamente: " + email);
+                }
             } else {
                 System.out.println("❌ Operación cancelada.");
             }
@@ -1035,7 +1199,9 @@ public class InterfazUsuario {
                 return;
             }
             
-            sistema.reactivarUsuario(email);
+            if (sistema.reactivarUsuario(email)) {
+                System.out.println("✅ Usuario reactivado exitosamente: " + email);
+            }
         } catch (UsuarioNoEncontradoException e) {
             System.out.println("❌ Error: " + e.getMessage());
         } catch (Exception e) {
@@ -1160,4 +1326,243 @@ public class InterfazUsuario {
         
         pausar();
     }
+
+    // ---------------------- VISTAS ----------------------
+    /**
+     * Muestra el inventario completo (el llamador tiene que tener tomado el lock de lectura del stock)
+     * @param stock stock a mostrar
+     */
+    static void mostrarInventario(Stock stock) {
+        System.out.println("📦 INVENTARIO DE PRODUCTOS");
+        System.out.println("═══════════════════════════════════");
+        System.out.println("📊 Total de productos: " + stock.getCantidadProductos());
+        System.out.println("📦 Stock total: " + stock.getStockTotal() + " unidades");
+        System.out.println("💰 Valor total: $" + String.format("%.2f", stock.getValorTotalInventario()));
+        System.out.println("🕒 Última actualización: " + stock.getUltimaActualizacion());
+        System.out.println("═══════════════════════════════════");
+
+        Map<Integer, Integer> inventario = stock.getInventario();
+        Map<Integer, Producto> productos = stock.getProductos();
+        if (inventario.isEmpty()) {
+            System.out.println("📭 No hay productos en el inventario.");
+        } else {
+            for (Map.Entry<Integer, Integer> entry : inventario.entrySet()) {
+                Producto producto = productos.get(entry.getKey());
+                if (producto != null) {
+                    System.out.println(String.format("📱 %s | Stock: %d | Precio: $%.2f%s",
+                        producto.getNombre(), entry.getValue(), producto.getPrecio(), entry.getValue() == 0 ? " | ❌ AGOTADO" : ""));
+                }
+            }
+        }
+
+        List<ProyeccionAgotamiento> porAgotarse = stock.getReposicion().proyectarAgotamiento(DIAS_ALERTA_REPOSICION, System.currentTimeMillis());
+        if (!porAgotarse.isEmpty()) {
+            System.out.println("═══════════════════════════════════");
+            System.out.println("⚠️ SE AGOTAN EN " + DIAS_ALERTA_REPOSICION + " DÍAS O MENOS:");
+            for (ProyeccionAgotamiento proyeccion : porAgotarse) {
+                Producto producto = productos.get(proyeccion.getProductoId());
+                System.out.println(String.format("  • %s | Stock: %d | Vende %.1f/día | Quedan %.1f días | Punto de reorden: %d",
+                    producto != null ? producto.getNombre() : "#" + proyeccion.getProductoId(), proyeccion.getCantidad(),
+                    proyeccion.getVelocidad(), proyeccion.getDiasRestantes(), proyeccion.getPuntoReorden()));
+            }
+        }
+    }
+
+    /**
+     * Muestra los productos activos con stock (el llamador tiene que tener tomado el lock de lectura del stock)
+     * @param stock stock a mostrar
+     */
+    static void mostrarProductosDisponibles(CatalogoInstantanea catalogo) {
+        List<Producto> disponibles = catalogo.obtenerProductosDisponibles();
+        System.out.println("🛍️ PRODUCTOS DISPONIBLES");
+        System.out.println("═══════════════════════════════════");
+
+        if (disponibles.isEmpty()) {
+            System.out.println("📭 No hay productos disponibles.");
+        } else {
+            for (Producto producto : disponibles) {
+                System.out.println(String.format("📱 %s | Stock: %d | Precio: $%.2f",
+                    producto.getNombre(), catalogo.obtenerCantidad(producto.getId()), producto.getPrecio()));
+            }
+        }
+    }
+
+    /**
+     * Muestra el detalle de una venta
+     * @param venta venta a mostrar
+     */
+    static void mostrarDetallesVenta(Venta venta) {
+        System.out.println("🧾 DETALLE DE VENTA #" + venta.getId());
+        System.out.println("═══════════════════════════════════");
+        System.out.println("👤 Cliente: " + venta.getCliente().getNombre() + " " + venta.getCliente().getApellido());
+        System.out.println("💼 Vendedor: " + venta.getVendedor().getNombre() + " " + venta.getVendedor().getApellido());
+        System.out.println("💳 Método de pago: " + (venta.getMetodoPago() != null ? venta.getMetodoPago() : "No especificado"));
+        System.out.println("📅 Fecha: " + venta.getFechaVenta());
+        System.out.println("📊 Estado: " + venta.getEstado());
+        System.out.println("═══════════════════════════════════");
+
+        if (venta.getDetalles().isEmpty()) {
+            System.out.println("📭 No hay productos en la venta.");
+        } else {
+            System.out.println("🛍️ PRODUCTOS:");
+            for (DetalleVenta detalle : venta.getDetalles()) {
+                System.out.println(String.format("  📱 %s x%d = $%.2f",
+                    detalle.getProducto().getNombre(),
+                    detalle.getCantidad(),
+                    detalle.getSubtotal()));
+            }
+
+            System.out.println("═══════════════════════════════════");
+            System.out.println(String.format("💰 Subtotal: $%.2f", venta.getSubtotal()));
+            if (venta.getDescuento() > 0) {
+                System.out.println(String.format("🎯 Descuento: -$%.2f", venta.getDescuento()));
+            }
+            System.out.println(String.format("💵 Total: $%.2f", venta.getTotal()));
+            System.out.println("═══════════════════════════════════");
+        }
+    }
+
+    /**
+     * Muestra el historial de compras de un cliente
+     * @param cliente cliente cuyo historial se muestra
+     */
+    static void mostrarHistorialCompras(Cliente cliente) {
+        System.out.println("🛍️ HISTORIAL DE COMPRAS:");
+        if (cliente.getHistorialCompras().isEmpty()) {
+            System.out.println("  No hay compras registradas.");
+        } else {
+            for (String compra : cliente.getHistorialCompras()) {
+                System.out.println("  • " + compra);
+            }
+        }
+    }
+
+    /**
+     * Muestra los recibos de una liquidación de comisiones
+     */
+    static void mostrarLiquidacion(Liquidacion liquidacion) {
+        System.out.println("🧾 LIQUIDACIÓN " + liquidacion.getPeriodo());
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        for (ReciboComision recibo : liquidacion.getRecibos()) {
+            System.out.printf("  %-30s %5d ventas  Vendido: $%.2f  Comisión: $%.2f  A cobrar: $%.2f%n",
+                recibo.getEmail(), recibo.getVentas(), recibo.getMontoVendido(), recibo.getComision(), recibo.getTotalACobrar());
+        }
+        System.out.println("═══════════════════════════════════════════════════════════════");
+        System.out.printf("  Total vendido: $%.2f | Total comisiones: $%.2f%n", liquidacion.getTotalVendido(), liquidacion.getTotalComisiones());
+    }
+
+    /**
+     * Muestra los cambios de precio de un producto
+     */
+    static void mostrarHistorialPrecios(Producto producto, List<CambioPrecio> cambios) {
+        System.out.println("🏷️ PRECIOS DE " + producto.getNombre() + " (actual: $" + String.format("%.2f", producto.getPrecio()) + ")");
+        System.out.println("═══════════════════════════════════");
+        for (CambioPrecio cambio : cambios) {
+            System.out.printf("  %s  $%.2f%n", cambio.getFecha().withNano(0), cambio.getPrecio());
+        }
+        System.out.println("═══════════════════════════════════");
+    }
+
+    /**
+     * Muestra el resumen de una importación de catálogo
+     */
+    static void mostrarResultadoImportacion(ResultadoImportacion resultado) {
+        System.out.println("📦 RESULTADO DE LA IMPORTACIÓN");
+        System.out.println("═══════════════════════════════════");
+        System.out.println("  Filas leídas:           " + resultado.getLeidas());
+        System.out.println("  ✅ Productos nuevos:     " + resultado.getCreados());
+        System.out.println("  🔄 Productos existentes: " + resultado.getActualizados());
+        System.out.println("  Unidades ingresadas:    " + resultado.getUnidadesIngresadas());
+        System.out.println("  Filas duplicadas:       " + resultado.getDuplicadas());
+        System.out.println("  ❌ Filas inválidas:      " + resultado.getInvalidas());
+        for (String error : resultado.getErrores()) {
+            System.out.println("     " + error);
+        }
+        if (resultado.getInvalidas() > resultado.getErrores().size()) {
+            System.out.println("     ... y " + (resultado.getInvalidas() - resultado.getErrores().size()) + " más");
+        }
+        System.out.println("  Duración: " + resultado.getDuracionMs() + " ms");
+        System.out.println("═══════════════════════════════════");
+    }
+
+    /**
+     * Muestra el descuento de cada método de pago
+     */
+    static void mostrarDescuentosDisponibles() {
+        System.out.println("💳 DESCUENTOS POR MÉTODO DE PAGO");
+        System.out.println("═══════════════════════════════════");
+
+        for (MetodoPago metodo : MetodoPago.values()) {
+            double descuento = DescuentoMetodoPago.obtenerDescuento(metodo);
+            if (descuento > 0) {
+                System.out.printf("%s %s: %.1f%% de descuento%n",
+                    obtenerEmojiMetodo(metodo), obtenerDescripcionMetodo(metodo), descuento);
+            } else {
+                System.out.printf("%s %s: Sin descuento%n",
+                    obtenerEmojiMetodo(metodo), obtenerDescripcionMetodo(metodo));
+            }
+        }
+        System.out.println("═══════════════════════════════════");
+    }
+
+    /**
+     * Obtiene el emoji correspondiente al método de pago
+     * @param metodo metodo de pago cuyo emoji queremos obtener
+     * @return el emoji correspondiente al método de pago
+     */
+    private static String obtenerEmojiMetodo(MetodoPago metodo) {
+        switch (metodo) {
+            case QR: return "📱";
+            case DEBITO: return "💳";
+            case TARJETA_CREDITO: return "💳";
+            case BILLETERA_VIRTUAL: return "📲";
+            case EFECTIVO: return "💵";
+            default: return "💰";
+        }
+    }
+
+    /**
+     * Obtiene la descripción del método de pago
+     * @param metodo metodo de pago cuya descripcion queremos obtener
+     * @return descripcion del metodo de pago especificado
+     */
+    private static String obtenerDescripcionMetodo(MetodoPago metodo) {
+        switch (metodo) {
+            case QR: return "Pago QR";
+            case DEBITO: return "Tarjeta de Débito";
+            case TARJETA_CREDITO: return "Tarjeta de Crédito";
+            case BILLETERA_VIRTUAL: return "Billetera Virtual";
+            case EFECTIVO: return "Efectivo";
+            default: return "Método no reconocido";
+        }
+    }
+
+    /**
+     * Muestra por consola los eventos de la bitácora desde un nivel mínimo, con el mismo formato
+     * que el resto de los mensajes de la interfaz
+     */
+    static class DestinoConsola implements DestinoEventos {
+        private final Nivel nivelMinimo;
+
+        DestinoConsola(Nivel nivelMinimo) {
+            this.nivelMinimo = nivelMinimo;
+        }
+
+        @Override
+        public void escribir(Evento evento) {
+            if (evento.getNivel().compareTo(nivelMinimo) < 0) {
+                return;
+            }
+            switch (evento.getNivel()) {
+                case ERROR:
+                    System.out.println("❌ " + evento.getMensaje());
+                    break;
+                case ADVERTENCIA:
+                    System.out.println("⚠️ " + evento.getMensaje());
+                    break;
+                default:
+                    System.out.println("ℹ️ " + evento.getMensaje());
+            }
+        }
+    }
 }
@@ -1,7 +1,34 @@
+import registro.AnotadorAsincrono;
+import registro.DestinoArchivo;
+import registro.Nivel;
+
+import java.util.Arrays;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         System.out.println("Dev by: Facu, Ivo y Agus :D");
+
+        // "--calentamiento [productos]" recorre el sistema sobre datos temporales (lo usa scripts/empaquetar.sh
+        // para armar el archivo de clases compartidas); no deja eventos en logs/
+        if (args.length > 0 && args[0].equals("--calentamiento")) {
+            Calentamiento.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Todos los eventos de la bitácora quedan en logs/eventos.jsonl (un JSON por línea)
+        AnotadorAsincrono.global().agregarDestino(new DestinoArchivo(DestinoArchivo.ARCHIVO_POR_DEFECTO));
+
+        // "--servidor [puerto]" levanta la API HTTP en lugar del menú de consola
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            int puerto = args.length > 1 ? Integer.parseInt(args[1]) : ServidorHTTP.PUERTO_POR_DEFECTO;
+            AnotadorAsincrono.global().agregarDestino(new InterfazUsuario.DestinoConsola(Nivel.ADVERTENCIA));
+            ServidorHTTP servidor = new ServidorHTTP(new SistemaComercio());
+            servidor.iniciar(puerto);
+            Runtime.getRuntime().addShutdownHook(new Thread(servidor::detener));
+            return;
+        }
+
         InterfazUsuario interfaz = new InterfazUsuario();
         interfaz.ejecutar();
     }
-}
\ No newline at end of file
+}
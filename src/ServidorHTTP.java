@@ -0,0 +1,926 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import analitica.Agrupacion;
+import analitica.FiltroLineas;
+import analitica.TotalGrupo;
+import liquidaciones.Liquidacion;
+import importacion.FormatoImportacion;
+import inventario.MonitorReposicion;
+import inventario.ProyeccionAgotamiento;
+import productos.CambioPrecio;
+import productos.CategoriaProducto;
+import productos.HistorialPrecios;
+import productos.Producto;
+import usuarios.PaginaUsuarios;
+import usuarios.Rol;
+import usuarios.SistemaAutenticacion;
+import usuarios.Usuario;
+import usuarios.clientes.Cliente;
+import usuarios.clientes.MetodoPago;
+import usuarios.vendedores.Vendedor;
+import ventas.Venta;
+import excepciones.CredencialesInvalidasException;
+import excepciones.DemasiadosIntentosException;
+import excepciones.PasswordInvalidaException;
+import excepciones.ProductoNoEncontradoException;
+import excepciones.SaldoInsuficienteException;
+import excepciones.StockInsuficienteException;
+import excepciones.UsuarioNoEncontradoException;
+import excepciones.UsuarioYaExisteException;
+import metricas.Metricas;
+import registro.Bitacora;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Servidor HTTP/JSON embebido que expone las operaciones del sistema de comercio:
+ * catálogo, stock, compras, ventas, saldo y gestión de usuarios.
+ *
+ * Cada petición se atiende en su propio hilo virtual, así miles de compradores conectados
+ * a la vez no ocupan miles de hilos del sistema operativo. Los hilos virtuales necesitan JDK 21,
+ * la versión mínima del proyecto (scripts/empaquetar.sh compila con --release 21 y lo verifica). En lugar del usuario actual global
+ * de la consola, cada petición se identifica con el token de sesión que devuelve el login,
+ * enviado en el header "Authorization: Bearer <token>". Las sesiones las administra
+ * SistemaAutenticacion y expiran por inactividad.
+ *
+ * ENDPOINTS:
+ *
+ * - POST   /api/sesion                       login {email, password} -> {token, usuario}
+ * - DELETE /api/sesion                       logout
+ * - GET    /api/productos[?nombre=...]       catálogo disponible o búsqueda por nombre
+ * - GET    /api/productos/{id}               detalle de un producto
+ * - GET    /api/productos/{id}/precios[?desde=&hasta=&en=]  cambios de precio del producto, y su precio en un momento
+ * - POST   /api/productos/{id}/precio        cambia el precio {precio}; queda en el historial (vendedor)
+ * - POST   /api/productos/importacion?formato=csv|jsonl  importación en bloque del catálogo de un proveedor;
+ *                                           el cuerpo es el archivo (vendedor)
+ * - GET    /api/productos/exportacion[?formato=jsonl|csv]  catálogo completo con cantidades, enviado a medida
+ *                                           que se recorre el stock (vendedor)
+ * - GET    /api/stock/{id}                   cantidad en stock de un producto
+ * - GET    /api/stock/reposicion[?dias=]     productos que se agotan en N días (por defecto 7) al ritmo de venta
+ *                                           actual, e ids bajo su punto de reorden (vendedor)
+ * - POST   /api/stock/{id}/reposicion        configura el punto de reorden {puntoReorden, plazoDias, stockSeguridad} (vendedor)
+ * - POST   /api/compras                      compra directa (cliente) {producto, cantidad, metodoPago}
+ * - POST   /api/ventas                       venta (vendedor) {cliente, metodoPago, productos: [{nombre, cantidad}]}
+ * - GET    /api/saldo                        saldo del cliente
+ * - POST   /api/saldo                        carga de saldo (cliente) {monto}
+ * - POST   /api/usuarios                     registro de cliente (sin sesión) o de vendedor (con sesión de vendedor)
+ * - GET    /api/usuarios[?rol=&q=&despues=&cantidad=]  una página de los usuarios de un rol (por defecto
+ *                                           clientes), filtrada por prefijo: {usuarios, siguiente}; la
+ *                                           página siguiente se pide con despues=siguiente (vendedor)
+ * - GET    /api/usuarios/{email}             detalle de un usuario (vendedor)
+ * - POST   /api/usuarios/{email}/baja        baja lógica (vendedor)
+ * - POST   /api/usuarios/{email}/reactivar   reactivación (vendedor)
+ * - GET    /api/analitica[?desde=&hasta=&top=]  ingresos por día (por defecto los últimos 30), categoría,
+ *                                           método de pago y vendedor, y productos más vendidos (vendedor)
+ * - GET    /api/analitica/lineas[?agrupar=&desde=&hasta=&metodoPago=&categoria=&marca=&vendedor=&producto=]
+ *                                           consulta sobre las líneas de venta: ingresos, unidades y líneas
+ *                                           agrupadas por PRODUCTO, CATEGORIA, MARCA, METODO_PAGO, VENDEDOR o DIA (vendedor)
+ * - POST   /api/liquidaciones                liquida (o vuelve a liquidar) las comisiones de un mes {periodo: "AAAA-MM"} (vendedor)
+ * - GET    /api/liquidaciones                períodos liquidados con sus totales (vendedor)
+ * - GET    /api/liquidaciones/{periodo}      recibos de un período liquidado (vendedor)
+ * - GET    /api/metricas[?formato=texto]     contadores y latencias (p50/p90/p99/p99.9) de las operaciones (vendedor)
+ *
+ * Cada endpoint registra además su propia latencia en Metricas ("http/api/...").
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - LinkedHashMap para los productos de una venta: mantiene el orden en que el vendedor
+ *   mandó los productos.
+ */
+public class ServidorHTTP {
+    public static final int PUERTO_POR_DEFECTO = 8080;
+    private static final int BACKLOG_CONEXIONES = 1024;
+    private static final String PREFIJO_TOKEN = "Bearer ";
+    private static final String REGEX_EMAIL = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,6}$";
+    private static final String REGEX_DNI = "^\\d{8}$";
+    private static final int PAGINA_POR_DEFECTO = 50;
+    private static final int PAGINA_MAXIMA = 500;
+    private static final int DIAS_REPOSICION_POR_DEFECTO = 7;
+    private static final int DIAS_ANALITICA_POR_DEFECTO = 30;
+    private static final int TOP_POR_DEFECTO = 10;
+    private static final int TOP_MAXIMO = 100;
+    // Los cuerpos JSON son chicos (un login, una venta): uno más grande se rechaza sin leerlo entero
+    private static final int MAXIMO_CUERPO_BYTES = 64 * 1024;
+    private static final Bitacora BITACORA = Bitacora.de(ServidorHTTP.class);
+
+    private final SistemaComercio sistema;
+    private final SistemaAutenticacion sistemaAutenticacion;
+    private HttpServer servidor;
+    private ExecutorService ejecutor;
+
+    /**
+     * Operación que atiende una petición y devuelve el cuerpo JSON de la respuesta
+     */
+    @FunctionalInterface
+    private interface Operacion {
+        Object ejecutar(HttpExchange intercambio) throws Exception;
+    }
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public ServidorHTTP(SistemaComercio sistema) {
+        this.sistema = sistema;
+        this.sistemaAutenticacion = sistema.getSistemaAutenticacion();
+    }
+
+    // ---------------------- CICLO DE VIDA ----------------------
+    /**
+     * Inicia el servidor en el puerto indicado
+     * @param puerto puerto donde escucha el servidor
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public void iniciar(int puerto) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress(puerto), BACKLOG_CONEXIONES);
+        ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(ejecutor);
+
+        servidor.createContext("/api/sesion", intercambio -> atender(intercambio, this::manejarSesion));
+        servidor.createContext("/api/productos", intercambio -> atender(intercambio, this::manejarProductos));
+        servidor.createContext("/api/stock", intercambio -> atender(intercambio, this::manejarStock));
+        servidor.createContext("/api/compras", intercambio -> atender(intercambio, this::manejarCompras));
+        servidor.createContext("/api/ventas", intercambio -> atender(intercambio, this::manejarVentas));
+        servidor.createContext("/api/saldo", intercambio -> atender(intercambio, this::manejarSaldo));
+        servidor.createContext("/api/usuarios", intercambio -> atender(intercambio, this::manejarUsuarios));
+        servidor.createContext("/api/analitica", intercambio -> atender(intercambio, this::manejarAnalitica));
+        servidor.createContext("/api/liquidaciones", intercambio -> atender(intercambio, this::manejarLiquidaciones));
+        servidor.createContext("/api/metricas", intercambio -> atender(intercambio, this::manejarMetricas));
+
+        servidor.start();
+        System.out.println("🌐 Servidor HTTP escuchando en el puerto " + getPuerto());
+    }
+
+    /**
+     * Detiene el servidor esperando como máximo un segundo a que terminen las peticiones en curso
+     */
+    public void detener() {
+        if (servidor != null) {
+            servidor.stop(1);
+        }
+        if (ejecutor != null) {
+            ejecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return el puerto donde escucha el servidor (el asignado por el sistema si se inició en el puerto 0)
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    // ---------------------- SESION ----------------------
+    private Object manejarSesion(HttpExchange intercambio) throws Exception {
+        switch (intercambio.getRequestMethod()) {
+            case "POST": {
+                JSONObject cuerpo = leerCuerpo(intercambio);
+                String origen = intercambio.getRemoteAddress().getAddress().getHostAddress();
+                String token = sistemaAutenticacion.iniciarSesion(cuerpo.optString("email", null), cuerpo.optString("password", null), origen);
+                Usuario usuario = sistemaAutenticacion.obtenerUsuarioDeSesion(token);
+
+                JSONObject respuesta = new JSONObject();
+                respuesta.put("token", token);
+                respuesta.put("usuario", usuarioAJson(usuario));
+                return respuesta;
+            }
+            case "DELETE": {
+                String token = obtenerToken(intercambio);
+                if (!sistemaAutenticacion.cerrarSesion(token)) {
+                    throw new CredencialesInvalidasException("No hay una sesión activa.");
+                }
+                return new JSONObject().put("mensaje", "Sesión cerrada.");
+            }
+            default:
+                throw new MetodoNoPermitidoException();
+        }
+    }
+
+    // ---------------------- CATALOGO Y STOCK ----------------------
+    private Object manejarProductos(HttpExchange intercambio) throws Exception {
+        String[] segmentos = segmentos(intercambio, "/api/productos");
+        if (segmentos.length == 1 && segmentos[0].equals("importacion")) {
+            exigirMetodo(intercambio, "POST");
+            exigirVendedor(intercambio);
+            String formato = parametros(intercambio).get("formato");
+            if (formato == null) {
+                throw new IllegalArgumentException("Debe indicar el formato del archivo: ?formato=csv o ?formato=jsonl");
+            }
+            // El archivo se lee a medida que llega, sin cargar el cuerpo entero en memoria
+            BufferedReader lector = new BufferedReader(new InputStreamReader(intercambio.getRequestBody(), StandardCharsets.UTF_8));
+            return sistema.importarCatalogo(lector, FormatoImportacion.desdeTexto(formato)).aJson();
+        }
+        if (segmentos.length == 2 && segmentos[1].equals("precio")) {
+            exigirMetodo(intercambio, "POST");
+            exigirVendedor(intercambio);
+            JSONObject cuerpo = leerCuerpo(intercambio);
+            if (!cuerpo.has("precio")) {
+                throw new IllegalArgumentException("Debe indicar el precio nuevo.");
+            }
+            int productoId = parsearId(segmentos[0]);
+            sistema.cambiarPrecio(productoId, cuerpo.getDouble("precio"));
+            return historialDePrecios(productoId, new HashMap<>());
+        }
+        if (segmentos.length == 2 && segmentos[1].equals("precios")) {
+            exigirMetodo(intercambio, "GET");
+            return historialDePrecios(parsearId(segmentos[0]), parametros(intercambio));
+        }
+        if (segmentos.length == 1 && segmentos[0].equals("exportacion")) {
+            exigirMetodo(intercambio, "GET");
+            exigirVendedor(intercambio);
+            exportarCatalogo(intercambio, parametros(intercambio).getOrDefault("formato", "jsonl"));
+            return null;
+        }
+        exigirMetodo(intercambio, "GET");
+
+        if (segmentos.length == 1) {
+            int productoId = parsearId(segmentos[0]);
+            Producto producto = sistema.buscarProductoPorId(productoId);
+            if (producto == null) {
+                throw new ProductoNoEncontradoException("Producto no encontrado con ID: " + productoId, productoId);
+            }
+            return productoAJson(producto);
+        }
+
+        String nombre = parametros(intercambio).get("nombre");
+        if (nombre != null) {
+            Producto producto = sistema.buscarProductoPorNombre(nombre);
+            if (producto == null) {
+                throw new ProductoNoEncontradoException("Producto no encontrado: " + nombre, -1);
+            }
+            return productoAJson(producto);
+        }
+
+        JSONArray productos = new JSONArray();
+        for (Producto producto : sistema.obtenerProductosDisponibles()) {
+            productos.put(productoAJson(producto));
+        }
+        return productos;
+    }
+
+    /**
+     * Historial de precios de un producto: los cambios entre desde y hasta (fechas AAAA-MM-DD,
+     * inclusive) y, si se pide "en" (AAAA-MM-DDTHH:MM[:SS]), el precio que tenía en ese momento
+     */
+    private JSONObject historialDePrecios(int productoId, Map<String, String> parametros) throws ProductoNoEncontradoException {
+        Producto producto = sistema.buscarProductoPorId(productoId);
+        if (producto == null) {
+            throw new ProductoNoEncontradoException("Producto no encontrado con ID: " + productoId, productoId);
+        }
+        HistorialPrecios historial = sistema.getHistorialPrecios();
+        LocalDateTime desde = parametros.containsKey("desde") ? parsearFecha(parametros.get("desde")).atStartOfDay() : null;
+        LocalDateTime hasta = parametros.containsKey("hasta") ? parsearFecha(parametros.get("hasta")).atTime(LocalTime.MAX) : null;
+
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("productoId", productoId);
+        respuesta.put("precioActual", producto.getPrecio());
+        respuesta.put("versionCatalogo", historial.getVersion());
+        if (parametros.containsKey("en")) {
+            LocalDateTime en = parsearFechaHora(parametros.get("en"));
+            double precio = historial.getPrecioEn(productoId, en);
+            respuesta.put("en", en.toString());
+            respuesta.put("precioEn", Double.isNaN(precio) ? JSONObject.NULL : precio);
+        }
+        JSONArray cambios = new JSONArray();
+        for (CambioPrecio cambio : historial.getCambios(productoId, desde, hasta)) {
+            cambios.put(cambio.aJson());
+        }
+        respuesta.put("cambios", cambios);
+        return respuesta;
+    }
+
+    /**
+     * Manda el catálogo a medida que se exporta (respuesta sin largo fijo), sin armarlo antes en memoria.
+     * Si el cliente lee despacio, la escritura espera y el exportador con ella
+     */
+    private void exportarCatalogo(HttpExchange intercambio, String textoFormato) throws IOException {
+        FormatoImportacion formato = FormatoImportacion.desdeTexto(textoFormato);
+        String tipo = formato == FormatoImportacion.CSV ? "text/csv; charset=utf-8" : "application/x-ndjson; charset=utf-8";
+        intercambio.getResponseHeaders().set("Content-Type", tipo);
+        intercambio.sendResponseHeaders(200, 0);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            sistema.exportarCatalogo(salida, formato);
+        }
+    }
+
+    private Object manejarStock(HttpExchange intercambio) throws Exception {
+        String[] segmentos = segmentos(intercambio, "/api/stock");
+        if (segmentos.length == 1 && segmentos[0].equals("reposicion")) {
+            exigirMetodo(intercambio, "GET");
+            exigirVendedor(intercambio);
+            return reporteReposicion(parametros(intercambio));
+        }
+        if (segmentos.length == 2 && segmentos[1].equals("reposicion")) {
+            exigirMetodo(intercambio, "POST");
+            exigirVendedor(intercambio);
+            JSONObject cuerpo = leerCuerpo(intercambio);
+            sistema.configurarReposicion(parsearId(segmentos[0]),
+                    cuerpo.optInt("puntoReorden", MonitorReposicion.SIN_PUNTO_FIJO),
+                    cuerpo.optDouble("plazoDias", MonitorReposicion.PLAZO_REPOSICION_DIAS_POR_DEFECTO),
+                    cuerpo.optInt("stockSeguridad", 0));
+            return new JSONObject().put("mensaje", "Punto de reorden configurado.");
+        }
+        exigirMetodo(intercambio, "GET");
+        if (segmentos.length != 1) {
+            throw new IllegalArgumentException("Debe indicar el ID del producto: /api/stock/{id}");
+        }
+
+        int productoId = parsearId(segmentos[0]);
+        if (sistema.buscarProductoPorId(productoId) == null) {
+            throw new ProductoNoEncontradoException("Producto no encontrado con ID: " + productoId, productoId);
+        }
+
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("productoId", productoId);
+        respuesta.put("cantidad", sistema.obtenerCantidad(productoId));
+        return respuesta;
+    }
+
+    private JSONObject reporteReposicion(Map<String, String> parametros) {
+        int dias = parametros.containsKey("dias") ? parsearEntero(parametros.get("dias")) : DIAS_REPOSICION_POR_DEFECTO;
+        JSONArray proyecciones = new JSONArray();
+        for (ProyeccionAgotamiento proyeccion : sistema.proyectarAgotamiento(dias)) {
+            Producto producto = sistema.buscarProductoPorId(proyeccion.getProductoId());
+            proyecciones.put(proyeccion.aJson().put("nombre", producto != null ? producto.getNombre() : JSONObject.NULL));
+        }
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("dias", dias);
+        respuesta.put("seAgotan", proyecciones);
+        respuesta.put("bajoPuntoReorden", new JSONArray(sistema.getProductosBajoPuntoReorden()));
+        return respuesta;
+    }
+
+    // ---------------------- COMPRAS, VENTAS Y SALDO ----------------------
+    private Object manejarCompras(HttpExchange intercambio) throws Exception {
+        exigirMetodo(intercambio, "POST");
+        Cliente cliente = exigirCliente(intercambio);
+        JSONObject cuerpo = leerCuerpo(intercambio);
+
+        String nombreProducto = cuerpo.getString("producto");
+        int cantidad = cuerpo.getInt("cantidad");
+        MetodoPago metodoPago = parsearMetodoPago(cuerpo.optString("metodoPago", null));
+
+        double totalPagado = sistema.comprarProducto(cliente, nombreProducto, cantidad, metodoPago);
+
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("producto", nombreProducto);
+        respuesta.put("cantidad", cantidad);
+        respuesta.put("totalPagado", totalPagado);
+        respuesta.put("saldoRestante", cliente.getSaldo());
+        return respuesta;
+    }
+
+    private Object manejarVentas(HttpExchange intercambio) throws Exception {
+        exigirMetodo(intercambio, "POST");
+        Vendedor vendedor = exigirVendedor(intercambio);
+        JSONObject cuerpo = leerCuerpo(intercambio);
+
+        Usuario usuario = sistemaAutenticacion.buscarUsuarioPorEmail(cuerpo.getString("cliente"));
+        if (!(usuario instanceof Cliente)) {
+            throw new IllegalArgumentException("El usuario indicado no es un Cliente.");
+        }
+        MetodoPago metodoPago = parsearMetodoPago(cuerpo.optString("metodoPago", null));
+
+        Map<String, Integer> productosPedidos = new LinkedHashMap<>();
+        JSONArray productosJson = cuerpo.getJSONArray("productos");
+        for (int i = 0; i < productosJson.length(); i++) {
+            JSONObject item = productosJson.getJSONObject(i);
+            productosPedidos.merge(item.getString("nombre"), item.getInt("cantidad"), Integer::sum);
+        }
+
+        Venta venta = sistema.venderProductos(vendedor, (Cliente) usuario, metodoPago, productosPedidos);
+
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("ventaId", venta.getId());
+        respuesta.put("subtotal", venta.getSubtotal());
+        respuesta.put("descuento", venta.getDescuento());
+        respuesta.put("total", venta.getTotal());
+        respuesta.put("estado", venta.getEstado());
+        return respuesta;
+    }
+
+    private Object manejarSaldo(HttpExchange intercambio) throws Exception {
+        Cliente cliente = exigirCliente(intercambio);
+        switch (intercambio.getRequestMethod()) {
+            case "GET":
+                return new JSONObject().put("saldo", cliente.getSaldo());
+            case "POST": {
+                double monto = leerCuerpo(intercambio).getDouble("monto");
+                double saldo = sistema.agregarSaldo(cliente, monto);
+                return new JSONObject().put("saldo", saldo);
+            }
+            default:
+                throw new MetodoNoPermitidoException();
+        }
+    }
+
+    // ---------------------- USUARIOS ----------------------
+    private Object manejarUsuarios(HttpExchange intercambio) throws Exception {
+        String[] segmentos = segmentos(intercambio, "/api/usuarios");
+        String metodo = intercambio.getRequestMethod();
+
+        // El registro es la única operación que no necesita sesión (solo para clientes)
+        if (segmentos.length == 0 && metodo.equals("POST")) {
+            return registrarUsuario(intercambio, leerCuerpo(intercambio));
+        }
+
+        Vendedor vendedor = exigirVendedor(intercambio);
+
+        if (segmentos.length == 0 && metodo.equals("GET")) {
+            Map<String, String> parametros = parametros(intercambio);
+            Rol rol = Rol.valueOf(parametros.getOrDefault("rol", "CLIENTE").toUpperCase());
+            int cantidad = Math.min(PAGINA_MAXIMA, parsearEntero(parametros.getOrDefault("cantidad", String.valueOf(PAGINA_POR_DEFECTO))));
+            String despues = parametros.containsKey("despues") ? decodificarPosicion(parametros.get("despues")) : null;
+            PaginaUsuarios pagina = sistemaAutenticacion.buscarUsuarios(rol, parametros.get("q"), despues, cantidad);
+
+            JSONArray usuarios = new JSONArray();
+            for (Usuario usuario : pagina.getUsuarios()) {
+                usuarios.put(usuarioAJson(usuario));
+            }
+            JSONObject respuesta = new JSONObject();
+            respuesta.put("usuarios", usuarios);
+            respuesta.put("siguiente", pagina.getSiguiente() == null ? JSONObject.NULL : codificarPosicion(pagina.getSiguiente()));
+            return respuesta;
+        }
+        if (segmentos.length == 1 && metodo.equals("GET")) {
+            return usuarioAJson(sistemaAutenticacion.buscarUsuarioPorEmail(segmentos[0]));
+        }
+        if (segmentos.length == 2 && metodo.equals("POST")) {
+            String email = segmentos[0];
+            switch (segmentos[1]) {
+                case "baja":
+                    sistemaAutenticacion.darBajaUsuario(email, vendedor);
+                    return usuarioAJson(sistemaAutenticacion.buscarUsuarioPorEmail(email));
+                case "reactivar":
+                    sistemaAutenticacion.reactivarUsuario(email);
+                    return usuarioAJson(sistemaAutenticacion.buscarUsuarioPorEmail(email));
+                default:
+                    throw new IllegalArgumentException("Acción desconocida: " + segmentos[1]);
+            }
+        }
+        throw new MetodoNoPermitidoException();
+    }
+
+    /**
+     * Registra un usuario a partir del cuerpo JSON de la petición. Cualquiera puede registrarse como
+     * cliente; un vendedor (que elige su salario y comisión y accede a las operaciones de vendedor)
+     * solo lo puede dar de alta otro vendedor con sesión iniciada
+     * @param intercambio petición HTTP (para validar la sesión al registrar un vendedor)
+     * @param cuerpo datos del usuario a registrar
+     * @return el usuario registrado en formato JSON
+     * @throws CredencialesInvalidasException si se pide un vendedor sin sesión de vendedor
+     */
+    private JSONObject registrarUsuario(HttpExchange intercambio, JSONObject cuerpo)
+            throws UsuarioYaExisteException, PasswordInvalidaException, CredencialesInvalidasException {
+        String nombre = cuerpo.getString("nombre").trim();
+        String apellido = cuerpo.getString("apellido").trim();
+        String email = cuerpo.getString("email").trim();
+        String dni = cuerpo.getString("dni").trim();
+        String password = cuerpo.getString("password");
+
+        if (!email.matches(REGEX_EMAIL)) {
+            throw new IllegalArgumentException("Formato de email inválido. Use el formato: usuario@dominio.com");
+        }
+        if (!dni.matches(REGEX_DNI)) {
+            throw new IllegalArgumentException("DNI inválido. Debe contener exactamente 8 dígitos numéricos.");
+        }
+
+        Usuario usuario;
+        Rol rol = Rol.valueOf(cuerpo.optString("rol", "CLIENTE").toUpperCase());
+        if (rol != Rol.CLIENTE) {
+            exigirVendedor(intercambio);
+        }
+        if (rol == Rol.CLIENTE) {
+            usuario = new Cliente(nombre, apellido, email, Rol.CLIENTE, 1, dni, 0, MetodoPago.EFECTIVO, 0.0, cuerpo.optString("direccion", ""), cuerpo.optString("telefono", ""));
+        } else {
+            double comision = cuerpo.optDouble("comision", 0.0);
+            if (comision < 0 || comision > 100) {
+                throw new IllegalArgumentException("La comisión debe estar entre 0 y 100.");
+            }
+            Vendedor vendedor = new Vendedor(nombre, apellido, email, Rol.VENDEDOR, 1, dni, cuerpo.optDouble("salario", 0.0));
+            vendedor.cambiarComision(comision, Vendedor.VIGENCIA_INICIAL);
+            usuario = vendedor;
+        }
+
+        sistemaAutenticacion.registrarUsuario(usuario, password);
+        return usuarioAJson(usuario);
+    }
+
+    // ---------------------- ANALITICA ----------------------
+    private Object manejarAnalitica(HttpExchange intercambio) throws Exception {
+        exigirMetodo(intercambio, "GET");
+        exigirVendedor(intercambio);
+        String[] segmentos = segmentos(intercambio, "/api/analitica");
+        if (segmentos.length == 1 && segmentos[0].equals("lineas")) {
+            return consultarLineas(parametros(intercambio));
+        }
+        if (segmentos.length != 0) {
+            throw new IllegalArgumentException("Ruta de analítica desconocida.");
+        }
+        Map<String, String> parametros = parametros(intercambio);
+        LocalDate hasta = parametros.containsKey("hasta") ? parsearFecha(parametros.get("hasta")) : LocalDate.now();
+        LocalDate desde = parametros.containsKey("desde") ? parsearFecha(parametros.get("desde")) : hasta.minusDays(DIAS_ANALITICA_POR_DEFECTO - 1);
+        int top = Math.min(parametros.containsKey("top") ? parsearEntero(parametros.get("top")) : TOP_POR_DEFECTO, TOP_MAXIMO);
+
+        JSONObject respuesta = sistema.getAnaliticaVentas().aJson(desde, hasta, top);
+        JSONArray masVendidos = respuesta.getJSONArray("masVendidos");
+        for (int i = 0; i < masVendidos.length(); i++) {
+            JSONObject item = masVendidos.getJSONObject(i);
+            Producto producto = sistema.buscarProductoPorId(item.getInt("productoId"));
+            item.put("nombre", producto != null ? producto.getNombre() : JSONObject.NULL);
+        }
+        return respuesta;
+    }
+
+    private JSONObject consultarLineas(Map<String, String> parametros) {
+        Agrupacion agrupacion = Agrupacion.valueOf(parametros.getOrDefault("agrupar", "NINGUNA").toUpperCase());
+        FiltroLineas filtro = new FiltroLineas();
+        if (parametros.containsKey("desde")) {
+            filtro.setDesde(parsearFecha(parametros.get("desde")));
+        }
+        if (parametros.containsKey("hasta")) {
+            filtro.setHasta(parsearFecha(parametros.get("hasta")));
+        }
+        if (parametros.containsKey("metodoPago")) {
+            filtro.setMetodoPago(parsearMetodoPago(parametros.get("metodoPago")));
+        }
+        if (parametros.containsKey("categoria")) {
+            filtro.setCategoria(CategoriaProducto.valueOf(parametros.get("categoria").toUpperCase()));
+        }
+        filtro.setMarca(parametros.get("marca"));
+        filtro.setVendedor(parametros.get("vendedor"));
+        if (parametros.containsKey("producto")) {
+            filtro.setProductoId(parsearId(parametros.get("producto")));
+        }
+
+        JSONArray grupos = new JSONArray();
+        for (TotalGrupo grupo : sistema.getAnaliticaVentas().getLineas().agrupar(agrupacion, filtro)) {
+            grupos.put(grupo.aJson());
+        }
+        JSONObject respuesta = new JSONObject();
+        respuesta.put("agrupacion", agrupacion.name());
+        respuesta.put("grupos", grupos);
+        return respuesta;
+    }
+
+    // ---------------------- LIQUIDACIONES ----------------------
+    private Object manejarLiquidaciones(HttpExchange intercambio) throws Exception {
+        exigirVendedor(intercambio);
+        String[] segmentos = segmentos(intercambio, "/api/liquidaciones");
+        String metodo = intercambio.getRequestMethod();
+
+        if (segmentos.length == 0 && metodo.equals("POST")) {
+            YearMonth periodo = parsearPeriodo(leerCuerpo(intercambio).optString("periodo", null));
+            return sistema.liquidarComisiones(periodo).aJson();
+        }
+        if (segmentos.length == 0 && metodo.equals("GET")) {
+            JSONArray periodos = new JSONArray();
+            for (Liquidacion liquidacion : sistema.getMotorLiquidaciones().getLiquidaciones().values()) {
+                JSONObject resumen = liquidacion.aJson();
+                resumen.remove("recibos");
+                periodos.put(resumen);
+            }
+            return new JSONObject().put("liquidaciones", periodos);
+        }
+        if (segmentos.length == 1 && metodo.equals("GET")) {
+            YearMonth periodo = parsearPeriodo(segmentos[0]);
+            Liquidacion liquidacion = sistema.getMotorLiquidaciones().getLiquidacion(periodo);
+            if (liquidacion == null) {
+                throw new RecursoNoEncontradoException("El período " + periodo + " no está liquidado.");
+            }
+            return liquidacion.aJson();
+        }
+        throw new MetodoNoPermitidoException();
+    }
+
+    // ---------------------- METRICAS ----------------------
+    private Object manejarMetricas(HttpExchange intercambio) throws Exception {
+        exigirMetodo(intercambio, "GET");
+        exigirVendedor(intercambio);
+        if ("texto".equals(parametros(intercambio).get("formato"))) {
+            return Metricas.aTexto();
+        }
+        return Metricas.instantanea();
+    }
+
+    // ---------------------- AUTORIZACION ----------------------
+    /**
+     * Obtiene el usuario de la sesión de la petición
+     * @param intercambio petición HTTP
+     * @return el usuario dueño del token
+     * @throws CredencialesInvalidasException si no hay token o la sesión no existe o expiró
+     */
+    private Usuario usuarioDeSesion(HttpExchange intercambio) throws CredencialesInvalidasException {
+        String token = obtenerToken(intercambio);
+        Usuario usuario = sistemaAutenticacion.obtenerUsuarioDeSesion(token);
+        if (usuario == null) {
+            throw new CredencialesInvalidasException("Debe iniciar sesión para realizar esta operación.");
+        }
+        if (usuario.getEstado() == 0) {
+            sistemaAutenticacion.cerrarSesion(token);
+            throw new CredencialesInvalidasException("El usuario está inactivo. Contacte al administrador.");
+        }
+        return usuario;
+    }
+
+    private Cliente exigirCliente(HttpExchange intercambio) throws CredencialesInvalidasException {
+        Usuario usuario = usuarioDeSesion(intercambio);
+        if (!(usuario instanceof Cliente)) {
+            throw new SecurityException("Solo los clientes pueden realizar esta operación.");
+        }
+        return (Cliente) usuario;
+    }
+
+    private Vendedor exigirVendedor(HttpExchange intercambio) throws CredencialesInvalidasException {
+        Usuario usuario = usuarioDeSesion(intercambio);
+        if (!(usuario instanceof Vendedor)) {
+            throw new SecurityException("Solo los vendedores pueden realizar esta operación.");
+        }
+        return (Vendedor) usuario;
+    }
+
+    private String obtenerToken(HttpExchange intercambio) {
+        String header = intercambio.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith(PREFIJO_TOKEN)) {
+            return null;
+        }
+        return header.substring(PREFIJO_TOKEN.length()).trim();
+    }
+
+    // ---------------------- ATENCION DE PETICIONES ----------------------
+    /**
+     * Ejecuta una operación y traduce su resultado (o su excepción) a una respuesta HTTP
+     * @param intercambio petición HTTP
+     * @param operacion operación a ejecutar
+     */
+    private void atender(HttpExchange intercambio, Operacion operacion) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = operacion.ejecutar(intercambio);
+            // Las respuestas que se mandan a medida que se generan (la exportación) ya están enviadas
+            if (intercambio.getResponseCode() == -1) {
+                responder(intercambio, 200, resultado);
+            }
+        } catch (MetodoNoPermitidoException e) {
+            responderError(intercambio, 405, "Método no permitido: " + intercambio.getRequestMethod());
+        } catch (CuerpoDemasiadoGrandeException e) {
+            responderError(intercambio, 413, e.getMessage());
+        } catch (DemasiadosIntentosException e) {
+            intercambio.getResponseHeaders().set("Retry-After", String.valueOf(e.getSegundosEspera()));
+            responderError(intercambio, 429, e.getMessage());
+        } catch (CredencialesInvalidasException e) {
+            responderError(intercambio, 401, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            responderError(intercambio, 503, e.getMessage());
+        } catch (SecurityException e) {
+            responderError(intercambio, 403, e.getMessage());
+        } catch (ProductoNoEncontradoException | UsuarioNoEncontradoException | RecursoNoEncontradoException e) {
+            responderError(intercambio, 404, e.getMessage());
+        } catch (StockInsuficienteException | SaldoInsuficienteException | UsuarioYaExisteException | IllegalStateException e) {
+            responderError(intercambio, 409, e.getMessage());
+        } catch (PasswordInvalidaException | JSONException | IllegalArgumentException e) {
+            responderError(intercambio, 400, e.getMessage());
+        } catch (Exception e) {
+            BITACORA.error("http.errorInesperado", "Error inesperado atendiendo " + intercambio.getRequestURI() + ": " + e.getMessage(), e,
+                    "metodo", intercambio.getRequestMethod(), "ruta", intercambio.getRequestURI().getPath());
+            responderError(intercambio, 500, "Error interno del servidor.");
+        } finally {
+            intercambio.close();
+            Metricas.temporizador("http" + intercambio.getHttpContext().getPath()).registrarDesde(inicio);
+        }
+    }
+
+    private void responder(HttpExchange intercambio, int estado, Object cuerpo) throws IOException {
+        byte[] bytes = String.valueOf(cuerpo).getBytes(StandardCharsets.UTF_8);
+        // Las operaciones devuelven JSON; un String es texto plano (por ejemplo, las métricas en formato texto)
+        String tipo = cuerpo instanceof String ? "text/plain; charset=utf-8" : "application/json; charset=utf-8";
+        intercambio.getResponseHeaders().set("Content-Type", tipo);
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    private void responderError(HttpExchange intercambio, int estado, String mensaje) throws IOException {
+        if (intercambio.getResponseCode() != -1) {
+            // La respuesta ya se empezó a mandar (un error a mitad de una exportación): solo queda cortarla
+            return;
+        }
+        responder(intercambio, estado, new JSONObject().put("error", mensaje != null ? mensaje : "Error"));
+    }
+
+    // ---------------------- METODOS DE UTILIDAD ----------------------
+    /**
+     * Lee el cuerpo JSON de la petición, de hasta MAXIMO_CUERPO_BYTES. Se lee como mucho un byte más
+     * del máximo, así un cuerpo enorme no llega a ocupar memoria
+     * @throws CuerpoDemasiadoGrandeException si el cuerpo supera el máximo
+     */
+    private JSONObject leerCuerpo(HttpExchange intercambio) throws IOException, CuerpoDemasiadoGrandeException {
+        String largo = intercambio.getRequestHeaders().getFirst("Content-Length");
+        if (largo != null) {
+            try {
+                if (Long.parseLong(largo.trim()) > MAXIMO_CUERPO_BYTES) {
+                    throw new CuerpoDemasiadoGrandeException();
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Content-Length inválido: " + largo);
+            }
+        }
+        byte[] bytes = intercambio.getRequestBody().readNBytes(MAXIMO_CUERPO_BYTES + 1);
+        if (bytes.length > MAXIMO_CUERPO_BYTES) {
+            throw new CuerpoDemasiadoGrandeException();
+        }
+        String texto = new String(bytes, StandardCharsets.UTF_8);
+        return texto.isBlank() ? new JSONObject() : new JSONObject(texto);
+    }
+
+    private void exigirMetodo(HttpExchange intercambio, String metodo) throws MetodoNoPermitidoException {
+        if (!intercambio.getRequestMethod().equals(metodo)) {
+            throw new MetodoNoPermitidoException();
+        }
+    }
+
+    /**
+     * Obtiene las partes de la ruta que siguen al contexto. Por ejemplo, para
+     * "/api/usuarios/juan@x.com/baja" con contexto "/api/usuarios" devuelve ["juan@x.com", "baja"]
+     */
+    private String[] segmentos(HttpExchange intercambio, String contexto) {
+        String resto = intercambio.getRequestURI().getPath().substring(contexto.length());
+        if (resto.startsWith("/")) {
+            resto = resto.substring(1);
+        }
+        if (resto.endsWith("/")) {
+            resto = resto.substring(0, resto.length() - 1);
+        }
+        return resto.isEmpty() ? new String[0] : resto.split("/");
+    }
+
+    private Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> parametros = new HashMap<>();
+        String query = intercambio.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parametros;
+        }
+        for (String par : query.split("&")) {
+            int separador = par.indexOf('=');
+            if (separador > 0) {
+                String clave = URLDecoder.decode(par.substring(0, separador), StandardCharsets.UTF_8);
+                String valor = URLDecoder.decode(par.substring(separador + 1), StandardCharsets.UTF_8);
+                parametros.put(clave, valor);
+            }
+        }
+        return parametros;
+    }
+
+    /**
+     * La posición de una página de usuarios es una clave del índice (con nombres y un caracter
+     * nulo de separador), así que viaja en la URL codificada en Base64 y el cliente la usa sin interpretarla
+     */
+    private static String codificarPosicion(String posicion) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicion.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificarPosicion(String texto) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(texto), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Parámetro 'despues' inválido: " + texto);
+        }
+    }
+
+    private int parsearId(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID inválido: " + texto);
+        }
+    }
+
+    private int parsearEntero(String texto) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Número inválido: " + texto);
+        }
+    }
+
+    private LocalDate parsearFecha(String texto) {
+        try {
+            return LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida: " + texto + ". Use el formato AAAA-MM-DD.");
+        }
+    }
+
+    private LocalDateTime parsearFechaHora(String texto) {
+        try {
+            return LocalDateTime.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha y hora inválidas: " + texto + ". Use el formato AAAA-MM-DDTHH:MM[:SS].");
+        }
+    }
+
+    private YearMonth parsearPeriodo(String texto) {
+        if (texto == null) {
+            throw new IllegalArgumentException("Debe indicar el período (AAAA-MM).");
+        }
+        try {
+            return YearMonth.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Período inválido: " + texto + ". Use el formato AAAA-MM.");
+        }
+    }
+
+    private MetodoPago parsearMetodoPago(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return null;
+        }
+        return MetodoPago.valueOf(texto.toUpperCase());
+    }
+
+    private JSONObject productoAJson(Producto producto) {
+        JSONObject productoJson = new JSONObject();
+        productoJson.put("id", producto.getId());
+        productoJson.put("nombre", producto.getNombre());
+        productoJson.put("descripcion", producto.getDescripcion());
+        productoJson.put("categoria", producto.getCategoria() != null ? producto.getCategoria().name() : "");
+        productoJson.put("precio", producto.getPrecio());
+        productoJson.put("marca", producto.getMarca());
+        productoJson.put("modelo", producto.getModelo());
+        productoJson.put("especificaciones", producto.getEspecificaciones());
+        productoJson.put("activo", producto.isActivo());
+        productoJson.put("cantidad", sistema.obtenerCantidad(producto.getId()));
+        return productoJson;
+    }
+
+    private JSONObject usuarioAJson(Usuario usuario) {
+        JSONObject usuarioJson = new JSONObject();
+        usuarioJson.put("id", usuario.getId());
+        usuarioJson.put("nombre", usuario.getNombre());
+        usuarioJson.put("apellido", usuario.getApellido());
+        usuarioJson.put("email", usuario.getEmail());
+        usuarioJson.put("dni", usuario.getDni());
+        usuarioJson.put("rol", usuario.getRol() != null ? usuario.getRol().name() : "");
+        usuarioJson.put("estado", usuario.getEstado() == 1 ? "ACTIVO" : "INACTIVO");
+
+        if (usuario instanceof Cliente) {
+            Cliente cliente = (Cliente) usuario;
+            usuarioJson.put("saldo", cliente.getSaldo());
+            usuarioJson.put("metodoPago", cliente.getMetodoPago().name());
+            usuarioJson.put("cantProductosComprados", cliente.getCantProductosComprados());
+        } else if (usuario instanceof Vendedor) {
+            Vendedor vendedor = (Vendedor) usuario;
+            usuarioJson.put("cantVentas", vendedor.getCantVentas());
+            usuarioJson.put("comisionPorVenta", vendedor.getComisionPorVenta());
+            usuarioJson.put("salario", vendedor.getSalario());
+            usuarioJson.put("totalComisiones", vendedor.getTotalComisiones());
+        }
+        return usuarioJson;
+    }
+
+    /**
+     * Señal interna para responder 405 cuando el método HTTP no corresponde a la ruta
+     */
+    private static class MetodoNoPermitidoException extends Exception {
+        MetodoNoPermitidoException() {
+            super("Método no permitido");
+        }
+    }
+
+    /**
+     * Señal interna para responder 413 cuando el cuerpo de la petición supera MAXIMO_CUERPO_BYTES
+     */
+    private static class CuerpoDemasiadoGrandeException extends Exception {
+        CuerpoDemasiadoGrandeException() {
+            super("El cuerpo de la petición supera los " + MAXIMO_CUERPO_BYTES + " bytes.");
+        }
+    }
+
+    /**
+     * Señal interna para responder 404 cuando lo pedido no existe y no hay una excepción propia del dominio
+     */
+    private static class RecursoNoEncontradoException extends Exception {
+        RecursoNoEncontradoException(String mensaje) {
+            super(mensaje);
+        }
+    }
+}
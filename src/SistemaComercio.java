@@ -3,10 +3,21 @@ import usuarios.clientes.Cliente;
 import usuarios.clientes.MetodoPago;
 import usuarios.vendedores.Vendedor;
 import productos.*;
+import inventario.ProyeccionAgotamiento;
 import inventario.Stock;
+import exportacion.ExportadorCatalogo;
+import importacion.FormatoImportacion;
+import importacion.ImportadorCatalogo;
+import importacion.LoteImportacion;
+import importacion.ResultadoImportacion;
+import analitica.AnaliticaVentas;
+import liquidaciones.LibroVentas;
+import liquidaciones.Liquidacion;
+import liquidaciones.MotorLiquidaciones;
 import ventas.Venta;
 import ventas.DetalleVenta;
 import descuentos.DescuentoMetodoPago;
+import persistencia.GuardadoAgrupado;
 import persistencia.StockJSON;
 import excepciones.ProductoNoEncontradoException;
 import excepciones.StockInsuficienteException;
@@ -16,10 +27,23 @@ import excepciones.PasswordInvalidaException;
 import excepciones.CredencialesInvalidasException;
 import excepciones.ErrorPersistenciaException;
 import excepciones.UsuarioNoEncontradoException;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import utilidades.CargaDiferida;
+import utilidades.GeneradorIds;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.Scanner;
 import java.util.InputMismatchException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Clase central que gestiona todo el sistema de comercio de tecnología.
@@ -30,27 +54,104 @@ import java.util.InputMismatchException;
  *   en el orden en que se van creando. Esto nos permite recorrer todas las ventas en
  *   secuencia para consultas y reportes.
  *
+ * - AnaliticaVentas para los reportes: cada venta o compra se suma a totales precalculados al
+ *   registrarse, así los reportes no recorren la lista de ventas.
+ *
+ * - LibroVentas para las comisiones: cada venta de un vendedor se agrega al libro (un archivo que
+ *   solo crece, junto al stock) y MotorLiquidaciones calcula de ahí las comisiones de cada mes.
+ *
+ * - ImportadorCatalogo para las altas en bloque: el archivo del proveedor se lee y valida sin el
+ *   lock, y el stock se actualiza y se guarda una sola vez al final. ExportadorCatalogo hace el
+ *   camino inverso sobre una foto del catálogo, sin locks.
+ *
  * - ArrayList para listas temporales de clientes: Usamos ArrayList cuando necesitamos
  *   crear listas temporales de clientes para mostrar opciones o procesar información,
  *   ya que podemos agregar elementos y recorrerlos en orden.
+ *
+ * CONCURRENCIA:
+ *
+ * - Stock, ventas y los saldos de los clientes no son thread-safe. Cuando el sistema se usa desde
+ *   el servidor HTTP, varias peticiones llegan a la vez, así que las consultas toman el lock de
+ *   lectura (pueden correr en paralelo) y las compras/ventas toman el lock de escritura.
+ *
+ * - Las consultas del catálogo (productos disponibles, búsquedas por nombre o ID, cantidades) no
+ *   toman ningún lock: leen la última foto publicada del catálogo (CatalogoInstantanea), que cada
+ *   operación de escritura publica al soltar el lock. Así navegar el catálogo no espera a las ventas.
+ *
+ * ARRANQUE:
+ *
+ * - El stock, los usuarios y el libro de ventas se cargan a la vez, cada uno en su hilo
+ *   (CargaDiferida): el constructor vuelve enseguida, el menú o el servidor quedan disponibles sin
+ *   esperar a leer los archivos, y solo la primera operación que necesita los datos espera a que
+ *   terminen de cargarse. Dentro de cada archivo, los productos y los usuarios se deserializan de a
+ *   bloques en el pool fork-join (DocumentoParticionado).
+ *
+ * PERSISTENCIA:
+ *
+ * - stock.json y usuarios.json se reescriben enteros, así que las operaciones no los guardan con
+ *   el lock tomado: los marcan como pendientes y GuardadoAgrupado los guarda desde su propio hilo
+ *   una vez por ventana (VENTANA_GUARDADO_MS), con el lock de lectura. Muchas compras seguidas
+ *   salen en un solo guardado. Las ventas, además, quedan enseguida en el libro de ventas.
+ *
+ * METRICAS:
+ *
+ * - Búsquedas, compras, ventas y cargas de saldo registran su latencia en Metricas (incluye la
+ *   espera del lock y el guardado en archivo). Las compras y ventas rechazadas por stock, saldo o
+ *   producto inexistente también se cuentan aparte.
  */
 public class SistemaComercio {
     private SistemaAutenticacion sistemaAutenticacion;
-    private Stock stock;
+    private CargaDiferida<Stock> stock;
     private List<Venta> ventas;
+    private AnaliticaVentas analiticaVentas;
+    private LibroVentas libroVentas;
+    private MotorLiquidaciones motorLiquidaciones;
     private LocalDateTime fechaInicioSistema;
     private StockJSON stockJSON;
+    private String archivoStock;
     private static final String ARCHIVO_STOCK = "data/stock.json";
+    private static final int CLIENTES_POR_PAGINA = 10;
+    private static final long VENTANA_GUARDADO_MS = 500;
+    private GuardadoAgrupado guardadoStock;
+    private GuardadoAgrupado guardadoUsuarios;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final HistogramaLatencias TIEMPO_BUSQUEDA = Metricas.temporizador("comercio.buscarProducto");
+    private static final HistogramaLatencias TIEMPO_COMPRA = Metricas.temporizador("comercio.compra");
+    private static final HistogramaLatencias TIEMPO_VENTA = Metricas.temporizador("comercio.venta");
+    private static final HistogramaLatencias TIEMPO_SALDO = Metricas.temporizador("comercio.agregarSaldo");
+    private static final LongAdder COMPRAS_RECHAZADAS = Metricas.contador("comercio.compra.rechazadas");
+    private static final LongAdder VENTAS_RECHAZADAS = Metricas.contador("comercio.venta.rechazadas");
     
     // ---------------------- CONSTRUCTOR ----------------------
     public SistemaComercio() {
-        this.sistemaAutenticacion = new SistemaAutenticacion();
+        this(ARCHIVO_STOCK, SistemaAutenticacion.ARCHIVO_USUARIOS);
+    }
+
+    /**
+     * @param archivoStock archivo JSON de donde se carga y donde se guarda el stock
+     * @param archivoUsuarios archivo JSON de donde se cargan y donde se guardan los usuarios
+     */
+    public SistemaComercio(String archivoStock, String archivoUsuarios) {
+        this.archivoStock = archivoStock;
+        // El libro de ventas, las liquidaciones y las secuencias de IDs se guardan en el mismo directorio que el stock
+        File directorioDatos = new File(archivoStock).getAbsoluteFile().getParentFile();
+        // Las secuencias de IDs se abren antes de cargar nada: lo que se carga solo puede subirlas
+        GeneradorIds.abrir(new File(directorioDatos, GeneradorIds.NOMBRE_ARCHIVO).getPath());
+        this.sistemaAutenticacion = new SistemaAutenticacion(archivoUsuarios);
         this.stockJSON = new StockJSON();
         this.ventas = new ArrayList<>();
+        this.analiticaVentas = new AnaliticaVentas();
+        this.libroVentas = new LibroVentas(new File(directorioDatos, LibroVentas.NOMBRE_ARCHIVO).getPath());
+        this.motorLiquidaciones = new MotorLiquidaciones(libroVentas, new File(directorioDatos, MotorLiquidaciones.NOMBRE_DIRECTORIO).getPath());
         this.fechaInicioSistema = LocalDateTime.now();
         
-        // Cargamos el stock desde archivo JSON
-        cargarStockDesdeArchivo();
+        // El stock se carga en otro hilo: el constructor vuelve enseguida y lo espera recién quien lo use
+        this.stock = new CargaDiferida<>("stock", this::cargarStockDesdeArchivo);
+        this.stock.iniciar();
+
+        // Las operaciones solo marcan los archivos; se guardan de a grupos, sin frenar las compras
+        this.guardadoStock = GuardadoAgrupado.iniciar(archivoStock, VENTANA_GUARDADO_MS, this::escribirStock);
+        this.guardadoUsuarios = GuardadoAgrupado.iniciar(archivoUsuarios, VENTANA_GUARDADO_MS, this::escribirUsuarios);
         
         System.out.println("🚀 SISTEMA DE COMERCIO DE TECNOLOGÍA INICIADO");
         System.out.println("═══════════════════════════════════════════════");
@@ -125,32 +226,168 @@ public class SistemaComercio {
         return sistemaAutenticacion.hayUsuariosRegistrados();
     }
 
+    /**
+     *  Obtiene el sistema de autenticación (lo usa el servidor HTTP para las sesiones y la gestión de usuarios)
+     * @return el sistema de autenticación del comercio
+     * */
+    public SistemaAutenticacion getSistemaAutenticacion() {
+        return sistemaAutenticacion;
+    }
+
+    /**
+     *  Obtiene la analítica de ventas (totales por día, categoría, método de pago, vendedor y productos más vendidos)
+     * @return la analítica de las ventas y compras realizadas desde que se inició el sistema
+     * */
+    public AnaliticaVentas getAnaliticaVentas() {
+        return analiticaVentas;
+    }
+
+    /**
+     *  Obtiene el motor de liquidaciones (para consultar las liquidaciones hechas)
+     * @return el motor de liquidaciones de comisiones
+     * */
+    public MotorLiquidaciones getMotorLiquidaciones() {
+        return motorLiquidaciones;
+    }
+
+    // ---------------------- METODOS DE LIQUIDACION ----------------------
+
+    /**
+     *  Liquida (o vuelve a liquidar) las comisiones de todos los vendedores en un mes, y actualiza
+     *  el total de comisiones liquidadas de cada vendedor con la suma de todos los meses
+     * @param periodo mes a liquidar
+     * @return la liquidación del mes
+     * @throws ErrorPersistenciaException si no se pudo guardar la liquidación
+     * */
+    public Liquidacion liquidarComisiones(YearMonth periodo) throws ErrorPersistenciaException {
+        if (periodo == null) {
+            throw new IllegalArgumentException("Debe indicar el período a liquidar.");
+        }
+        List<Vendedor> vendedores = new ArrayList<>();
+        for (Usuario usuario : sistemaAutenticacion.listarUsuarios()) {
+            if (usuario instanceof Vendedor) {
+                vendedores.add((Vendedor) usuario);
+            }
+        }
+
+        // El cálculo lee el libro de ventas (que tiene su propio lock) y no frena las ventas
+        Liquidacion liquidacion = motorLiquidaciones.liquidar(periodo, vendedores);
+
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Double> comisiones = motorLiquidaciones.getComisionesPorVendedor();
+            for (Vendedor vendedor : vendedores) {
+                vendedor.setTotalComisiones(comisiones.getOrDefault(vendedor.getId(), 0.0));
+            }
+            guardadoUsuarios.marcar();
+        } finally {
+            terminarEscritura();
+        }
+        return liquidacion;
+    }
+
+    /**
+     *  Agrega una venta procesada al libro de ventas
+     * @param venta venta completada
+     * */
+    private void registrarEnLibro(Venta venta) {
+        try {
+            libroVentas.registrar(venta);
+        } catch (ErrorPersistenciaException e) {
+            System.out.println("⚠️ Advertencia: " + e.getMessage());
+        }
+    }
+
+    /**
+     *  Publica los cambios del stock para las consultas del catálogo y suelta el lock de escritura.
+     *  Toda sección que toma el lock de escritura termina con este método
+     * */
+    private void terminarEscritura() {
+        try {
+            stock().publicarCatalogo();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     // ---------------------- METODOS DE PERSISTENCIA ----------------------
     
     /**
-     * Carga el stock desde el archivo JSON
+     * Carga el stock desde el archivo JSON (si no se puede, empieza con el stock vacío)
+     * @return el stock cargado
      */
-    private void cargarStockDesdeArchivo() {
+    private Stock cargarStockDesdeArchivo() {
+        Stock cargado;
         try {
-            this.stock = stockJSON.cargarStock(ARCHIVO_STOCK);
+            cargado = stockJSON.cargarStock(archivoStock);
         } catch (Exception e){
-            this.stock = new Stock();
+            cargado = new Stock();
         }
+        cargado.publicarCatalogo();
+        return cargado;
+    }
+
+    /**
+     * @return el stock, esperando a que termine de cargarse si todavía no está
+     */
+    private Stock stock() {
+        return stock.obtener();
     }
     
     /**
-     * Guarda el stock actual en el archivo JSON
+     * Guarda ya el stock actual en el archivo JSON (sin tener tomado el lock de escritura)
      */
     public boolean guardarStockEnArchivo() {
         try {
-            stock.actualizarFecha();
-            stockJSON.guardarStock(stock, ARCHIVO_STOCK);
+            guardadoStock.guardarAhora();
             return true;
         } catch (Exception e) {
             System.out.println("❌ Error al guardar stock: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Marca el stock como modificado para que se guarde en el próximo guardado agrupado
+     * (se llama con el lock de escritura tomado)
+     */
+    private void marcarStockModificado() {
+        stock().actualizarFecha();
+        guardadoStock.marcar();
+    }
+
+    /**
+     * Escribe el stock en el archivo (lo llama el hilo de guardadoStock). Con el lock de lectura solo
+     * se toma la foto publicada del catálogo y se copian los estados de reposición; el JSON se arma
+     * y se escribe después, sin frenar las compras
+     * @throws ErrorPersistenciaException si no se pudo guardar (guardadoStock lo reintenta)
+     */
+    private void escribirStock() throws ErrorPersistenciaException {
+        StockJSON.CopiaStock copia;
+        lock.readLock().lock();
+        try {
+            copia = stockJSON.copiarStock(stock());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stockJSON.guardarCopia(copia, archivoStock);
+    }
+
+    /**
+     * Escribe los usuarios en el archivo (lo llama el hilo de guardadoUsuarios). Se copian con el lock
+     * de lectura, para que los saldos no cambien a mitad de la copia, y se escriben después
+     * @throws ErrorPersistenciaException si no se pudieron guardar
+     */
+    private void escribirUsuarios() throws ErrorPersistenciaException {
+        SistemaAutenticacion.CopiaUsuarios copia;
+        lock.readLock().lock();
+        try {
+            copia = sistemaAutenticacion.copiarUsuarios();
+        } finally {
+            lock.readLock().unlock();
+        }
+        sistemaAutenticacion.grabarCopia(copia);
+    }
     
     // ---------------------- METODOS ----------------------
 
@@ -158,23 +395,146 @@ public class SistemaComercio {
      *  Muestra el inventario del sistema
      * */
     public void mostrarInventario() {
-        stock.mostrarInventario();
+        lock.readLock().lock();
+        try {
+            InterfazUsuario.mostrarInventario(stock());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
      *  Muestra solo los productos disponibles del sistema
      * */
     public void mostrarProductosDisponibles() {
-        stock.mostrarProductosDisponibles();
+        InterfazUsuario.mostrarProductosDisponibles(stock().getCatalogo());
     }
     
     /**
      * Verifica si hay productos disponibles en el stock
      */
     public boolean hayProductosDisponibles() {
-        return stock.getCantidadProductosDisponibles() > 0;
+        return stock().getCatalogo().getCantidadProductosDisponibles() > 0;
+    }
+
+    /**
+     * Obtiene los productos disponibles (activos y con stock)
+     * @return la lista de productos disponibles
+     */
+    public List<Producto> obtenerProductosDisponibles() {
+        return stock().getCatalogo().obtenerProductosDisponibles();
+    }
+
+    /**
+     * Busca un producto disponible por nombre
+     * @param nombre nombre del producto a buscar
+     * @return el producto encontrado o null si no existe
+     */
+    public Producto buscarProductoPorNombre(String nombre) {
+        long inicio = System.nanoTime();
+        try {
+            return stock().getCatalogo().buscarProductoPorNombre(nombre);
+        } finally {
+            TIEMPO_BUSQUEDA.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Busca un producto por su ID
+     * @param productoId id del producto a buscar
+     * @return el producto encontrado o null si no existe
+     */
+    public Producto buscarProductoPorId(int productoId) {
+        return stock().getCatalogo().buscarProductoPorId(productoId);
+    }
+
+    /**
+     * Obtiene la cantidad en stock de un producto
+     * @param productoId id del producto a consultar
+     * @return la cantidad disponible del producto
+     */
+    public int obtenerCantidad(int productoId) {
+        return stock().getCatalogo().obtenerCantidad(productoId);
     }
     
+    // ---------------------- METODOS DE REPOSICION ----------------------
+
+    /**
+     * Productos que, al ritmo de venta actual, se agotan dentro de cierta cantidad de días
+     * @param dias horizonte en días
+     * @return las proyecciones, de la que se agota antes a la que se agota después
+     */
+    public List<ProyeccionAgotamiento> proyectarAgotamiento(double dias) {
+        if (dias < 0) {
+            throw new IllegalArgumentException("La cantidad de días no puede ser negativa.");
+        }
+        lock.readLock().lock();
+        try {
+            return stock().getReposicion().proyectarAgotamiento(dias, System.currentTimeMillis());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return los ids de los productos que están en o bajo su punto de reorden
+     */
+    public Set<Integer> getProductosBajoPuntoReorden() {
+        lock.readLock().lock();
+        try {
+            return new TreeSet<>(stock().getReposicion().getBajoPuntoReorden());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Configura el punto de reorden de un producto y guarda el stock
+     * @param productoId id del producto
+     * @param puntoFijo punto de reorden fijo, o MonitorReposicion.SIN_PUNTO_FIJO para calcularlo con la velocidad de venta
+     * @param plazoReposicionDias días que tarda en llegar una reposición
+     * @param stockSeguridad unidades extra sobre la demanda esperada del plazo
+     * @throws ProductoNoEncontradoException si el producto no existe
+     */
+    public void configurarReposicion(int productoId, int puntoFijo, double plazoReposicionDias, int stockSeguridad) throws ProductoNoEncontradoException {
+        lock.writeLock().lock();
+        try {
+            if (stock().buscarProductoPorId(productoId) == null) {
+                throw new ProductoNoEncontradoException("Producto no encontrado con ID: " + productoId, productoId);
+            }
+            stock().getReposicion().configurar(productoId, puntoFijo, plazoReposicionDias, stockSeguridad, System.currentTimeMillis());
+            marcarStockModificado();
+        } finally {
+            terminarEscritura();
+        }
+    }
+
+    /**
+     * Cambia el precio de un producto (queda registrado en el historial de precios) y guarda el stock.
+     * Las ventas ya hechas conservan el precio al que se vendieron
+     * @param productoId id del producto
+     * @param precio precio nuevo
+     * @throws ProductoNoEncontradoException si el producto no existe
+     */
+    public void cambiarPrecio(int productoId, double precio) throws ProductoNoEncontradoException {
+        lock.writeLock().lock();
+        try {
+            stock().cambiarPrecio(productoId, precio);
+            marcarStockModificado();
+        } finally {
+            terminarEscritura();
+        }
+    }
+
+    /**
+     * Obtiene el historial de precios. Se consulta sin el lock: cada producto publica su historial
+     * como un valor inmutable que se reemplaza al cambiar el precio
+     * @return el historial de precios de los productos
+     */
+    public HistorialPrecios getHistorialPrecios() {
+        return stock().getHistorialPrecios();
+    }
+
     // ---------------------- METODOS DE COMPRA PARA CLIENTES ----------------------
     
     /**
@@ -197,7 +557,7 @@ public class SistemaComercio {
         }
         
         Cliente cliente = (Cliente) usuario;
-        Producto producto = stock.buscarProductoPorNombre(nombreProducto);
+        Producto producto = stock().buscarProductoPorNombre(nombreProducto);
         
         if (producto == null) {
             throw new ProductoNoEncontradoException("Producto no encontrado: " + nombreProducto, -1);
@@ -209,8 +569,8 @@ public class SistemaComercio {
             throw new IllegalStateException("El producto no está disponible.");
         }
         
-        if (!stock.hayStock(productoId, cantidad)) {
-            int stockDisponible = stock.obtenerCantidad(productoId);
+        if (!stock().hayStock(productoId, cantidad)) {
+            int stockDisponible = stock().obtenerCantidad(productoId);
             throw new StockInsuficienteException(
                 "No hay suficiente stock disponible. Disponible: " + stockDisponible + ", Requerido: " + cantidad,
                 stockDisponible,
@@ -221,7 +581,7 @@ public class SistemaComercio {
         double subtotal = producto.getPrecio() * cantidad;
         
         // Mostramos los descuentos disponibles
-        DescuentoMetodoPago.mostrarDescuentosDisponibles();
+        InterfazUsuario.mostrarDescuentosDisponibles();
         
         // Seleccionamos el método de pago
         MetodoPago metodoPagoSeleccionado = seleccionarMetodoPago(cliente);
@@ -246,35 +606,8 @@ public class SistemaComercio {
         System.out.println("💳 Método de pago: " + metodoPagoSeleccionado);
         System.out.println("═══════════════════════════════════");
         
-        if (cliente.getSaldo() < totalCompra) {
-            throw new SaldoInsuficienteException("Saldo insuficiente. Saldo actual: $" + String.format("%.2f", cliente.getSaldo()) + ", Total de la compra: $" + String.format("%.2f", totalCompra),cliente.getSaldo(),totalCompra);
-        }
-        
-        // Procesamos la compra
-        try {
-            stock.eliminarProducto(productoId, cantidad);
-        } catch (ProductoNoEncontradoException | StockInsuficienteException e) {
-            // Estas excepciones ya fueron validadas antes, pero por si acaso
-            throw e;
-        }
-        
-        // Actualizamos el saldo del cliente
-        cliente.setSaldo(cliente.getSaldo() - totalCompra);
-        
-        // Registramos la compra con descuento
-        String descripcionCompra = producto.getNombre() + " x" + cantidad + " = $" + String.format("%.2f", totalCompra);
-        if (descuento > 0) {
-            descripcionCompra += " (Descuento: $" + String.format("%.2f", descuento) + ")";
-        }
-        cliente.agregarCompra(descripcionCompra);
-        
-        // Guardamos los cambios en archivo JSON
-        guardarStockEnArchivo();
-        try {
-            sistemaAutenticacion.guardarUsuarios();
-        } catch (ErrorPersistenciaException e) {
-            System.out.println("⚠️ Advertencia: " + e.getMessage());
-        }
+        // Procesamos la compra (vuelve a validar stock y saldo bajo el lock de escritura)
+        comprarProducto(cliente, nombreProducto, cantidad, metodoPagoSeleccionado);
         
         System.out.println("✅ ¡Compra realizada exitosamente!");
         System.out.println("📱 Producto: " + producto.getNombre());
@@ -288,6 +621,113 @@ public class SistemaComercio {
         return true;
     }
     
+    /**
+     * Realiza la compra directa de un producto para un cliente, sin interacción por consola.
+     * Valida stock y saldo, descuenta el stock, cobra al cliente y guarda los cambios.
+     * @param cliente cliente que realiza la compra
+     * @param nombreProducto nombre del producto a comprar
+     * @param cantidad cantidad del producto a comprar
+     * @param metodoPago método de pago elegido (si es null se usa el método por defecto del cliente)
+     * @return el total pagado por el cliente (con el descuento aplicado)
+     * @throws ProductoNoEncontradoException si no se encuentra el producto
+     * @throws StockInsuficienteException si no hay stock suficiente para realizar la compra
+     * @throws SaldoInsuficienteException si el cliente no tiene suficiente saldo para realizar la compra
+     */
+    public double comprarProducto(Cliente cliente, String nombreProducto, int cantidad, MetodoPago metodoPago) throws ProductoNoEncontradoException, StockInsuficienteException, SaldoInsuficienteException {
+        if (cliente == null) {
+            throw new IllegalStateException("Solo los clientes pueden realizar compras directas.");
+        }
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a 0.");
+        }
+        if (metodoPago == null) {
+            metodoPago = cliente.getMetodoPago();
+        }
+        
+        long inicio = System.nanoTime();
+        boolean exitosa = false;
+        lock.writeLock().lock();
+        try {
+            Producto producto = stock().buscarProductoPorNombre(nombreProducto);
+            if (producto == null) {
+                throw new ProductoNoEncontradoException("Producto no encontrado: " + nombreProducto, -1);
+            }
+            if (!producto.isActivo()) {
+                throw new IllegalStateException("El producto no está disponible.");
+            }
+            
+            int productoId = producto.getId();
+            if (!stock().hayStock(productoId, cantidad)) {
+                int stockDisponible = stock().obtenerCantidad(productoId);
+                throw new StockInsuficienteException(
+                    "No hay suficiente stock disponible. Disponible: " + stockDisponible + ", Requerido: " + cantidad,
+                    stockDisponible,
+                    cantidad
+                );
+            }
+            
+            double subtotal = producto.getPrecio() * cantidad;
+            double descuento = DescuentoMetodoPago.calcularDescuento(subtotal, metodoPago);
+            double totalCompra = DescuentoMetodoPago.calcularMontoFinal(subtotal, metodoPago);
+            
+            if (cliente.getSaldo() < totalCompra) {
+                throw new SaldoInsuficienteException("Saldo insuficiente. Saldo actual: $" + String.format("%.2f", cliente.getSaldo()) + ", Total de la compra: $" + String.format("%.2f", totalCompra),cliente.getSaldo(),totalCompra);
+            }
+            
+            stock().eliminarProducto(productoId, cantidad);
+            cliente.setSaldo(cliente.getSaldo() - totalCompra);
+            
+            // Registramos la compra con descuento
+            String descripcionCompra = producto.getNombre() + " x" + cantidad + " = $" + String.format("%.2f", totalCompra);
+            if (descuento > 0) {
+                descripcionCompra += " (Descuento: $" + String.format("%.2f", descuento) + ")";
+            }
+            cliente.agregarCompra(descripcionCompra);
+            analiticaVentas.registrarCompra(producto, cantidad, totalCompra, metodoPago, LocalDateTime.now());
+            
+            // Marcamos los archivos JSON para el próximo guardado
+            marcarStockModificado();
+            guardadoUsuarios.marcar();
+            
+            exitosa = true;
+            return totalCompra;
+        } finally {
+            terminarEscritura();
+            TIEMPO_COMPRA.registrarDesde(inicio);
+            if (!exitosa) {
+                COMPRAS_RECHAZADAS.increment();
+            }
+        }
+    }
+    
+    /**
+     * Agrega saldo a la cuenta de un cliente, sin interacción por consola
+     * @param cliente cliente al que se le agrega saldo
+     * @param monto monto a agregar al saldo del cliente
+     * @return el saldo actualizado del cliente
+     */
+    public double agregarSaldo(Cliente cliente, double monto) {
+        if (cliente == null) {
+            throw new IllegalStateException("Solo los clientes pueden agregar saldo.");
+        }
+        if (monto <= 0) {
+            throw new IllegalArgumentException("El monto debe ser mayor a 0.");
+        }
+        
+        long inicio = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            cliente.setSaldo(cliente.getSaldo() + monto);
+            
+            // Marcamos el archivo JSON para el próximo guardado
+            guardadoUsuarios.marcar();
+            return cliente.getSaldo();
+        } finally {
+            terminarEscritura();
+            TIEMPO_SALDO.registrarDesde(inicio);
+        }
+    }
+    
     /**
      * Permite a un cliente agregar saldo a su cuenta
      * @param monto monto a agregar al saldo del cliente
@@ -311,14 +751,7 @@ public class SistemaComercio {
         }
         
         Cliente cliente = (Cliente) usuario;
-        cliente.setSaldo(cliente.getSaldo() + monto);
-        
-        // Guardamos los cambios en archivo JSON
-        try {
-            sistemaAutenticacion.guardarUsuarios();
-        } catch (ErrorPersistenciaException e) {
-            System.out.println("⚠️ Advertencia: " + e.getMessage());
-        }
+        agregarSaldo(cliente, monto);
         
         System.out.println("✅ Saldo agregado exitosamente!");
         System.out.println("💰 Saldo anterior: $" + String.format("%.2f", cliente.getSaldo() - monto));
@@ -343,7 +776,7 @@ public class SistemaComercio {
         }
         
         Cliente cliente = (Cliente) usuario;
-        cliente.mostrarHistorialCompras();
+        InterfazUsuario.mostrarHistorialCompras(cliente);
     }
     
     /**
@@ -372,22 +805,23 @@ public class SistemaComercio {
                 System.out.print("Seleccione una opción: ");
                 int opcion = Integer.parseInt(scanner.nextLine());
                 
+                MetodoPago elegido;
                 switch (opcion) {
                     case 1:
-                        cliente.cambiarMetodoPagoPorDefecto(MetodoPago.QR);
-                        return MetodoPago.QR;
+                        elegido = MetodoPago.QR;
+                        break;
                     case 2:
-                        cliente.cambiarMetodoPagoPorDefecto(MetodoPago.DEBITO);
-                        return MetodoPago.DEBITO;
+                        elegido = MetodoPago.DEBITO;
+                        break;
                     case 3:
-                        cliente.cambiarMetodoPagoPorDefecto(MetodoPago.BILLETERA_VIRTUAL);
-                        return MetodoPago.BILLETERA_VIRTUAL;
+                        elegido = MetodoPago.BILLETERA_VIRTUAL;
+                        break;
                     case 4:
-                        cliente.cambiarMetodoPagoPorDefecto(MetodoPago.TARJETA_CREDITO);
-                        return MetodoPago.TARJETA_CREDITO;
+                        elegido = MetodoPago.TARJETA_CREDITO;
+                        break;
                     case 5:
-                        cliente.cambiarMetodoPagoPorDefecto(MetodoPago.EFECTIVO);
-                        return MetodoPago.EFECTIVO;
+                        elegido = MetodoPago.EFECTIVO;
+                        break;
                     case 6:
                         System.out.println("✅ Usando método por defecto: " + cliente.getMetodoPago());
                         return cliente.getMetodoPago();
@@ -395,7 +829,11 @@ public class SistemaComercio {
                         return null;
                     default:
                         System.out.println("❌ Opción no válida. Intente nuevamente.");
+                        continue;
                 }
+                cliente.cambiarMetodoPagoPorDefecto(elegido);
+                System.out.println("✅ Método de pago por defecto actualizado a: " + cliente.getMetodoPago());
+                return elegido;
             } catch (NumberFormatException e) {
                 System.out.println("❌ Debe ingresar un número válido.");
             }
@@ -443,55 +881,74 @@ public class SistemaComercio {
     }
     
     /**
-     * Permite seleccionar un cliente existente de la lista de usuarios registrados
+     * Permite seleccionar un cliente existente. Los clientes se muestran de a páginas y se pueden
+     * filtrar escribiendo el comienzo del nombre, apellido, email o DNI
      * @return cliente existente seleccionado
      */
     private Cliente seleccionarCliente() {
         Scanner scanner = new Scanner(System.in);
         
-        // Obtenemos todos los clientes registrados
-        List<Cliente> clientes = new ArrayList<>();
-        for (Usuario usuario : sistemaAutenticacion.listarUsuarios()) {
-            if (usuario instanceof Cliente) {
-                clientes.add((Cliente) usuario);
-            }
-        }
-        
-        if (clientes.isEmpty()) {
+        if (sistemaAutenticacion.getCantidadUsuarios(Rol.CLIENTE) == 0) {
             System.out.println("❌ No hay clientes registrados en el sistema.");
             return null;
         }
         
-        // Mostramos la lista de clientes
-        System.out.println("👥 SELECCIONAR CLIENTE");
-        System.out.println("═══════════════════════════════════");
-        for (int i = 0; i < clientes.size(); i++) {
-            Cliente cliente = clientes.get(i);
-            System.out.println((i + 1) + ". " + cliente.getNombre() + " " + cliente.getApellido() + " (" + cliente.getEmail() + ")");
-            System.out.println("💰 Saldo: $" + String.format("%.2f", cliente.getSaldo()) +" | 🛍️ Compras: " + cliente.getCantProductosComprados());
-        }
-        System.out.println("═══════════════════════════════════");
-        
-        // Solicitamos la selección
+        String filtro = "";
+        int pagina = 0;
+        // Posición donde empieza cada página ya vista (la primera empieza en null), para volver atrás
+        List<String> inicios = new ArrayList<>();
+        inicios.add(null);
         while (true) {
-            try {
-                System.out.print("Seleccione el cliente (número) o 0 para ver detalles: ");
-                int opcion = scanner.nextInt();
-                scanner.nextLine();
-                
+            PaginaUsuarios encontrados = sistemaAutenticacion.buscarUsuarios(Rol.CLIENTE, filtro, inicios.get(pagina), CLIENTES_POR_PAGINA);
+            List<Cliente> clientes = new ArrayList<>();
+            for (Usuario usuario : encontrados.getUsuarios()) {
+                clientes.add((Cliente) usuario);
+            }
+            boolean haySiguiente = encontrados.getSiguiente() != null;
+            
+            // Mostramos la página de clientes
+            System.out.println("👥 SELECCIONAR CLIENTE" + (filtro.isEmpty() ? "" : " (búsqueda: \"" + filtro + "\")") + " - Página " + (pagina + 1));
+            System.out.println("═══════════════════════════════════");
+            if (clientes.isEmpty()) {
+                System.out.println("📭 No se encontraron clientes.");
+            }
+            for (int i = 0; i < clientes.size(); i++) {
+                Cliente cliente = clientes.get(i);
+                System.out.println((i + 1) + ". " + cliente.getNombre() + " " + cliente.getApellido() + " (" + cliente.getEmail() + ")");
+                System.out.println("💰 Saldo: $" + String.format("%.2f", cliente.getSaldo()) +" | 🛍️ Compras: " + cliente.getCantProductosComprados());
+            }
+            System.out.println("═══════════════════════════════════");
+            System.out.println("Número = seleccionar | 0 = ver detalles" + (haySiguiente ? " | s = siguiente" : "") + (pagina > 0 ? " | a = anterior" : ""));
+            System.out.println("Texto = buscar por nombre, apellido, email o DNI | Enter = quitar búsqueda");
+            
+            // Solicitamos la selección
+            System.out.print("Opción: ");
+            String entrada = scanner.nextLine().trim();
+            
+            if (entrada.equalsIgnoreCase("s") && haySiguiente) {
+                pagina++;
+                if (pagina == inicios.size()) {
+                    inicios.add(encontrados.getSiguiente());
+                }
+            } else if (entrada.equalsIgnoreCase("a") && pagina > 0) {
+                pagina--;
+            } else if (entrada.matches("\\d{1,3}")) {
+                int opcion = Integer.parseInt(entrada);
                 if (opcion == 0) {
-                    // Mostramos los detalles de todos los clientes
+                    // Mostramos los detalles de los clientes de la página
                     mostrarDetallesClientes(clientes);
-                } else if (opcion >= 1 && opcion <= clientes.size()) {
+                } else if (opcion <= clientes.size()) {
                     Cliente clienteSeleccionado = clientes.get(opcion - 1);
                     System.out.println("✅ Cliente seleccionado: " + clienteSeleccionado.getNombre() + " " + clienteSeleccionado.getApellido());
                     return clienteSeleccionado;
                 } else {
                     System.out.println("❌ Opción no válida. Intente nuevamente.");
                 }
-            } catch (InputMismatchException e) {
-                System.out.println("❌ Debe ingresar un número válido.");
-                scanner.nextLine();
+            } else {
+                // Cualquier otro texto es una búsqueda nueva (vacío quita la búsqueda)
+                filtro = entrada;
+                pagina = 0;
+                inicios.subList(1, inicios.size()).clear();
             }
         }
     }
@@ -540,14 +997,14 @@ public class SistemaComercio {
             return false;
         }
         
-        Producto producto = stock.buscarProductoPorNombre(nombreProducto);
+        Producto producto = stock().buscarProductoPorNombre(nombreProducto);
         if (producto == null) {
             System.out.println("❌ Error: Producto no encontrado con el nombre: " + nombreProducto);
             return false;
         }
         
         try {
-            boolean resultado = venta.agregarProducto(producto, cantidad, stock);
+            boolean resultado = venta.agregarProducto(producto, cantidad, stock());
             if (resultado) {
                 System.out.println("✅ Producto agregado a la venta: " + producto.getNombre() + " x" + cantidad);
             }
@@ -561,6 +1018,60 @@ public class SistemaComercio {
         }
     }
     
+    /**
+     * Crea y procesa una venta completa de un vendedor a un cliente, sin interacción por consola
+     * @param vendedor vendedor que realiza la venta
+     * @param cliente cliente al que se le vende
+     * @param metodoPago método de pago de la venta
+     * @param productosPedidos nombre de cada producto y la cantidad a vender
+     * @return la venta procesada
+     * @throws ProductoNoEncontradoException si alguno de los productos no existe
+     * @throws StockInsuficienteException si no hay stock suficiente de alguno de los productos
+     * @throws SaldoInsuficienteException si el cliente no tiene saldo suficiente
+     */
+    public Venta venderProductos(Vendedor vendedor, Cliente cliente, MetodoPago metodoPago, Map<String, Integer> productosPedidos) throws ProductoNoEncontradoException, StockInsuficienteException, SaldoInsuficienteException {
+        if (vendedor == null || cliente == null) {
+            throw new IllegalArgumentException("La venta necesita un vendedor y un cliente.");
+        }
+        if (productosPedidos == null || productosPedidos.isEmpty()) {
+            throw new IllegalArgumentException("No hay productos en la venta.");
+        }
+        if (metodoPago == null) {
+            metodoPago = cliente.getMetodoPago();
+        }
+        
+        long inicio = System.nanoTime();
+        boolean exitosa = false;
+        lock.writeLock().lock();
+        try {
+            Venta venta = new Venta(cliente, vendedor, metodoPago);
+            for (Map.Entry<String, Integer> pedido : productosPedidos.entrySet()) {
+                Producto producto = stock().buscarProductoPorNombre(pedido.getKey());
+                if (producto == null) {
+                    throw new ProductoNoEncontradoException("Producto no encontrado: " + pedido.getKey(), -1);
+                }
+                venta.agregarProducto(producto, pedido.getValue(), stock());
+            }
+            
+            venta.procesarVenta(stock());
+            ventas.add(venta);
+            analiticaVentas.registrarVenta(venta);
+            registrarEnLibro(venta);
+            
+            // Marcamos los archivos para el próximo guardado
+            marcarStockModificado();
+            guardadoUsuarios.marcar();
+            exitosa = true;
+            return venta;
+        } finally {
+            terminarEscritura();
+            TIEMPO_VENTA.registrarDesde(inicio);
+            if (!exitosa) {
+                VENTAS_RECHAZADAS.increment();
+            }
+        }
+    }
+    
     /**
      * Permite a un vendedor agregar un nuevo producto al stock
      * @param nombre nombre del producto que se agregará al stock
@@ -579,15 +1090,20 @@ public class SistemaComercio {
             return false;
         }
         
+        lock.writeLock().lock();
         try {
+            // Primero se espera la carga del stock: mientras carga sube la secuencia de IDs, y un
+            // producto creado antes podría tomar el ID de uno que todavía no se leyó
+            Stock stockActual = stock();
+
             // Creamos el nuevo producto
             Producto nuevoProducto = new Producto(nombre, descripcion, categoria, precio, marca, modelo, especificaciones);
             
             // Agregamos el nuevo producto al stock
-            stock.agregarProducto(nuevoProducto, cantidad);
+            stockActual.agregarProducto(nuevoProducto, cantidad);
             
-            // Guardamos el nuevo producto en el archivo
-            guardarStockEnArchivo();
+            // Marcamos el stock para guardar el nuevo producto en el archivo
+            marcarStockModificado();
             
             System.out.println("✅ Producto agregado exitosamente al stock:");
             System.out.println("📱 " + nombre + " | Cantidad: " + cantidad + " | Precio: $" + String.format("%.2f", precio));
@@ -596,12 +1112,79 @@ public class SistemaComercio {
         } catch (Exception e) {
             System.out.println("❌ Error al agregar producto: " + e.getMessage());
             return false;
+        } finally {
+            terminarEscritura();
+        }
+    }
+
+
+    /**
+     *  Importa en bloque el catálogo de un proveedor desde un archivo CSV o JSONL (ver ImportadorCatalogo)
+     * @param rutaArchivo archivo a importar; el formato se deduce de la extensión (.csv o .jsonl)
+     * @return el resumen de la importación
+     * @throws IOException si no se pudo leer el archivo
+     * */
+    public ResultadoImportacion importarCatalogo(String rutaArchivo) throws IOException {
+        FormatoImportacion formato = FormatoImportacion.desdeNombreArchivo(rutaArchivo);
+        try (BufferedReader lector = new BufferedReader(new FileReader(rutaArchivo))) {
+            return importarCatalogo(lector, formato);
+        }
+    }
+
+    /**
+     *  Importa en bloque el catálogo de un proveedor. El archivo se lee y valida sin frenar las
+     *  ventas; solo el alta de los productos y el guardado del stock (una sola vez) toman el lock de escritura
+     * @param lector contenido a importar
+     * @param formato formato del contenido
+     * @return el resumen de la importación
+     * @throws IOException si no se pudo leer el contenido
+     * */
+    public ResultadoImportacion importarCatalogo(BufferedReader lector, FormatoImportacion formato) throws IOException {
+        ImportadorCatalogo importador = new ImportadorCatalogo();
+        LoteImportacion lote = importador.preparar(lector, formato);
+
+        lock.writeLock().lock();
+        try {
+            ResultadoImportacion resultado = importador.aplicar(lote, stock());
+            if (resultado.getCreados() + resultado.getActualizados() > 0) {
+                marcarStockModificado();
+            }
+            return resultado;
+        } finally {
+            terminarEscritura();
         }
     }
 
 
     /**
-     *  Permite procesar la venta
+     *  Exporta el catálogo a un archivo CSV o JSONL (ver ExportadorCatalogo)
+     * @param rutaArchivo archivo a escribir; el formato se deduce de la extensión (.csv o .jsonl)
+     * @return la cantidad de productos exportados
+     * @throws IOException si no se pudo escribir el archivo
+     * */
+    public long exportarCatalogo(String rutaArchivo) throws IOException {
+        FormatoImportacion formato = FormatoImportacion.desdeNombreArchivo(rutaArchivo);
+        try (OutputStream salida = new FileOutputStream(rutaArchivo)) {
+            return exportarCatalogo(salida, formato);
+        }
+    }
+
+    /**
+     *  Exporta el catálogo a medida que lo recorre. Exporta la foto publicada al empezar, sin
+     *  locks, así un destino lento no frena las ventas y el archivo es el catálogo de un solo momento
+     * @param salida destino (archivo o respuesta HTTP); no se cierra
+     * @param formato formato a escribir
+     * @return la cantidad de productos exportados
+     * @throws IOException si no se pudo escribir en el destino
+     * */
+    public long exportarCatalogo(OutputStream salida, FormatoImportacion formato) throws IOException {
+        return new ExportadorCatalogo(stock().getCatalogo()).exportar(salida, formato);
+    }
+
+
+    /**
+     *  Permite procesar la venta. No muestra el resultado: lo hace quien la llama, después de
+     *  soltar el lock de escritura (la consola no tiene que frenar las demás ventas)
      * @param venta venta a procesar
      * @return true si la venta pudo procesarse, false si no
      * */
@@ -611,18 +1194,25 @@ public class SistemaComercio {
             return false;
         }
         
+        long inicio = System.nanoTime();
+        boolean resultado = false;
         try {
-            boolean resultado = venta.procesarVenta(stock);
-            if (resultado) {
-                // Guardamos los cambios en el archivo
-                guardarStockEnArchivo();
-                try {
-                    sistemaAutenticacion.guardarUsuarios();
-                } catch (ErrorPersistenciaException e) {
-                    System.out.println("⚠️ Advertencia: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                resultado = venta.procesarVenta(stock());
+                if (resultado) {
+                    analiticaVentas.registrarVenta(venta);
+                    registrarEnLibro(venta);
+                    // Marcamos los archivos para el próximo guardado
+                    marcarStockModificado();
+                    guardadoUsuarios.marcar();
+                }
+            } finally {
+                terminarEscritura();
+                TIEMPO_VENTA.registrarDesde(inicio);
+                if (!resultado) {
+                    VENTAS_RECHAZADAS.increment();
                 }
-                System.out.println("✅ Venta procesada exitosamente.");
-                venta.mostrarDetallesVenta();
             }
             return resultado;
         } catch (StockInsuficienteException e) {
@@ -696,6 +1286,14 @@ public class SistemaComercio {
         System.out.println("═══════════════════════════════════");
     }
     
+    /**
+     * Obtiene todos los usuarios del sistema
+     * @return una lista con todos los usuarios
+     */
+    public List<Usuario> obtenerUsuarios() {
+        return sistemaAutenticacion.listarUsuarios();
+    }
+    
     /**
      * Busca un usuario por email
      * @param email email del usuario a buscar
@@ -704,6 +1302,24 @@ public class SistemaComercio {
     public Usuario buscarUsuarioPorEmail(String email) throws UsuarioNoEncontradoException {
         return sistemaAutenticacion.buscarUsuarioPorEmail(email);
     }
+
+    /**
+     * Busca un usuario por dni
+     * @param dni dni del usuario a buscar
+     * @return usuario buscado por dni
+     */
+    public Usuario buscarUsuarioPorDni(String dni) throws UsuarioNoEncontradoException {
+        return sistemaAutenticacion.buscarUsuarioPorDni(dni);
+    }
+
+    /**
+     * Busca un usuario por id
+     * @param id id del usuario a buscar
+     * @return usuario buscado por id
+     */
+    public Usuario buscarUsuarioPorId(int id) throws UsuarioNoEncontradoException {
+        return sistemaAutenticacion.buscarUsuarioPorId(id);
+    }
     
     /**
      * Da de baja lógica a un usuario (estado = 0)
@@ -0,0 +1,59 @@
+package analitica;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totales de un grupo de ventas (un día, una categoría, un método de pago, un vendedor):
+ * cantidad de ventas, unidades vendidas e ingresos (con el descuento ya aplicado).
+ *
+ * Se actualiza al registrar cada venta y se lee desde otros hilos sin locks, por eso usa
+ * LongAdder y DoubleAdder en lugar de campos comunes.
+ */
+public class Acumulado {
+    private final LongAdder ventas;
+    private final LongAdder unidades;
+    private final DoubleAdder ingresos;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public Acumulado() {
+        this.ventas = new LongAdder();
+        this.unidades = new LongAdder();
+        this.ingresos = new DoubleAdder();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param unidades unidades vendidas
+     * @param ingresos monto cobrado por esas unidades
+     */
+    void sumar(long unidades, double ingresos) {
+        this.unidades.add(unidades);
+        this.ingresos.add(ingresos);
+    }
+
+    void contarVenta() {
+        ventas.increment();
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public long getVentas() {
+        return ventas.sum();
+    }
+    public long getUnidades() {
+        return unidades.sum();
+    }
+    public double getIngresos() {
+        return ingresos.sum();
+    }
+
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("ventas", getVentas());
+        json.put("unidades", getUnidades());
+        json.put("ingresos", getIngresos());
+        return json;
+    }
+}
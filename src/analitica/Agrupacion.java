@@ -0,0 +1,14 @@
+package analitica;
+
+/**
+ * Criterio para agrupar las líneas de venta en AlmacenLineasVenta.agrupar.
+ */
+public enum Agrupacion {
+    NINGUNA,
+    PRODUCTO,
+    CATEGORIA,
+    MARCA,
+    METODO_PAGO,
+    VENDEDOR,
+    DIA
+}
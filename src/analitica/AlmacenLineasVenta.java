@@ -0,0 +1,398 @@
+package analitica;
+
+import productos.CategoriaProducto;
+import productos.Producto;
+import usuarios.clientes.MetodoPago;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Almacén en columnas de las líneas de venta, para consultas que no anticipan los acumulados de
+ * AnaliticaVentas (por ejemplo "ingresos por marca pagados con QR el mes pasado").
+ *
+ * Cada dato de la línea es un arreglo primitivo propio (producto, cantidad, precio unitario,
+ * descuento, instante, día, vendedor, método de pago, categoría y marca): una consulta recorre
+ * solo las columnas que usa, de forma contigua en memoria y sin seguir referencias a objetos. Los
+ * textos (marca, email del vendedor) se guardan como códigos de un DiccionarioTextos, y la marca y
+ * la categoría se copian en la línea al registrarla para no tener que buscar el producto al leer.
+ *
+ * Una consulta se hace en dos pasos por bloque de filas: primero cada condición del filtro recorre
+ * su columna y achica un vector con los índices de las filas que siguen pasando (el primer paso es
+ * sobre el día, la columna más selectiva en consultas por fecha); después se suman esas filas en
+ * arreglos indexados por la clave de agrupación. Los bucles son simples, sobre arreglos primitivos,
+ * y el JIT puede desenrollarlos o vectorizarlos. Si hay muchas filas, el rango se reparte entre los
+ * núcleos disponibles y al final se combinan los parciales.
+ *
+ * Hay un solo escritor a la vez (agregarLinea es synchronized) y las lecturas no toman lock: la
+ * línea se escribe antes de publicar el nuevo tamaño en un campo volatile, y cuando las columnas
+ * crecen se copian a arreglos nuevos que se publican antes que el tamaño, así un lector que ve el
+ * tamaño n ve también las n primeras filas completas.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglos primitivos por columna: sin objetos por línea, y recorrer una columna es leer memoria
+ *   contigua.
+ * - ConcurrentHashMap de id a nombre del producto: solo para poner nombre a los grupos por
+ *   producto, se escribe al registrar y se lee desde las consultas.
+ */
+public class AlmacenLineasVenta {
+    public static final int SIN_VENDEDOR = -1;
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int FILAS_POR_BLOQUE = 4096;
+    private static final int FILAS_MINIMAS_PARALELO = 1 << 17;
+    private static final byte SIN_CODIGO = -1;
+
+    private final DiccionarioTextos marcas;
+    private final DiccionarioTextos vendedores;
+    private final Map<Integer, String> nombresProducto;
+    private volatile Columnas columnas;
+    private volatile int tamanio;
+    private int maximoProductoId;
+    private int primerDia;
+    private int ultimoDia;
+
+    private static final class Columnas {
+        private final int[] productoId;
+        private final int[] cantidad;
+        private final double[] precioUnitario;
+        private final double[] descuento;
+        private final long[] instante;
+        private final int[] dia;
+        private final int[] vendedor;
+        private final byte[] metodoPago;
+        private final byte[] categoria;
+        private final int[] marca;
+
+        private Columnas(int capacidad) {
+            this.productoId = new int[capacidad];
+            this.cantidad = new int[capacidad];
+            this.precioUnitario = new double[capacidad];
+            this.descuento = new double[capacidad];
+            this.instante = new long[capacidad];
+            this.dia = new int[capacidad];
+            this.vendedor = new int[capacidad];
+            this.metodoPago = new byte[capacidad];
+            this.categoria = new byte[capacidad];
+            this.marca = new int[capacidad];
+        }
+
+        private Columnas(Columnas anteriores, int capacidad) {
+            this.productoId = Arrays.copyOf(anteriores.productoId, capacidad);
+            this.cantidad = Arrays.copyOf(anteriores.cantidad, capacidad);
+            this.precioUnitario = Arrays.copyOf(anteriores.precioUnitario, capacidad);
+            this.descuento = Arrays.copyOf(anteriores.descuento, capacidad);
+            this.instante = Arrays.copyOf(anteriores.instante, capacidad);
+            this.dia = Arrays.copyOf(anteriores.dia, capacidad);
+            this.vendedor = Arrays.copyOf(anteriores.vendedor, capacidad);
+            this.metodoPago = Arrays.copyOf(anteriores.metodoPago, capacidad);
+            this.categoria = Arrays.copyOf(anteriores.categoria, capacidad);
+            this.marca = Arrays.copyOf(anteriores.marca, capacidad);
+        }
+
+        private int capacidad() {
+            return productoId.length;
+        }
+    }
+
+    /**
+     * Sumas parciales de una consulta, indexadas por la clave de agrupación
+     */
+    private static final class Parcial {
+        private final long[] lineas;
+        private final long[] unidades;
+        private final double[] ingresos;
+
+        private Parcial(int grupos) {
+            this.lineas = new long[grupos];
+            this.unidades = new long[grupos];
+            this.ingresos = new double[grupos];
+        }
+
+        private Parcial combinar(Parcial otro) {
+            for (int g = 0; g < lineas.length; g++) {
+                lineas[g] += otro.lineas[g];
+                unidades[g] += otro.unidades[g];
+                ingresos[g] += otro.ingresos[g];
+            }
+            return this;
+        }
+    }
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public AlmacenLineasVenta() {
+        this.marcas = new DiccionarioTextos();
+        this.vendedores = new DiccionarioTextos();
+        this.nombresProducto = new ConcurrentHashMap<>();
+        this.columnas = new Columnas(CAPACIDAD_INICIAL);
+        this.primerDia = Integer.MAX_VALUE;
+        this.ultimoDia = Integer.MIN_VALUE;
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Agrega una línea de venta
+     * @param producto producto vendido
+     * @param cantidad unidades
+     * @param precioUnitario precio de lista por unidad
+     * @param descuento monto descontado en la línea (cantidad * precioUnitario - descuento es lo cobrado)
+     * @param fecha fecha de la venta
+     * @param vendedorEmail email del vendedor o null si fue una compra directa
+     * @param metodoPago método de pago (puede ser null)
+     */
+    public synchronized void agregarLinea(Producto producto, int cantidad, double precioUnitario, double descuento,
+                                          LocalDateTime fecha, String vendedorEmail, MetodoPago metodoPago) {
+        int fila = tamanio;
+        Columnas c = columnas;
+        if (fila == c.capacidad()) {
+            c = new Columnas(c, c.capacidad() * 2);
+            columnas = c;
+        }
+        int productoId = producto.getId();
+        int dia = (int) fecha.toLocalDate().toEpochDay();
+
+        c.productoId[fila] = productoId;
+        c.cantidad[fila] = cantidad;
+        c.precioUnitario[fila] = precioUnitario;
+        c.descuento[fila] = descuento;
+        c.instante[fila] = fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        c.dia[fila] = dia;
+        c.vendedor[fila] = vendedorEmail == null ? SIN_VENDEDOR : vendedores.codificar(vendedorEmail);
+        c.metodoPago[fila] = metodoPago == null ? SIN_CODIGO : (byte) metodoPago.ordinal();
+        c.categoria[fila] = producto.getCategoria() == null ? SIN_CODIGO : (byte) producto.getCategoria().ordinal();
+        c.marca[fila] = marcas.codificar(producto.getMarca() == null ? "" : producto.getMarca());
+
+        nombresProducto.put(productoId, producto.getNombre());
+        maximoProductoId = Math.max(maximoProductoId, productoId);
+        primerDia = Math.min(primerDia, dia);
+        ultimoDia = Math.max(ultimoDia, dia);
+        tamanio = fila + 1;
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Suma líneas, unidades e ingresos cobrados de las líneas que cumplen el filtro
+     * @param agrupacion criterio de agrupación (NINGUNA devuelve un único grupo "total")
+     * @param filtro condiciones de las líneas (null para todas)
+     * @return un total por grupo con al menos una línea, de mayor a menor ingreso
+     */
+    public List<TotalGrupo> agrupar(Agrupacion agrupacion, FiltroLineas filtro) {
+        // El tamaño se lee antes que las columnas: ver el comentario de la clase
+        int n = tamanio;
+        Columnas c = columnas;
+        int maxProducto;
+        int diaMinimo;
+        int diaMaximo;
+        synchronized (this) {
+            maxProducto = maximoProductoId;
+            diaMinimo = primerDia;
+            diaMaximo = ultimoDia;
+        }
+
+        Condiciones condiciones = new Condiciones(filtro == null ? new FiltroLineas() : filtro, diaMinimo, diaMaximo);
+        if (n == 0 || condiciones.vacia) {
+            return new ArrayList<>();
+        }
+        int grupos = switch (agrupacion) {
+            case NINGUNA -> 1;
+            case PRODUCTO -> maxProducto + 1;
+            case CATEGORIA -> CategoriaProducto.values().length + 1;
+            case MARCA -> marcas.getCantidad();
+            case METODO_PAGO -> MetodoPago.values().length + 1;
+            case VENDEDOR -> vendedores.getCantidad() + 1;
+            case DIA -> condiciones.diaHasta - condiciones.diaDesde + 1;
+        };
+
+        Parcial total;
+        if (n < FILAS_MINIMAS_PARALELO) {
+            total = recorrer(c, 0, n, agrupacion, condiciones, grupos);
+        } else {
+            int tareas = Runtime.getRuntime().availableProcessors();
+            int porTarea = (n + tareas - 1) / tareas;
+            total = IntStream.range(0, tareas).parallel()
+                    .mapToObj(t -> recorrer(c, t * porTarea, Math.min(n, (t + 1) * porTarea), agrupacion, condiciones, grupos))
+                    .reduce(Parcial::combinar)
+                    .orElseGet(() -> new Parcial(grupos));
+        }
+        return resultados(total, agrupacion, condiciones.diaDesde);
+    }
+
+    /**
+     * @param filtro condiciones de las líneas (null para todas)
+     * @return líneas, unidades e ingresos de todas las líneas que cumplen el filtro
+     */
+    public TotalGrupo totalizar(FiltroLineas filtro) {
+        List<TotalGrupo> grupos = agrupar(Agrupacion.NINGUNA, filtro);
+        return grupos.isEmpty() ? new TotalGrupo("total", 0, 0, 0) : grupos.get(0);
+    }
+
+    /**
+     * El filtro traducido a códigos de columna
+     */
+    private final class Condiciones {
+        private final int diaDesde;
+        private final int diaHasta;
+        private final byte metodoPago;
+        private final byte categoria;
+        private final int marca;
+        private final int vendedor;
+        private final int productoId;
+        private final boolean filtraVendedor;
+        private final boolean filtraProducto;
+        private final boolean vacia;
+
+        private Condiciones(FiltroLineas filtro, int diaMinimo, int diaMaximo) {
+            this.diaDesde = filtro.getDesde() == null ? diaMinimo : Math.max(diaMinimo, (int) filtro.getDesde().toEpochDay());
+            this.diaHasta = filtro.getHasta() == null ? diaMaximo : Math.min(diaMaximo, (int) filtro.getHasta().toEpochDay());
+            this.metodoPago = filtro.getMetodoPago() == null ? SIN_CODIGO : (byte) filtro.getMetodoPago().ordinal();
+            this.categoria = filtro.getCategoria() == null ? SIN_CODIGO : (byte) filtro.getCategoria().ordinal();
+            this.marca = filtro.getMarca() == null ? SIN_CODIGO : marcas.buscar(filtro.getMarca());
+            this.filtraVendedor = filtro.getVendedor() != null;
+            this.vendedor = filtraVendedor ? vendedores.buscar(filtro.getVendedor()) : SIN_VENDEDOR;
+            this.filtraProducto = filtro.getProductoId() != null;
+            this.productoId = filtraProducto ? filtro.getProductoId() : 0;
+            // Un texto que nunca se registró no puede coincidir con ninguna línea
+            this.vacia = diaDesde > diaHasta
+                    || (filtro.getMarca() != null && marca == DiccionarioTextos.NO_ENCONTRADO)
+                    || (filtraVendedor && vendedor == DiccionarioTextos.NO_ENCONTRADO);
+        }
+    }
+
+    private static Parcial recorrer(Columnas c, int desde, int hasta, Agrupacion agrupacion, Condiciones condiciones, int grupos) {
+        Parcial parcial = new Parcial(grupos);
+        int[] seleccion = new int[FILAS_POR_BLOQUE];
+        for (int inicio = desde; inicio < hasta; inicio += FILAS_POR_BLOQUE) {
+            int fin = Math.min(hasta, inicio + FILAS_POR_BLOQUE);
+            int m = filtrarDias(c.dia, inicio, fin, condiciones.diaDesde, condiciones.diaHasta, seleccion);
+            if (condiciones.metodoPago != SIN_CODIGO) {
+                m = refinar(c.metodoPago, condiciones.metodoPago, seleccion, m);
+            }
+            if (condiciones.categoria != SIN_CODIGO) {
+                m = refinar(c.categoria, condiciones.categoria, seleccion, m);
+            }
+            if (condiciones.marca != SIN_CODIGO) {
+                m = refinar(c.marca, condiciones.marca, seleccion, m);
+            }
+            if (condiciones.filtraVendedor) {
+                m = refinar(c.vendedor, condiciones.vendedor, seleccion, m);
+            }
+            if (condiciones.filtraProducto) {
+                m = refinar(c.productoId, condiciones.productoId, seleccion, m);
+            }
+            switch (agrupacion) {
+                case NINGUNA -> sumarSinClave(c, seleccion, m, parcial);
+                case PRODUCTO -> sumarPorClave(c, c.productoId, 0, seleccion, m, parcial);
+                case CATEGORIA -> sumarPorClave(c, c.categoria, seleccion, m, parcial);
+                case MARCA -> sumarPorClave(c, c.marca, 0, seleccion, m, parcial);
+                case METODO_PAGO -> sumarPorClave(c, c.metodoPago, seleccion, m, parcial);
+                case VENDEDOR -> sumarPorClave(c, c.vendedor, -SIN_VENDEDOR, seleccion, m, parcial);
+                case DIA -> sumarPorClave(c, c.dia, -condiciones.diaDesde, seleccion, m, parcial);
+            }
+        }
+        return parcial;
+    }
+
+    // ---------------------- FILTROS POR COLUMNA ----------------------
+    private static int filtrarDias(int[] dia, int inicio, int fin, int diaDesde, int diaHasta, int[] seleccion) {
+        int m = 0;
+        for (int i = inicio; i < fin; i++) {
+            seleccion[m] = i;
+            // Sin rama: la fila se escribe siempre y solo avanza m si está en el rango
+            m += (dia[i] >= diaDesde & dia[i] <= diaHasta) ? 1 : 0;
+        }
+        return m;
+    }
+
+    private static int refinar(int[] columna, int valor, int[] seleccion, int m) {
+        int k = 0;
+        for (int j = 0; j < m; j++) {
+            int i = seleccion[j];
+            seleccion[k] = i;
+            k += columna[i] == valor ? 1 : 0;
+        }
+        return k;
+    }
+
+    private static int refinar(byte[] columna, byte valor, int[] seleccion, int m) {
+        int k = 0;
+        for (int j = 0; j < m; j++) {
+            int i = seleccion[j];
+            seleccion[k] = i;
+            k += columna[i] == valor ? 1 : 0;
+        }
+        return k;
+    }
+
+    // ---------------------- SUMAS POR GRUPO ----------------------
+    private static void sumarSinClave(Columnas c, int[] seleccion, int m, Parcial parcial) {
+        long unidades = 0;
+        double ingresos = 0;
+        for (int j = 0; j < m; j++) {
+            int i = seleccion[j];
+            unidades += c.cantidad[i];
+            ingresos += c.cantidad[i] * c.precioUnitario[i] - c.descuento[i];
+        }
+        parcial.lineas[0] += m;
+        parcial.unidades[0] += unidades;
+        parcial.ingresos[0] += ingresos;
+    }
+
+    private static void sumarPorClave(Columnas c, int[] clave, int desplazamiento, int[] seleccion, int m, Parcial parcial) {
+        for (int j = 0; j < m; j++) {
+            int i = seleccion[j];
+            int g = clave[i] + desplazamiento;
+            parcial.lineas[g]++;
+            parcial.unidades[g] += c.cantidad[i];
+            parcial.ingresos[g] += c.cantidad[i] * c.precioUnitario[i] - c.descuento[i];
+        }
+    }
+
+    /**
+     * Claves de enum: el grupo 0 es "sin valor" (SIN_CODIGO) y el ordinal k va al grupo k + 1
+     */
+    private static void sumarPorClave(Columnas c, byte[] clave, int[] seleccion, int m, Parcial parcial) {
+        for (int j = 0; j < m; j++) {
+            int i = seleccion[j];
+            int g = clave[i] + 1;
+            parcial.lineas[g]++;
+            parcial.unidades[g] += c.cantidad[i];
+            parcial.ingresos[g] += c.cantidad[i] * c.precioUnitario[i] - c.descuento[i];
+        }
+    }
+
+    // ---------------------- RESULTADOS ----------------------
+    private List<TotalGrupo> resultados(Parcial parcial, Agrupacion agrupacion, int diaDesde) {
+        List<TotalGrupo> resultado = new ArrayList<>();
+        for (int g = 0; g < parcial.lineas.length; g++) {
+            if (parcial.lineas[g] > 0) {
+                resultado.add(new TotalGrupo(etiqueta(agrupacion, g, diaDesde), parcial.lineas[g], parcial.unidades[g], parcial.ingresos[g]));
+            }
+        }
+        resultado.sort(Comparator.comparingDouble(TotalGrupo::getIngresos).reversed());
+        return resultado;
+    }
+
+    private String etiqueta(Agrupacion agrupacion, int g, int diaDesde) {
+        return switch (agrupacion) {
+            case NINGUNA -> "total";
+            case PRODUCTO -> nombresProducto.getOrDefault(g, "#" + g);
+            case CATEGORIA -> g == 0 ? "SIN_CATEGORIA" : CategoriaProducto.values()[g - 1].name();
+            case MARCA -> marcas.texto(g).isEmpty() ? "SIN_MARCA" : marcas.texto(g);
+            case METODO_PAGO -> g == 0 ? "SIN_METODO" : MetodoPago.values()[g - 1].name();
+            case VENDEDOR -> g == 0 ? "COMPRA_DIRECTA" : vendedores.texto(g - 1);
+            case DIA -> LocalDate.ofEpochDay(diaDesde + g).toString();
+        };
+    }
+}
@@ -0,0 +1,251 @@
+package analitica;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import productos.CategoriaProducto;
+import productos.Producto;
+import usuarios.clientes.MetodoPago;
+import ventas.DetalleVenta;
+import ventas.Venta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Analítica de ventas con totales precalculados. Cada venta completada (y cada compra directa de
+ * un cliente) se suma una sola vez, al registrarse, en los acumulados por día, por categoría de
+ * producto, por método de pago y por vendedor, y las unidades de cada producto van a un esquema
+ * space-saving para el ranking de más vendidos. Las consultas del tablero leen esos acumulados y
+ * no vuelven a recorrer el historial de ventas.
+ *
+ * Además cada línea se guarda en un AlmacenLineasVenta, para consultas con filtros y agrupaciones
+ * que no tienen un acumulado propio.
+ *
+ * Los ingresos son lo cobrado: si la venta tuvo descuento por método de pago, el descuento se
+ * reparte entre los productos en proporción a su subtotal.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentSkipListMap para los días: ordenado por fecha, así un rango de fechas es un subMap
+ *   sin recorrer los demás días, y se puede leer mientras se registra una venta.
+ * - EnumMap para categorías y métodos de pago: las claves son un enum fijo, se crean todos los
+ *   acumulados al inicio y después el mapa no cambia (leerlo desde varios hilos es seguro).
+ * - ConcurrentHashMap para los vendedores: aparecen vendedores nuevos mientras otros hilos leen.
+ * - EnumSet para las categorías de una venta: una venta cuenta una vez por categoría aunque tenga
+ *   varios productos de la misma.
+ */
+public class AnaliticaVentas {
+    public static final int CAPACIDAD_TOP_POR_DEFECTO = 1000;
+
+    private final Acumulado total;
+    private final NavigableMap<LocalDate, Acumulado> porDia;
+    private final Map<CategoriaProducto, Acumulado> porCategoria;
+    private final Map<MetodoPago, Acumulado> porMetodoPago;
+    private final Map<String, Acumulado> porVendedor;
+    private final EsquemaTopK masVendidos;
+    private final AlmacenLineasVenta lineas;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public AnaliticaVentas() {
+        this(CAPACIDAD_TOP_POR_DEFECTO);
+    }
+
+    /**
+     * @param capacidadTop cantidad de productos que sigue el ranking de más vendidos
+     */
+    public AnaliticaVentas(int capacidadTop) {
+        this.total = new Acumulado();
+        this.porDia = new ConcurrentSkipListMap<>();
+        this.porCategoria = new EnumMap<>(CategoriaProducto.class);
+        for (CategoriaProducto categoria : CategoriaProducto.values()) {
+            porCategoria.put(categoria, new Acumulado());
+        }
+        this.porMetodoPago = new EnumMap<>(MetodoPago.class);
+        for (MetodoPago metodo : MetodoPago.values()) {
+            porMetodoPago.put(metodo, new Acumulado());
+        }
+        this.porVendedor = new ConcurrentHashMap<>();
+        this.masVendidos = new EsquemaTopK(capacidadTop);
+        this.lineas = new AlmacenLineasVenta();
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Suma una venta completada a los acumulados (las ventas no completadas se ignoran)
+     * @param venta venta procesada
+     */
+    public void registrarVenta(Venta venta) {
+        if (venta == null || !"COMPLETADA".equals(venta.getEstado())) {
+            return;
+        }
+        double proporcionCobrada = venta.getSubtotal() > 0 ? venta.getTotal() / venta.getSubtotal() : 0;
+        long unidades = 0;
+        String vendedorEmail = venta.getVendedor() != null ? venta.getVendedor().getEmail() : null;
+        Set<CategoriaProducto> categorias = EnumSet.noneOf(CategoriaProducto.class);
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            Producto producto = detalle.getProducto();
+            sumarLinea(producto, detalle.getCantidad(), detalle.getSubtotal() * proporcionCobrada);
+            lineas.agregarLinea(producto, detalle.getCantidad(), detalle.getPrecioUnitario(),
+                    detalle.getSubtotal() * (1 - proporcionCobrada), venta.getFechaVenta(), vendedorEmail, venta.getMetodoPago());
+            unidades += detalle.getCantidad();
+            if (producto.getCategoria() != null) {
+                categorias.add(producto.getCategoria());
+            }
+        }
+        for (CategoriaProducto categoria : categorias) {
+            porCategoria.get(categoria).contarVenta();
+        }
+
+        sumarVenta(venta.getFechaVenta(), venta.getMetodoPago(), unidades, venta.getTotal());
+        if (vendedorEmail != null) {
+            Acumulado vendedor = porVendedor.computeIfAbsent(vendedorEmail, email -> new Acumulado());
+            vendedor.contarVenta();
+            vendedor.sumar(unidades, venta.getTotal());
+        }
+    }
+
+    /**
+     * Suma una compra directa de un cliente (sin vendedor)
+     * @param producto producto comprado
+     * @param cantidad unidades compradas
+     * @param totalCobrado monto cobrado con el descuento aplicado
+     * @param metodoPago método de pago usado
+     * @param fecha fecha de la compra
+     */
+    public void registrarCompra(Producto producto, int cantidad, double totalCobrado, MetodoPago metodoPago, LocalDateTime fecha) {
+        sumarLinea(producto, cantidad, totalCobrado);
+        lineas.agregarLinea(producto, cantidad, producto.getPrecio(), cantidad * producto.getPrecio() - totalCobrado,
+                fecha, null, metodoPago);
+        if (producto.getCategoria() != null) {
+            porCategoria.get(producto.getCategoria()).contarVenta();
+        }
+        sumarVenta(fecha, metodoPago, cantidad, totalCobrado);
+    }
+
+    private void sumarLinea(Producto producto, int cantidad, double ingresos) {
+        if (producto.getCategoria() != null) {
+            porCategoria.get(producto.getCategoria()).sumar(cantidad, ingresos);
+        }
+        masVendidos.agregar(producto.getId(), cantidad);
+    }
+
+    private void sumarVenta(LocalDateTime fecha, MetodoPago metodoPago, long unidades, double ingresos) {
+        total.contarVenta();
+        total.sumar(unidades, ingresos);
+
+        Acumulado dia = porDia.computeIfAbsent(fecha.toLocalDate(), d -> new Acumulado());
+        dia.contarVenta();
+        dia.sumar(unidades, ingresos);
+
+        if (metodoPago != null) {
+            Acumulado metodo = porMetodoPago.get(metodoPago);
+            metodo.contarVenta();
+            metodo.sumar(unidades, ingresos);
+        }
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    public Acumulado getTotal() {
+        return total;
+    }
+
+    /**
+     * @param desde primer día (incluido)
+     * @param hasta último día (incluido)
+     * @return los días con ventas del rango, ordenados por fecha
+     */
+    public NavigableMap<LocalDate, Acumulado> getPorDia(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'.");
+        }
+        return Collections.unmodifiableNavigableMap(porDia.subMap(desde, true, hasta, true));
+    }
+
+    public Map<CategoriaProducto, Acumulado> getPorCategoria() {
+        return Collections.unmodifiableMap(porCategoria);
+    }
+
+    public Map<MetodoPago, Acumulado> getPorMetodoPago() {
+        return Collections.unmodifiableMap(porMetodoPago);
+    }
+
+    /**
+     * @return los acumulados de cada vendedor, por email
+     */
+    public Map<String, Acumulado> getPorVendedor() {
+        return Collections.unmodifiableMap(porVendedor);
+    }
+
+    /**
+     * @param k cantidad de productos
+     * @return los k productos con más unidades vendidas
+     */
+    public List<ProductoFrecuente> getMasVendidos(int k) {
+        return masVendidos.top(k);
+    }
+
+    /**
+     * @return las líneas de venta en columnas, para consultas con filtros
+     */
+    public AlmacenLineasVenta getLineas() {
+        return lineas;
+    }
+
+    /**
+     * Arma el tablero completo
+     * @param desde primer día del rango de ingresos por día
+     * @param hasta último día del rango
+     * @param k cantidad de productos del ranking
+     * @return total, ingresos por día, categoría, método de pago y vendedor, y ranking de productos
+     */
+    public JSONObject aJson(LocalDate desde, LocalDate hasta, int k) {
+        JSONObject json = new JSONObject();
+        json.put("total", total.aJson());
+
+        JSONArray dias = new JSONArray();
+        for (Map.Entry<LocalDate, Acumulado> entrada : getPorDia(desde, hasta).entrySet()) {
+            dias.put(entrada.getValue().aJson().put("dia", entrada.getKey().toString()));
+        }
+        json.put("porDia", dias);
+
+        JSONObject categorias = new JSONObject();
+        for (Map.Entry<CategoriaProducto, Acumulado> entrada : porCategoria.entrySet()) {
+            if (entrada.getValue().getVentas() > 0) {
+                categorias.put(entrada.getKey().name(), entrada.getValue().aJson());
+            }
+        }
+        json.put("porCategoria", categorias);
+
+        JSONObject metodos = new JSONObject();
+        for (Map.Entry<MetodoPago, Acumulado> entrada : porMetodoPago.entrySet()) {
+            metodos.put(entrada.getKey().name(), entrada.getValue().aJson());
+        }
+        json.put("porMetodoPago", metodos);
+
+        JSONObject vendedores = new JSONObject();
+        for (Map.Entry<String, Acumulado> entrada : porVendedor.entrySet()) {
+            vendedores.put(entrada.getKey(), entrada.getValue().aJson());
+        }
+        json.put("porVendedor", vendedores);
+
+        JSONArray top = new JSONArray();
+        for (ProductoFrecuente producto : getMasVendidos(k)) {
+            JSONObject item = new JSONObject();
+            item.put("productoId", producto.getProductoId());
+            item.put("unidades", producto.getCuenta());
+            item.put("error", producto.getError());
+            top.put(item);
+        }
+        json.put("masVendidos", top);
+        return json;
+    }
+}
@@ -0,0 +1,65 @@
+package analitica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asigna a cada texto distinto (una marca, el email de un vendedor) un código entero consecutivo,
+ * así una columna de AlmacenLineasVenta guarda un int por fila en lugar de una referencia a String
+ * y los filtros comparan enteros.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - HashMap de texto a código: buscar el código de un texto en O(1).
+ * - ArrayList de código a texto: el código es la posición, así traducir un código es O(1).
+ */
+public class DiccionarioTextos {
+    public static final int NO_ENCONTRADO = -1;
+
+    private final Map<String, Integer> codigos;
+    private final List<String> textos;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public DiccionarioTextos() {
+        this.codigos = new HashMap<>();
+        this.textos = new ArrayList<>();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param texto texto a codificar
+     * @return el código del texto (se asigna uno nuevo si no tenía)
+     */
+    public synchronized int codificar(String texto) {
+        Integer codigo = codigos.get(texto);
+        if (codigo == null) {
+            codigo = textos.size();
+            codigos.put(texto, codigo);
+            textos.add(texto);
+        }
+        return codigo;
+    }
+
+    /**
+     * @param texto texto a buscar
+     * @return el código del texto o NO_ENCONTRADO si nunca se codificó
+     */
+    public synchronized int buscar(String texto) {
+        Integer codigo = codigos.get(texto);
+        return codigo == null ? NO_ENCONTRADO : codigo;
+    }
+
+    /**
+     * @param codigo código asignado por codificar
+     * @return el texto del código
+     */
+    public synchronized String texto(int codigo) {
+        return textos.get(codigo);
+    }
+
+    public synchronized int getCantidad() {
+        return textos.size();
+    }
+}
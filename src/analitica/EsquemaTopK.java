@@ -0,0 +1,96 @@
+package analitica;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Productos más vendidos con el algoritmo space-saving (Metwally, Agrawal y El Abbadi): se siguen
+ * como máximo "capacidad" productos, así la memoria no crece con el catálogo.
+ *
+ * Cuando llega un producto que no se está siguiendo y el esquema está lleno, reemplaza al de menor
+ * cuenta y hereda esa cuenta como error. Todo producto que vendió más de total/capacidad unidades
+ * está garantizado en el esquema, y la cuenta de cada uno sobreestima la real en a lo sumo su error.
+ * Con una capacidad varias veces mayor que el k que se consulta, el top-k es exacto en la práctica.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - HashMap de producto a contador: encontrar el contador de un producto en O(1).
+ * - TreeSet ordenado por cuenta: el mínimo (el que se reemplaza) y los k mayores en O(log n),
+ *   sin recorrer todos los contadores.
+ */
+public class EsquemaTopK {
+    private final int capacidad;
+    private final Map<Integer, Contador> contadores;
+    private final TreeSet<Contador> ordenados;
+
+    private static class Contador {
+        private final int productoId;
+        private long cuenta;
+        private long error;
+
+        private Contador(int productoId, long cuenta, long error) {
+            this.productoId = productoId;
+            this.cuenta = cuenta;
+            this.error = error;
+        }
+    }
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param capacidad cantidad máxima de productos que se siguen
+     */
+    public EsquemaTopK(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0.");
+        }
+        this.capacidad = capacidad;
+        this.contadores = new HashMap<>();
+        this.ordenados = new TreeSet<>(Comparator.comparingLong((Contador c) -> c.cuenta).thenComparingInt(c -> c.productoId));
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Suma unidades vendidas de un producto
+     * @param productoId id del producto
+     * @param unidades unidades vendidas
+     */
+    public synchronized void agregar(int productoId, long unidades) {
+        Contador contador = contadores.get(productoId);
+        if (contador != null) {
+            ordenados.remove(contador);
+            contador.cuenta += unidades;
+        } else if (contadores.size() < capacidad) {
+            contador = new Contador(productoId, unidades, 0);
+            contadores.put(productoId, contador);
+        } else {
+            Contador minimo = ordenados.pollFirst();
+            contadores.remove(minimo.productoId);
+            contador = new Contador(productoId, minimo.cuenta + unidades, minimo.cuenta);
+            contadores.put(productoId, contador);
+        }
+        ordenados.add(contador);
+    }
+
+    /**
+     * @param k cantidad de productos
+     * @return los k productos con más unidades, de mayor a menor
+     */
+    public synchronized List<ProductoFrecuente> top(int k) {
+        List<ProductoFrecuente> resultado = new ArrayList<>();
+        Iterator<Contador> iterador = ordenados.descendingIterator();
+        while (iterador.hasNext() && resultado.size() < k) {
+            Contador contador = iterador.next();
+            resultado.add(new ProductoFrecuente(contador.productoId, contador.cuenta, contador.error));
+        }
+        return resultado;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
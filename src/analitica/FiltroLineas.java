@@ -0,0 +1,74 @@
+package analitica;
+
+import productos.CategoriaProducto;
+import usuarios.clientes.MetodoPago;
+
+import java.time.LocalDate;
+
+/**
+ * Condiciones para AlmacenLineasVenta.agrupar. Las que quedan en null no filtran; las demás se
+ * combinan con "y". Por ejemplo, "ingresos por marca con QR el mes pasado" es un filtro con
+ * desde, hasta y metodoPago, agrupado por MARCA.
+ */
+public class FiltroLineas {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private MetodoPago metodoPago;
+    private CategoriaProducto categoria;
+    private String marca;
+    private String vendedor;
+    private Integer productoId;
+
+    // ---------------------- GETTERS Y SETTERS ----------------------
+    public LocalDate getDesde() {
+        return desde;
+    }
+    /**
+     * @param desde primer día incluido
+     */
+    public void setDesde(LocalDate desde) {
+        this.desde = desde;
+    }
+    public LocalDate getHasta() {
+        return hasta;
+    }
+    /**
+     * @param hasta último día incluido
+     */
+    public void setHasta(LocalDate hasta) {
+        this.hasta = hasta;
+    }
+    public MetodoPago getMetodoPago() {
+        return metodoPago;
+    }
+    public void setMetodoPago(MetodoPago metodoPago) {
+        this.metodoPago = metodoPago;
+    }
+    public CategoriaProducto getCategoria() {
+        return categoria;
+    }
+    public void setCategoria(CategoriaProducto categoria) {
+        this.categoria = categoria;
+    }
+    public String getMarca() {
+        return marca;
+    }
+    public void setMarca(String marca) {
+        this.marca = marca;
+    }
+    public String getVendedor() {
+        return vendedor;
+    }
+    /**
+     * @param vendedor email del vendedor
+     */
+    public void setVendedor(String vendedor) {
+        this.vendedor = vendedor;
+    }
+    public Integer getProductoId() {
+        return productoId;
+    }
+    public void setProductoId(Integer productoId) {
+        this.productoId = productoId;
+    }
+}
@@ -0,0 +1,40 @@
+package analitica;
+
+/**
+ * Producto del top-k de EsquemaTopK. La cuenta real está entre cuenta - error y cuenta.
+ */
+public class ProductoFrecuente {
+    private final int productoId;
+    private final long cuenta;
+    private final long error;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public ProductoFrecuente(int productoId, long cuenta, long error) {
+        this.productoId = productoId;
+        this.cuenta = cuenta;
+        this.error = error;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public int getProductoId() {
+        return productoId;
+    }
+    /**
+     * @return unidades estimadas (cota superior)
+     */
+    public long getCuenta() {
+        return cuenta;
+    }
+    /**
+     * @return sobreestimación máxima de la cuenta
+     */
+    public long getError() {
+        return error;
+    }
+    /**
+     * @return unidades que seguro se vendieron (cota inferior)
+     */
+    public long getCuentaGarantizada() {
+        return cuenta - error;
+    }
+}
@@ -0,0 +1,44 @@
+package analitica;
+
+import org.json.JSONObject;
+
+/**
+ * Resultado de una agrupación de AlmacenLineasVenta: líneas, unidades e ingresos de un grupo.
+ */
+public class TotalGrupo {
+    private final String clave;
+    private final long lineas;
+    private final long unidades;
+    private final double ingresos;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public TotalGrupo(String clave, long lineas, long unidades, double ingresos) {
+        this.clave = clave;
+        this.lineas = lineas;
+        this.unidades = unidades;
+        this.ingresos = ingresos;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public String getClave() {
+        return clave;
+    }
+    public long getLineas() {
+        return lineas;
+    }
+    public long getUnidades() {
+        return unidades;
+    }
+    public double getIngresos() {
+        return ingresos;
+    }
+
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("clave", clave);
+        json.put("lineas", lineas);
+        json.put("unidades", unidades);
+        json.put("ingresos", ingresos);
+        return json;
+    }
+}
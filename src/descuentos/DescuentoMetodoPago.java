@@ -1,5 +1,7 @@
 package descuentos;
 
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
 import usuarios.clientes.MetodoPago;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +12,7 @@ import java.util.Map;
  */
 public class DescuentoMetodoPago {
     private static final Map<MetodoPago, Double> DESCUENTOS_POR_METODO;
+    private static final HistogramaLatencias TIEMPO_CALCULO = Metricas.temporizador("descuento.calcular");
     
     static {
         DESCUENTOS_POR_METODO = new HashMap<>();
@@ -36,8 +39,11 @@ public class DescuentoMetodoPago {
      * @return descuento para el monto y el metodo de pago especificados
      */
     public static double calcularDescuento(double monto, MetodoPago metodoPago) {
+        long inicio = System.nanoTime();
         double porcentaje = obtenerDescuento(metodoPago);
-        return monto * (porcentaje / 100.0);
+        double descuento = monto * (porcentaje / 100.0);
+        TIEMPO_CALCULO.registrarDesde(inicio);
+        return descuento;
     }
     
     /**
@@ -50,61 +56,4 @@ public class DescuentoMetodoPago {
         double descuento = calcularDescuento(monto, metodoPago);
         return monto - descuento;
     }
-    
-    /**
-     * Muestra información sobre los descuentos disponibles
-     */
-    public static void mostrarDescuentosDisponibles() {
-        System.out.println("💳 DESCUENTOS POR MÉTODO DE PAGO");
-        System.out.println("═══════════════════════════════════");
-        
-        for (Map.Entry<MetodoPago, Double> entry : DESCUENTOS_POR_METODO.entrySet()) {
-            MetodoPago metodo = entry.getKey();
-            double descuento = entry.getValue();
-            
-            String emoji = obtenerEmojiMetodo(metodo);
-            String descripcion = obtenerDescripcionMetodo(metodo);
-            
-            if (descuento > 0) {
-                System.out.printf("%s %s: %.1f%% de descuento%n",
-                    emoji, descripcion, descuento);
-            } else {
-                System.out.printf("%s %s: Sin descuento%n",
-                    emoji, descripcion);
-            }
-        }
-        System.out.println("═══════════════════════════════════");
-    }
-    
-    /**
-     * Obtiene el emoji correspondiente al método de pago
-     * @param metodo metodo de pago cuyo emogi queremos obtener
-     * @return el emoji correspondiente al método de pago
-     */
-    private static String obtenerEmojiMetodo(MetodoPago metodo) {
-        switch (metodo) {
-            case QR: return "📱";
-            case DEBITO: return "💳";
-            case TARJETA_CREDITO: return "💳";
-            case BILLETERA_VIRTUAL: return "📲";
-            case EFECTIVO: return "💵";
-            default: return "💰";
-        }
-    }
-    
-    /**
-     * Obtiene la descripción del método de pago
-     * @param metodo metodo de pago cuya descripcion queremos obtener
-     * @return descripcion del metodo de pago especificado
-     */
-    private static String obtenerDescripcionMetodo(MetodoPago metodo) {
-        switch (metodo) {
-            case QR: return "Pago QR";
-            case DEBITO: return "Tarjeta de Débito";
-            case TARJETA_CREDITO: return "Tarjeta de Crédito";
-            case BILLETERA_VIRTUAL: return "Billetera Virtual";
-            case EFECTIVO: return "Efectivo";
-            default: return "Método no reconocido";
-        }
-    }
 }
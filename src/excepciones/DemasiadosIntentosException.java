@@ -0,0 +1,17 @@
+package excepciones;
+
+/**
+ * Excepción lanzada cuando se bloquea un inicio de sesión por superar el límite de intentos fallidos.
+ */
+public class DemasiadosIntentosException extends CredencialesInvalidasException {
+    private long segundosEspera;
+
+    public DemasiadosIntentosException(String mensaje, long segundosEspera) {
+        super(mensaje);
+        this.segundosEspera = segundosEspera;
+    }
+
+    public long getSegundosEspera() {
+        return segundosEspera;
+    }
+}
@@ -0,0 +1,133 @@
+package exportacion;
+
+import importacion.FormatoImportacion;
+import inventario.CatalogoInstantanea;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import org.json.JSONObject;
+import productos.Producto;
+import registro.Bitacora;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exporta el catálogo (productos con su cantidad en stock) a CSV o JSONL, escribiendo a medida que
+ * lo recorre: sirve igual para un archivo que para la respuesta de una petición HTTP, y la memoria
+ * que usa no depende del tamaño del catálogo.
+ *
+ * Se exporta una foto del catálogo (CatalogoInstantanea), que no cambia mientras se recorre y no
+ * necesita locks: el archivo muestra el catálogo de un solo momento, y si el destino es lento (un
+ * cliente que lee despacio) la escritura espera sin frenar las ventas. Los productos se arman en
+ * texto de a PRODUCTOS_POR_BLOQUE y cada bloque se escribe de una vez en el buffer.
+ *
+ * El formato es el mismo que lee ImportadorCatalogo (más las columnas id y activo, que el
+ * importador ignora), así un catálogo exportado se puede volver a importar.
+ */
+public class ExportadorCatalogo {
+    public static final String[] COLUMNAS = {"id", "nombre", "descripcion", "categoria", "precio", "marca", "modelo", "especificaciones", "cantidad", "activo"};
+    private static final int PRODUCTOS_POR_BLOQUE = 1024;
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final HistogramaLatencias TIEMPO_EXPORTAR = Metricas.temporizador("exportacion.catalogo");
+    private static final Bitacora BITACORA = Bitacora.de(ExportadorCatalogo.class);
+
+    private final CatalogoInstantanea catalogo;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param catalogo foto del catálogo a exportar
+     */
+    public ExportadorCatalogo(CatalogoInstantanea catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    // ---------------------- EXPORTACION ----------------------
+    /**
+     * Escribe el catálogo completo en el destino (que no se cierra)
+     * @param salida destino de la exportación
+     * @param formato formato a escribir
+     * @return la cantidad de productos exportados
+     * @throws IOException si no se pudo escribir en el destino (por ejemplo, el cliente se desconectó)
+     */
+    public long exportar(OutputStream salida, FormatoImportacion formato) throws IOException {
+        long inicio = System.nanoTime();
+        long exportados = 0;
+        try {
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+            if (formato == FormatoImportacion.CSV) {
+                escritor.write(String.join(",", COLUMNAS));
+                escritor.write('\n');
+            }
+
+            StringBuilder bloque = new StringBuilder();
+            for (int id = catalogo.siguienteId(0); id >= 0; id = catalogo.siguienteId(id + 1)) {
+                Producto producto = catalogo.buscarProductoPorId(id);
+                if (formato == FormatoImportacion.CSV) {
+                    escribirCsv(bloque, producto, catalogo.obtenerCantidad(id));
+                } else {
+                    escribirJson(bloque, producto, catalogo.obtenerCantidad(id));
+                }
+                exportados++;
+                if (exportados % PRODUCTOS_POR_BLOQUE == 0) {
+                    escritor.append(bloque);
+                    bloque.setLength(0);
+                }
+            }
+            escritor.append(bloque);
+
+            escritor.flush();
+            BITACORA.info("exportacion.completada", "Catálogo exportado", "formato", formato.name(), "productos", exportados,
+                    "versionCatalogo", catalogo.getVersion());
+            return exportados;
+        } finally {
+            TIEMPO_EXPORTAR.registrarDesde(inicio);
+        }
+    }
+
+    // ---------------------- FORMATOS ----------------------
+    private static void escribirCsv(StringBuilder destino, Producto producto, int cantidad) {
+        destino.append(producto.getId()).append(',');
+        campoCsv(destino, producto.getNombre()).append(',');
+        campoCsv(destino, producto.getDescripcion()).append(',');
+        destino.append(producto.getCategoria() != null ? producto.getCategoria().name() : "").append(',');
+        destino.append(producto.getPrecio()).append(',');
+        campoCsv(destino, producto.getMarca()).append(',');
+        campoCsv(destino, producto.getModelo()).append(',');
+        campoCsv(destino, producto.getEspecificaciones()).append(',');
+        destino.append(cantidad).append(',');
+        destino.append(producto.isActivo()).append('\n');
+    }
+
+    /**
+     * Escribe un campo CSV, entre comillas si tiene comas o comillas. Los saltos de línea se
+     * reemplazan por espacios: cada producto ocupa una sola línea, como espera el importador
+     */
+    private static StringBuilder campoCsv(StringBuilder destino, String valor) {
+        if (valor == null) {
+            return destino;
+        }
+        String texto = valor.replace('\n', ' ').replace('\r', ' ');
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0) {
+            return destino.append(texto);
+        }
+        return destino.append('"').append(texto.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void escribirJson(StringBuilder destino, Producto producto, int cantidad) {
+        destino.append("{\"id\":").append(producto.getId());
+        destino.append(",\"nombre\":").append(JSONObject.quote(producto.getNombre()));
+        destino.append(",\"descripcion\":").append(JSONObject.quote(producto.getDescripcion()));
+        destino.append(",\"categoria\":").append(JSONObject.quote(producto.getCategoria() != null ? producto.getCategoria().name() : ""));
+        destino.append(",\"precio\":").append(producto.getPrecio());
+        destino.append(",\"marca\":").append(JSONObject.quote(producto.getMarca()));
+        destino.append(",\"modelo\":").append(JSONObject.quote(producto.getModelo()));
+        destino.append(",\"especificaciones\":").append(JSONObject.quote(producto.getEspecificaciones()));
+        destino.append(",\"cantidad\":").append(cantidad);
+        destino.append(",\"activo\":").append(producto.isActivo());
+        destino.append("}\n");
+    }
+}
@@ -0,0 +1,82 @@
+package importacion;
+
+import productos.CategoriaProducto;
+
+/**
+ * Un producto del archivo del proveedor ya leído y validado, con la línea de la que salió.
+ * Marca y modelo identifican al producto: dos filas (o una fila y un producto del stock) con la
+ * misma marca y modelo, sin importar mayúsculas ni espacios a los costados, son el mismo producto.
+ */
+public class FilaImportacion {
+    private final long linea;
+    private final String nombre;
+    private final String descripcion;
+    private final CategoriaProducto categoria;
+    private final double precio;
+    private final String marca;
+    private final String modelo;
+    private final String especificaciones;
+    private final int cantidad;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public FilaImportacion(long linea, String nombre, String descripcion, CategoriaProducto categoria, double precio,
+                           String marca, String modelo, String especificaciones, int cantidad) {
+        this.linea = linea;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.categoria = categoria;
+        this.precio = precio;
+        this.marca = marca;
+        this.modelo = modelo;
+        this.especificaciones = especificaciones;
+        this.cantidad = cantidad;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public long getLinea() {
+        return linea;
+    }
+    public String getNombre() {
+        return nombre;
+    }
+    public String getDescripcion() {
+        return descripcion;
+    }
+    public CategoriaProducto getCategoria() {
+        return categoria;
+    }
+    public double getPrecio() {
+        return precio;
+    }
+    public String getMarca() {
+        return marca;
+    }
+    public String getModelo() {
+        return modelo;
+    }
+    public String getEspecificaciones() {
+        return especificaciones;
+    }
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @return la clave que identifica al producto (marca y modelo normalizados)
+     */
+    public String getClave() {
+        return clave(marca, modelo);
+    }
+
+    /**
+     * @param marca marca del producto
+     * @param modelo modelo del producto
+     * @return la clave de marca y modelo, la misma para filas del archivo y productos del stock
+     */
+    public static String clave(String marca, String modelo) {
+        String m = marca == null ? "" : marca.trim().toLowerCase();
+        String o = modelo == null ? "" : modelo.trim().toLowerCase();
+        return m + '\u0000' + o;
+    }
+}
@@ -0,0 +1,43 @@
+package importacion;
+
+/**
+ * Formatos de archivo que acepta la importación de catálogo (y que escribe la exportación).
+ *
+ * - CSV: la primera línea es el encabezado con los nombres de las columnas (en cualquier orden),
+ *   separadas por comas; los campos con comas o comillas van entre comillas dobles ("" es una comilla).
+ * - JSONL: un objeto JSON por línea, con las mismas claves que las columnas del CSV.
+ */
+public enum FormatoImportacion {
+    CSV,
+    JSONL;
+
+    /**
+     * Deduce el formato por la extensión del archivo (.csv, .jsonl o .ndjson)
+     * @param nombreArchivo nombre o ruta del archivo
+     * @return el formato del archivo
+     * @throws IllegalArgumentException si la extensión no es de un formato conocido
+     */
+    public static FormatoImportacion desdeNombreArchivo(String nombreArchivo) {
+        String nombre = nombreArchivo == null ? "" : nombreArchivo.toLowerCase();
+        if (nombre.endsWith(".csv")) {
+            return CSV;
+        }
+        if (nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + nombreArchivo + ". Use .csv o .jsonl");
+    }
+
+    /**
+     * @param texto nombre del formato (csv o jsonl, sin importar mayúsculas)
+     * @return el formato
+     * @throws IllegalArgumentException si no es un formato conocido
+     */
+    public static FormatoImportacion desdeTexto(String texto) {
+        try {
+            return valueOf(texto.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Formato inválido: " + texto + ". Use csv o jsonl");
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package importacion;
+
+import inventario.Stock;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import org.json.JSONException;
+import org.json.JSONObject;
+import productos.CategoriaProducto;
+import productos.Producto;
+import registro.Bitacora;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Importa en bloque el catálogo de un proveedor (CSV o JSONL) al stock.
+ *
+ * La importación es una cadena de etapas:
+ * 1. Lectura: un solo hilo lee el archivo y lo corta en bloques de líneas.
+ * 2. Parseo y validación: cada bloque se procesa en el pool común mientras se lee el siguiente.
+ *    Una fila inválida (falta un dato, precio o cantidad mal escritos, categoría desconocida) se
+ *    descarta con su número de línea; no corta la importación.
+ * 3. Sin duplicados: los bloques se recorren en orden y las filas con la misma marca y modelo se
+ *    quedan con la última (el dato más nuevo del archivo).
+ * 4. Alta o actualización (aplicar): si ya hay un producto con esa marca y modelo se actualizan sus
+ *    datos (el precio queda en su historial) y se le suman las unidades, si no se crea. Esta es la
+ *    única etapa que toca el stock, y el que la llama guarda el archivo de stock una sola vez al
+ *    final, no una vez por producto.
+ *
+ * Las etapas 1 a 3 (preparar) no necesitan el stock, así que corren sin el lock del sistema.
+ * Solo se retienen unos pocos bloques a la vez: un archivo de millones de filas no se carga
+ * entero en memoria, solo las filas válidas.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ArrayDeque para los bloques en proceso: se encolan al leerlos y se consumen en el mismo orden.
+ * - LinkedHashMap para las filas sin duplicados: busca por marca y modelo y mantiene el orden del
+ *   archivo, así los productos nuevos reciben sus IDs en ese orden.
+ * - HashMap para los productos del stock por marca y modelo: se arma una vez por importación.
+ */
+public class ImportadorCatalogo {
+    public static final int MAXIMO_ERRORES_INFORMADOS = 100;
+    public static final String[] COLUMNAS = {"nombre", "descripcion", "categoria", "precio", "marca", "modelo", "especificaciones", "cantidad"};
+    private static final String[] COLUMNAS_OBLIGATORIAS = {"nombre", "categoria", "precio", "marca", "modelo"};
+    private static final int NOMBRE = 0, DESCRIPCION = 1, CATEGORIA = 2, PRECIO = 3, MARCA = 4, MODELO = 5, ESPECIFICACIONES = 6, CANTIDAD = 7;
+    private static final int TAMANIO_BLOQUE = 8192;
+    private static final int BLOQUES_EN_PROCESO = 2 * Runtime.getRuntime().availableProcessors();
+    private static final HistogramaLatencias TIEMPO_PREPARAR = Metricas.temporizador("importacion.preparar");
+    private static final HistogramaLatencias TIEMPO_APLICAR = Metricas.temporizador("importacion.aplicar");
+    private static final LongAdder FILAS_INVALIDAS = Metricas.contador("importacion.filasInvalidas");
+    private static final Bitacora BITACORA = Bitacora.de(ImportadorCatalogo.class);
+
+    /**
+     * Un bloque de líneas del archivo y, una vez procesado, la fila o el error de cada una
+     */
+    private static final class Bloque {
+        final String[] textos;
+        final long[] lineas;
+        final int tamanio;
+        final FilaImportacion[] filas;
+        final String[] errores;
+
+        Bloque(String[] textos, long[] lineas, int tamanio) {
+            this.textos = textos;
+            this.lineas = lineas;
+            this.tamanio = tamanio;
+            this.filas = new FilaImportacion[tamanio];
+            this.errores = new String[tamanio];
+        }
+    }
+
+    // ---------------------- ETAPAS 1 A 3: PREPARAR ----------------------
+    /**
+     * Lee, valida y quita duplicados de un archivo de proveedor, sin tocar el stock
+     * @param lector archivo a importar (no se cierra)
+     * @param formato formato del archivo
+     * @return las filas válidas sin duplicados, con el conteo de descartadas
+     * @throws IOException si no se pudo leer el archivo
+     * @throws IllegalArgumentException si el encabezado del CSV no tiene las columnas obligatorias
+     */
+    public LoteImportacion preparar(BufferedReader lector, FormatoImportacion formato) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            int[] columnas = null;
+            Deque<CompletableFuture<Bloque>> enProceso = new ArrayDeque<>();
+            Map<String, FilaImportacion> unicas = new LinkedHashMap<>();
+            long[] conteos = new long[3]; // leídas, inválidas, duplicadas
+            List<String> errores = new ArrayList<>();
+
+            String[] textos = new String[TAMANIO_BLOQUE];
+            long[] lineas = new long[TAMANIO_BLOQUE];
+            int tamanio = 0;
+            long numeroLinea = 0;
+            String texto;
+            while ((texto = lector.readLine()) != null) {
+                numeroLinea++;
+                if (texto.isBlank()) {
+                    continue;
+                }
+                if (formato == FormatoImportacion.CSV && columnas == null) {
+                    columnas = leerEncabezado(texto);
+                    continue;
+                }
+                textos[tamanio] = texto;
+                lineas[tamanio] = numeroLinea;
+                tamanio++;
+                if (tamanio == TAMANIO_BLOQUE) {
+                    enProceso.add(procesar(new Bloque(textos, lineas, tamanio), formato, columnas));
+                    textos = new String[TAMANIO_BLOQUE];
+                    lineas = new long[TAMANIO_BLOQUE];
+                    tamanio = 0;
+                    // Si la lectura va más rápido que el parseo, se espera al bloque más viejo
+                    while (enProceso.size() > BLOQUES_EN_PROCESO) {
+                        consolidar(enProceso.poll().join(), unicas, conteos, errores);
+                    }
+                }
+            }
+            if (tamanio > 0) {
+                enProceso.add(procesar(new Bloque(textos, lineas, tamanio), formato, columnas));
+            }
+            while (!enProceso.isEmpty()) {
+                consolidar(enProceso.poll().join(), unicas, conteos, errores);
+            }
+
+            FILAS_INVALIDAS.add(conteos[1]);
+            return new LoteImportacion(new ArrayList<>(unicas.values()), conteos[0], conteos[1], conteos[2], errores, inicio);
+        } finally {
+            TIEMPO_PREPARAR.registrarDesde(inicio);
+        }
+    }
+
+    private static CompletableFuture<Bloque> procesar(Bloque bloque, FormatoImportacion formato, int[] columnas) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (int i = 0; i < bloque.tamanio; i++) {
+                try {
+                    String[] campos = formato == FormatoImportacion.CSV
+                            ? camposCsv(bloque.textos[i], columnas)
+                            : camposJson(bloque.textos[i]);
+                    bloque.filas[i] = validar(bloque.lineas[i], campos);
+                } catch (IllegalArgumentException | JSONException e) {
+                    bloque.errores[i] = "Línea " + bloque.lineas[i] + ": " + e.getMessage();
+                }
+                bloque.textos[i] = null;
+            }
+            return bloque;
+        });
+    }
+
+    private static void consolidar(Bloque bloque, Map<String, FilaImportacion> unicas, long[] conteos, List<String> errores) {
+        for (int i = 0; i < bloque.tamanio; i++) {
+            conteos[0]++;
+            FilaImportacion fila = bloque.filas[i];
+            if (fila == null) {
+                conteos[1]++;
+                if (errores.size() < MAXIMO_ERRORES_INFORMADOS) {
+                    errores.add(bloque.errores[i]);
+                }
+            } else if (unicas.put(fila.getClave(), fila) != null) {
+                conteos[2]++;
+            }
+        }
+    }
+
+    // ---------------------- ETAPA 4: APLICAR ----------------------
+    /**
+     * Da de alta o actualiza en el stock los productos de un lote preparado. Quien lo llama debe
+     * tener el stock para sí solo (el lock de escritura del sistema) y guardarlo después
+     * @param lote lote preparado
+     * @param stock stock a actualizar
+     * @return el resumen de la importación
+     */
+    public ResultadoImportacion aplicar(LoteImportacion lote, Stock stock) {
+        long inicio = System.nanoTime();
+        try {
+            Map<String, Producto> existentes = new HashMap<>();
+            for (Producto producto : stock.getProductos().values()) {
+                existentes.putIfAbsent(FilaImportacion.clave(producto.getMarca(), producto.getModelo()), producto);
+            }
+
+            int creados = 0;
+            int actualizados = 0;
+            long unidades = 0;
+            for (FilaImportacion fila : lote.getFilas()) {
+                Producto producto = existentes.get(fila.getClave());
+                if (producto == null) {
+                    producto = new Producto(fila.getNombre(), fila.getDescripcion(), fila.getCategoria(), fila.getPrecio(),
+                            fila.getMarca(), fila.getModelo(), fila.getEspecificaciones());
+                    creados++;
+                } else {
+                    producto.setNombre(fila.getNombre());
+                    producto.setDescripcion(fila.getDescripcion());
+                    producto.setCategoria(fila.getCategoria());
+                    stock.cambiarPrecio(producto, fila.getPrecio());
+                    producto.setEspecificaciones(fila.getEspecificaciones());
+                    actualizados++;
+                }
+                stock.agregarProducto(producto, fila.getCantidad());
+                unidades += fila.getCantidad();
+            }
+
+            ResultadoImportacion resultado = new ResultadoImportacion(lote, creados, actualizados, unidades,
+                    (System.nanoTime() - lote.getInicio()) / 1_000_000);
+            BITACORA.info("importacion.completada", "Catálogo importado", "leidas", resultado.getLeidas(),
+                    "invalidas", resultado.getInvalidas(), "duplicadas", resultado.getDuplicadas(), "creados", creados,
+                    "actualizados", actualizados, "unidades", unidades);
+            return resultado;
+        } finally {
+            TIEMPO_APLICAR.registrarDesde(inicio);
+        }
+    }
+
+    // ---------------------- PARSEO ----------------------
+    /**
+     * @return la posición de cada columna de COLUMNAS en el encabezado, o -1 si no está
+     */
+    private static int[] leerEncabezado(String encabezado) {
+        List<String> nombres = separarCsv(encabezado);
+        int[] columnas = new int[COLUMNAS.length];
+        for (int c = 0; c < COLUMNAS.length; c++) {
+            columnas[c] = -1;
+            for (int i = 0; i < nombres.size(); i++) {
+                if (nombres.get(i).trim().equalsIgnoreCase(COLUMNAS[c])) {
+                    columnas[c] = i;
+                    break;
+                }
+            }
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            for (int c = 0; c < COLUMNAS.length; c++) {
+                if (COLUMNAS[c].equals(obligatoria) && columnas[c] < 0) {
+                    throw new IllegalArgumentException("Al encabezado del CSV le falta la columna obligatoria: " + obligatoria);
+                }
+            }
+        }
+        return columnas;
+    }
+
+    private static String[] camposCsv(String texto, int[] columnas) {
+        List<String> valores = separarCsv(texto);
+        String[] campos = new String[COLUMNAS.length];
+        for (int c = 0; c < COLUMNAS.length; c++) {
+            int posicion = columnas[c];
+            campos[c] = posicion >= 0 && posicion < valores.size() ? valores.get(posicion) : null;
+        }
+        return campos;
+    }
+
+    private static String[] camposJson(String texto) {
+        JSONObject json = new JSONObject(texto);
+        String[] campos = new String[COLUMNAS.length];
+        for (int c = 0; c < COLUMNAS.length; c++) {
+            campos[c] = json.optString(COLUMNAS[c], null);
+        }
+        return campos;
+    }
+
+    /**
+     * Separa una línea CSV por comas, respetando los campos entre comillas dobles ("" dentro de
+     * un campo entre comillas es una comilla). Un campo no puede ocupar más de una línea
+     */
+    private static List<String> separarCsv(String linea) {
+        List<String> valores = new ArrayList<>(COLUMNAS.length);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+
+    // ---------------------- VALIDACION ----------------------
+    private static FilaImportacion validar(long linea, String[] campos) {
+        String nombre = obligatorio(campos[NOMBRE], "nombre");
+        String marca = obligatorio(campos[MARCA], "marca");
+        String modelo = obligatorio(campos[MODELO], "modelo");
+        CategoriaProducto categoria = parsearCategoria(obligatorio(campos[CATEGORIA], "categoria"));
+
+        double precio;
+        try {
+            precio = Double.parseDouble(obligatorio(campos[PRECIO], "precio"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Precio inválido: " + campos[PRECIO]);
+        }
+        if (!(precio > 0) || Double.isInfinite(precio)) {
+            throw new IllegalArgumentException("El precio debe ser mayor a 0: " + campos[PRECIO]);
+        }
+
+        int cantidad = 0;
+        String cantidadTexto = opcional(campos[CANTIDAD]);
+        if (!cantidadTexto.isEmpty()) {
+            try {
+                cantidad = Integer.parseInt(cantidadTexto);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cantidad inválida: " + cantidadTexto);
+            }
+            if (cantidad < 0) {
+                throw new IllegalArgumentException("La cantidad no puede ser negativa: " + cantidad);
+            }
+        }
+
+        return new FilaImportacion(linea, nombre, opcional(campos[DESCRIPCION]), categoria, precio, marca, modelo,
+                opcional(campos[ESPECIFICACIONES]), cantidad);
+    }
+
+    private static String obligatorio(String valor, String columna) {
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Falta el dato obligatorio: " + columna);
+        }
+        return valor.trim();
+    }
+
+    private static String opcional(String valor) {
+        return valor == null ? "" : valor.trim();
+    }
+
+    /**
+     * La categoría se acepta por el nombre del enum (LAPTOP) o por su nombre visible (Laptop)
+     */
+    private static CategoriaProducto parsearCategoria(String texto) {
+        for (CategoriaProducto categoria : CategoriaProducto.values()) {
+            if (categoria.name().equalsIgnoreCase(texto) || categoria.getNombre().equalsIgnoreCase(texto)) {
+                return categoria;
+            }
+        }
+        throw new IllegalArgumentException("Categoría inválida: " + texto);
+    }
+}
@@ -0,0 +1,56 @@
+package importacion;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Un archivo de proveedor ya leído, validado y sin duplicados, listo para aplicarse al stock.
+ * Se prepara sin tocar el stock (ver ImportadorCatalogo.preparar), así la parte pesada de la
+ * importación no frena las ventas.
+ */
+public class LoteImportacion {
+    private final List<FilaImportacion> filas;
+    private final long leidas;
+    private final long invalidas;
+    private final long duplicadas;
+    private final List<String> errores;
+    private final long inicio;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param filas filas válidas, una por marca y modelo, en el orden del archivo
+     * @param leidas filas leídas del archivo (sin el encabezado ni las líneas en blanco)
+     * @param invalidas filas descartadas por no pasar la validación
+     * @param duplicadas filas válidas reemplazadas por una posterior con la misma marca y modelo
+     * @param errores los primeros errores de validación, con su número de línea
+     * @param inicio System.nanoTime() al empezar a leer el archivo, para medir la importación completa
+     */
+    public LoteImportacion(List<FilaImportacion> filas, long leidas, long invalidas, long duplicadas, List<String> errores, long inicio) {
+        this.filas = Collections.unmodifiableList(filas);
+        this.leidas = leidas;
+        this.invalidas = invalidas;
+        this.duplicadas = duplicadas;
+        this.errores = Collections.unmodifiableList(errores);
+        this.inicio = inicio;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public List<FilaImportacion> getFilas() {
+        return filas;
+    }
+    public long getLeidas() {
+        return leidas;
+    }
+    public long getInvalidas() {
+        return invalidas;
+    }
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+    public List<String> getErrores() {
+        return errores;
+    }
+    public long getInicio() {
+        return inicio;
+    }
+}
@@ -0,0 +1,73 @@
+package importacion;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación de catálogo: cuántas filas se leyeron, cuántas se descartaron (y por
+ * qué, las primeras), cuántos productos se crearon y cuántos ya existían y se actualizaron.
+ */
+public class ResultadoImportacion {
+    private final long leidas;
+    private final long invalidas;
+    private final long duplicadas;
+    private final int creados;
+    private final int actualizados;
+    private final long unidadesIngresadas;
+    private final long duracionMs;
+    private final List<String> errores;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public ResultadoImportacion(LoteImportacion lote, int creados, int actualizados, long unidadesIngresadas, long duracionMs) {
+        this.leidas = lote.getLeidas();
+        this.invalidas = lote.getInvalidas();
+        this.duplicadas = lote.getDuplicadas();
+        this.errores = lote.getErrores();
+        this.creados = creados;
+        this.actualizados = actualizados;
+        this.unidadesIngresadas = unidadesIngresadas;
+        this.duracionMs = duracionMs;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public long getLeidas() {
+        return leidas;
+    }
+    public long getInvalidas() {
+        return invalidas;
+    }
+    public long getDuplicadas() {
+        return duplicadas;
+    }
+    public int getCreados() {
+        return creados;
+    }
+    public int getActualizados() {
+        return actualizados;
+    }
+    public long getUnidadesIngresadas() {
+        return unidadesIngresadas;
+    }
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+    public List<String> getErrores() {
+        return errores;
+    }
+
+    // ---------------------- METODOS ----------------------
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("leidas", leidas);
+        json.put("invalidas", invalidas);
+        json.put("duplicadas", duplicadas);
+        json.put("creados", creados);
+        json.put("actualizados", actualizados);
+        json.put("unidadesIngresadas", unidadesIngresadas);
+        json.put("duracionMs", duracionMs);
+        json.put("errores", new JSONArray(errores));
+        return json;
+    }
+}
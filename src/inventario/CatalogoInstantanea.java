@@ -0,0 +1,335 @@
+package inventario;
+
+import productos.Producto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+
+/**
+ * Foto inmutable del catálogo (cada producto con su cantidad) en un momento, para las consultas.
+ *
+ * El Stock publica una foto nueva al terminar cada operación de escritura (una venta, una compra,
+ * un alta, un cambio de precio) y la deja en una referencia volatile. Quien consulta toma la foto
+ * publicada y la recorre sin locks: nunca espera a una venta, y aunque la foto se reemplace
+ * mientras la recorre, ve el catálogo entero de un mismo momento (una venta de varios productos
+ * aparece completa o no aparece).
+ *
+ * Los productos y las cantidades se guardan por ID en bloques de TAMANIO_BLOQUE IDs, y solo existen
+ * los bloques que tienen algún producto: los IDs pueden tener huecos grandes (cada reinicio saltea
+ * lo que quedaba del rango reservado de la secuencia) o ser muy altos, y eso no agranda la foto.
+ * Una foto nueva comparte con la anterior todos los bloques que no cambiaron: copia solo los
+ * arreglos de bloques y los bloques de los productos modificados. Una venta copia los bloques de
+ * cantidades que tocó; los productos se copian solo si cambiaron sus datos. Los productos de la
+ * foto son copias (ver el constructor de copia de Producto), así un cambio en el Stock no se ve
+ * hasta publicarse.
+ *
+ * Para buscar por nombre la foto tiene un índice de nombre a IDs. Solo se copia cuando se agrega un
+ * producto o cambia un nombre; las ventas y los cambios de precio reusan el de la foto anterior.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglos de bloques de IDs, con los números de bloque ordenados aparte: buscar por ID es una
+ *   búsqueda binaria entre los bloques usados y se puede copiar un solo bloque.
+ * - Un arreglo de int aparte para las cantidades: una venta no copia productos.
+ * - HashMap de nombre (en minúsculas) a los IDs con ese nombre, ordenados en un int[]: la búsqueda
+ *   por nombre revisa solo esos productos en vez de todo el catálogo.
+ * - ArrayList para los productos disponibles: se arma al pedirlo y lo usa solo quien lo pidió.
+ */
+public final class CatalogoInstantanea {
+    public static final int TAMANIO_BLOQUE = 1024;
+    private static final int BITS_BLOQUE = 10;
+    private static final int MASCARA_BLOQUE = TAMANIO_BLOQUE - 1;
+    public static final CatalogoInstantanea VACIO = new CatalogoInstantanea(new int[0], new Producto[0][], new int[0][], Map.of(), 0, 0, 0);
+
+    // Números de bloque (ID >> BITS_BLOQUE) usados, ordenados; productos y cantidades van en el mismo orden
+    private final int[] numerosBloque;
+    private final Producto[][] productos;
+    private final int[][] cantidades;
+    private final Map<String, int[]> idsPorNombre;
+    private final int cantidadProductos;
+    private final int cantidadDisponibles;
+    private final long version;
+
+    private CatalogoInstantanea(int[] numerosBloque, Producto[][] productos, int[][] cantidades, Map<String, int[]> idsPorNombre,
+                                int cantidadProductos, int cantidadDisponibles, long version) {
+        this.numerosBloque = numerosBloque;
+        this.productos = productos;
+        this.cantidades = cantidades;
+        this.idsPorNombre = idsPorNombre;
+        this.cantidadProductos = cantidadProductos;
+        this.cantidadDisponibles = cantidadDisponibles;
+        this.version = version;
+    }
+
+    // ---------------------- PUBLICACION ----------------------
+    /**
+     * Arma la foto siguiente a partir de esta, actualizando solo los productos modificados
+     * @param modificados IDs de los productos que cambiaron desde esta foto, en orden
+     * @param productosActuales productos del Stock por ID
+     * @param inventarioActual cantidades del Stock por ID
+     * @return la foto nueva
+     */
+    CatalogoInstantanea actualizar(SortedSet<Integer> modificados, Map<Integer, Producto> productosActuales,
+                                   Map<Integer, Integer> inventarioActual) {
+        int[] nuevosNumeros = agregarBloques(modificados, productosActuales);
+        Producto[][] nuevosProductos = new Producto[nuevosNumeros.length][];
+        int[][] nuevasCantidades = new int[nuevosNumeros.length][];
+        for (int anterior = 0, nuevo = 0; anterior < numerosBloque.length; anterior++, nuevo++) {
+            while (nuevosNumeros[nuevo] != numerosBloque[anterior]) {
+                nuevo++;
+            }
+            nuevosProductos[nuevo] = productos[anterior];
+            nuevasCantidades[nuevo] = cantidades[anterior];
+        }
+        boolean[] productosCopiados = new boolean[nuevosNumeros.length];
+        boolean[] cantidadesCopiadas = new boolean[nuevosNumeros.length];
+        Map<String, int[]> nuevosIdsPorNombre = idsPorNombre;
+        int totalProductos = cantidadProductos;
+        int totalDisponibles = cantidadDisponibles;
+
+        for (int id : modificados) {
+            Producto actual = productosActuales.get(id);
+            if (actual == null) {
+                continue;
+            }
+            int bloque = Arrays.binarySearch(nuevosNumeros, id >> BITS_BLOQUE);
+            int posicion = id & MASCARA_BLOQUE;
+            Producto anterior = nuevosProductos[bloque] == null ? null : nuevosProductos[bloque][posicion];
+            int cantidadAnterior = nuevasCantidades[bloque] == null ? 0 : nuevasCantidades[bloque][posicion];
+            int cantidad = inventarioActual.getOrDefault(id, 0);
+
+            if (anterior == null) {
+                totalProductos++;
+            } else if (esDisponible(anterior, cantidadAnterior)) {
+                totalDisponibles--;
+            }
+
+            Producto publicado = anterior;
+            if (anterior == null || !mismosDatos(anterior, actual)) {
+                publicado = new Producto(actual);
+                if (!productosCopiados[bloque]) {
+                    nuevosProductos[bloque] = nuevosProductos[bloque] == null ? new Producto[TAMANIO_BLOQUE] : nuevosProductos[bloque].clone();
+                    productosCopiados[bloque] = true;
+                }
+                nuevosProductos[bloque][posicion] = publicado;
+                String claveAnterior = anterior == null ? null : claveNombre(anterior.getNombre());
+                String clave = claveNombre(publicado.getNombre());
+                if (!Objects.equals(claveAnterior, clave)) {
+                    if (nuevosIdsPorNombre == idsPorNombre) {
+                        nuevosIdsPorNombre = new HashMap<>(idsPorNombre);
+                    }
+                    quitarDelNombre(nuevosIdsPorNombre, claveAnterior, id);
+                    agregarAlNombre(nuevosIdsPorNombre, clave, id);
+                }
+            }
+            if (cantidad != cantidadAnterior) {
+                if (!cantidadesCopiadas[bloque]) {
+                    nuevasCantidades[bloque] = nuevasCantidades[bloque] == null ? new int[TAMANIO_BLOQUE] : nuevasCantidades[bloque].clone();
+                    cantidadesCopiadas[bloque] = true;
+                }
+                nuevasCantidades[bloque][posicion] = cantidad;
+            }
+            if (esDisponible(publicado, cantidad)) {
+                totalDisponibles++;
+            }
+        }
+        return new CatalogoInstantanea(nuevosNumeros, nuevosProductos, nuevasCantidades, nuevosIdsPorNombre, totalProductos,
+                totalDisponibles, version + 1);
+    }
+
+    /**
+     * @return los números de bloque de esta foto más los de los productos modificados que todavía
+     * no tenían bloque, ordenados (el mismo arreglo si no hace falta ninguno nuevo)
+     */
+    private int[] agregarBloques(SortedSet<Integer> modificados, Map<Integer, Producto> productosActuales) {
+        int[] nuevos = new int[8];
+        int cantidadNuevos = 0;
+        for (int id : modificados) {
+            int numero = id >> BITS_BLOQUE;
+            // Los IDs vienen en orden: un bloque ya anotado es el último anotado
+            if ((cantidadNuevos > 0 && nuevos[cantidadNuevos - 1] == numero) || Arrays.binarySearch(numerosBloque, numero) >= 0
+                    || !productosActuales.containsKey(id)) {
+                continue;
+            }
+            if (cantidadNuevos == nuevos.length) {
+                nuevos = Arrays.copyOf(nuevos, cantidadNuevos * 2);
+            }
+            nuevos[cantidadNuevos++] = numero;
+        }
+        if (cantidadNuevos == 0) {
+            return numerosBloque;
+        }
+        int[] combinados = new int[numerosBloque.length + cantidadNuevos];
+        int i = 0, j = 0, k = 0;
+        while (i < numerosBloque.length || j < cantidadNuevos) {
+            if (j == cantidadNuevos || (i < numerosBloque.length && numerosBloque[i] < nuevos[j])) {
+                combinados[k++] = numerosBloque[i++];
+            } else {
+                combinados[k++] = nuevos[j++];
+            }
+        }
+        return combinados;
+    }
+
+    private static void agregarAlNombre(Map<String, int[]> indice, String clave, int id) {
+        if (clave == null) {
+            return;
+        }
+        int[] ids = indice.getOrDefault(clave, new int[0]);
+        int posicion = -Arrays.binarySearch(ids, id) - 1;
+        if (posicion < 0) {
+            return;
+        }
+        int[] nuevos = new int[ids.length + 1];
+        System.arraycopy(ids, 0, nuevos, 0, posicion);
+        nuevos[posicion] = id;
+        System.arraycopy(ids, posicion, nuevos, posicion + 1, ids.length - posicion);
+        indice.put(clave, nuevos);
+    }
+
+    private static void quitarDelNombre(Map<String, int[]> indice, String clave, int id) {
+        int[] ids = clave == null ? null : indice.get(clave);
+        int posicion = ids == null ? -1 : Arrays.binarySearch(ids, id);
+        if (posicion < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            indice.remove(clave);
+            return;
+        }
+        int[] nuevos = new int[ids.length - 1];
+        System.arraycopy(ids, 0, nuevos, 0, posicion);
+        System.arraycopy(ids, posicion + 1, nuevos, posicion, nuevos.length - posicion);
+        indice.put(clave, nuevos);
+    }
+
+    /**
+     * @param nombre nombre de un producto o nombre buscado
+     * @return la clave del nombre en los índices por nombre (sin espacios en los extremos y en
+     * minúsculas), o null si no hay nombre
+     */
+    static String claveNombre(String nombre) {
+        return nombre == null ? null : nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean esDisponible(Producto producto, int cantidad) {
+        return cantidad > 0 && producto.isActivo();
+    }
+
+    private static boolean mismosDatos(Producto a, Producto b) {
+        return a.getPrecio() == b.getPrecio() && a.isActivo() == b.isActivo() && a.getCategoria() == b.getCategoria()
+                && Objects.equals(a.getNombre(), b.getNombre()) && Objects.equals(a.getDescripcion(), b.getDescripcion())
+                && Objects.equals(a.getMarca(), b.getMarca()) && Objects.equals(a.getModelo(), b.getModelo())
+                && Objects.equals(a.getEspecificaciones(), b.getEspecificaciones());
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    /**
+     * @param productoId id del producto
+     * @return el producto (como estaba al publicarse la foto) o null si no existe
+     */
+    public Producto buscarProductoPorId(int productoId) {
+        int bloque = productoId < 0 ? -1 : Arrays.binarySearch(numerosBloque, productoId >> BITS_BLOQUE);
+        if (bloque < 0 || productos[bloque] == null) {
+            return null;
+        }
+        return productos[bloque][productoId & MASCARA_BLOQUE];
+    }
+
+    /**
+     * @param productoId id del producto
+     * @return la cantidad en stock del producto (0 si no existe)
+     */
+    public int obtenerCantidad(int productoId) {
+        int bloque = productoId < 0 ? -1 : Arrays.binarySearch(numerosBloque, productoId >> BITS_BLOQUE);
+        if (bloque < 0 || cantidades[bloque] == null) {
+            return 0;
+        }
+        return cantidades[bloque][productoId & MASCARA_BLOQUE];
+    }
+
+    /**
+     * Recorre los productos de la foto en orden de ID:
+     * {@code for (int id = foto.siguienteId(0); id >= 0; id = foto.siguienteId(id + 1))}
+     * @param desde primer ID a considerar
+     * @return el menor ID mayor o igual a desde que tiene un producto, o -1 si no hay más
+     */
+    public int siguienteId(int desde) {
+        if (desde < 0) {
+            desde = 0;
+        }
+        int bloque = Arrays.binarySearch(numerosBloque, desde >> BITS_BLOQUE);
+        int posicion = desde & MASCARA_BLOQUE;
+        if (bloque < 0) {
+            bloque = -bloque - 1;
+            posicion = 0;
+        }
+        for (; bloque < numerosBloque.length; bloque++, posicion = 0) {
+            Producto[] delBloque = productos[bloque];
+            for (; delBloque != null && posicion < TAMANIO_BLOQUE; posicion++) {
+                if (delBloque[posicion] != null) {
+                    return (numerosBloque[bloque] << BITS_BLOQUE) | posicion;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return los productos activos y con stock, por ID
+     */
+    public List<Producto> obtenerProductosDisponibles() {
+        List<Producto> disponibles = new ArrayList<>(cantidadDisponibles);
+        for (int id = siguienteId(0); id >= 0; id = siguienteId(id + 1)) {
+            Producto producto = buscarProductoPorId(id);
+            if (esDisponible(producto, obtenerCantidad(id))) {
+                disponibles.add(producto);
+            }
+        }
+        return disponibles;
+    }
+
+    /**
+     * Busca un producto disponible por nombre (sin distinguir mayúsculas); si hay varios con el
+     * mismo nombre devuelve el de menor ID
+     * @param nombre nombre a buscar
+     * @return el producto encontrado o null
+     */
+    public Producto buscarProductoPorNombre(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        int[] ids = idsPorNombre.get(claveNombre(nombre));
+        if (ids == null) {
+            return null;
+        }
+        for (int id : ids) {
+            Producto producto = buscarProductoPorId(id);
+            if (esDisponible(producto, obtenerCantidad(id))) {
+                return producto;
+            }
+        }
+        return null;
+    }
+
+    public int getCantidadProductos() {
+        return cantidadProductos;
+    }
+
+    public int getCantidadProductosDisponibles() {
+        return cantidadDisponibles;
+    }
+
+    /**
+     * @return el número de foto: cada publicación aumenta la versión en uno
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,331 @@
+package inventario;
+
+import metricas.Metricas;
+import registro.Bitacora;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Velocidad de venta y punto de reorden de cada producto, actualizados en cada movimiento del
+ * Stock (nunca recorriendo todo el inventario).
+ *
+ * La velocidad (unidades por día) es un promedio móvil exponencial que pondera por tiempo: una
+ * salida de q unidades dt días después de la anterior es una observación de q / dt unidades por
+ * día con peso 1 - e^(-dt / tau). Así una ráfaga de ventas seguidas suma de a poco (peso chico) y
+ * una venta después de mucho tiempo pesa casi como una observación nueva. Los días sin ventas
+ * cuentan como observaciones de 0: la velocidad guardada se decae al leerla.
+ *
+ * El punto de reorden es fijo si se configuró uno, o si no la demanda esperada durante el plazo
+ * de reposición más el stock de seguridad (velocidad * plazo + seguridad). Cuando la cantidad
+ * baja hasta el punto de reorden se emite "stock.bajoPuntoReorden" (y "stock.agotado" al llegar a
+ * cero); el aviso no se repite hasta que una reposición lo vuelva a superar ("stock.repuesto").
+ *
+ * Para el reporte de productos que se agotan en N días, los productos con ventas se mantienen
+ * ordenados por su fecha estimada de agotamiento al último movimiento: el reporte toma el
+ * principio del orden (headSet) y recalcula solo esos. Como la velocidad solo decae con el tiempo,
+ * la fecha estimada real nunca es anterior a la guardada, así ningún producto queda afuera.
+ *
+ * No es thread-safe por sí mismo: como el Stock, se usa bajo el lock de SistemaComercio.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - HashMap de producto a su estado: buscar el estado en O(1) en cada movimiento.
+ * - TreeSet ordenado por fecha de agotamiento: los que se agotan antes están al principio, y
+ *   actualizar un producto es O(log n).
+ * - HashSet de productos bajo el punto de reorden: listarlos sin recorrer el inventario.
+ */
+public class MonitorReposicion {
+    public static final double TAU_DIAS_POR_DEFECTO = 7.0;
+    public static final double PLAZO_REPOSICION_DIAS_POR_DEFECTO = 7.0;
+    public static final int SIN_PUNTO_FIJO = -1;
+    private static final double MILIS_POR_DIA = 86_400_000.0;
+    private static final Bitacora BITACORA = Bitacora.de(MonitorReposicion.class);
+    private static final LongAdder ALERTAS = Metricas.contador("inventario.alertasReposicion");
+
+    private final double tauDias;
+    private final Map<Integer, EstadoReposicion> estados;
+    private final TreeSet<EstadoReposicion> porAgotamiento;
+    private final Set<Integer> bajoPuntoReorden;
+
+    // ---------------------- CONSTRUCTORES ----------------------
+    public MonitorReposicion() {
+        this(TAU_DIAS_POR_DEFECTO);
+    }
+
+    /**
+     * @param tauDias constante de tiempo del promedio móvil: cuánto "recuerda" la velocidad
+     */
+    public MonitorReposicion(double tauDias) {
+        if (tauDias <= 0) {
+            throw new IllegalArgumentException("La constante de tiempo debe ser mayor a 0.");
+        }
+        this.tauDias = tauDias;
+        this.estados = new HashMap<>();
+        this.porAgotamiento = new TreeSet<>(Comparator.comparingLong((EstadoReposicion e) -> e.agotamientoEstimado)
+                .thenComparingInt(EstadoReposicion::getProductoId));
+        this.bajoPuntoReorden = new HashSet<>();
+    }
+
+    // ---------------------- MOVIMIENTOS ----------------------
+    /**
+     * Registra una entrada de unidades (reposición o alta del producto)
+     * @param productoId id del producto
+     * @param cantidadNueva cantidad en stock después de la entrada
+     * @param instante momento de la entrada (milisegundos desde epoch)
+     */
+    public void registrarEntrada(int productoId, int cantidadNueva, long instante) {
+        EstadoReposicion estado = estados.computeIfAbsent(productoId, id -> new EstadoReposicion(id, instante));
+        actualizar(estado, cantidadNueva);
+    }
+
+    /**
+     * Registra una salida de unidades (venta) y actualiza la velocidad del producto
+     * @param productoId id del producto
+     * @param cantidad unidades que salieron
+     * @param cantidadNueva cantidad en stock después de la salida
+     * @param instante momento de la salida (milisegundos desde epoch)
+     */
+    public void registrarSalida(int productoId, int cantidad, int cantidadNueva, long instante) {
+        EstadoReposicion estado = estados.computeIfAbsent(productoId, id -> new EstadoReposicion(id, instante));
+        double dt = Math.max(instante - estado.ultimaObservacion, 1) / MILIS_POR_DIA;
+        double peso = 1 - Math.exp(-dt / tauDias);
+        estado.velocidad += peso * (cantidad / dt - estado.velocidad);
+        estado.ultimaObservacion = Math.max(instante, estado.ultimaObservacion);
+        actualizar(estado, cantidadNueva);
+    }
+
+    /**
+     * Reordena el producto, recalcula su punto de reorden y emite los eventos de cruce
+     */
+    private void actualizar(EstadoReposicion estado, int cantidadNueva) {
+        porAgotamiento.remove(estado);
+        int cantidadAnterior = estado.cantidad;
+        estado.cantidad = cantidadNueva;
+        estado.agotamientoEstimado = estimarAgotamiento(estado, estado.velocidad);
+        if (estado.agotamientoEstimado != Long.MAX_VALUE) {
+            porAgotamiento.add(estado);
+        }
+
+        // Agotarse se avisa siempre, aunque el producto ya estuviera bajo el punto de reorden
+        if (cantidadNueva == 0 && cantidadAnterior > 0) {
+            ALERTAS.increment();
+            BITACORA.advertencia("stock.agotado", "Producto " + estado.productoId + " agotado",
+                    "productoId", estado.productoId, "velocidad", estado.velocidad);
+        }
+
+        int punto = puntoReorden(estado, estado.velocidad);
+        boolean bajo = cantidadNueva <= punto && (punto > 0 || cantidadNueva == 0);
+        if (bajo && bajoPuntoReorden.add(estado.productoId)) {
+            if (cantidadNueva > 0) {
+                ALERTAS.increment();
+                BITACORA.advertencia("stock.bajoPuntoReorden", "Producto " + estado.productoId + " bajo el punto de reorden",
+                        "productoId", estado.productoId, "cantidad", cantidadNueva, "puntoReorden", punto, "velocidad", estado.velocidad);
+            }
+        } else if (!bajo && bajoPuntoReorden.remove(estado.productoId)) {
+            BITACORA.info("stock.repuesto", "Producto " + estado.productoId + " repuesto sobre el punto de reorden",
+                    "productoId", estado.productoId, "cantidad", cantidadNueva, "puntoReorden", punto);
+        }
+    }
+
+    // ---------------------- CONFIGURACION ----------------------
+    /**
+     * Configura el punto de reorden de un producto
+     * @param productoId id del producto
+     * @param puntoFijo punto de reorden fijo, o SIN_PUNTO_FIJO para calcularlo con la velocidad
+     * @param plazoReposicionDias días que tarda en llegar una reposición
+     * @param stockSeguridad unidades extra sobre la demanda esperada del plazo
+     * @param instante momento de la configuración (milisegundos desde epoch)
+     */
+    public void configurar(int productoId, int puntoFijo, double plazoReposicionDias, int stockSeguridad, long instante) {
+        if (plazoReposicionDias < 0 || stockSeguridad < 0 || puntoFijo < SIN_PUNTO_FIJO) {
+            throw new IllegalArgumentException("El plazo, el stock de seguridad y el punto de reorden no pueden ser negativos.");
+        }
+        EstadoReposicion estado = estados.computeIfAbsent(productoId, id -> new EstadoReposicion(id, instante));
+        estado.puntoFijo = puntoFijo;
+        estado.plazoReposicionDias = plazoReposicionDias;
+        estado.stockSeguridad = stockSeguridad;
+        actualizar(estado, estado.cantidad);
+    }
+
+    /**
+     * Restaura el estado guardado de un producto (usado para deserialización, no emite eventos)
+     */
+    public void restaurar(int productoId, int cantidad, double velocidad, long ultimaObservacion, int puntoFijo,
+                          double plazoReposicionDias, int stockSeguridad) {
+        EstadoReposicion estado = estados.computeIfAbsent(productoId, id -> new EstadoReposicion(id, ultimaObservacion));
+        porAgotamiento.remove(estado);
+        estado.cantidad = cantidad;
+        estado.velocidad = velocidad;
+        estado.ultimaObservacion = ultimaObservacion;
+        estado.puntoFijo = puntoFijo;
+        estado.plazoReposicionDias = plazoReposicionDias;
+        estado.stockSeguridad = stockSeguridad;
+        estado.agotamientoEstimado = estimarAgotamiento(estado, velocidad);
+        if (estado.agotamientoEstimado != Long.MAX_VALUE) {
+            porAgotamiento.add(estado);
+        }
+        int punto = puntoReorden(estado, velocidad);
+        if (cantidad <= punto && (punto > 0 || cantidad == 0)) {
+            bajoPuntoReorden.add(productoId);
+        } else {
+            bajoPuntoReorden.remove(productoId);
+        }
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    /**
+     * @param productoId id del producto
+     * @return el estado del producto o null si nunca tuvo movimientos
+     */
+    public EstadoReposicion getEstado(int productoId) {
+        return estados.get(productoId);
+    }
+
+    /**
+     * Copia los estados de todos los productos (por ejemplo, para guardarlos sin frenar las salidas).
+     * Se llama con el stock quieto, como las demás consultas
+     * @return copias de los estados, por ID de producto
+     */
+    public Map<Integer, EstadoReposicion> copiarEstados() {
+        Map<Integer, EstadoReposicion> copias = new HashMap<>(estados.size() * 4 / 3 + 1);
+        for (EstadoReposicion estado : estados.values()) {
+            copias.put(estado.productoId, new EstadoReposicion(estado));
+        }
+        return copias;
+    }
+
+    /**
+     * @param productoId id del producto
+     * @param instante momento de la consulta (milisegundos desde epoch)
+     * @return la velocidad de venta (unidades por día) decaída hasta el instante
+     */
+    public double getVelocidad(int productoId, long instante) {
+        EstadoReposicion estado = estados.get(productoId);
+        return estado == null ? 0 : velocidadEn(estado, instante);
+    }
+
+    /**
+     * @param productoId id del producto
+     * @param instante momento de la consulta (milisegundos desde epoch)
+     * @return el punto de reorden del producto en el instante
+     */
+    public int getPuntoReorden(int productoId, long instante) {
+        EstadoReposicion estado = estados.get(productoId);
+        return estado == null ? 0 : puntoReorden(estado, velocidadEn(estado, instante));
+    }
+
+    /**
+     * @return los ids de los productos que están en o bajo su punto de reorden
+     */
+    public Set<Integer> getBajoPuntoReorden() {
+        return Collections.unmodifiableSet(bajoPuntoReorden);
+    }
+
+    /**
+     * Productos que, al ritmo de venta actual, se agotan dentro de cierta cantidad de días
+     * @param dias horizonte en días
+     * @param instante momento de la consulta (milisegundos desde epoch)
+     * @return las proyecciones, de la que se agota antes a la que se agota después
+     */
+    public List<ProyeccionAgotamiento> proyectarAgotamiento(double dias, long instante) {
+        long limite = instante + (long) (dias * MILIS_POR_DIA);
+        List<ProyeccionAgotamiento> resultado = new ArrayList<>();
+        for (EstadoReposicion estado : porAgotamiento) {
+            if (estado.agotamientoEstimado > limite) {
+                break;
+            }
+            double velocidad = velocidadEn(estado, instante);
+            double diasRestantes = velocidad > 0 ? estado.cantidad / velocidad : Double.POSITIVE_INFINITY;
+            if (diasRestantes <= dias) {
+                resultado.add(new ProyeccionAgotamiento(estado.productoId, estado.cantidad, velocidad, diasRestantes,
+                        puntoReorden(estado, velocidad)));
+            }
+        }
+        resultado.sort(Comparator.comparingDouble(ProyeccionAgotamiento::getDiasRestantes));
+        return resultado;
+    }
+
+    // ---------------------- CALCULOS ----------------------
+    private double velocidadEn(EstadoReposicion estado, long instante) {
+        double dt = Math.max(instante - estado.ultimaObservacion, 0) / MILIS_POR_DIA;
+        return estado.velocidad * Math.exp(-dt / tauDias);
+    }
+
+    private static int puntoReorden(EstadoReposicion estado, double velocidad) {
+        if (estado.puntoFijo != SIN_PUNTO_FIJO) {
+            return estado.puntoFijo;
+        }
+        return (int) Math.ceil(velocidad * estado.plazoReposicionDias) + estado.stockSeguridad;
+    }
+
+    private static long estimarAgotamiento(EstadoReposicion estado, double velocidad) {
+        if (velocidad <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return estado.ultimaObservacion + (long) (estado.cantidad / velocidad * MILIS_POR_DIA);
+    }
+
+    /**
+     * Lo que el monitor sabe de un producto
+     */
+    public static class EstadoReposicion {
+        private final int productoId;
+        private int cantidad;
+        private double velocidad;
+        private long ultimaObservacion;
+        private long agotamientoEstimado;
+        private int puntoFijo;
+        private double plazoReposicionDias;
+        private int stockSeguridad;
+
+        private EstadoReposicion(int productoId, long instante) {
+            this.productoId = productoId;
+            this.ultimaObservacion = instante;
+            this.agotamientoEstimado = Long.MAX_VALUE;
+            this.puntoFijo = SIN_PUNTO_FIJO;
+            this.plazoReposicionDias = PLAZO_REPOSICION_DIAS_POR_DEFECTO;
+        }
+
+        private EstadoReposicion(EstadoReposicion original) {
+            this.productoId = original.productoId;
+            this.cantidad = original.cantidad;
+            this.velocidad = original.velocidad;
+            this.ultimaObservacion = original.ultimaObservacion;
+            this.agotamientoEstimado = original.agotamientoEstimado;
+            this.puntoFijo = original.puntoFijo;
+            this.plazoReposicionDias = original.plazoReposicionDias;
+            this.stockSeguridad = original.stockSeguridad;
+        }
+
+        public int getProductoId() {
+            return productoId;
+        }
+        /**
+         * @return la velocidad (unidades por día) a la última salida, sin decaer
+         */
+        public double getVelocidad() {
+            return velocidad;
+        }
+        public long getUltimaObservacion() {
+            return ultimaObservacion;
+        }
+        public int getPuntoFijo() {
+            return puntoFijo;
+        }
+        public double getPlazoReposicionDias() {
+            return plazoReposicionDias;
+        }
+        public int getStockSeguridad() {
+            return stockSeguridad;
+        }
+    }
+}
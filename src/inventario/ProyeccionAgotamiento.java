@@ -0,0 +1,57 @@
+package inventario;
+
+import org.json.JSONObject;
+
+/**
+ * Cuándo se agotaría un producto si se sigue vendiendo al ritmo actual.
+ */
+public class ProyeccionAgotamiento {
+    private final int productoId;
+    private final int cantidad;
+    private final double velocidad;
+    private final double diasRestantes;
+    private final int puntoReorden;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param productoId id del producto
+     * @param cantidad cantidad en stock
+     * @param velocidad unidades vendidas por día (promedio móvil)
+     * @param diasRestantes días hasta agotarse al ritmo actual
+     * @param puntoReorden punto de reorden del producto
+     */
+    public ProyeccionAgotamiento(int productoId, int cantidad, double velocidad, double diasRestantes, int puntoReorden) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.velocidad = velocidad;
+        this.diasRestantes = diasRestantes;
+        this.puntoReorden = puntoReorden;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public int getProductoId() {
+        return productoId;
+    }
+    public int getCantidad() {
+        return cantidad;
+    }
+    public double getVelocidad() {
+        return velocidad;
+    }
+    public double getDiasRestantes() {
+        return diasRestantes;
+    }
+    public int getPuntoReorden() {
+        return puntoReorden;
+    }
+
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("productoId", productoId);
+        json.put("cantidad", cantidad);
+        json.put("velocidad", velocidad);
+        json.put("diasRestantes", diasRestantes);
+        json.put("puntoReorden", puntoReorden);
+        return json;
+    }
+}
@@ -1,15 +1,22 @@
 package inventario;
 
+import productos.HistorialPrecios;
 import productos.Producto;
 import excepciones.StockInsuficienteException;
 import excepciones.ProductoNoEncontradoException;
-import utilidades.RepositorioGenerico;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
  * Clase que gestiona el stock de productos en el inventario.
  * Permite agregar, remover, consultar y gestionar el inventario de productos.
+ * Un producto que se agota queda en el inventario con cantidad 0 (no desaparece del archivo), y
+ * cada entrada y salida se informa al MonitorReposicion para seguir su velocidad de venta.
+ * Los precios se cambian con cambiarPrecio, que además los registra en el HistorialPrecios.
+ *
+ * El Stock no es thread-safe: lo modifica un escritor a la vez. Las consultas del catálogo desde
+ * otros hilos usan getCatalogo, una foto inmutable que el escritor publica con publicarCatalogo al
+ * terminar cada operación (ver CatalogoInstantanea).
  *
  */
 
@@ -21,19 +28,40 @@ import java.util.*;
  *  *
  *  * - ArrayList para listas de productos disponibles: Usamos ArrayList cuando necesitamos devolver
  *  *   una lista de productos que podemos recorrer en orden.
+ *  *
+ *  * - HashMap de nombre (en minúsculas) a los IDs con ese nombre, en un TreeSet: buscar por nombre
+ *  *   (en cada compra y venta) revisa solo esos productos, del menor ID al mayor, en vez de armar
+ *  *   la lista de todos los disponibles. Otro HashMap guarda con qué nombre quedó indexado cada ID,
+ *  *   porque el importador cambia el nombre del producto antes de volver a agregarlo.
+ *  *
+ *  * - TreeSet para los productos modificados desde la última publicación del catálogo: marca IDs
+ *  *   sin repetirlos y se recorren en orden, bloque por bloque. A diferencia de un BitSet, no
+ *  *   ocupa memoria según el valor del ID (un ID muy alto no reserva un arreglo enorme).
  * */
 public class Stock {
     private Map<Integer, Integer> inventario; // Producto ID -> Cantidad
     private Map<Integer, Producto> productos; // Producto ID -> Producto
+    private Map<String, SortedSet<Integer>> idsPorNombre; // Nombre en minúsculas -> IDs
+    private Map<Integer, String> nombresIndexados; // Producto ID -> Nombre con el que está en idsPorNombre
     private int stockTotal;
     private LocalDateTime ultimaActualizacion;
+    private MonitorReposicion reposicion;
+    private HistorialPrecios historialPrecios;
+    private SortedSet<Integer> modificados;
+    private volatile CatalogoInstantanea catalogo;
     
     // ---------------------- CONSTRUCTORES ----------------------
     public Stock() {
         this.inventario = new HashMap<>();
         this.productos = new HashMap<>();
+        this.idsPorNombre = new HashMap<>();
+        this.nombresIndexados = new HashMap<>();
         this.stockTotal = 0;
         this.ultimaActualizacion = LocalDateTime.now();
+        this.reposicion = new MonitorReposicion();
+        this.historialPrecios = new HistorialPrecios();
+        this.modificados = new TreeSet<>();
+        this.catalogo = CatalogoInstantanea.VACIO;
     }
     
     // ---------------------- METODOS DE GESTION DE PRODUCTOS ----------------------
@@ -59,10 +87,39 @@ public class Stock {
         } else {
             productos.put(productoId, producto);
             inventario.put(productoId, cantidad);
+            // el precio con el que entra es el primero del historial (salvo que ya tenga uno guardado)
+            if (historialPrecios.getSerie(productoId) == null) {
+                historialPrecios.registrar(productoId, producto.getPrecio(), System.currentTimeMillis());
+            }
         }
         
+        indexarNombre(productos.get(productoId));
         stockTotal += cantidad;
         ultimaActualizacion = LocalDateTime.now();
+        modificados.add(productoId);
+        reposicion.registrarEntrada(productoId, inventario.get(productoId), System.currentTimeMillis());
+    }
+
+    /**
+     * Deja el producto en el índice por nombre con su nombre actual
+     * @param producto producto del inventario
+     */
+    private void indexarNombre(Producto producto) {
+        String clave = CatalogoInstantanea.claveNombre(producto.getNombre());
+        String anterior = clave == null ? nombresIndexados.remove(producto.getId()) : nombresIndexados.put(producto.getId(), clave);
+        if (Objects.equals(anterior, clave)) {
+            return;
+        }
+        if (anterior != null) {
+            SortedSet<Integer> ids = idsPorNombre.get(anterior);
+            ids.remove(producto.getId());
+            if (ids.isEmpty()) {
+                idsPorNombre.remove(anterior);
+            }
+        }
+        if (clave != null) {
+            idsPorNombre.computeIfAbsent(clave, k -> new TreeSet<>()).add(producto.getId());
+        }
     }
 
     /**
@@ -96,18 +153,45 @@ public class Stock {
         
         int nuevaCantidad = cantidadActual - cantidad;
 
-        // si la cantidad es 0, se remueve el producto, sino, se agrega
-        if (nuevaCantidad == 0) {
-            inventario.remove(productoId);
-        } else {
-            inventario.put(productoId, nuevaCantidad);
-        }
+        // si la cantidad llega a 0 el producto queda agotado, pero sigue en el inventario
+        inventario.put(productoId, nuevaCantidad);
         
         stockTotal -= cantidad;
         ultimaActualizacion = LocalDateTime.now();
+        modificados.add(productoId);
+        reposicion.registrarSalida(productoId, cantidad, nuevaCantidad, System.currentTimeMillis());
         return true;
     }
 
+    /**
+     * Cambia el precio de un producto y lo registra en el historial de precios
+     * @param productoId id del producto
+     * @param precio precio nuevo
+     * @throws ProductoNoEncontradoException si el producto no está en el inventario
+     */
+    public void cambiarPrecio(int productoId, double precio) throws ProductoNoEncontradoException {
+        Producto producto = productos.get(productoId);
+        if (producto == null) {
+            throw new ProductoNoEncontradoException("El producto con ID " + productoId + " no existe en el inventario.", productoId);
+        }
+        cambiarPrecio(producto, precio);
+    }
+
+    /**
+     * Cambia el precio de un producto del inventario y lo registra en el historial de precios
+     * @param producto producto del inventario
+     * @param precio precio nuevo
+     */
+    public void cambiarPrecio(Producto producto, double precio) {
+        if (!(precio > 0) || Double.isInfinite(precio)) {
+            throw new IllegalArgumentException("El precio debe ser mayor a 0.");
+        }
+        producto.setPrecio(precio);
+        historialPrecios.registrar(producto.getId(), precio, System.currentTimeMillis());
+        ultimaActualizacion = LocalDateTime.now();
+        modificados.add(producto.getId());
+    }
+
     /**
      * Retorna la cantidad disponible de un producto
      * @param productoId id del producto del cual queremos obtener la cantidad en stock
@@ -130,16 +214,58 @@ public class Stock {
 
     
     /**
-     * Busca un producto por nombre
-     * Si hay múltiples productos con el mismo nombre, retorna el primero disponible
+     * Busca un producto disponible por nombre (sin distinguir mayúsculas)
+     * Si hay múltiples productos con el mismo nombre, retorna el disponible de menor ID
      * @param nombre Nombre del producto a buscar
-     * @return el prodicto encontrado
+     * @return el prodicto encontrado o null
      */
     public Producto buscarProductoPorNombre(String nombre) {
-        List<Producto> disponibles = obtenerProductosDisponibles();
-        return RepositorioGenerico.buscarPorNombre(disponibles, nombre, Producto::getNombre);
+        if (nombre == null || nombre.isBlank()) {
+            return null;
+        }
+        SortedSet<Integer> ids = idsPorNombre.get(CatalogoInstantanea.claveNombre(nombre));
+        if (ids == null) {
+            return null;
+        }
+        for (int id : ids) {
+            Producto producto = productos.get(id);
+            if (producto.isActivo() && obtenerCantidad(id) > 0) {
+                return producto;
+            }
+        }
+        return null;
     }
     
+    /**
+     * Busca un producto por su ID
+     * @param productoId id del producto a buscar
+     * @return el producto encontrado o null si no existe
+     */
+    public Producto buscarProductoPorId(int productoId) {
+        return productos.get(productoId);
+    }
+
+    // ---------------------- CATALOGO PARA CONSULTAS ----------------------
+    /**
+     * Publica una foto nueva del catálogo con los cambios hechos desde la anterior. Lo llama el
+     * escritor al terminar cada operación, así las consultas ven la operación completa o nada de ella
+     */
+    public void publicarCatalogo() {
+        if (modificados.isEmpty()) {
+            return;
+        }
+        catalogo = catalogo.actualizar(modificados, productos, inventario);
+        modificados.clear();
+    }
+
+    /**
+     * Obtiene la última foto publicada del catálogo. Se puede usar desde cualquier hilo sin locks
+     * @return la foto del catálogo
+     */
+    public CatalogoInstantanea getCatalogo() {
+        return catalogo;
+    }
+
     // ---------------------- METODOS DE CONSULTA ----------------------
     /**
      * Obtiene los productos disponibles (activos)
@@ -198,6 +324,22 @@ public class Stock {
         return valorTotal;
     }
 
+    /**
+     * Obtiene el monitor de reposición (velocidad de venta, puntos de reorden y alertas)
+     * @return el monitor de reposición del stock
+     */
+    public MonitorReposicion getReposicion() {
+        return reposicion;
+    }
+
+    /**
+     * Obtiene el historial de precios de los productos
+     * @return el historial de precios del stock
+     */
+    public HistorialPrecios getHistorialPrecios() {
+        return historialPrecios;
+    }
+
     /**
      * @return  la ultima actualización del inventario
      */
@@ -229,43 +371,4 @@ public class Stock {
     public void actualizarFecha() {
         this.ultimaActualizacion = LocalDateTime.now();
     }
-    
-    // ---------------------- METODOS DE REPORTE ----------------------
-    public void mostrarInventario() {
-        System.out.println("📦 INVENTARIO DE PRODUCTOS");
-        System.out.println("═══════════════════════════════════");
-        System.out.println("📊 Total de productos: " + getCantidadProductos());
-        System.out.println("📦 Stock total: " + getStockTotal() + " unidades");
-        System.out.println("💰 Valor total: $" + String.format("%.2f", getValorTotalInventario()));
-        System.out.println("🕒 Última actualización: " + ultimaActualizacion);
-        System.out.println("═══════════════════════════════════");
-        
-        if (inventario.isEmpty()) {
-            System.out.println("📭 No hay productos en el inventario.");
-        } else {
-            for (Map.Entry<Integer, Integer> entry : inventario.entrySet()) {
-                Producto producto = productos.get(entry.getKey());
-                if (producto != null) {
-                    System.out.println(String.format("📱 %s | Stock: %d | Precio: $%.2f",
-                        producto.getNombre(), entry.getValue(), producto.getPrecio()));
-                }
-            }
-        }
-    }
-    
-    public void mostrarProductosDisponibles() {
-        List<Producto> disponibles = obtenerProductosDisponibles();
-        System.out.println("🛍️ PRODUCTOS DISPONIBLES");
-        System.out.println("═══════════════════════════════════");
-        
-        if (disponibles.isEmpty()) {
-            System.out.println("📭 No hay productos disponibles.");
-        } else {
-            for (Producto producto : disponibles) {
-                int cantidad = obtenerCantidad(producto.getId());
-                System.out.println(String.format("📱 %s | Stock: %d | Precio: $%.2f",
-                    producto.getNombre(), cantidad, producto.getPrecio()));
-            }
-        }
-    }
 }
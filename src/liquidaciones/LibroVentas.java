@@ -0,0 +1,193 @@
+package liquidaciones;
+
+import excepciones.ErrorPersistenciaException;
+import registro.Bitacora;
+import utilidades.CargaDiferida;
+import ventas.Venta;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Libro de ventas: una línea por cada venta completada de un vendedor, con el id de la venta, la
+ * fecha, el id del vendedor y el monto cobrado. Es la fuente de la que se calculan las comisiones
+ * (MotorLiquidaciones), en lugar de volver a leer el historial en texto de cada Vendedor.
+ *
+ * El archivo solo crece: cada venta agrega una línea "ventaId;fecha;vendedorId;monto" al final,
+ * sin reescribir lo anterior. Al iniciar se lee completo a columnas en memoria (un arreglo
+ * primitivo por dato: vendedor, día y monto), que es lo que recorre la liquidación; el id de la
+ * venta queda solo en el archivo, para rastrear cada línea.
+ *
+ * El archivo se lee en otro hilo (CargaDiferida) desde que se crea el libro; registrar y las
+ * consultas esperan a que termine.
+ *
+ * Las líneas se agregan de a una (registrar es synchronized). Las columnas crecen copiándose a
+ * arreglos nuevos, así una Instantanea tomada con el lock sigue siendo válida aunque después se
+ * agreguen ventas.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglos primitivos por columna: millones de ventas sin un objeto por venta, y la liquidación
+ *   las recorre en orden de memoria.
+ */
+public class LibroVentas {
+    public static final String NOMBRE_ARCHIVO = "libro_ventas.csv";
+    private static final String SEPARADOR = ";";
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final Bitacora BITACORA = Bitacora.de(LibroVentas.class);
+
+    private final String archivo;
+    private final CargaDiferida<Integer> carga;
+    private BufferedWriter escritor;
+    private int[] vendedorId;
+    private int[] dia;
+    private double[] monto;
+    private int tamanio;
+
+    /**
+     * Las columnas del libro hasta cierta línea, para recorrerlas sin lock
+     */
+    static final class Instantanea {
+        final int tamanio;
+        final int[] vendedorId;
+        final int[] dia;
+        final double[] monto;
+
+        private Instantanea(int tamanio, int[] vendedorId, int[] dia, double[] monto) {
+            this.tamanio = tamanio;
+            this.vendedorId = vendedorId;
+            this.dia = dia;
+            this.monto = monto;
+        }
+    }
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param archivo archivo del libro (se empieza a cargar en otro hilo, si existe)
+     */
+    public LibroVentas(String archivo) {
+        this.archivo = archivo;
+        this.vendedorId = new int[CAPACIDAD_INICIAL];
+        this.dia = new int[CAPACIDAD_INICIAL];
+        this.monto = new double[CAPACIDAD_INICIAL];
+        this.carga = new CargaDiferida<>("libroVentas", () -> {
+            cargar();
+            return tamanio;
+        });
+        this.carga.iniciar();
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Agrega una venta completada al libro (las ventas sin vendedor o no completadas se ignoran)
+     * @param venta venta procesada
+     * @throws ErrorPersistenciaException si no se pudo escribir el archivo (la venta queda igual en memoria)
+     */
+    public synchronized void registrar(Venta venta) throws ErrorPersistenciaException {
+        carga.obtener();
+        if (venta == null || venta.getVendedor() == null || !"COMPLETADA".equals(venta.getEstado())) {
+            return;
+        }
+        LocalDateTime fecha = venta.getFechaVenta();
+        agregar(venta.getVendedor().getId(), (int) fecha.toLocalDate().toEpochDay(), venta.getTotal());
+        try {
+            if (escritor == null) {
+                File destino = new File(archivo);
+                if (destino.getParentFile() != null) {
+                    destino.getParentFile().mkdirs();
+                }
+                escritor = new BufferedWriter(new FileWriter(destino, true));
+            }
+            escritor.write(venta.getId() + SEPARADOR + fecha + SEPARADOR + venta.getVendedor().getId() + SEPARADOR + venta.getTotal());
+            escritor.newLine();
+            escritor.flush();
+        } catch (IOException e) {
+            throw new ErrorPersistenciaException("No se pudo escribir el libro de ventas: " + e.getMessage(), archivo, e);
+        }
+    }
+
+    private void agregar(int vendedor, int diaVenta, double montoVenta) {
+        if (tamanio == vendedorId.length) {
+            int capacidad = vendedorId.length * 2;
+            vendedorId = Arrays.copyOf(vendedorId, capacidad);
+            dia = Arrays.copyOf(dia, capacidad);
+            monto = Arrays.copyOf(monto, capacidad);
+        }
+        vendedorId[tamanio] = vendedor;
+        dia[tamanio] = diaVenta;
+        monto[tamanio] = montoVenta;
+        tamanio++;
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    public synchronized int getTamanio() {
+        carga.obtener();
+        return tamanio;
+    }
+
+    public String getArchivo() {
+        return archivo;
+    }
+
+    synchronized Instantanea instantanea() {
+        carga.obtener();
+        return new Instantanea(tamanio, vendedorId, dia, monto);
+    }
+
+    // ---------------------- CARGA ----------------------
+    private void cargar() {
+        File origen = new File(archivo);
+        if (!origen.exists()) {
+            return;
+        }
+        int invalidas = 0;
+        int maximoVentaId = -1;
+        try (BufferedReader lector = new BufferedReader(new FileReader(origen))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                String[] campos = linea.split(SEPARADOR);
+                try {
+                    agregar(Integer.parseInt(campos[2]), diaDe(campos[1]), Double.parseDouble(campos[3]));
+                    maximoVentaId = Math.max(maximoVentaId, Integer.parseInt(campos[0]));
+                } catch (NumberFormatException | DateTimeException | IndexOutOfBoundsException e) {
+                    invalidas++;
+                }
+            }
+        } catch (IOException e) {
+            BITACORA.error("libroVentas.errorCarga", "Error al cargar el libro de ventas: " + e.getMessage(), e, "archivo", archivo);
+            return;
+        }
+        // Las ventas nuevas no repiten IDs del libro (aunque falte el archivo de secuencias)
+        Venta.setContador(maximoVentaId + 1);
+        if (invalidas > 0) {
+            BITACORA.advertencia("libroVentas.lineasInvalidas", "Se ignoraron " + invalidas + " líneas inválidas del libro de ventas",
+                    "archivo", archivo, "lineas", invalidas);
+        }
+        BITACORA.info("libroVentas.cargado", "Libro de ventas cargado", "archivo", archivo, "ventas", tamanio);
+    }
+
+    /**
+     * La fecha se guarda completa (AAAA-MM-DDTHH:MM:SS) pero la liquidación solo usa el día. Se leen
+     * los dígitos directamente: con millones de líneas, LocalDate.parse es la mayor parte de la carga
+     */
+    private static int diaDe(String fecha) {
+        if (fecha.length() < 10 || fecha.charAt(4) != '-' || fecha.charAt(7) != '-') {
+            throw new NumberFormatException("Fecha inválida: " + fecha);
+        }
+        int anio = Integer.parseInt(fecha, 0, 4, 10);
+        int mes = Integer.parseInt(fecha, 5, 7, 10);
+        int diaDelMes = Integer.parseInt(fecha, 8, 10, 10);
+        return (int) LocalDate.of(anio, mes, diaDelMes).toEpochDay();
+    }
+}
@@ -0,0 +1,80 @@
+package liquidaciones;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de liquidar un período: un recibo por vendedor, cuándo se calculó y cuántas líneas
+ * del libro de ventas había en ese momento (para saber si una nueva liquidación verá otras ventas).
+ */
+public class Liquidacion {
+    private final YearMonth periodo;
+    private final LocalDateTime fechaCalculo;
+    private final int lineasLibro;
+    private final List<ReciboComision> recibos;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param periodo mes liquidado
+     * @param fechaCalculo cuándo se calculó
+     * @param lineasLibro líneas del libro de ventas al calcularla
+     * @param recibos un recibo por vendedor
+     */
+    public Liquidacion(YearMonth periodo, LocalDateTime fechaCalculo, int lineasLibro, List<ReciboComision> recibos) {
+        this.periodo = periodo;
+        this.fechaCalculo = fechaCalculo;
+        this.lineasLibro = lineasLibro;
+        this.recibos = Collections.unmodifiableList(recibos);
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public YearMonth getPeriodo() {
+        return periodo;
+    }
+    public LocalDateTime getFechaCalculo() {
+        return fechaCalculo;
+    }
+    public int getLineasLibro() {
+        return lineasLibro;
+    }
+    public List<ReciboComision> getRecibos() {
+        return recibos;
+    }
+
+    // ---------------------- METODOS ----------------------
+    public double getTotalComisiones() {
+        double total = 0;
+        for (ReciboComision recibo : recibos) {
+            total += recibo.getComision();
+        }
+        return total;
+    }
+
+    public double getTotalVendido() {
+        double total = 0;
+        for (ReciboComision recibo : recibos) {
+            total += recibo.getMontoVendido();
+        }
+        return total;
+    }
+
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("periodo", periodo.toString());
+        json.put("fechaCalculo", fechaCalculo.toString());
+        json.put("lineasLibro", lineasLibro);
+        json.put("totalVendido", getTotalVendido());
+        json.put("totalComisiones", getTotalComisiones());
+        JSONArray recibosJson = new JSONArray();
+        for (ReciboComision recibo : recibos) {
+            recibosJson.put(recibo.aJson());
+        }
+        json.put("recibos", recibosJson);
+        return json;
+    }
+}
@@ -0,0 +1,188 @@
+package liquidaciones;
+
+import excepciones.ErrorPersistenciaException;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import persistencia.LiquidacionesJSON;
+import registro.Bitacora;
+import usuarios.vendedores.Vendedor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.IntStream;
+
+/**
+ * Liquida las comisiones de un período (un mes) a partir del libro de ventas.
+ *
+ * La liquidación es una función del libro y de las comisiones de cada vendedor: volver a liquidar
+ * el mismo período recalcula todo y reemplaza la liquidación anterior, nunca suma sobre ella, así
+ * repetirla (por ejemplo después de corregir una comisión con fecha pasada) es seguro. Cada venta
+ * se liquida con la comisión vigente el día de la venta.
+ *
+ * El cálculo es en lote:
+ * 1. Se toman, una sola vez, la comisión de cada vendedor para cada día del período.
+ * 2. Una pasada por el libro cuenta las ventas del período de cada vendedor y otra las ordena por
+ *    vendedor (ordenamiento por conteo), así las ventas de un vendedor quedan contiguas.
+ * 3. Los vendedores se reparten entre los núcleos y cada uno suma sus ventas sin compartir nada.
+ * Con miles de vendedores y millones de ventas son unas pocas pasadas lineales sobre arreglos.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentSkipListMap para las liquidaciones por período: ordenadas por mes, y se pueden
+ *   consultar mientras se liquida otro período.
+ * - HashMap para sumar las comisiones por vendedor: solo lo usa el hilo que la pide.
+ */
+public class MotorLiquidaciones {
+    public static final String NOMBRE_DIRECTORIO = "liquidaciones";
+    private static final HistogramaLatencias TIEMPO_LIQUIDAR = Metricas.temporizador("liquidaciones.liquidar");
+    private static final Bitacora BITACORA = Bitacora.de(MotorLiquidaciones.class);
+
+    private final LibroVentas libro;
+    private final String directorio;
+    private final LiquidacionesJSON liquidacionesJSON;
+    private final NavigableMap<YearMonth, Liquidacion> liquidaciones;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param libro libro de ventas del que se calculan las comisiones
+     * @param directorio directorio donde se guardan las liquidaciones (se cargan las que haya)
+     */
+    public MotorLiquidaciones(LibroVentas libro, String directorio) {
+        this.libro = libro;
+        this.directorio = directorio;
+        this.liquidacionesJSON = new LiquidacionesJSON();
+        this.liquidaciones = new ConcurrentSkipListMap<>();
+        for (Liquidacion liquidacion : liquidacionesJSON.cargarLiquidaciones(directorio)) {
+            liquidaciones.put(liquidacion.getPeriodo(), liquidacion);
+        }
+    }
+
+    // ---------------------- LIQUIDACION ----------------------
+    /**
+     * Calcula (o recalcula) y guarda la liquidación de un período
+     * @param periodo mes a liquidar
+     * @param vendedores vendedores a liquidar (los que no vendieron reciben solo el sueldo base)
+     * @return la liquidación del período
+     * @throws ErrorPersistenciaException si no se pudo guardar (la liquidación anterior queda como estaba)
+     */
+    public synchronized Liquidacion liquidar(YearMonth periodo, List<Vendedor> vendedores) throws ErrorPersistenciaException {
+        long inicioMedicion = System.nanoTime();
+        try {
+            LibroVentas.Instantanea ventas = libro.instantanea();
+            int primerDia = (int) periodo.atDay(1).toEpochDay();
+            int dias = periodo.lengthOfMonth();
+            int cantidad = vendedores.size();
+
+            // 1. Datos de cada vendedor: posición por id y comisión de cada día del período
+            int maximoId = 0;
+            for (Vendedor vendedor : vendedores) {
+                maximoId = Math.max(maximoId, vendedor.getId());
+            }
+            int[] posicion = new int[maximoId + 1];
+            Arrays.fill(posicion, -1);
+            double[][] tasas = new double[cantidad][dias];
+            for (int k = 0; k < cantidad; k++) {
+                Vendedor vendedor = vendedores.get(k);
+                posicion[vendedor.getId()] = k;
+                for (int d = 0; d < dias; d++) {
+                    tasas[k][d] = vendedor.getComisionVigente(LocalDate.ofEpochDay(primerDia + d)) / 100.0;
+                }
+            }
+
+            // 2. Ventas del período agrupadas por vendedor (ordenamiento por conteo)
+            int[] inicio = new int[cantidad + 1];
+            for (int i = 0; i < ventas.tamanio; i++) {
+                int k = vendedorDeLaFila(ventas, i, primerDia, dias, posicion);
+                if (k >= 0) {
+                    inicio[k + 1]++;
+                }
+            }
+            for (int k = 0; k < cantidad; k++) {
+                inicio[k + 1] += inicio[k];
+            }
+            int[] filas = new int[inicio[cantidad]];
+            int[] siguiente = Arrays.copyOf(inicio, cantidad);
+            for (int i = 0; i < ventas.tamanio; i++) {
+                int k = vendedorDeLaFila(ventas, i, primerDia, dias, posicion);
+                if (k >= 0) {
+                    filas[siguiente[k]++] = i;
+                }
+            }
+
+            // 3. Cada vendedor suma sus ventas, en paralelo
+            ReciboComision[] recibos = new ReciboComision[cantidad];
+            IntStream.range(0, cantidad).parallel().forEach(k -> {
+                double montoVendido = 0;
+                double comision = 0;
+                double[] tasa = tasas[k];
+                for (int j = inicio[k]; j < inicio[k + 1]; j++) {
+                    int i = filas[j];
+                    montoVendido += ventas.monto[i];
+                    comision += ventas.monto[i] * tasa[ventas.dia[i] - primerDia];
+                }
+                Vendedor vendedor = vendedores.get(k);
+                recibos[k] = new ReciboComision(vendedor.getId(), vendedor.getEmail(), inicio[k + 1] - inicio[k],
+                        montoVendido, comision, vendedor.getSalario());
+            });
+
+            Liquidacion liquidacion = new Liquidacion(periodo, LocalDateTime.now(), ventas.tamanio, Arrays.asList(recibos));
+            liquidacionesJSON.guardarLiquidacion(liquidacion, directorio);
+            Liquidacion anterior = liquidaciones.put(periodo, liquidacion);
+            BITACORA.info("liquidacion.calculada", "Liquidación " + periodo + " calculada", "periodo", periodo.toString(),
+                    "vendedores", cantidad, "ventas", filas.length, "totalComisiones", liquidacion.getTotalComisiones(),
+                    "reemplazaAnterior", anterior != null);
+            return liquidacion;
+        } finally {
+            TIEMPO_LIQUIDAR.registrarDesde(inicioMedicion);
+        }
+    }
+
+    /**
+     * @return la posición del vendedor de la fila i, o -1 si la venta es de otro período o de un vendedor que no se liquida
+     */
+    private static int vendedorDeLaFila(LibroVentas.Instantanea ventas, int i, int primerDia, int dias, int[] posicion) {
+        int d = ventas.dia[i] - primerDia;
+        int id = ventas.vendedorId[i];
+        if (d < 0 || d >= dias || id < 0 || id >= posicion.length) {
+            return -1;
+        }
+        return posicion[id];
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    /**
+     * @param periodo mes liquidado
+     * @return la liquidación del período o null si no se liquidó
+     */
+    public Liquidacion getLiquidacion(YearMonth periodo) {
+        return liquidaciones.get(periodo);
+    }
+
+    /**
+     * @return las liquidaciones hechas, ordenadas por período
+     */
+    public NavigableMap<YearMonth, Liquidacion> getLiquidaciones() {
+        return Collections.unmodifiableNavigableMap(liquidaciones);
+    }
+
+    /**
+     * @return la suma de las comisiones liquidadas de cada vendedor en todos los períodos, por id
+     */
+    public Map<Integer, Double> getComisionesPorVendedor() {
+        Map<Integer, Double> totales = new HashMap<>();
+        for (Liquidacion liquidacion : liquidaciones.values()) {
+            for (ReciboComision recibo : liquidacion.getRecibos()) {
+                totales.merge(recibo.getVendedorId(), recibo.getComision(), Double::sum);
+            }
+        }
+        return totales;
+    }
+}
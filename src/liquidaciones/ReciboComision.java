@@ -0,0 +1,68 @@
+package liquidaciones;
+
+import org.json.JSONObject;
+
+/**
+ * Lo que corresponde cobrar a un vendedor en un período: sueldo base más la comisión de sus ventas.
+ */
+public class ReciboComision {
+    private final int vendedorId;
+    private final String email;
+    private final long ventas;
+    private final double montoVendido;
+    private final double comision;
+    private final double salarioBase;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param vendedorId id del vendedor
+     * @param email email del vendedor
+     * @param ventas cantidad de ventas del período
+     * @param montoVendido suma cobrada de esas ventas
+     * @param comision comisión del período (cada venta con la comisión vigente el día de la venta)
+     * @param salarioBase sueldo base del vendedor al liquidar
+     */
+    public ReciboComision(int vendedorId, String email, long ventas, double montoVendido, double comision, double salarioBase) {
+        this.vendedorId = vendedorId;
+        this.email = email;
+        this.ventas = ventas;
+        this.montoVendido = montoVendido;
+        this.comision = comision;
+        this.salarioBase = salarioBase;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public int getVendedorId() {
+        return vendedorId;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public long getVentas() {
+        return ventas;
+    }
+    public double getMontoVendido() {
+        return montoVendido;
+    }
+    public double getComision() {
+        return comision;
+    }
+    public double getSalarioBase() {
+        return salarioBase;
+    }
+    public double getTotalACobrar() {
+        return salarioBase + comision;
+    }
+
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("vendedorId", vendedorId);
+        json.put("email", email);
+        json.put("ventas", ventas);
+        json.put("montoVendido", montoVendido);
+        json.put("comision", comision);
+        json.put("salarioBase", salarioBase);
+        json.put("totalACobrar", getTotalACobrar());
+        return json;
+    }
+}
@@ -0,0 +1,160 @@
+package metricas;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias (en nanosegundos) con cubetas log-lineales, al estilo de HdrHistogram.
+ *
+ * Los valores menores a 64 tienen una cubeta cada uno. A partir de ahí cada potencia de dos se
+ * divide en 32 cubetas iguales, así el error relativo de un percentil es como mucho 1/32 (~3%) sin
+ * importar si la latencia es de microsegundos o de segundos. La cantidad de cubetas es fija (menos
+ * de 2000), por eso registrar un valor no reserva memoria: es calcular un índice e incrementar un
+ * contador atómico. Muchos hilos pueden registrar a la vez sin bloquearse.
+ *
+ * Los percentiles se calculan recorriendo las cubetas, y se pueden pedir mientras se sigue
+ * registrando (el resultado es una foto aproximada de ese momento).
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - AtomicLongArray para las cubetas: un arreglo de tamaño fijo con incremento atómico por
+ *   posición, sin objetos por cubeta ni locks.
+ * - LongAdder para la cantidad y la suma: se escriben en cada registro desde muchos hilos, y
+ *   LongAdder reparte esa contención en celdas separadas.
+ */
+public class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int LINEALES = SUBCUBETAS * 2;
+    private static final int PRIMER_EXPONENTE = BITS_SUBCUBETA + 1;
+    private static final int CANTIDAD_CUBETAS = LINEALES + (63 - PRIMER_EXPONENTE) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas;
+    private final LongAdder cantidad;
+    private final LongAdder suma;
+    private final AtomicLong maximo;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public HistogramaLatencias() {
+        this.cubetas = new AtomicLongArray(CANTIDAD_CUBETAS);
+        this.cantidad = new LongAdder();
+        this.suma = new LongAdder();
+        this.maximo = new AtomicLong();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Registra una latencia
+     * @param nanos duración en nanosegundos (los negativos cuentan como 0)
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        if (valor > maximo.get()) {
+            maximo.accumulateAndGet(valor, Math::max);
+        }
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde un instante tomado con System.nanoTime()
+     * @param inicio instante de inicio de la operación
+     */
+    public void registrarDesde(long inicio) {
+        registrar(System.nanoTime() - inicio);
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * @return la latencia promedio en nanosegundos (0 si no hay registros)
+     */
+    public double getPromedio() {
+        long total = cantidad.sum();
+        return total == 0 ? 0 : (double) suma.sum() / total;
+    }
+
+    /**
+     * Calcula percentiles
+     * @param percentiles percentiles a calcular (0.5, 0.99, ...)
+     * @return la latencia en nanosegundos de cada percentil (0 si no hay registros)
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] copia = new long[CANTIDAD_CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CANTIDAD_CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+
+        long[] resultado = new long[percentiles.length];
+        if (total == 0) {
+            return resultado;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            long objetivo = Math.max(1, (long) Math.ceil(percentiles[p] * total));
+            long acumulado = 0;
+            int i = 0;
+            while (i < CANTIDAD_CUBETAS - 1 && acumulado + copia[i] < objetivo) {
+                acumulado += copia[i];
+                i++;
+            }
+            resultado[p] = Math.min(valorRepresentativo(i), maximo.get());
+        }
+        return resultado;
+    }
+
+    /**
+     * @return cantidad, promedio, percentiles y máximo en milisegundos
+     */
+    public JSONObject aJson() {
+        long[] p = percentiles(0.50, 0.90, 0.99, 0.999);
+        JSONObject json = new JSONObject();
+        json.put("cantidad", getCantidad());
+        json.put("promedioMs", getPromedio() / 1e6);
+        json.put("p50Ms", p[0] / 1e6);
+        json.put("p90Ms", p[1] / 1e6);
+        json.put("p99Ms", p[2] / 1e6);
+        json.put("p999Ms", p[3] / 1e6);
+        json.put("maximoMs", getMaximo() / 1e6);
+        return json;
+    }
+
+    /**
+     * Índice de la cubeta de un valor: lineal hasta 64, y después el exponente del bit más alto
+     * más los 5 bits que le siguen
+     */
+    private static int indice(long valor) {
+        if (valor < LINEALES) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        int subcubeta = (int) (valor >>> desplazamiento) & (SUBCUBETAS - 1);
+        return LINEALES + (exponente - PRIMER_EXPONENTE) * SUBCUBETAS + subcubeta;
+    }
+
+    /**
+     * Valor del medio del rango que cubre una cubeta
+     */
+    private static long valorRepresentativo(int indice) {
+        if (indice < LINEALES) {
+            return indice;
+        }
+        int exponente = (indice - LINEALES) / SUBCUBETAS + PRIMER_EXPONENTE;
+        int subcubeta = (indice - LINEALES) % SUBCUBETAS;
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        long desde = (long) (SUBCUBETAS + subcubeta) << desplazamiento;
+        return desde + ((1L << desplazamiento) >>> 1);
+    }
+}
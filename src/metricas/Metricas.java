@@ -0,0 +1,91 @@
+package metricas;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro global de métricas del sistema: contadores y temporizadores (histogramas de latencia)
+ * identificados por nombre, por ejemplo "comercio.compra" o "persistencia.guardarStock".
+ *
+ * Las clases que miden guardan el contador o el histograma en una constante al cargarse, así en
+ * el camino caliente no hay búsqueda por nombre: medir es tomar System.nanoTime() y registrar en
+ * el histograma, sin locks ni objetos nuevos. Como los histogramas son acumulativos, la foto
+ * (instantanea o aTexto) se puede pedir en cualquier momento mientras el sistema sigue atendiendo,
+ * por ejemplo desde GET /api/metricas.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para contadores e histogramas: se registran desde cualquier hilo la primera
+ *   vez que se piden (computeIfAbsent) y se leen mientras otros hilos siguen registrando.
+ * - LongAdder para los contadores: incrementos desde muchos hilos sin contención.
+ * - TreeMap al armar la foto: deja las métricas ordenadas por nombre.
+ */
+public class Metricas {
+    private static final Map<String, LongAdder> CONTADORES = new ConcurrentHashMap<>();
+    private static final Map<String, HistogramaLatencias> HISTOGRAMAS = new ConcurrentHashMap<>();
+
+    private Metricas() {
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Obtiene (o crea) un contador
+     * @param nombre nombre de la métrica
+     * @return el contador con ese nombre
+     */
+    public static LongAdder contador(String nombre) {
+        return CONTADORES.computeIfAbsent(nombre, n -> new LongAdder());
+    }
+
+    /**
+     * Obtiene (o crea) un histograma de latencias
+     * @param nombre nombre de la métrica
+     * @return el histograma con ese nombre
+     */
+    public static HistogramaLatencias temporizador(String nombre) {
+        return HISTOGRAMAS.computeIfAbsent(nombre, n -> new HistogramaLatencias());
+    }
+
+    // ---------------------- FOTO ----------------------
+    /**
+     * @return todos los contadores y temporizadores en JSON, ordenados por nombre
+     */
+    public static JSONObject instantanea() {
+        JSONObject contadores = new JSONObject();
+        for (Map.Entry<String, LongAdder> entrada : new TreeMap<>(CONTADORES).entrySet()) {
+            contadores.put(entrada.getKey(), entrada.getValue().sum());
+        }
+        JSONObject temporizadores = new JSONObject();
+        for (Map.Entry<String, HistogramaLatencias> entrada : new TreeMap<>(HISTOGRAMAS).entrySet()) {
+            temporizadores.put(entrada.getKey(), entrada.getValue().aJson());
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("contadores", contadores);
+        json.put("temporizadores", temporizadores);
+        return json;
+    }
+
+    /**
+     * @return todos los contadores y temporizadores como tabla de texto
+     */
+    public static String aTexto() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("%-32s %10s %10s %10s %10s %10s %10s%n", "temporizador", "cantidad", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        for (Map.Entry<String, HistogramaLatencias> entrada : new TreeMap<>(HISTOGRAMAS).entrySet()) {
+            HistogramaLatencias histograma = entrada.getValue();
+            long[] p = histograma.percentiles(0.50, 0.90, 0.99, 0.999);
+            texto.append(String.format("%-32s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", entrada.getKey(), histograma.getCantidad(),
+                    p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, p[3] / 1e6, histograma.getMaximo() / 1e6));
+        }
+        texto.append(String.format("%n%-32s %10s%n", "contador", "valor"));
+        for (Map.Entry<String, LongAdder> entrada : new TreeMap<>(CONTADORES).entrySet()) {
+            texto.append(String.format("%-32s %10d%n", entrada.getKey(), entrada.getValue().sum()));
+        }
+        return texto.toString();
+    }
+}
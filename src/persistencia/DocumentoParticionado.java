@@ -0,0 +1,346 @@
+package persistencia;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import registro.Bitacora;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Un archivo JSON con un arreglo grande (los productos de stock.json, los usuarios de
+ * usuarios.json), leído para deserializar los elementos del arreglo en paralelo.
+ *
+ * Armar el JSONObject de todo el archivo es la mayor parte de la carga y corre en un solo hilo.
+ * Acá el archivo se recorre una vez sin armar nada, solo para ubicar dónde empieza y termina cada
+ * elemento del arreglo (contando llaves y corchetes fuera de los textos), y después los elementos
+ * se convierten a JSONObject y se deserializan de a bloques en el pool fork-join, un bloque por
+ * tarea. El resto de los campos del archivo (fechas, contadores) quedan en la cabecera.
+ *
+ * Como los bloques se deserializan y se descartan de a uno, tampoco queda en memoria el árbol
+ * JSON del archivo entero, solo su texto y los objetos ya deserializados.
+ *
+ * Algunos miembros de cada elemento se pueden dejar sin parsear (por ejemplo historiales que casi
+ * nunca se miran): al armar el elemento se saltean con el mismo recorrido y en el JSONObject queda
+ * el texto JSON de su valor, como String, para parsearlo recién cuando se use.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglos de int para las posiciones de los elementos: dos enteros por elemento, sin objetos.
+ * - ArrayList para el resultado: se arma en el orden del archivo, bloque por bloque.
+ */
+public class DocumentoParticionado {
+    private static final Bitacora BITACORA = Bitacora.de(DocumentoParticionado.class);
+
+    private final String texto;
+    private final String claveArreglo;
+    private final String[] clavesSinParsear;
+    private final JSONObject cabecera;
+    private final int[] inicios;
+    private final int[] fines;
+    private final int cantidad;
+    private final boolean tieneArreglo;
+
+    /**
+     * Deserializa un elemento del arreglo
+     * @param <T> tipo del elemento deserializado
+     */
+    public interface Deserializador<T> {
+        /**
+         * @param indice posición del elemento en el arreglo
+         * @param elemento elemento a deserializar
+         * @return el elemento deserializado, o null para descartarlo
+         */
+        T deserializar(int indice, JSONObject elemento);
+    }
+
+    private DocumentoParticionado(String texto, String claveArreglo, String[] clavesSinParsear, JSONObject cabecera, int[] inicios,
+                                  int[] fines, int cantidad, boolean tieneArreglo) {
+        this.texto = texto;
+        this.claveArreglo = claveArreglo;
+        this.clavesSinParsear = clavesSinParsear;
+        this.cabecera = cabecera;
+        this.inicios = inicios;
+        this.fines = fines;
+        this.cantidad = cantidad;
+        this.tieneArreglo = tieneArreglo;
+    }
+
+    // ---------------------- LECTURA ----------------------
+    /**
+     * Lee un archivo JSON y ubica los elementos de uno de sus arreglos
+     * @param nombreArchivo archivo a leer (un objeto JSON)
+     * @param claveArreglo clave del arreglo a particionar
+     * @return el documento leído
+     * @throws IOException si no se puede leer el archivo
+     * @throws JSONException si el archivo no es un objeto JSON válido
+     */
+    public static DocumentoParticionado leer(String nombreArchivo, String claveArreglo) throws IOException {
+        return leer(nombreArchivo, claveArreglo, new String[0]);
+    }
+
+    /**
+     * Lee un archivo JSON y ubica los elementos de uno de sus arreglos
+     * @param nombreArchivo archivo a leer (un objeto JSON)
+     * @param claveArreglo clave del arreglo a particionar
+     * @param clavesSinParsear miembros de cada elemento que quedan como texto JSON (String) en vez de parsearse
+     * @return el documento leído
+     * @throws IOException si no se puede leer el archivo
+     * @throws JSONException si el archivo no es un objeto JSON válido
+     */
+    public static DocumentoParticionado leer(String nombreArchivo, String claveArreglo, String... clavesSinParsear) throws IOException {
+        String texto = Files.readString(Paths.get(nombreArchivo));
+        JSONObject cabecera = new JSONObject();
+        int[] inicios = new int[1024];
+        int[] fines = new int[1024];
+        int cantidad = 0;
+        boolean tieneArreglo = false;
+
+        int i = saltarEspacios(texto, 0);
+        esperar(texto, i, '{');
+        i = saltarEspacios(texto, i + 1);
+        while (i < texto.length() && texto.charAt(i) != '}') {
+            int finClave = finDeValor(texto, i);
+            Object clave = new JSONTokener(texto.substring(i, finClave)).nextValue();
+            i = saltarEspacios(texto, finClave);
+            esperar(texto, i, ':');
+            i = saltarEspacios(texto, i + 1);
+
+            if (claveArreglo.equals(clave) && i < texto.length() && texto.charAt(i) == '[') {
+                tieneArreglo = true;
+                i = saltarEspacios(texto, i + 1);
+                while (i < texto.length() && texto.charAt(i) != ']') {
+                    int fin = finDeValor(texto, i);
+                    if (cantidad == inicios.length) {
+                        inicios = Arrays.copyOf(inicios, cantidad * 2);
+                        fines = Arrays.copyOf(fines, cantidad * 2);
+                    }
+                    inicios[cantidad] = i;
+                    fines[cantidad] = fin;
+                    cantidad++;
+                    i = saltarSeparador(texto, fin, ']');
+                }
+                esperar(texto, i, ']');
+                i++;
+            } else {
+                int fin = finDeValor(texto, i);
+                cabecera.put(String.valueOf(clave), new JSONTokener(texto.substring(i, fin)).nextValue());
+                i = fin;
+            }
+            i = saltarSeparador(texto, i, '}');
+        }
+        esperar(texto, i, '}');
+        return new DocumentoParticionado(texto, claveArreglo, clavesSinParsear, cabecera, inicios, fines, cantidad, tieneArreglo);
+    }
+
+    private static int saltarEspacios(String texto, int i) {
+        while (i < texto.length() && Character.isWhitespace(texto.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Saltea los espacios y la coma que siguen a un valor (si lo que sigue es el cierre, lo deja)
+     */
+    private static int saltarSeparador(String texto, int i, char cierre) {
+        i = saltarEspacios(texto, i);
+        if (i < texto.length() && texto.charAt(i) == ',') {
+            return saltarEspacios(texto, i + 1);
+        }
+        esperar(texto, i, cierre);
+        return i;
+    }
+
+    private static void esperar(String texto, int i, char esperado) {
+        if (i >= texto.length() || texto.charAt(i) != esperado) {
+            throw new JSONException("Se esperaba '" + esperado + "' en la posición " + i);
+        }
+    }
+
+    /**
+     * @return la posición siguiente al final del valor que empieza en i (texto, objeto, arreglo o literal)
+     */
+    private static int finDeValor(String texto, int i) {
+        char c = texto.charAt(i);
+        if (c == '"') {
+            return finDeTexto(texto, i);
+        }
+        if (c != '{' && c != '[') {
+            while (i < texto.length() && ",}] \t\r\n".indexOf(texto.charAt(i)) < 0) {
+                i++;
+            }
+            return i;
+        }
+        int profundidad = 0;
+        while (i < texto.length()) {
+            c = texto.charAt(i);
+            if (c == '"') {
+                i = finDeTexto(texto, i);
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                profundidad++;
+            } else if (c == '}' || c == ']') {
+                profundidad--;
+                if (profundidad == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        throw new JSONException("Falta cerrar el valor que empieza en la posición " + i);
+    }
+
+    private static int finDeTexto(String texto, int i) {
+        for (i = i + 1; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        throw new JSONException("Texto sin cerrar en el archivo");
+    }
+
+    // ---------------------- DESERIALIZACION ----------------------
+    /**
+     * Deserializa los elementos del arreglo en paralelo, de a bloques, en el pool fork-join común.
+     * Los elementos que no son JSON válido se descartan y quedan en la bitácora
+     * @param elementosPorBloque cantidad de elementos de cada tarea
+     * @param deserializador función que deserializa cada elemento (se llama desde varios hilos a la vez)
+     * @return los elementos deserializados (sin los null), en el orden del archivo
+     */
+    public <T> List<T> deserializar(int elementosPorBloque, Deserializador<T> deserializador) {
+        List<Callable<List<T>>> tareas = new ArrayList<>();
+        for (int desde = 0; desde < cantidad; desde += elementosPorBloque) {
+            int inicioBloque = desde;
+            int finBloque = Math.min(cantidad, desde + elementosPorBloque);
+            tareas.add(() -> deserializarBloque(inicioBloque, finBloque, deserializador));
+        }
+
+        List<T> resultado = new ArrayList<>(cantidad);
+        try {
+            for (Future<List<T>> bloque : ForkJoinPool.commonPool().invokeAll(tareas)) {
+                resultado.addAll(bloque.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la carga del arreglo " + claveArreglo, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al deserializar el arreglo " + claveArreglo + ": " + e.getCause().getMessage(), e.getCause());
+        }
+        return resultado;
+    }
+
+    private <T> List<T> deserializarBloque(int desde, int hasta, Deserializador<T> deserializador) {
+        List<T> bloque = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            JSONObject elemento;
+            try {
+                elemento = parsearElemento(inicios[i], fines[i]);
+            } catch (JSONException e) {
+                BITACORA.advertencia("json.elementoInvalido", "Se descartó un elemento inválido del arreglo " + claveArreglo + ": " + e.getMessage(),
+                        e, "arreglo", claveArreglo, "indice", i);
+                continue;
+            }
+            T deserializado = deserializador.deserializar(i, elemento);
+            if (deserializado != null) {
+                bloque.add(deserializado);
+            }
+        }
+        return bloque;
+    }
+
+    /**
+     * Arma el JSONObject de un elemento. Los miembros de clavesSinParsear no se parsean: se reemplazan
+     * por null en el texto que se parsea y después se agrega el texto JSON de su valor como String
+     */
+    private JSONObject parsearElemento(int inicio, int fin) {
+        if (clavesSinParsear.length == 0) {
+            return new JSONObject(texto.substring(inicio, fin));
+        }
+        StringBuilder resto = null;
+        Map<String, String> sinParsear = null;
+        int copiadoHasta = inicio;
+
+        int i = saltarEspacios(texto, inicio);
+        esperar(texto, i, '{');
+        i = saltarEspacios(texto, i + 1);
+        while (i < fin && texto.charAt(i) != '}') {
+            int inicioClave = i;
+            int finClave = finDeValor(texto, i);
+            i = saltarEspacios(texto, finClave);
+            esperar(texto, i, ':');
+            i = saltarEspacios(texto, i + 1);
+            int finValor = finDeValor(texto, i);
+            String clave = claveSinParsear(inicioClave, finClave);
+            if (clave != null) {
+                if (resto == null) {
+                    resto = new StringBuilder(fin - inicio);
+                    sinParsear = new HashMap<>();
+                }
+                resto.append(texto, copiadoHasta, i).append("null");
+                copiadoHasta = finValor;
+                sinParsear.put(clave, texto.substring(i, finValor));
+            }
+            i = saltarSeparador(texto, finValor, '}');
+        }
+
+        if (resto == null) {
+            return new JSONObject(texto.substring(inicio, fin));
+        }
+        resto.append(texto, copiadoHasta, fin);
+        JSONObject elemento = new JSONObject(resto.toString());
+        for (Map.Entry<String, String> miembro : sinParsear.entrySet()) {
+            elemento.put(miembro.getKey(), miembro.getValue());
+        }
+        return elemento;
+    }
+
+    /**
+     * @return la clave de clavesSinParsear que está entre comillas en [inicio, fin), o null si no es ninguna
+     */
+    private String claveSinParsear(int inicio, int fin) {
+        for (String clave : clavesSinParsear) {
+            if (fin - inicio == clave.length() + 2 && texto.regionMatches(inicio + 1, clave, 0, clave.length())) {
+                return clave;
+            }
+        }
+        return null;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    /**
+     * @return los campos del archivo que no son el arreglo particionado
+     */
+    public JSONObject getCabecera() {
+        return cabecera;
+    }
+
+    /**
+     * @return true si el archivo tiene el arreglo pedido
+     */
+    public boolean tieneArreglo() {
+        return tieneArreglo;
+    }
+
+    /**
+     * @return la cantidad de elementos del arreglo
+     */
+    public int getCantidadElementos() {
+        return cantidad;
+    }
+}
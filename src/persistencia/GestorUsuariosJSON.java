@@ -5,6 +5,7 @@ import org.json.JSONObject;
 import org.json.JSONException;
 import org.json.JSONTokener;
 import usuarios.Credenciales;
+import usuarios.IndiceUsuarios;
 import usuarios.Rol;
 import usuarios.SistemaAutenticacion;
 import usuarios.Usuario;
@@ -12,16 +13,22 @@ import usuarios.clientes.Cliente;
 import usuarios.vendedores.Vendedor;
 import usuarios.clientes.MetodoPago;
 import excepciones.ErrorPersistenciaException;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import registro.Bitacora;
+import utilidades.DeduplicadorTextos;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * ELECCION DE COLECCIONES:
@@ -34,9 +41,28 @@ import java.util.Map;
  *
  * - ArrayList para historiales (compras y ventas): Usamos ArrayList para mantener listas de
  *   compras o ventas en orden cronológico.
+ *
+ * - DeduplicadorTextos para nombres, apellidos, direcciones y teléfonos al cargar: los valores
+ *   repetidos entre usuarios quedan en una sola instancia.
  */
 public class GestorUsuariosJSON {
     private static final String ARCHIVO_USUARIOS = "data/usuarios.json";
+    private static final HistogramaLatencias TIEMPO_GUARDAR = Metricas.temporizador("persistencia.guardarUsuarios");
+    private static final Bitacora BITACORA = Bitacora.de(GestorUsuariosJSON.class);
+    private static final int USUARIOS_POR_BLOQUE = 2048;
+
+    /**
+     * Un usuario leído del archivo junto con sus credenciales (cualquiera de los dos puede faltar)
+     */
+    private static final class UsuarioCargado {
+        final Usuario usuario;
+        final Credenciales credencial;
+
+        UsuarioCargado(Usuario usuario, Credenciales credencial) {
+            this.usuario = usuario;
+            this.credencial = credencial;
+        }
+    }
     
     public GestorUsuariosJSON() {}
 
@@ -47,6 +73,18 @@ public class GestorUsuariosJSON {
      * @throws ErrorPersistenciaException si no se pueden guardar los usuarios en el archivo
      */
     public void guardarUsuarios(SistemaAutenticacion sistemaAutenticacion, String nombreArchivo) throws ErrorPersistenciaException {
+        grabarCopia(copiarUsuarios(sistemaAutenticacion, nombreArchivo), nombreArchivo);
+    }
+
+    /**
+     * Serializa todos los usuarios en memoria, para escribirlos después con grabarCopia. La copia no
+     * comparte nada con los usuarios, así se puede escribir sin frenar a quien los modifica
+     * @param sistemaAutenticacion instancia de "SistemaAutenticación" donde están los usuarios autenticados
+     * @param nombreArchivo nombre del archivo donde se van a guardar los usuarios (para los errores)
+     * @throws ErrorPersistenciaException si no se pueden serializar los usuarios
+     * @return el JSON del archivo de usuarios
+     */
+    public JSONObject copiarUsuarios(SistemaAutenticacion sistemaAutenticacion, String nombreArchivo) throws ErrorPersistenciaException {
         try {
             ArrayList<Usuario> usuarios = (ArrayList<Usuario>) sistemaAutenticacion.listarUsuarios();
             JSONObject jsonObject = new JSONObject();
@@ -55,14 +93,32 @@ public class GestorUsuariosJSON {
             jsonObject.put("totalUsuarios", usuarios.size());
             // Guardamos el contador actual para mantener la secuencia de IDs
             jsonObject.put("contadorUsuarios", Usuario.getContador());
-            
-            OperacionesLectoEscritura.grabar(nombreArchivo, jsonObject);
+            return jsonObject;
+        } catch (JSONException e) {
+            throw new ErrorPersistenciaException("Error al serializar usuarios a JSON. Detalle: " + e.getMessage(), nombreArchivo, e);
+        } catch (Exception e) {
+            throw new ErrorPersistenciaException("Error inesperado al serializar usuarios para el archivo: " + nombreArchivo + ". Detalle: " + e.getMessage(), nombreArchivo, e);
+        }
+    }
+
+    /**
+     * Escribe en el archivo una copia tomada con copiarUsuarios
+     * @param copia JSON del archivo de usuarios
+     * @param nombreArchivo nombre del archivo donde se van a guardar los usuarios
+     * @throws ErrorPersistenciaException si no se pueden guardar los usuarios en el archivo
+     */
+    public void grabarCopia(JSONObject copia, String nombreArchivo) throws ErrorPersistenciaException {
+        long inicio = System.nanoTime();
+        try {
+            OperacionesLectoEscritura.grabar(nombreArchivo, copia);
         } catch (IOException e) {
             throw new ErrorPersistenciaException("Error de E/S al guardar usuarios en el archivo: " + nombreArchivo + ". Detalle: " + e.getMessage(), nombreArchivo, e);
         } catch (JSONException e) {
             throw new ErrorPersistenciaException("Error al serializar usuarios a JSON. Detalle: " + e.getMessage(), nombreArchivo, e);
         } catch (Exception e) {
             throw new ErrorPersistenciaException("Error inesperado al guardar usuarios en el archivo: " + nombreArchivo + ". Detalle: " + e.getMessage(), nombreArchivo, e);
+        } finally {
+            TIEMPO_GUARDAR.registrarDesde(inicio);
         }
     }
 
@@ -72,38 +128,67 @@ public class GestorUsuariosJSON {
      * @return una lista con los usuarios que contiene el archivo
      */
     public ArrayList<Usuario> cargarUsuarios(String nombreArchivo) {
+        return cargarUsuarios(nombreArchivo, null);
+    }
+
+    /**
+     * Carga todos los usuarios y sus credenciales desde un archivo JSON, leyéndolo una sola vez. Los
+     * usuarios se deserializan en paralelo, de a bloques (ver DocumentoParticionado)
+     * @param nombreArchivo nombre del archivo de donde se cargarán los usuarios
+     * @param credenciales mapa donde se agregan las credenciales por email (null para no cargarlas)
+     * @return una lista con los usuarios que contiene el archivo, en el orden del archivo
+     */
+    public ArrayList<Usuario> cargarUsuarios(String nombreArchivo, Map<String, Credenciales> credenciales) {
         ArrayList<Usuario> usuarios = new ArrayList<>();
         int maxId = 0;
+        long inicio = System.nanoTime();
         try {
-            FileReader fileReader = new FileReader(nombreArchivo);
-            JSONTokener tokener = new JSONTokener(fileReader);
-            JSONObject jsonObject = new JSONObject(tokener);
+            // Los historiales quedan como texto y se parsean recién cuando se usan (ver historialGuardado)
+            DocumentoParticionado documento = DocumentoParticionado.leer(nombreArchivo, "usuarios", "historialCompras", "ventasRealizadas");
+            if (!documento.tieneArreglo()) {
+                throw new JSONException("El archivo no tiene el arreglo \"usuarios\"");
+            }
             
-            JSONArray usuariosArray = jsonObject.getJSONArray("usuarios");
+            DeduplicadorTextos textos = new DeduplicadorTextos();
+            List<UsuarioCargado> cargados = documento.deserializar(USUARIOS_POR_BLOQUE, (indice, usuarioJson) -> {
+                Credenciales credencial = null;
+                if (credenciales != null && usuarioJson.has("email")) {
+                    String email = usuarioJson.getString("email");
+                    credencial = new Credenciales(email, passwordGuardada(usuarioJson));
+                }
+                Usuario usuario = deserializarUsuario(usuarioJson, textos);
+                return usuario == null && credencial == null ? null : new UsuarioCargado(usuario, credencial);
+            });
             
-            for (int i = 0; i < usuariosArray.length(); i++) {
-                JSONObject usuarioJson = usuariosArray.getJSONObject(i);
-                Usuario usuario = deserializarUsuario(usuarioJson);
-                if (usuario != null) {
-                    usuarios.add(usuario);
+            // Juntamos los bloques en el orden del archivo (si un email se repite, queda el último)
+            for (UsuarioCargado cargado : cargados) {
+                if (cargado.credencial != null) {
+                    credenciales.put(cargado.credencial.getEmail(), cargado.credencial);
+                }
+                if (cargado.usuario != null) {
+                    usuarios.add(cargado.usuario);
                     // Encontramos el ID máximo para actualizar el contador
-                    if (usuario.getId() > maxId) {
-                        maxId = usuario.getId();
+                    if (cargado.usuario.getId() > maxId) {
+                        maxId = cargado.usuario.getId();
                     }
                 }
             }
             
             // Restauramos el contador: usar el valor guardado si existe, sino usar el máximo ID encontrado
-            if (jsonObject.has("contadorUsuarios")) {
-                int contadorGuardado = jsonObject.getInt("contadorUsuarios");
+            JSONObject cabecera = documento.getCabecera();
+            if (cabecera.has("contadorUsuarios")) {
+                int contadorGuardado = cabecera.getInt("contadorUsuarios");
                 Usuario.setContador(contadorGuardado);
             } else {
                 // Si no hay contador guardado, usamos el máximo ID encontrado
                 Usuario.setContador(maxId);
             }
+            BITACORA.info("usuarios.cargados", "Usuarios cargados", "archivo", nombreArchivo, "usuarios", usuarios.size(),
+                    "textosDistintos", textos.getDistintos(), "textosRepetidos", textos.getRepetidos(),
+                    "bytesAhorrados", textos.getBytesAhorrados(), "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
             
         } catch (Exception e) {
-            System.out.println("❌ Error al cargar usuarios: " + e.getMessage());
+            BITACORA.error("usuarios.errorCarga", "Error al cargar usuarios: " + e.getMessage(), e, "archivo", nombreArchivo);
         }
         
         return usuarios;
@@ -127,15 +212,12 @@ public class GestorUsuariosJSON {
             for (int i = 0; i < usuariosArray.length(); i++) {
                 JSONObject usuarioJson = usuariosArray.getJSONObject(i);
                 String email = usuarioJson.getString("email");
-                String password = usuarioJson.optString("password", "temp123");
-                
-                Credenciales credencial = new Credenciales(email, password);
+                Credenciales credencial = new Credenciales(email, passwordGuardada(usuarioJson));
                 credenciales.put(email, credencial);
             }
             
         } catch (Exception e) {
-            System.out.println("❌ Error al cargar credenciales: " + e.getMessage());
-            System.out.println("📁 Continuando con credenciales vacías.");
+            BITACORA.error("usuarios.errorCargaCredenciales", "Error al cargar credenciales: " + e.getMessage() + ". Se continúa con credenciales vacías.", e, "archivo", nombreArchivo);
         }
         
         return credenciales;
@@ -156,7 +238,7 @@ public class GestorUsuariosJSON {
                 jsonArray.put(usuarioJson);
             }
         } catch (JSONException e) {
-            System.out.println("❌ Error al serializar usuarios: " + e.getMessage());
+            BITACORA.error("usuarios.errorSerializacion", "Error al serializar usuarios: " + e.getMessage(), e);
         }
         
         return jsonArray;
@@ -180,7 +262,8 @@ public class GestorUsuariosJSON {
         usuarioJson.put("dni", usuario.getDni() != null ? usuario.getDni() : "");
         usuarioJson.put("fechaRegistro", usuario.getFechaRegistro() != null ? usuario.getFechaRegistro().toString() : "");
         
-        // Obtenemos y guardamos la contraseña
+        // Obtenemos y guardamos el hash de la contraseña. Si el usuario no tiene credenciales no se
+        // escribe nada y al cargarlo queda sin contraseña (no puede iniciar sesión)
         try {
             // Accedemos a las credenciales del sistema de autenticación
             Field credencialesField = SistemaAutenticacion.class.getDeclaredField("credenciales");
@@ -188,15 +271,12 @@ public class GestorUsuariosJSON {
             @SuppressWarnings("unchecked")
             Map<String, Credenciales> credenciales = (Map<String, Credenciales>) credencialesField.get(sistemaAutenticacion);
             
-            Credenciales credencial = credenciales.get(usuario.getEmail());
+            Credenciales credencial = credenciales.get(IndiceUsuarios.normalizarEmail(usuario.getEmail()));
             if (credencial != null) {
                 usuarioJson.put("password", credencial.getPassword());
-            } else {
-                usuarioJson.put("password", "temp123"); // Contraseña por defecto
             }
         } catch (Exception e) {
-            System.out.println("⚠️ No se pudo obtener la contraseña para " + usuario.getEmail() + ": " + e.getMessage());
-            usuarioJson.put("password", "temp123"); // Contraseña por defecto
+            BITACORA.advertencia("usuarios.credencialNoDisponible", "No se pudo obtener la contraseña para " + usuario.getEmail() + ": " + e.getMessage(), e, "email", usuario.getEmail());
         }
         
         // Datos específicos según el tipo de usuario
@@ -225,6 +305,16 @@ public class GestorUsuariosJSON {
             usuarioJson.put("salario", vendedor.getSalario());
             usuarioJson.put("comision", vendedor.getComisionPorVenta());
             usuarioJson.put("totalComisiones", vendedor.getTotalComisiones());
+
+            // Historial de comisiones: cada fecha de vigencia con su porcentaje
+            JSONArray comisionesArray = new JSONArray();
+            for (Map.Entry<LocalDate, Double> cambio : vendedor.getHistorialComisiones().entrySet()) {
+                JSONObject cambioJson = new JSONObject();
+                cambioJson.put("desde", cambio.getKey().toString());
+                cambioJson.put("comision", cambio.getValue());
+                comisionesArray.put(cambioJson);
+            }
+            usuarioJson.put("historialComisiones", comisionesArray);
             
             // Historial de ventas
             JSONArray ventasArray = new JSONArray();
@@ -241,17 +331,36 @@ public class GestorUsuariosJSON {
         return usuarioJson;
     }
 
+    /**
+     * Contraseña guardada de un usuario: un hash o, en cuentas viejas, la contraseña en texto plano
+     * (se migra en el próximo login). Una cuenta guardada sin contraseña queda sin ninguna, así no
+     * puede iniciar sesión hasta que se le asigne una (no se le da una contraseña por defecto)
+     * @param usuarioJson usuario serializado
+     * @return la contraseña guardada, o null si no tiene
+     */
+    private static String passwordGuardada(JSONObject usuarioJson) {
+        String password = usuarioJson.optString("password", null);
+        if (password == null || password.isEmpty()) {
+            BITACORA.advertencia("usuarios.sinPassword", "El usuario " + usuarioJson.optString("email") + " no tiene contraseña guardada y no podrá iniciar sesión",
+                    "email", usuarioJson.optString("email"));
+            return null;
+        }
+        return password;
+    }
+
     /**
      * Deserializa un JSONObject a un Usuario
      * @param usuarioJson usuario serializado que vamos a deserializar
+     * @param textos diccionario de la carga para los textos repetidos
      * @return usuario ya deserializado
      */
-    private Usuario deserializarUsuario(JSONObject usuarioJson) {
+    private Usuario deserializarUsuario(JSONObject usuarioJson, DeduplicadorTextos textos) {
         try {
             int id = usuarioJson.getInt("id");
             String tipoUsuario = usuarioJson.getString("tipoUsuario");
-            String nombre = usuarioJson.getString("nombre");
-            String apellido = usuarioJson.getString("apellido");
+            // Nombres, apellidos y direcciones se repiten entre usuarios (familias, edificios, ciudades)
+            String nombre = textos.unico(usuarioJson.getString("nombre"));
+            String apellido = textos.unico(usuarioJson.getString("apellido"));
             String email = usuarioJson.getString("email");
             Rol rol = Rol.valueOf(usuarioJson.getString("rol"));
             int estado = usuarioJson.getInt("estado");
@@ -261,17 +370,15 @@ public class GestorUsuariosJSON {
                 int cantProductosComprados = usuarioJson.getInt("cantProductosComprados");
                 MetodoPago metodoPago = MetodoPago.valueOf(usuarioJson.getString("metodoPago"));
                 double saldo = usuarioJson.getDouble("saldo");
-                String direccion = usuarioJson.optString("direccion", "");
-                String telefono = usuarioJson.optString("telefono", "");
+                String direccion = textos.unico(usuarioJson.optString("direccion", ""));
+                String telefono = textos.unico(usuarioJson.optString("telefono", ""));
                 
                 Cliente cliente = new Cliente(id, nombre, apellido, email, rol, estado, dni,cantProductosComprados, metodoPago, saldo, direccion, telefono);
                 
-                // Cargamos el historial de compras
-                JSONArray historialArray = usuarioJson.optJSONArray("historialCompras");
-                if (historialArray != null) {
-                    for (int i = 0; i < historialArray.length(); i++) {
-                        cliente.agregarCompra(historialArray.getString(i));
-                    }
+                // El historial de compras se arma recién cuando se usa (tal como se guardó)
+                Supplier<List<String>> historial = historialGuardado(usuarioJson, "historialCompras");
+                if (historial != null) {
+                    cliente.setHistorialComprasDiferido(historial);
                 }
                 
                 return cliente;
@@ -283,29 +390,78 @@ public class GestorUsuariosJSON {
                 double totalComisiones = usuarioJson.optDouble("totalComisiones", 0.0);
                 
                 Vendedor vendedor = new Vendedor(id, nombre, apellido, email, rol, estado, dni, cantVentas, salario);
-                vendedor.setComisionPorVenta(comision);
                 vendedor.setTotalComisiones(totalComisiones);
-                
-                // Restauramos el historial de ventas
-                if (usuarioJson.has("ventasRealizadas")) {
-                    JSONArray ventasArray = usuarioJson.getJSONArray("ventasRealizadas");
-                    List<String> historialVentas = new ArrayList<>();
-                    for (int i = 0; i < ventasArray.length(); i++) {
-                        historialVentas.add(ventasArray.getString(i));
+
+                // Restauramos el historial de comisiones (los archivos anteriores solo tienen la comisión actual, que rige desde siempre)
+                if (usuarioJson.has("historialComisiones")) {
+                    JSONArray comisionesArray = usuarioJson.getJSONArray("historialComisiones");
+                    Map<LocalDate, Double> historialComisiones = new HashMap<>();
+                    for (int i = 0; i < comisionesArray.length(); i++) {
+                        JSONObject cambioJson = comisionesArray.getJSONObject(i);
+                        historialComisiones.put(LocalDate.parse(cambioJson.getString("desde")), cambioJson.getDouble("comision"));
                     }
-                    vendedor.setHistorialVentas(historialVentas);
+                    vendedor.setHistorialComisiones(historialComisiones);
+                } else {
+                    vendedor.cambiarComision(comision, Vendedor.VIGENCIA_INICIAL);
+                }
+                
+                // El historial de ventas se arma recién cuando se usa
+                Supplier<List<String>> historial = historialGuardado(usuarioJson, "ventasRealizadas");
+                if (historial != null) {
+                    vendedor.setHistorialVentasDiferido(historial);
                 }
                 
                 return vendedor;
             }
             
         } catch (Exception e) {
-            System.out.println("⚠️ Error al deserializar usuario: " + e.getMessage());
+            BITACORA.advertencia("usuarios.usuarioInvalido", "Error al deserializar usuario: " + e.getMessage(), e, "email", usuarioJson.opt("email"));
         }
         
         return null;
     }
 
+    /**
+     * Arma la función que devuelve un historial guardado. Si la carga dejó el historial sin parsear
+     * (texto JSON), se parsea recién al llamarla, y solo el texto queda en memoria hasta entonces
+     * @param usuarioJson usuario serializado
+     * @param clave clave del historial
+     * @return la función que arma el historial, o null si está vacío o no está
+     */
+    private static Supplier<List<String>> historialGuardado(JSONObject usuarioJson, String clave) {
+        Object valor = usuarioJson.opt(clave);
+        if (valor instanceof JSONArray) {
+            JSONArray arreglo = (JSONArray) valor;
+            return arreglo.isEmpty() ? null : () -> aLista(arreglo);
+        }
+        if (!(valor instanceof String) || "[]".equals(valor)) {
+            return null;
+        }
+        String texto = (String) valor;
+        String email = usuarioJson.optString("email");
+        return () -> {
+            try {
+                return aLista(new JSONArray(texto));
+            } catch (JSONException e) {
+                BITACORA.advertencia("usuarios.historialInvalido", "Se descartó un historial inválido: " + e.getMessage(), e,
+                        "email", email, "historial", clave);
+                return new ArrayList<>();
+            }
+        };
+    }
+
+    /**
+     * @param arreglo historial guardado
+     * @return los textos del historial, en el mismo orden
+     */
+    private static List<String> aLista(JSONArray arreglo) {
+        List<String> lista = new ArrayList<>(arreglo.length());
+        for (int i = 0; i < arreglo.length(); i++) {
+            lista.add(arreglo.getString(i));
+        }
+        return lista;
+    }
+
     /**
      * Verifica si existe el archivo de usuarios
      * @return true si existe el archivo de usuarios, false si no
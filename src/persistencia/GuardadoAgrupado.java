@@ -0,0 +1,124 @@
+package persistencia;
+
+import metricas.Metricas;
+import registro.Bitacora;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrupa los guardados de un archivo que se reescribe entero (stock.json, usuarios.json).
+ *
+ * Quien cambia los datos no guarda: marca el archivo como pendiente (marcar, una operación atómica
+ * que no espera nada) y un hilo propio lo guarda una vez pasada la ventana, fuera del lock de quien
+ * hizo el cambio. Todos los cambios que llegan durante la ventana salen en el mismo guardado, así
+ * con miles de compras por segundo el archivo se escribe unas pocas veces por segundo y no una vez
+ * por compra. Un cambio que llega mientras se guarda vuelve a marcar el archivo y sale en el
+ * guardado siguiente.
+ *
+ * Quien guarda solo frena a quien cambia los datos mientras los copia (ver Guardado). Aun así,
+ * escribir el archivo ocupa CPU y disco: por eso entre un guardado y el siguiente se espera la
+ * ventana o lo que tardó el último guardado, lo que sea mayor, y con archivos grandes el guardado
+ * no ocupa más de la mitad del tiempo.
+ *
+ * Si el guardado falla se reintenta más tarde, y al cerrar la aplicación se guarda lo pendiente.
+ */
+public class GuardadoAgrupado {
+    private static final Bitacora BITACORA = Bitacora.de(GuardadoAgrupado.class);
+    private static final long MS_REINTENTO = 5_000;
+    private static final LongAdder GUARDADOS = Metricas.contador("persistencia.guardadosAgrupados");
+    private static final LongAdder CAMBIOS = Metricas.contador("persistencia.cambiosAgrupados");
+
+    private final String nombre;
+    private final long ventanaMs;
+    private final Guardado guardado;
+    private final AtomicBoolean pendiente;
+    private volatile long esperaMs;
+    private final ScheduledExecutorService hilo;
+
+    /**
+     * Escribe el archivo completo (lo llama el hilo del guardado). Conviene copiar los datos con el
+     * lock de quien los cambia y escribir el archivo después de soltarlo
+     */
+    public interface Guardado {
+        void guardar() throws Exception;
+    }
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    private GuardadoAgrupado(String nombre, long ventanaMs, Guardado guardado) {
+        this.nombre = nombre;
+        this.ventanaMs = ventanaMs;
+        this.guardado = guardado;
+        this.pendiente = new AtomicBoolean();
+        this.esperaMs = ventanaMs;
+        this.hilo = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "guardado-" + nombre);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Crea el guardado agrupado de un archivo y registra que se guarde lo pendiente al cerrar la aplicación
+     * @param nombre nombre del archivo (para el hilo y la bitácora)
+     * @param ventanaMs cuánto se esperan más cambios antes de guardar
+     * @param guardado escritura del archivo completo
+     * @return el guardado agrupado
+     */
+    public static GuardadoAgrupado iniciar(String nombre, long ventanaMs, Guardado guardado) {
+        if (ventanaMs <= 0) {
+            throw new IllegalArgumentException("La ventana de guardado debe ser mayor a 0.");
+        }
+        GuardadoAgrupado agrupado = new GuardadoAgrupado(nombre, ventanaMs, guardado);
+        Runtime.getRuntime().addShutdownHook(new Thread(agrupado::guardarPendiente, "guardado-" + nombre + "-cierre"));
+        return agrupado;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Marca el archivo como pendiente de guardar (no espera el guardado)
+     */
+    public void marcar() {
+        CAMBIOS.increment();
+        if (pendiente.compareAndSet(false, true)) {
+            hilo.schedule(this::guardarPendiente, esperaMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Guarda ya, haya o no cambios pendientes. No se puede llamar con el lock que toma el guardado
+     * (el hilo del guardado podría estar esperándolo)
+     * @throws Exception si no se pudo guardar
+     */
+    public synchronized void guardarAhora() throws Exception {
+        pendiente.set(false);
+        guardarMidiendo();
+    }
+
+    /**
+     * Guarda si hay cambios pendientes. Si falla, lo vuelve a intentar más tarde
+     */
+    public synchronized void guardarPendiente() {
+        if (!pendiente.getAndSet(false)) {
+            return;
+        }
+        try {
+            guardarMidiendo();
+        } catch (Exception e) {
+            BITACORA.error("guardado.error", "Error al guardar " + nombre + ": " + e.getMessage(), e, "archivo", nombre);
+            if (pendiente.compareAndSet(false, true)) {
+                hilo.schedule(this::guardarPendiente, MS_REINTENTO, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void guardarMidiendo() throws Exception {
+        long inicio = System.nanoTime();
+        guardado.guardar();
+        GUARDADOS.increment();
+        esperaMs = Math.max(ventanaMs, (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
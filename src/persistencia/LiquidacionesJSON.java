@@ -0,0 +1,96 @@
+package persistencia;
+
+import excepciones.ErrorPersistenciaException;
+import liquidaciones.Liquidacion;
+import liquidaciones.ReciboComision;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import registro.Bitacora;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda cada liquidación en su propio archivo ("2026-09.json" dentro del directorio de
+ * liquidaciones). Volver a liquidar un período sobrescribe su archivo, así repetir la liquidación
+ * no duplica nada.
+ */
+public class LiquidacionesJSON {
+    private static final String EXTENSION = ".json";
+    private static final Bitacora BITACORA = Bitacora.de(LiquidacionesJSON.class);
+
+    public LiquidacionesJSON() {}
+
+    /**
+     * @param directorio directorio de las liquidaciones
+     * @param periodo mes liquidado
+     * @return el archivo de la liquidación del período
+     */
+    public static String archivoDe(String directorio, YearMonth periodo) {
+        return new File(directorio, periodo + EXTENSION).getPath();
+    }
+
+    /**
+     * Guarda una liquidación en el directorio, reemplazando la anterior del mismo período
+     * @param liquidacion liquidación a guardar
+     * @param directorio directorio de las liquidaciones
+     * @throws ErrorPersistenciaException si no se pudo escribir el archivo
+     */
+    public void guardarLiquidacion(Liquidacion liquidacion, String directorio) throws ErrorPersistenciaException {
+        String nombreArchivo = archivoDe(directorio, liquidacion.getPeriodo());
+        try {
+            OperacionesLectoEscritura.grabar(nombreArchivo, liquidacion.aJson());
+        } catch (IOException e) {
+            throw new ErrorPersistenciaException("Error de E/S al guardar la liquidación en el archivo: " + nombreArchivo + ". Detalle: " + e.getMessage(), nombreArchivo, e);
+        }
+    }
+
+    /**
+     * Carga todas las liquidaciones del directorio (los archivos que no se pueden leer se ignoran)
+     * @param directorio directorio de las liquidaciones
+     * @return las liquidaciones encontradas
+     */
+    public List<Liquidacion> cargarLiquidaciones(String directorio) {
+        List<Liquidacion> liquidaciones = new ArrayList<>();
+        File[] archivos = new File(directorio).listFiles((dir, nombre) -> nombre.endsWith(EXTENSION));
+        if (archivos == null) {
+            return liquidaciones;
+        }
+        for (File archivo : archivos) {
+            try (FileReader fileReader = new FileReader(archivo)) {
+                liquidaciones.add(deserializarLiquidacion(new JSONObject(new JSONTokener(fileReader))));
+            } catch (IOException | JSONException | DateTimeParseException e) {
+                BITACORA.error("liquidaciones.errorCarga", "Error al cargar la liquidación: " + e.getMessage(), e, "archivo", archivo.getPath());
+            }
+        }
+        return liquidaciones;
+    }
+
+    private Liquidacion deserializarLiquidacion(JSONObject json) {
+        List<ReciboComision> recibos = new ArrayList<>();
+        JSONArray recibosArray = json.getJSONArray("recibos");
+        for (int i = 0; i < recibosArray.length(); i++) {
+            JSONObject reciboJson = recibosArray.getJSONObject(i);
+            recibos.add(new ReciboComision(
+                    reciboJson.getInt("vendedorId"),
+                    reciboJson.getString("email"),
+                    reciboJson.getLong("ventas"),
+                    reciboJson.getDouble("montoVendido"),
+                    reciboJson.getDouble("comision"),
+                    reciboJson.getDouble("salarioBase")));
+        }
+        return new Liquidacion(
+                YearMonth.parse(json.getString("periodo")),
+                LocalDateTime.parse(json.getString("fechaCalculo")),
+                json.getInt("lineasLibro"),
+                recibos);
+    }
+}
@@ -15,9 +15,11 @@ public class OperacionesLectoEscritura {
             directorio.mkdirs();
         }
         
-        FileWriter fileWriter = new FileWriter(nombreArchivo, false); // false = sobrescribir archivo
-        fileWriter.write(jsonObject.toString(4));
-        // pongo indentacion para que el Json quede con formato indentado
-        fileWriter.close();
+        // false = sobrescribir archivo. El JSON se escribe a medida que se recorre, sin armar antes
+        // un String con el archivo entero (con cientos de miles de productos es la mayor parte del guardado)
+        try (Writer escritor = new BufferedWriter(new FileWriter(nombreArchivo, false))) {
+            // pongo indentacion para que el Json quede con formato indentado
+            jsonObject.write(escritor, 4, 0);
+        }
     }
 }
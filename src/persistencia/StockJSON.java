@@ -3,153 +3,369 @@ package persistencia;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
+import inventario.CatalogoInstantanea;
+import inventario.MonitorReposicion;
 import inventario.Stock;
-import org.json.JSONTokener;
 import productos.Producto;
+import productos.SeriePrecios;
 import productos.CategoriaProducto;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import registro.Bitacora;
+import utilidades.DeduplicadorTextos;
+import excepciones.ErrorPersistenciaException;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ELECCION DE COLECCIONES:
  *
  * - Map para inventario y productos: Usamos Map porque necesitamos buscar productos
  *   rápidamente por su ID sin tener que revisar todos los productos uno por uno.
+ *
+ * - List para los productos leídos al cargar: DocumentoParticionado los deserializa en paralelo y
+ *   los devuelve en el orden del archivo; después se agregan al stock desde un solo hilo.
+ *
+ * - CatalogoInstantanea para los productos de una CopiaStock: es la foto inmutable que el Stock ya
+ *   publica en cada escritura, así copiar el stock no copia productos.
+ *
+ * - DeduplicadorTextos para marca, modelo, descripción y especificaciones al cargar: los valores
+ *   repetidos entre productos quedan en una sola instancia.
+ *
+ * - ConcurrentHashMap de texto a categoría al cargar: cada texto de categoría distinto se parsea una
+ *   sola vez (los bloques se deserializan en varios hilos a la vez).
  */
 public class StockJSON {
+    private static final HistogramaLatencias TIEMPO_GUARDAR = Metricas.temporizador("persistencia.guardarStock");
+    private static final HistogramaLatencias TIEMPO_COPIAR = Metricas.temporizador("persistencia.copiarStock");
+    private static final Bitacora BITACORA = Bitacora.de(StockJSON.class);
+    private static final String INDENTACION = "    ";
+    private static final int PRODUCTOS_POR_BLOQUE = 4096;
+
+    /**
+     * Un producto leído del archivo, con lo que se restaura junto a él en el stock
+     */
+    private static final class ProductoCargado {
+        final Producto producto;
+        final int cantidad;
+        final JSONObject reposicion;
+        final SeriePrecios historialPrecios;
+
+        ProductoCargado(Producto producto, int cantidad, JSONObject reposicion, SeriePrecios historialPrecios) {
+            this.producto = producto;
+            this.cantidad = cantidad;
+            this.reposicion = reposicion;
+            this.historialPrecios = historialPrecios;
+        }
+    }
+    
+    /**
+     * Stock de un momento para guardar después (ver copiarStock). Los productos y las cantidades
+     * son la foto inmutable que publica el Stock; el resto son copias de lo que no está en la foto
+     */
+    public static final class CopiaStock {
+        private final CatalogoInstantanea catalogo;
+        private final String fechaActualizacion;
+        private final int stockTotal;
+        private final int contadorProductos;
+        private final Map<Integer, MonitorReposicion.EstadoReposicion> reposiciones;
+        private final Map<Integer, SeriePrecios> historiales;
+
+        private CopiaStock(CatalogoInstantanea catalogo, String fechaActualizacion, int stockTotal, int contadorProductos,
+                           Map<Integer, MonitorReposicion.EstadoReposicion> reposiciones, Map<Integer, SeriePrecios> historiales) {
+            this.catalogo = catalogo;
+            this.fechaActualizacion = fechaActualizacion;
+            this.stockTotal = stockTotal;
+            this.contadorProductos = contadorProductos;
+            this.reposiciones = reposiciones;
+            this.historiales = historiales;
+        }
+    }
     
     public StockJSON() {}
 
     /**
-     * Guarda el stock en un archivo
+     * Guarda el stock en un archivo. Los productos se escriben de a uno a medida que se serializan,
+     * sin armar antes el arreglo completo ni el texto del archivo entero en memoria
      * @param stock stock a guardar en el archivo
      * @param nombreArchivo nombre del archivo donde guardaremos el stock
      */
     public void guardarStock(Stock stock, String nombreArchivo) {
-            JSONObject jsonObject = null;
+        long inicio = System.nanoTime();
         try {
-            jsonObject = new JSONObject();
-            jsonObject.put("fechaActualizacion", stock.getUltimaActualizacion().toString());
-            jsonObject.put("stockTotal", stock.getStockTotal());
-            jsonObject.put("cantidadProductos", stock.getCantidadProductos());
-            jsonObject.put("valorTotalInventario", stock.getValorTotalInventario());
-            // Guardamos el contador actual para mantener la secuencia de IDs
-            jsonObject.put("contadorProductos", Producto.getContador());
-            
-            // Serializamos los productos
-            JSONArray productosArray = new JSONArray();
-            Map<Integer, Integer> inventario = stock.getInventario();
-            Map<Integer, Producto> productos = stock.getProductos();
-            
-            for (Map.Entry<Integer, Integer> entry : inventario.entrySet()) {
-                int productoId = entry.getKey();
-                int cantidad = entry.getValue();
-                Producto producto = productos.get(productoId);
-                
-                if (producto != null) {
-                    JSONObject productoJson = serializarProducto(producto, cantidad);
-                    productosArray.put(productoJson);
+            escribirReemplazando(nombreArchivo, escritor -> {
+                escribirCabecera(escritor, serializarCabecera(stock));
+
+                // Serializamos los productos
+                Map<Integer, Integer> inventario = stock.getInventario();
+                Map<Integer, Producto> productos = stock.getProductos();
+                boolean primero = true;
+                for (Map.Entry<Integer, Integer> entry : inventario.entrySet()) {
+                    Producto producto = productos.get(entry.getKey());
+                    if (producto != null) {
+                        escribirProducto(escritor, serializarConEstado(stock, producto, entry.getValue()), primero);
+                        primero = false;
+                    }
                 }
-            }
-            
-            jsonObject.put("productos", productosArray);
-            
-            OperacionesLectoEscritura.grabar(nombreArchivo, jsonObject);
-            
+                escritor.write("\n" + INDENTACION + "]\n}");
+            });
         } catch (Exception e) {
-            System.out.println("❌ Error al guardar stock: " + e.getMessage());
+            BITACORA.error("stock.errorGuardado", "Error al guardar stock: " + e.getMessage(), e, "archivo", nombreArchivo);
+        } finally {
+            TIEMPO_GUARDAR.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Copia el stock para escribirlo después con guardarCopia. No serializa nada: toma la foto del
+     * catálogo ya publicada y copia solo los estados de reposición y el mapa de historiales, así
+     * quien tiene el lock del stock lo suelta enseguida y el JSON se arma sin él
+     * @param stock stock a copiar (no puede cambiar mientras se copia, y su foto tiene que estar publicada)
+     * @return la copia del stock
+     */
+    public CopiaStock copiarStock(Stock stock) {
+        long inicio = System.nanoTime();
+        try {
+            return new CopiaStock(stock.getCatalogo(), stock.getUltimaActualizacion().toString(), stock.getStockTotal(),
+                    Producto.getContador(), stock.getReposicion().copiarEstados(), stock.getHistorialPrecios().copiarSeries());
+        } finally {
+            TIEMPO_COPIAR.registrarDesde(inicio);
         }
     }
 
+    /**
+     * Guarda en un archivo una copia tomada con copiarStock, con el mismo formato que guardarStock.
+     * Los productos se serializan a medida que se escriben, sin ningún lock.
+     * A diferencia de guardarStock, un error no se queda en la bitácora: quien guarda tiene que
+     * saber que el archivo no se actualizó (por ejemplo, para reintentar)
+     * @param copia copia del stock
+     * @param nombreArchivo nombre del archivo donde guardaremos el stock
+     * @throws ErrorPersistenciaException si no se pudo escribir el archivo (el anterior queda como estaba)
+     */
+    public void guardarCopia(CopiaStock copia, String nombreArchivo) throws ErrorPersistenciaException {
+        long inicio = System.nanoTime();
+        CatalogoInstantanea catalogo = copia.catalogo;
+        try {
+            double valorTotal = 0.0;
+            for (int id = catalogo.siguienteId(0); id >= 0; id = catalogo.siguienteId(id + 1)) {
+                valorTotal += catalogo.buscarProductoPorId(id).getPrecio() * catalogo.obtenerCantidad(id);
+            }
+            JSONObject cabecera = new JSONObject();
+            cabecera.put("fechaActualizacion", copia.fechaActualizacion);
+            cabecera.put("stockTotal", copia.stockTotal);
+            cabecera.put("cantidadProductos", catalogo.getCantidadProductos());
+            cabecera.put("valorTotalInventario", valorTotal);
+            cabecera.put("contadorProductos", copia.contadorProductos);
 
+            escribirReemplazando(nombreArchivo, escritor -> {
+                escribirCabecera(escritor, cabecera);
+                boolean primero = true;
+                for (int id = catalogo.siguienteId(0); id >= 0; id = catalogo.siguienteId(id + 1)) {
+                    Producto producto = catalogo.buscarProductoPorId(id);
+                    JSONObject productoJson = serializarProducto(producto, catalogo.obtenerCantidad(id));
+                    MonitorReposicion.EstadoReposicion estado = copia.reposiciones.get(id);
+                    if (estado != null) {
+                        productoJson.put("reposicion", serializarReposicion(estado));
+                    }
+                    SeriePrecios historial = copia.historiales.get(id);
+                    if (historial != null) {
+                        productoJson.put("historialPrecios", historial.aBase64());
+                    }
+                    escribirProducto(escritor, productoJson, primero);
+                    primero = false;
+                }
+                escritor.write("\n" + INDENTACION + "]\n}");
+            });
+        } catch (IOException e) {
+            throw new ErrorPersistenciaException("Error de E/S al guardar stock en el archivo: " + nombreArchivo + ". Detalle: " + e.getMessage(), nombreArchivo, e);
+        } catch (JSONException e) {
+            throw new ErrorPersistenciaException("Error al serializar el stock a JSON. Detalle: " + e.getMessage(), nombreArchivo, e);
+        } finally {
+            TIEMPO_GUARDAR.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * Escritura del contenido completo de un archivo
+     */
+    private interface ContenidoArchivo {
+        void escribir(Writer escritor) throws IOException;
+    }
+
+    /**
+     * Escribe el archivo en uno temporal que después reemplaza al anterior (como las secuencias de
+     * GeneradorIds), así un corte a mitad de la escritura no deja el stock a medias
+     */
+    private static void escribirReemplazando(String nombreArchivo, ContenidoArchivo contenido) throws IOException {
+        Path archivo = Paths.get(nombreArchivo);
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (Writer escritor = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            contenido.escribir(escritor);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static JSONObject serializarCabecera(Stock stock) throws JSONException {
+        JSONObject cabecera = new JSONObject();
+        cabecera.put("fechaActualizacion", stock.getUltimaActualizacion().toString());
+        cabecera.put("stockTotal", stock.getStockTotal());
+        cabecera.put("cantidadProductos", stock.getCantidadProductos());
+        cabecera.put("valorTotalInventario", stock.getValorTotalInventario());
+        // Guardamos el contador actual para mantener la secuencia de IDs
+        cabecera.put("contadorProductos", Producto.getContador());
+        return cabecera;
+    }
+
+    /**
+     * Mismo formato indentado que antes: primero los datos generales y al final el arreglo de productos
+     */
+    private static void escribirCabecera(Writer escritor, JSONObject cabecera) throws IOException {
+        escritor.write("{\n");
+        for (String clave : cabecera.keySet()) {
+            escritor.write(INDENTACION + JSONObject.quote(clave) + ": " + JSONObject.valueToString(cabecera.get(clave)) + ",\n");
+        }
+        escritor.write(INDENTACION + "\"productos\": [");
+    }
+
+    private static void escribirProducto(Writer escritor, JSONObject productoJson, boolean primero) throws IOException {
+        escritor.write(primero ? "\n" : ",\n");
+        escritor.write(INDENTACION + INDENTACION);
+        productoJson.write(escritor, INDENTACION.length(), 2 * INDENTACION.length());
+    }
+
+    /**
+     * Serializa un producto con su cantidad, su estado de reposición y su historial de precios
+     */
+    private JSONObject serializarConEstado(Stock stock, Producto producto, int cantidad) throws JSONException {
+        JSONObject productoJson = serializarProducto(producto, cantidad);
+        MonitorReposicion.EstadoReposicion estado = stock.getReposicion().getEstado(producto.getId());
+        if (estado != null) {
+            productoJson.put("reposicion", serializarReposicion(estado));
+        }
+        SeriePrecios historial = stock.getHistorialPrecios().getSerie(producto.getId());
+        if (historial != null) {
+            productoJson.put("historialPrecios", historial.aBase64());
+        }
+        return productoJson;
+    }
+
+
+    /**
+     * Carga el stock de un archivo. Los productos se deserializan en paralelo, de a bloques (ver
+     * DocumentoParticionado), y después se agregan al stock en el orden del archivo
+     * @param nombreArchivo nombre del archivo del cual cargaremos el stock
+     * @throws IOException si no se puede leer el archivo
+     * @return el stock cargado (vacío si el archivo no existe)
+     */
     public Stock cargarStock(String nombreArchivo) throws IOException {
         Stock stock = new Stock();
-        FileReader fileReader = null;
+        long inicio = System.nanoTime();
         
         try {
-            // Creamos directorio si no existe
-            File directorio = new File("data");
-            if (!directorio.exists()) {
+            // Creamos la carpeta del archivo si no existe
+            File archivo = new File(nombreArchivo);
+            File directorio = archivo.getAbsoluteFile().getParentFile();
+            if (directorio != null && !directorio.exists()) {
                 directorio.mkdirs();
             }
             
             // Verificamos si el archivo existe y no está vacío
-            File archivo = new File(nombreArchivo);
             if (!archivo.exists() || archivo.length() == 0) {
                 return stock;
             }
             
-            fileReader = new FileReader(nombreArchivo);
-            JSONTokener tokener = new JSONTokener(fileReader);
-            JSONObject jsonObject = new JSONObject(tokener);
-            
-            if (!jsonObject.has("productos")) {
+            DocumentoParticionado documento = DocumentoParticionado.leer(nombreArchivo, "productos");
+            if (!documento.tieneArreglo()) {
                 return stock;
             }
             
-            // Primero encontramos el ID máximo para restaurar el contador correctamente
-            JSONArray productosArray = jsonObject.getJSONArray("productos");
-            int maxId = -1;
-            
-            // busccamos el ID máximo en el JSON antes de crear productos
-            for (int i = 0; i < productosArray.length(); i++) {
-                JSONObject productoJson = productosArray.getJSONObject(i);
-                int idProducto = productoJson.getInt("id");
-                if (idProducto > maxId) {
-                    maxId = idProducto;
+            // Deserializamos los productos en paralelo (cada bloque en un hilo del pool fork-join)
+            DeduplicadorTextos textos = new DeduplicadorTextos();
+            Map<String, CategoriaProducto> categorias = new ConcurrentHashMap<>();
+            List<ProductoCargado> cargados = documento.deserializar(PRODUCTOS_POR_BLOQUE, (indice, productoJson) -> {
+                try {
+                    return deserializarProductoCargado(productoJson, textos, categorias);
+                } catch (Exception e) {
+                    BITACORA.advertencia("stock.productoInvalido", "Error al cargar producto en índice " + indice + ": " + e.getMessage(), e, "archivo", nombreArchivo, "indice", indice);
+                    return null;
                 }
-            }
+            });
             
-            // Restauramos el contador antes de cargar productos
-            if (jsonObject.has("contadorProductos")) {
-                int contadorGuardado = jsonObject.getInt("contadorProductos");
-                Producto.setContador(contadorGuardado);
+            // Restauramos el contador: el guardado o, si no hay, el máximo ID + 1 (la secuencia nunca baja)
+            int maxId = -1;
+            for (ProductoCargado cargado : cargados) {
+                maxId = Math.max(maxId, cargado.producto.getId());
+            }
+            JSONObject cabecera = documento.getCabecera();
+            if (cabecera.has("contadorProductos")) {
+                Producto.setContador(cabecera.getInt("contadorProductos"));
             } else if (maxId >= 0) {
-                // Si no hay contador guardado, usar el máximo ID + 1
                 Producto.setContador(maxId + 1);
             }
             
-            // cargamos los productos
-            for (int i = 0; i < productosArray.length(); i++) {
-                try {
-                    JSONObject productoJson = productosArray.getJSONObject(i);
-                    int idProducto = productoJson.getInt("id");
-                    Producto producto = deserializarProducto(productoJson);
-                    int cantidad = productoJson.getInt("cantidad");
-                    
-                    if (producto != null) {
-                        // Verificamos que el ID se haya establecido correctamente
-                        if (producto.getId() != idProducto) {
-                            producto.setId(idProducto); // Forzar el ID correcto
-                        }
-                        
-                        // Agregamos producto al stock
-                        stock.agregarProducto(producto, cantidad);
-                    }
-                } catch (Exception e) {
-                    System.out.println("⚠️ Error al cargar producto en índice " + i + ": " + e.getMessage());
-                    e.printStackTrace();
+            // El stock no es thread-safe: los productos se agregan desde este hilo, en el orden del archivo
+            for (ProductoCargado cargado : cargados) {
+                int idProducto = cargado.producto.getId();
+                // Restauramos primero el estado de reposición, así agregar el producto no repite alertas ya emitidas
+                if (cargado.reposicion != null) {
+                    restaurarReposicion(stock.getReposicion(), idProducto, cargado.cantidad, cargado.reposicion);
+                }
+                // El historial de precios guardado también va antes, así no se registra el precio cargado como un cambio nuevo
+                if (cargado.historialPrecios != null) {
+                    stock.getHistorialPrecios().restaurar(idProducto, cargado.historialPrecios);
                 }
+                // Agregamos producto al stock
+                stock.agregarProducto(cargado.producto, cargado.cantidad);
             }
-            
+            BITACORA.info("stock.cargado", "Stock cargado", "archivo", nombreArchivo, "productos", cargados.size(),
+                    "textosDistintos", textos.getDistintos(), "textosRepetidos", textos.getRepetidos(),
+                    "bytesAhorrados", textos.getBytesAhorrados(), "duracionMs", (System.nanoTime() - inicio) / 1_000_000);
         }
          catch (JSONException e) {
-            e.printStackTrace();
-        } finally {
-            // Cerrar el FileReader si está abierto
-            if (fileReader != null) {
-                fileReader.close();
-            }
+            BITACORA.error("stock.errorCarga", "El archivo de stock no es un JSON válido: " + e.getMessage(), e, "archivo", nombreArchivo);
         }
         
         return stock;
     }
 
+    /**
+     * Deserializa un producto con todo lo que se restaura junto a él. Se llama desde varios hilos a
+     * la vez, así que no toca el stock
+     * @param productoJson producto serializado
+     * @param textos diccionario de la carga para los textos repetidos
+     * @param categorias categorías ya parseadas en la carga, por texto
+     * @return el producto con su cantidad, reposición e historial, o null si no se pudo deserializar
+     */
+    private ProductoCargado deserializarProductoCargado(JSONObject productoJson, DeduplicadorTextos textos,
+                                                        Map<String, CategoriaProducto> categorias) {
+        Producto producto = deserializarProducto(productoJson, textos, categorias);
+        if (producto == null) {
+            return null;
+        }
+        int cantidad = productoJson.getInt("cantidad");
+        JSONObject reposicion = productoJson.optJSONObject("reposicion");
+        SeriePrecios historialPrecios = null;
+        if (productoJson.has("historialPrecios")) {
+            historialPrecios = decodificarHistorialPrecios(producto.getId(), productoJson.getString("historialPrecios"));
+        }
+        return new ProductoCargado(producto, cantidad, reposicion, historialPrecios);
+    }
+
     /**
      * Serializa un producto a JSONObject
      * @param producto producto a serializar
@@ -175,26 +391,71 @@ public class StockJSON {
         return productoJson;
     }
 
+    /**
+     * Serializa el estado de reposición de un producto (velocidad de venta y configuración del punto de reorden)
+     * @param estado estado a serializar
+     * @return el estado serializado
+     */
+    private JSONObject serializarReposicion(MonitorReposicion.EstadoReposicion estado) throws JSONException {
+        JSONObject reposicionJson = new JSONObject();
+        reposicionJson.put("velocidad", estado.getVelocidad());
+        reposicionJson.put("ultimaObservacion", estado.getUltimaObservacion());
+        reposicionJson.put("puntoFijo", estado.getPuntoFijo());
+        reposicionJson.put("plazoReposicionDias", estado.getPlazoReposicionDias());
+        reposicionJson.put("stockSeguridad", estado.getStockSeguridad());
+        return reposicionJson;
+    }
+
+    private void restaurarReposicion(MonitorReposicion reposicion, int productoId, int cantidad, JSONObject reposicionJson) {
+        reposicion.restaurar(productoId, cantidad,
+                reposicionJson.optDouble("velocidad", 0.0),
+                reposicionJson.optLong("ultimaObservacion", System.currentTimeMillis()),
+                reposicionJson.optInt("puntoFijo", MonitorReposicion.SIN_PUNTO_FIJO),
+                reposicionJson.optDouble("plazoReposicionDias", MonitorReposicion.PLAZO_REPOSICION_DIAS_POR_DEFECTO),
+                reposicionJson.optInt("stockSeguridad", 0));
+    }
+
+    /**
+     * Decodifica el historial de precios guardado de un producto. Si está dañado se descarta (el
+     * producto se carga igual, y su historial empieza de nuevo con el precio actual)
+     * @return el historial, o null si estaba dañado
+     */
+    private SeriePrecios decodificarHistorialPrecios(int productoId, String codificado) {
+        try {
+            return SeriePrecios.desdeBase64(codificado);
+        } catch (IllegalArgumentException e) {
+            BITACORA.advertencia("stock.historialPreciosInvalido", "Se descartó el historial de precios dañado del producto " + productoId,
+                    e, "productoId", productoId);
+            return null;
+        }
+    }
+
     /**
      * Deserializa un JSONObject a un Producto
      * @param productoJson producto serializado
+     * @param textos diccionario de la carga para los textos repetidos
+     * @param categorias categorías ya parseadas en la carga, por texto
      * @return producto deserializado
      */
-    private Producto deserializarProducto(JSONObject productoJson) {
+    private Producto deserializarProducto(JSONObject productoJson, DeduplicadorTextos textos,
+                                          Map<String, CategoriaProducto> categorias) {
         try {
             int id = productoJson.getInt("id");
+            if (id < 0) {
+                throw new JSONException("ID de producto negativo: " + id);
+            }
             String nombre = productoJson.getString("nombre");
-            String descripcion = productoJson.getString("descripcion");
-            CategoriaProducto categoria = parsearCategoria(productoJson.getString("categoria"));
+            // Los textos que suelen repetirse entre productos (variantes de un modelo, plantillas de especificaciones)
+            String descripcion = textos.unico(productoJson.getString("descripcion"));
+            CategoriaProducto categoria = categorias.computeIfAbsent(productoJson.getString("categoria"), this::parsearCategoria);
             double precio = productoJson.getDouble("precio");
-            String marca = productoJson.getString("marca");
-            String modelo = productoJson.getString("modelo");
-            String especificaciones = productoJson.getString("especificaciones");
+            String marca = textos.unico(productoJson.getString("marca"));
+            String modelo = textos.unico(productoJson.getString("modelo"));
+            String especificaciones = textos.unico(productoJson.getString("especificaciones"));
             boolean activo = productoJson.getBoolean("activo");
             
-            // Creamos un producto usando el constructor vacío para evitar que se incremente el contador
-            Producto producto = new Producto();
-            producto.setId(id); // Establecemos el ID primero (esto actualiza el contador si es necesario)
+            // Creamos el producto con su ID guardado, sin tomar uno nuevo de la secuencia
+            Producto producto = new Producto(id);
             producto.setNombre(nombre);
             producto.setDescripcion(descripcion);
             producto.setCategoria(categoria);
@@ -207,8 +468,7 @@ public class StockJSON {
             return producto;
             
         } catch (Exception e) {
-            System.out.println("⚠️ Error al deserializar producto: " + e.getMessage());
-            e.printStackTrace();
+            BITACORA.advertencia("stock.productoInvalido", "Error al deserializar producto: " + e.getMessage(), e, "id", productoJson.opt("id"));
             return null;
         }
     }
@@ -0,0 +1,378 @@
+package productos;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Almacén en columnas de los datos de los productos, para catálogos muy grandes.
+ *
+ * Un Producto son 10 campos en un objeto propio, más la fecha de creación (tres objetos más) y un
+ * String por cada texto: unos 400 bytes por producto. Acá cada dato es un arreglo primitivo propio
+ * (ID, precio, categoría, activo, fecha de creación) y los textos (nombre, descripción, marca,
+ * modelo y especificaciones) se guardan como códigos de un DiccionarioCompacto, que guarda cada
+ * texto distinto una sola vez y en UTF-8. Sin objetos por producto, un producto ocupa sus datos más
+ * los bytes de sus textos que no se repiten en otros productos.
+ *
+ * Los productos se entregan como VistaProducto: una vista liviana (el almacén y una fila) que lee
+ * las columnas al pedirle cada dato, así un recorrido por precio o categoría no arma ningún texto.
+ * La vista se convierte en un Producto con aProducto() para lo que necesita el objeto completo.
+ *
+ * Las filas no se mueven ni se borran (un producto dado de baja queda inactivo), así una vista
+ * sigue apuntando a su producto y ve sus cambios. Al actualizar los textos de un producto, los
+ * anteriores quedan en el diccionario (se supone que cambian poco).
+ *
+ * Hay un solo escritor a la vez (los métodos que modifican son synchronized) y las lecturas no
+ * toman lock: la fila se escribe antes de publicar el nuevo tamaño en un campo volatile, y cuando
+ * las columnas crecen se copian a arreglos nuevos que se publican antes que el tamaño. Un cambio de
+ * un solo dato (precio, activo) se ve en cuanto se escribe.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglos primitivos por columna: sin objetos por producto, y recorrer una columna es leer
+ *   memoria contigua.
+ * - Un bit por producto para "activo", en un arreglo de long.
+ * - Arreglo de int como índice de ID a fila (tabla hash de direccionamiento abierto, fila + 1 por
+ *   casillero): buscar por ID es O(1) en promedio sin objetos Integer ni nodos.
+ */
+public class AlmacenProductos {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final byte SIN_CATEGORIA = -1;
+    private static final CategoriaProducto[] CATEGORIAS = CategoriaProducto.values();
+    // Tamaños de una JVM de 64 bits con referencias comprimidas, para estimar lo que ocupa el almacén
+    private static final int BYTES_ENCABEZADO_ARREGLO = 16;
+
+    private final DiccionarioCompacto textos;
+    private volatile Columnas columnas;
+    private volatile int[] indice;
+    private volatile int tamanio;
+
+    private static final class Columnas {
+        private final int[] id;
+        private final double[] precio;
+        private final byte[] categoria;
+        private final long[] activo;
+        // Milisegundos desde 1970 de la fecha de creación, tomada como UTC (LocalDateTime no tiene zona)
+        private final long[] fechaCreacion;
+        private final int[] nombre;
+        private final int[] descripcion;
+        private final int[] marca;
+        private final int[] modelo;
+        private final int[] especificaciones;
+
+        private Columnas(int capacidad) {
+            this.id = new int[capacidad];
+            this.precio = new double[capacidad];
+            this.categoria = new byte[capacidad];
+            this.activo = new long[(capacidad + 63) >>> 6];
+            this.fechaCreacion = new long[capacidad];
+            this.nombre = new int[capacidad];
+            this.descripcion = new int[capacidad];
+            this.marca = new int[capacidad];
+            this.modelo = new int[capacidad];
+            this.especificaciones = new int[capacidad];
+        }
+
+        private Columnas(Columnas anteriores, int capacidad) {
+            this.id = Arrays.copyOf(anteriores.id, capacidad);
+            this.precio = Arrays.copyOf(anteriores.precio, capacidad);
+            this.categoria = Arrays.copyOf(anteriores.categoria, capacidad);
+            this.activo = Arrays.copyOf(anteriores.activo, (capacidad + 63) >>> 6);
+            this.fechaCreacion = Arrays.copyOf(anteriores.fechaCreacion, capacidad);
+            this.nombre = Arrays.copyOf(anteriores.nombre, capacidad);
+            this.descripcion = Arrays.copyOf(anteriores.descripcion, capacidad);
+            this.marca = Arrays.copyOf(anteriores.marca, capacidad);
+            this.modelo = Arrays.copyOf(anteriores.modelo, capacidad);
+            this.especificaciones = Arrays.copyOf(anteriores.especificaciones, capacidad);
+        }
+
+        private int capacidad() {
+            return id.length;
+        }
+
+        private long bytesOcupados() {
+            int capacidad = capacidad();
+            return bytesArreglo(capacidad, 4) * 6 + bytesArreglo(capacidad, 8) * 2 + bytesArreglo(capacidad, 1)
+                    + bytesArreglo(activo.length, 8);
+        }
+    }
+
+    // ---------------------- CONSTRUCTORES ----------------------
+    public AlmacenProductos() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * @param capacidadInicial cantidad de productos que entran sin agrandar las columnas (por
+     * ejemplo, los del archivo que se va a cargar)
+     */
+    public AlmacenProductos(int capacidadInicial) {
+        int capacidad = Math.max(1, capacidadInicial);
+        this.textos = new DiccionarioCompacto();
+        this.columnas = new Columnas(capacidad);
+        this.indice = new int[capacidadIndice(capacidad)];
+    }
+
+    // ---------------------- ESCRITURA ----------------------
+    /**
+     * Agrega un producto, o reemplaza sus datos si ya hay uno con el mismo ID
+     * @param producto producto a guardar (el almacén copia sus datos, no guarda el objeto)
+     * @return la vista del producto guardado
+     */
+    public synchronized VistaProducto agregar(Producto producto) {
+        int id = producto.getId();
+        int fila = buscarFila(id, tamanio);
+        boolean nueva = fila < 0;
+        Columnas c = columnas;
+        if (nueva) {
+            fila = tamanio;
+            if (fila == c.capacidad()) {
+                c = new Columnas(c, c.capacidad() * 2);
+                columnas = c;
+            }
+        }
+
+        c.id[fila] = id;
+        c.precio[fila] = producto.getPrecio();
+        c.categoria[fila] = producto.getCategoria() == null ? SIN_CATEGORIA : (byte) producto.getCategoria().ordinal();
+        LocalDateTime fecha = producto.getFechaCreacion();
+        c.fechaCreacion[fila] = fecha == null ? Long.MIN_VALUE : fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+        c.nombre[fila] = textos.codificar(producto.getNombre());
+        c.descripcion[fila] = textos.codificar(producto.getDescripcion());
+        c.marca[fila] = textos.codificar(producto.getMarca());
+        c.modelo[fila] = textos.codificar(producto.getModelo());
+        c.especificaciones[fila] = textos.codificar(producto.getEspecificaciones());
+        escribirActivo(c, fila, producto.isActivo());
+
+        if (nueva) {
+            indexar(id, fila);
+            tamanio = fila + 1;
+        }
+        return new VistaProducto(this, fila);
+    }
+
+    /**
+     * @param id ID del producto
+     * @param precio precio nuevo
+     * @return true si el producto existe
+     */
+    public synchronized boolean cambiarPrecio(int id, double precio) {
+        if (precio < 0) {
+            throw new IllegalArgumentException("El precio no puede ser negativo.");
+        }
+        int fila = buscarFila(id, tamanio);
+        if (fila < 0) {
+            return false;
+        }
+        columnas.precio[fila] = precio;
+        return true;
+    }
+
+    /**
+     * @param id ID del producto
+     * @param activo true para activarlo, false para darlo de baja
+     * @return true si el producto existe
+     */
+    public synchronized boolean cambiarActivo(int id, boolean activo) {
+        int fila = buscarFila(id, tamanio);
+        if (fila < 0) {
+            return false;
+        }
+        escribirActivo(columnas, fila, activo);
+        return true;
+    }
+
+    private static void escribirActivo(Columnas c, int fila, boolean activo) {
+        if (activo) {
+            c.activo[fila >>> 6] |= 1L << fila;
+        } else {
+            c.activo[fila >>> 6] &= ~(1L << fila);
+        }
+    }
+
+    /**
+     * Ajusta las columnas y los textos a lo que ocupan, sin la capacidad libre que dejan al crecer.
+     * Conviene llamarlo al terminar de cargar un catálogo grande; agregar después vuelve a agrandarlos
+     */
+    public synchronized void compactar() {
+        int n = Math.max(1, tamanio);
+        if (n < columnas.capacidad()) {
+            columnas = new Columnas(columnas, n);
+        }
+        textos.compactar();
+    }
+
+    // ---------------------- INDICE POR ID ----------------------
+    private static int capacidadIndice(int productos) {
+        // Potencia de 2 con al menos un tercio de los casilleros libres
+        return Integer.highestOneBit(Math.max(2, productos + (productos >> 1)) - 1) << 1;
+    }
+
+    private static int casillero(int id, int mascara) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private void indexar(int id, int fila) {
+        int[] tabla = indice;
+        if ((fila + 1) * 3 > tabla.length * 2) {
+            int[] nueva = new int[tabla.length * 2];
+            int[] ids = columnas.id;
+            for (int i = 0; i < fila; i++) {
+                ubicar(nueva, ids[i], i);
+            }
+            ubicar(nueva, id, fila);
+            // La tabla nueva se publica completa
+            indice = nueva;
+            return;
+        }
+        ubicar(tabla, id, fila);
+    }
+
+    private static void ubicar(int[] tabla, int id, int fila) {
+        int mascara = tabla.length - 1;
+        int i = casillero(id, mascara);
+        while (tabla[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabla[i] = fila + 1;
+    }
+
+    /**
+     * @param id ID a buscar
+     * @param limite cantidad de filas publicadas (una fila mayor todavía no está completa)
+     * @return la fila del producto o -1 si no está
+     */
+    private int buscarFila(int id, int limite) {
+        int[] tabla = indice;
+        int[] ids = columnas.id;
+        int mascara = tabla.length - 1;
+        for (int i = casillero(id, mascara); tabla[i] != 0; i = (i + 1) & mascara) {
+            int fila = tabla[i] - 1;
+            if (fila < limite && ids[fila] == id) {
+                return fila;
+            }
+        }
+        return -1;
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @param id ID del producto
+     * @return la vista del producto o null si no está
+     */
+    public VistaProducto buscar(int id) {
+        // El tamaño se lee antes que las columnas y el índice: ver el comentario de la clase
+        int fila = buscarFila(id, tamanio);
+        return fila < 0 ? null : new VistaProducto(this, fila);
+    }
+
+    public boolean contiene(int id) {
+        return buscarFila(id, tamanio) >= 0;
+    }
+
+    /**
+     * @param fila fila del almacén (de 0 a getTamanio() - 1, en el orden en que se agregaron)
+     * @return la vista del producto de esa fila
+     */
+    public VistaProducto vista(int fila) {
+        if (fila < 0 || fila >= tamanio) {
+            throw new IndexOutOfBoundsException("Fila " + fila + " fuera del almacén de " + tamanio + " productos");
+        }
+        return new VistaProducto(this, fila);
+    }
+
+    /**
+     * Recorre solo las columnas de categoría, activo y precio, sin armar ningún texto
+     * @param categoria categoría buscada
+     * @param precioMaximo precio máximo (inclusive)
+     * @return las vistas de los productos activos de la categoría hasta ese precio, en orden de alta
+     */
+    public List<VistaProducto> buscarActivos(CategoriaProducto categoria, double precioMaximo) {
+        int n = tamanio;
+        Columnas c = columnas;
+        byte codigo = (byte) categoria.ordinal();
+        List<VistaProducto> resultado = new ArrayList<>();
+        for (int fila = 0; fila < n; fila++) {
+            if (c.categoria[fila] == codigo && c.precio[fila] <= precioMaximo && activo(c, fila)) {
+                resultado.add(new VistaProducto(this, fila));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return bytes que ocupan las columnas, el índice y el diccionario (incluida la capacidad libre)
+     */
+    public long getBytesOcupados() {
+        return columnas.bytesOcupados() + bytesArreglo(indice.length, 4) + textos.getBytesOcupados();
+    }
+
+    /**
+     * @return cantidad de textos distintos guardados
+     */
+    public int getCantidadTextos() {
+        return textos.getCantidad();
+    }
+
+    static long bytesArreglo(int largo, int bytesPorElemento) {
+        return (BYTES_ENCABEZADO_ARREGLO + (long) largo * bytesPorElemento + 7) & ~7L;
+    }
+
+    // ---------------------- LECTURA DE FILAS (para VistaProducto) ----------------------
+    private static boolean activo(Columnas c, int fila) {
+        return (c.activo[fila >>> 6] & (1L << fila)) != 0;
+    }
+
+    int id(int fila) {
+        return columnas.id[fila];
+    }
+
+    double precio(int fila) {
+        return columnas.precio[fila];
+    }
+
+    CategoriaProducto categoria(int fila) {
+        byte codigo = columnas.categoria[fila];
+        return codigo == SIN_CATEGORIA ? null : CATEGORIAS[codigo];
+    }
+
+    boolean activo(int fila) {
+        return activo(columnas, fila);
+    }
+
+    LocalDateTime fechaCreacion(int fila) {
+        long milisegundos = columnas.fechaCreacion[fila];
+        if (milisegundos == Long.MIN_VALUE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(milisegundos, 1000), Math.floorMod(milisegundos, 1000) * 1_000_000,
+                ZoneOffset.UTC);
+    }
+
+    String nombre(int fila) {
+        return textos.texto(columnas.nombre[fila]);
+    }
+
+    String descripcion(int fila) {
+        return textos.texto(columnas.descripcion[fila]);
+    }
+
+    String marca(int fila) {
+        return textos.texto(columnas.marca[fila]);
+    }
+
+    String modelo(int fila) {
+        return textos.texto(columnas.modelo[fila]);
+    }
+
+    String especificaciones(int fila) {
+        return textos.texto(columnas.especificaciones[fila]);
+    }
+}
@@ -0,0 +1,44 @@
+package productos;
+
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Un cambio de precio de un producto: desde qué momento rige y el precio nuevo.
+ */
+public class CambioPrecio {
+    private final long instante;
+    private final double precio;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param instante momento del cambio (epoch en milisegundos)
+     * @param precio precio desde ese momento
+     */
+    public CambioPrecio(long instante, double precio) {
+        this.instante = instante;
+        this.precio = precio;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public long getInstante() {
+        return instante;
+    }
+    public LocalDateTime getFecha() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(instante), ZoneId.systemDefault());
+    }
+    public double getPrecio() {
+        return precio;
+    }
+
+    // ---------------------- METODOS ----------------------
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("fecha", getFecha().toString());
+        json.put("precio", precio);
+        return json;
+    }
+}
@@ -0,0 +1,153 @@
+package productos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Diccionario de textos de AlmacenProductos: asigna a cada texto distinto un código entero
+ * consecutivo y guarda el texto una sola vez.
+ *
+ * A diferencia de analitica.DiccionarioTextos, no guarda objetos String: los textos quedan uno
+ * detrás de otro, en UTF-8, en un único arreglo de bytes, y de cada código se guarda solo dónde
+ * empieza. Un texto ocupa sus bytes más unos 10 bytes de índice, en lugar de los 40 bytes de
+ * encabezados de un String más su contenido, y con un catálogo grande la mayoría de los textos
+ * (nombres de producto) aparecen una sola vez. El String se arma recién al pedirlo.
+ *
+ * Para encontrar el código de un texto se usa una tabla hash de direccionamiento abierto que
+ * guarda solo códigos (el texto se compara contra sus bytes en el arreglo).
+ *
+ * Hay un solo escritor a la vez (codificar es synchronized) y texto() no toma lock: los bytes y la
+ * posición de un texto se escriben antes de entregar su código, y cuando los arreglos crecen se
+ * copian a arreglos nuevos que se publican en campos volatile, así quien tiene un código ya
+ * entregado siempre encuentra su texto completo.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Un arreglo de bytes para todos los textos: sin un objeto por texto.
+ * - Arreglo de int de código a posición: el código es el índice, así traducir un código es O(1).
+ * - Arreglo de int como tabla hash (código + 1 por casillero, 0 si está libre): buscar un texto
+ *   es O(1) en promedio sin nodos ni objetos Integer.
+ */
+final class DiccionarioCompacto {
+    static final int SIN_TEXTO = -1;
+    private static final int CAPACIDAD_INICIAL = 1024;
+    // La tabla se agranda al superar 3/4 de ocupación
+    private static final int OCUPACION_MAXIMA_NUMERADOR = 3;
+    private static final int OCUPACION_MAXIMA_DENOMINADOR = 4;
+
+    private volatile byte[] datos;
+    // inicios[c] es la posición del texto c en datos; inicios[c + 1], donde termina
+    private volatile int[] inicios;
+    private int[] tabla;
+    private int cantidad;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    DiccionarioCompacto() {
+        this.datos = new byte[CAPACIDAD_INICIAL * 16];
+        this.inicios = new int[CAPACIDAD_INICIAL + 1];
+        this.tabla = new int[CAPACIDAD_INICIAL * 2];
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param texto texto a codificar (puede ser null)
+     * @return el código del texto (se asigna uno nuevo si no tenía), o SIN_TEXTO si es null
+     */
+    synchronized int codificar(String texto) {
+        if (texto == null) {
+            return SIN_TEXTO;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        int mascara = tabla.length - 1;
+        int casillero = hash & mascara;
+        while (tabla[casillero] != 0) {
+            int codigo = tabla[casillero] - 1;
+            if (Arrays.equals(datos, inicios[codigo], inicios[codigo + 1], bytes, 0, bytes.length)) {
+                return codigo;
+            }
+            casillero = (casillero + 1) & mascara;
+        }
+
+        int codigo = cantidad;
+        int inicio = inicios[codigo];
+        byte[] d = datos;
+        if (inicio + bytes.length > d.length) {
+            // Crece de a 1,5 veces: el arreglo de textos es lo más grande del almacén
+            d = Arrays.copyOf(d, Math.max(inicio + bytes.length, d.length + (d.length >> 1)));
+        }
+        System.arraycopy(bytes, 0, d, inicio, bytes.length);
+        int[] in = inicios;
+        if (codigo + 2 > in.length) {
+            in = Arrays.copyOf(in, Math.max(codigo + 2, in.length + (in.length >> 1)));
+        }
+        in[codigo + 1] = inicio + bytes.length;
+        // Se publican los arreglos antes de entregar el código (ver el comentario de la clase)
+        datos = d;
+        inicios = in;
+        tabla[casillero] = codigo + 1;
+        cantidad = codigo + 1;
+        if (cantidad * OCUPACION_MAXIMA_DENOMINADOR > tabla.length * OCUPACION_MAXIMA_NUMERADOR) {
+            agrandarTabla();
+        }
+        return codigo;
+    }
+
+    /**
+     * @param codigo código asignado por codificar (o SIN_TEXTO)
+     * @return el texto del código (null para SIN_TEXTO)
+     */
+    String texto(int codigo) {
+        if (codigo == SIN_TEXTO) {
+            return null;
+        }
+        int[] in = inicios;
+        int inicio = in[codigo];
+        return new String(datos, inicio, in[codigo + 1] - inicio, StandardCharsets.UTF_8);
+    }
+
+    private void agrandarTabla() {
+        int[] nueva = new int[tabla.length * 2];
+        int mascara = nueva.length - 1;
+        byte[] d = datos;
+        int[] in = inicios;
+        for (int codigo = 0; codigo < cantidad; codigo++) {
+            int casillero = hash(d, in[codigo], in[codigo + 1]) & mascara;
+            while (nueva[casillero] != 0) {
+                casillero = (casillero + 1) & mascara;
+            }
+            nueva[casillero] = codigo + 1;
+        }
+        tabla = nueva;
+    }
+
+    private static int hash(byte[] bytes, int desde, int hasta) {
+        int h = 1;
+        for (int i = desde; i < hasta; i++) {
+            h = 31 * h + bytes[i];
+        }
+        // Mezcla los bits altos en los bajos, que son los que elige la máscara de la tabla
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Ajusta los arreglos de textos a lo que ocupan (por ejemplo, al terminar una carga)
+     */
+    synchronized void compactar() {
+        datos = Arrays.copyOf(datos, inicios[cantidad]);
+        inicios = Arrays.copyOf(inicios, cantidad + 1);
+    }
+
+    // ---------------------- GETTERS ----------------------
+    synchronized int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * @return bytes que ocupan los arreglos del diccionario (incluida la capacidad libre)
+     */
+    synchronized long getBytesOcupados() {
+        return AlmacenProductos.bytesArreglo(datos.length, 1) + AlmacenProductos.bytesArreglo(inicios.length, 4)
+                + AlmacenProductos.bytesArreglo(tabla.length, 4);
+    }
+}
@@ -0,0 +1,142 @@
+package productos;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historial de precios de todos los productos, consultable por fecha.
+ *
+ * Cada producto tiene una SeriePrecios inmutable; un cambio de precio reemplaza la serie del
+ * producto por una nueva (copia al escribir) y aumenta la versión del catálogo. Las consultas no
+ * toman locks: leen la serie que esté publicada en ese momento, que no cambia mientras la leen.
+ *
+ * La versión cuenta los cambios de precio desde que arrancó el sistema: dos consultas con la misma
+ * versión vieron los mismos precios. Para ver el catálogo de otro momento se usa getPreciosEn.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para las series por ID de producto: se reemplaza la serie de un producto sin
+ *   frenar las consultas de los demás.
+ * - HashMap para el catálogo de precios de un momento: lo arma y lo usa solo quien lo pidió.
+ */
+public class HistorialPrecios {
+    private final Map<Integer, SeriePrecios> series;
+    private final AtomicLong version;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public HistorialPrecios() {
+        this.series = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Registra el precio de un producto a partir de un momento (si es igual al vigente no se agrega nada)
+     * @param productoId id del producto
+     * @param precio precio nuevo
+     * @param instante desde cuándo rige (epoch en milisegundos)
+     * @return la versión del catálogo después del cambio
+     */
+    public long registrar(int productoId, double precio, long instante) {
+        boolean[] cambio = new boolean[1];
+        series.compute(productoId, (id, serie) -> {
+            SeriePrecios anterior = serie == null ? SeriePrecios.VACIA : serie;
+            SeriePrecios nueva = anterior.agregar(instante, precio);
+            cambio[0] = nueva != anterior;
+            return nueva;
+        });
+        return cambio[0] ? version.incrementAndGet() : version.get();
+    }
+
+    /**
+     * Restaura el historial guardado de un producto (al cargar el stock), sin cambiar la versión
+     * @param productoId id del producto
+     * @param serie historial del producto
+     */
+    public void restaurar(int productoId, SeriePrecios serie) {
+        series.put(productoId, serie);
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    /**
+     * @param productoId id del producto
+     * @return el historial del producto, o null si no tiene
+     */
+    public SeriePrecios getSerie(int productoId) {
+        return series.get(productoId);
+    }
+
+    /**
+     * Las series son inmutables, así que alcanza con copiar el mapa para tener el historial de un
+     * momento (por ejemplo, para guardarlo sin frenar los cambios de precio)
+     * @return las series de todos los productos, por ID
+     */
+    public Map<Integer, SeriePrecios> copiarSeries() {
+        return new HashMap<>(series);
+    }
+
+    /**
+     * @param productoId id del producto
+     * @param fecha momento a consultar
+     * @return el precio que tenía el producto en ese momento, o NaN si todavía no tenía precio
+     */
+    public double getPrecioEn(int productoId, LocalDateTime fecha) {
+        SeriePrecios serie = series.get(productoId);
+        return serie == null ? Double.NaN : serie.getPrecioEn(aInstante(fecha));
+    }
+
+    /**
+     * @param productoId id del producto
+     * @param desde desde qué momento (inclusive; null = desde el principio)
+     * @param hasta hasta qué momento (inclusive; null = hasta ahora)
+     * @return los cambios de precio del producto en el rango, del más viejo al más nuevo
+     */
+    public List<CambioPrecio> getCambios(int productoId, LocalDateTime desde, LocalDateTime hasta) {
+        SeriePrecios serie = series.getOrDefault(productoId, SeriePrecios.VACIA);
+        return serie.getCambios(desde == null ? Long.MIN_VALUE : aInstante(desde), hasta == null ? Long.MAX_VALUE : aInstante(hasta));
+    }
+
+    /**
+     * Arma el catálogo de precios de un momento: el precio que tenía cada producto en ese momento
+     * @param fecha momento a consultar
+     * @return precio por ID de los productos que ya tenían precio en ese momento
+     */
+    public Map<Integer, Double> getPreciosEn(LocalDateTime fecha) {
+        long instante = aInstante(fecha);
+        Map<Integer, Double> precios = new HashMap<>();
+        for (Map.Entry<Integer, SeriePrecios> entrada : series.entrySet()) {
+            double precio = entrada.getValue().getPrecioEn(instante);
+            if (!Double.isNaN(precio)) {
+                precios.put(entrada.getKey(), precio);
+            }
+        }
+        return precios;
+    }
+
+    /**
+     * @return cuántos cambios de precio hubo desde que arrancó el sistema
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return los bytes que ocupan todos los historiales codificados
+     */
+    public long getTamanioBytes() {
+        long total = 0;
+        for (SeriePrecios serie : series.values()) {
+            total += serie.getTamanioBytes();
+        }
+        return total;
+    }
+
+    private static long aInstante(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
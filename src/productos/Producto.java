@@ -2,6 +2,8 @@ package productos;
 
 import org.json.JSONObject;
 import entidades.IEntidad;
+import utilidades.GeneradorIds;
+import utilidades.SecuenciaIds;
 
 import java.time.LocalDateTime;
 
@@ -9,8 +11,8 @@ import java.time.LocalDateTime;
  * Clase que representa un producto de tecnología en el sistema.
  */
 public class Producto implements IEntidad<Integer> {
+    private static final SecuenciaIds SECUENCIA = GeneradorIds.secuencia("productos");
     private int id;
-    private static int contador = 0;
     private String nombre;
     private String descripcion;
     private CategoriaProducto categoria;
@@ -23,8 +25,7 @@ public class Producto implements IEntidad<Integer> {
     
     // ---------------------- CONSTRUCTORES ----------------------
     public Producto(String nombre, String  descripcion, CategoriaProducto categoria,  double precio, String marca, String modelo, String especificaciones) {
-        this.id = contador;
-        contador++;
+        this.id = SECUENCIA.siguiente();
         this.nombre = nombre;
         this.descripcion = descripcion;
         this.categoria = categoria;
@@ -37,11 +38,54 @@ public class Producto implements IEntidad<Integer> {
     }
     
     public Producto() {
-        this.id = contador;
-        contador++;
+        this.id = SECUENCIA.siguiente();
         this.activo = true;
         this.fechaCreacion = LocalDateTime.now();
     }
+
+    // Este es para que reciba el id (solo JSON): no toma un ID nuevo de la secuencia
+    public Producto(int id) {
+        this.id = id;
+        SECUENCIA.asegurarMinimo(id + 1L);
+        this.activo = true;
+        this.fechaCreacion = LocalDateTime.now();
+    }
+
+    /**
+     * Producto con todos sus datos y un ID ya asignado (no toma uno nuevo de la secuencia). Lo usa
+     * AlmacenProductos para entregar como Producto los datos que guarda en columnas
+     */
+    Producto(int id, String nombre, String descripcion, CategoriaProducto categoria, double precio, String marca, String modelo,
+             String especificaciones, boolean activo, LocalDateTime fechaCreacion) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.categoria = categoria;
+        this.precio = precio;
+        this.marca = marca;
+        this.modelo = modelo;
+        this.especificaciones = especificaciones;
+        this.activo = activo;
+        this.fechaCreacion = fechaCreacion;
+    }
+
+    /**
+     * Copia de un producto con el mismo ID (no toma un ID nuevo de la secuencia). La usa el catálogo
+     * para guardar cómo era el producto al publicarse, aunque después se modifique el original
+     * @param original producto a copiar
+     */
+    public Producto(Producto original) {
+        this.id = original.id;
+        this.nombre = original.nombre;
+        this.descripcion = original.descripcion;
+        this.categoria = original.categoria;
+        this.precio = original.precio;
+        this.marca = original.marca;
+        this.modelo = original.modelo;
+        this.especificaciones = original.especificaciones;
+        this.activo = original.activo;
+        this.fechaCreacion = original.fechaCreacion;
+    }
     
     // ---------------------- GETTERS Y SETTERS ----------------------
     @Override
@@ -50,18 +94,21 @@ public class Producto implements IEntidad<Integer> {
     }
     public void setId(int id) {
         this.id = id;
-        // Actualizar el contador si el ID es mayor o igual al contador actual
-        // Esto asegura que el contador siempre esté por encima del ID más alto
-        if (id >= contador) {
-            contador = id + 1;
-        }
+        // La secuencia queda siempre por encima del ID más alto
+        SECUENCIA.asegurarMinimo(id + 1L);
     }
-    
+
+    /**
+     * @param nuevoContador valor mínimo del próximo ID (la secuencia nunca retrocede)
+     */
     public static void setContador(int nuevoContador) {
-        contador = nuevoContador;
+        SECUENCIA.asegurarMinimo(nuevoContador);
     }
+    /**
+     * @return el próximo ID que se va a asignar
+     */
     public static int getContador() {
-        return contador;
+        return (int) SECUENCIA.getProximo();
     }
     @Override
     public String getNombre() {
@@ -0,0 +1,187 @@
+package productos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Historial de precios de un producto, compacto e inmutable.
+ *
+ * Cada cambio se guarda como la diferencia con el anterior: milisegundos desde el cambio anterior
+ * y centavos de diferencia con el precio anterior (el primero, contra 0). Las diferencias se
+ * escriben como enteros de largo variable (zigzag + 7 bits por byte), así un cambio típico ocupa
+ * 5 a 8 bytes en lugar de un objeto con una fecha. Los precios se guardan al centavo.
+ *
+ * Agregar un cambio devuelve una serie nueva (copia del arreglo más el cambio): quien tiene una
+ * serie la puede leer sin locks y siempre ve el mismo historial, aunque mientras tanto cambie el
+ * precio. Un producto cambia de precio pocas veces, así que copiar el arreglo no pesa.
+ */
+public final class SeriePrecios {
+    public static final SeriePrecios VACIA = new SeriePrecios(new byte[0], 0, 0, 0, 0);
+
+    private final byte[] datos;
+    private final int cantidad;
+    private final long primerInstante;
+    private final long ultimoInstante;
+    private final long ultimosCentavos;
+
+    private SeriePrecios(byte[] datos, int cantidad, long primerInstante, long ultimoInstante, long ultimosCentavos) {
+        this.datos = datos;
+        this.cantidad = cantidad;
+        this.primerInstante = primerInstante;
+        this.ultimoInstante = ultimoInstante;
+        this.ultimosCentavos = ultimosCentavos;
+    }
+
+    // ---------------------- ESCRITURA ----------------------
+    /**
+     * @param instante momento del cambio (epoch en milisegundos); si es anterior al último cambio se
+     *                 toma como el mismo momento que el último, así la serie nunca retrocede en el tiempo
+     * @param precio nuevo precio
+     * @return la serie con el cambio agregado, o esta misma si el precio no cambió
+     */
+    public SeriePrecios agregar(long instante, double precio) {
+        long centavos = Math.round(precio * 100);
+        if (cantidad > 0 && centavos == ultimosCentavos) {
+            return this;
+        }
+        long momento = cantidad > 0 ? Math.max(instante, ultimoInstante) : instante;
+        byte[] nuevos = Arrays.copyOf(datos, datos.length + 20);
+        int posicion = escribir(nuevos, datos.length, momento - ultimoInstante);
+        posicion = escribir(nuevos, posicion, centavos - ultimosCentavos);
+        return new SeriePrecios(Arrays.copyOf(nuevos, posicion), cantidad + 1,
+                cantidad > 0 ? primerInstante : momento, momento, centavos);
+    }
+
+    // ---------------------- CONSULTAS ----------------------
+    /**
+     * @param instante momento a consultar (epoch en milisegundos)
+     * @return el precio vigente en ese momento, o NaN si el producto todavía no tenía precio
+     */
+    public double getPrecioEn(long instante) {
+        if (cantidad == 0 || instante < primerInstante) {
+            return Double.NaN;
+        }
+        if (instante >= ultimoInstante) {
+            return ultimosCentavos / 100.0;
+        }
+        long momento = 0;
+        long centavos = 0;
+        long[] valor = new long[1];
+        int posicion = 0;
+        while (posicion < datos.length) {
+            posicion = leer(datos, posicion, valor);
+            long siguienteMomento = momento + valor[0];
+            if (siguienteMomento > instante) {
+                break;
+            }
+            posicion = leer(datos, posicion, valor);
+            momento = siguienteMomento;
+            centavos += valor[0];
+        }
+        return centavos / 100.0;
+    }
+
+    /**
+     * @param desde desde qué momento (inclusive, epoch en milisegundos)
+     * @param hasta hasta qué momento (inclusive, epoch en milisegundos)
+     * @return los cambios de precio del rango, del más viejo al más nuevo
+     */
+    public List<CambioPrecio> getCambios(long desde, long hasta) {
+        List<CambioPrecio> cambios = new ArrayList<>();
+        long momento = 0;
+        long centavos = 0;
+        long[] valor = new long[1];
+        int posicion = 0;
+        while (posicion < datos.length) {
+            posicion = leer(datos, posicion, valor);
+            momento += valor[0];
+            posicion = leer(datos, posicion, valor);
+            centavos += valor[0];
+            if (momento > hasta) {
+                break;
+            }
+            if (momento >= desde) {
+                cambios.add(new CambioPrecio(momento, centavos / 100.0));
+            }
+        }
+        return cambios;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * @return los bytes que ocupa el historial codificado
+     */
+    public int getTamanioBytes() {
+        return datos.length;
+    }
+
+    public long getUltimoInstante() {
+        return ultimoInstante;
+    }
+
+    // ---------------------- PERSISTENCIA ----------------------
+    /**
+     * @return el historial codificado en Base64 (los mismos bytes que en memoria)
+     */
+    public String aBase64() {
+        return Base64.getEncoder().encodeToString(datos);
+    }
+
+    /**
+     * @param texto historial guardado con aBase64
+     * @return la serie
+     * @throws IllegalArgumentException si el texto no es un historial válido
+     */
+    public static SeriePrecios desdeBase64(String texto) {
+        byte[] datos = Base64.getDecoder().decode(texto);
+        long momento = 0;
+        long primero = 0;
+        long centavos = 0;
+        int cantidad = 0;
+        long[] valor = new long[1];
+        int posicion = 0;
+        while (posicion < datos.length) {
+            posicion = leer(datos, posicion, valor);
+            momento += valor[0];
+            posicion = leer(datos, posicion, valor);
+            centavos += valor[0];
+            if (cantidad == 0) {
+                primero = momento;
+            }
+            cantidad++;
+        }
+        return cantidad == 0 ? VACIA : new SeriePrecios(datos, cantidad, primero, momento, centavos);
+    }
+
+    // ---------------------- CODIFICACION ----------------------
+    private static int escribir(byte[] destino, int posicion, long valor) {
+        long zigzag = (valor << 1) ^ (valor >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            destino[posicion++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        destino[posicion++] = (byte) zigzag;
+        return posicion;
+    }
+
+    private static int leer(byte[] origen, int posicion, long[] valor) {
+        long zigzag = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            if (posicion >= origen.length || desplazamiento > 63) {
+                throw new IllegalArgumentException("Historial de precios corrupto");
+            }
+            b = origen[posicion++];
+            zigzag |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0);
+        valor[0] = (zigzag >>> 1) ^ -(zigzag & 1);
+        return posicion;
+    }
+}
@@ -0,0 +1,87 @@
+package productos;
+
+import entidades.IEntidad;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista liviana de un producto de AlmacenProductos: solo el almacén y la fila.
+ *
+ * Cada dato se lee de la columna al pedirlo (los textos se arman recién ahí), así que la vista
+ * siempre muestra los datos actuales del producto. Para modificarlo se usa el almacén; para los
+ * métodos que reciben un Producto, aProducto() arma una copia completa.
+ */
+public final class VistaProducto implements IEntidad<Integer> {
+    private final AlmacenProductos almacen;
+    private final int fila;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    VistaProducto(AlmacenProductos almacen, int fila) {
+        this.almacen = almacen;
+        this.fila = fila;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    @Override
+    public Integer getId() {
+        return almacen.id(fila);
+    }
+    @Override
+    public String getNombre() {
+        return almacen.nombre(fila);
+    }
+    public String getDescripcion() {
+        return almacen.descripcion(fila);
+    }
+    public CategoriaProducto getCategoria() {
+        return almacen.categoria(fila);
+    }
+    public double getPrecio() {
+        return almacen.precio(fila);
+    }
+    public String getMarca() {
+        return almacen.marca(fila);
+    }
+    public String getModelo() {
+        return almacen.modelo(fila);
+    }
+    public String getEspecificaciones() {
+        return almacen.especificaciones(fila);
+    }
+    public boolean isActivo() {
+        return almacen.activo(fila);
+    }
+    public LocalDateTime getFechaCreacion() {
+        return almacen.fechaCreacion(fila);
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @return un Producto con los datos actuales de la vista y el mismo ID (no toma uno nuevo de la
+     * secuencia). Los cambios en el Producto no se guardan en el almacén
+     */
+    public Producto aProducto() {
+        return new Producto(almacen.id(fila), getNombre(), getDescripcion(), getCategoria(), getPrecio(), getMarca(),
+                getModelo(), getEspecificaciones(), isActivo(), getFechaCreacion());
+    }
+
+    // ---------------------- METODOS SOBREESCRITOS ----------------------
+    @Override
+    public String toString() {
+        return String.format("📱 %s - %s %s | 💰 $%.2f | 📂 %s | %s", getNombre(), getMarca(), getModelo(), getPrecio(), getCategoria(),
+                isActivo() ? "🟢 Activo" : "🔴 Inactivo");
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        VistaProducto vista = (VistaProducto) obj;
+        return almacen == vista.almacen && fila == vista.fila;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(almacen.id(fila));
+    }
+}
@@ -0,0 +1,199 @@
+package registro;
+
+import metricas.Metricas;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escribe los eventos de la bitácora en un hilo propio, para que quien los emite (por ejemplo una
+ * compra que tiene tomado el lock de escritura) no espere la consola ni el disco.
+ *
+ * Los eventos pasan por un buffer circular de tamaño fijo con muchos productores y un solo
+ * consumidor: cada posición tiene un número de secuencia que indica si está libre o tiene un
+ * evento listo, así publicar es reservar una posición con un compareAndSet y escribirla, sin locks.
+ * Si el buffer está lleno el evento se descarta y se cuenta en la métrica
+ * "registro.eventosDescartados": es preferible perder eventos a frenar las operaciones.
+ *
+ * El hilo consumidor duerme cuando no hay eventos y lo despierta el primer productor que publica.
+ * Cada vez que vacía el buffer llama a vaciar() en los destinos, así un archivo se escribe en
+ * bloques y no una vez por evento.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - Arreglo de eventos + AtomicLongArray de secuencias para el buffer circular: tamaño fijo, sin
+ *   objetos nuevos por evento más allá del propio Evento.
+ * - CopyOnWriteArrayList para los destinos: se recorren por cada evento y casi nunca cambian.
+ */
+public class AnotadorAsincrono {
+    public static final int CAPACIDAD_POR_DEFECTO = 8192;
+    private static final long NANOS_ESPERA_MAXIMA = 100_000_000L;
+    private static final AnotadorAsincrono GLOBAL = iniciar(CAPACIDAD_POR_DEFECTO);
+
+    private final Evento[] eventos;
+    private final AtomicLongArray secuencias;
+    private final int mascara;
+    private final AtomicLong siguientePublicacion;
+    private final AtomicLong vaciados;
+    private final List<DestinoEventos> destinos;
+    private final LongAdder descartados;
+    private final Thread consumidor;
+    private volatile boolean durmiendo;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param capacidad cantidad de eventos que pueden esperar a ser escritos (se redondea a potencia de dos)
+     */
+    private AnotadorAsincrono(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0.");
+        }
+        int tamanio = Integer.highestOneBit(capacidad - 1) << 1;
+        tamanio = Math.max(2, tamanio);
+        this.eventos = new Evento[tamanio];
+        this.secuencias = new AtomicLongArray(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            secuencias.set(i, i);
+        }
+        this.mascara = tamanio - 1;
+        this.siguientePublicacion = new AtomicLong();
+        this.vaciados = new AtomicLong();
+        this.destinos = new CopyOnWriteArrayList<>();
+        this.descartados = Metricas.contador("registro.eventosDescartados");
+
+        this.consumidor = new Thread(this::consumir, "anotador-eventos");
+        this.consumidor.setDaemon(true);
+    }
+
+    /**
+     * Crea un anotador y arranca su hilo consumidor. El hilo y el vaciado al cerrar la aplicación se
+     * registran una vez construido el anotador, así nunca ven un objeto a medio construir
+     * @param capacidad cantidad de eventos que pueden esperar a ser escritos (se redondea a potencia de dos)
+     * @return el anotador
+     */
+    public static AnotadorAsincrono iniciar(int capacidad) {
+        AnotadorAsincrono anotador = new AnotadorAsincrono(capacidad);
+        anotador.consumidor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> anotador.esperarVacio(1_000)));
+        return anotador;
+    }
+
+    /**
+     * @return el anotador que usan todas las Bitacora
+     */
+    public static AnotadorAsincrono global() {
+        return GLOBAL;
+    }
+
+    // ---------------------- DESTINOS ----------------------
+    public void agregarDestino(DestinoEventos destino) {
+        destinos.add(destino);
+    }
+
+    public void quitarDestino(DestinoEventos destino) {
+        destinos.remove(destino);
+    }
+
+    public boolean tieneDestinos() {
+        return !destinos.isEmpty();
+    }
+
+    // ---------------------- PUBLICACION ----------------------
+    /**
+     * Encola un evento sin bloquear
+     * @param evento evento a escribir
+     * @return false si el buffer estaba lleno y el evento se descartó
+     */
+    public boolean publicar(Evento evento) {
+        long posicion = siguientePublicacion.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (siguientePublicacion.compareAndSet(posicion, posicion + 1)) {
+                    eventos[indice] = evento;
+                    secuencias.set(indice, posicion + 1);
+                    break;
+                }
+                posicion = siguientePublicacion.get();
+            } else if (diferencia < 0) {
+                descartados.increment();
+                return false;
+            } else {
+                posicion = siguientePublicacion.get();
+            }
+        }
+        if (durmiendo) {
+            LockSupport.unpark(consumidor);
+        }
+        return true;
+    }
+
+    /**
+     * Espera a que se escriban (y se vacíen los destinos) los eventos publicados hasta ahora
+     * @param milisegundos espera máxima
+     * @return true si se escribieron todos
+     */
+    public boolean esperarVacio(long milisegundos) {
+        long objetivo = siguientePublicacion.get();
+        long limite = System.nanoTime() + milisegundos * 1_000_000L;
+        LockSupport.unpark(consumidor);
+        while (vaciados.get() < objetivo) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000L);
+        }
+        return true;
+    }
+
+    // ---------------------- CONSUMIDOR ----------------------
+    private void consumir() {
+        long posicion = 0;
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            if (secuencias.get(indice) == posicion + 1) {
+                Evento evento = eventos[indice];
+                eventos[indice] = null;
+                secuencias.set(indice, posicion + mascara + 1);
+                posicion++;
+                escribir(evento);
+                continue;
+            }
+
+            // Buffer vacío: se vacían los destinos y se duerme hasta que alguien publique
+            for (DestinoEventos destino : destinos) {
+                vaciarSinFallar(destino);
+            }
+            vaciados.set(posicion);
+            durmiendo = true;
+            if (secuencias.get(indice) != posicion + 1) {
+                LockSupport.parkNanos(NANOS_ESPERA_MAXIMA);
+            }
+            durmiendo = false;
+        }
+    }
+
+    private void escribir(Evento evento) {
+        for (DestinoEventos destino : destinos) {
+            try {
+                destino.escribir(evento);
+            } catch (RuntimeException e) {
+                // Un destino roto no puede frenar al resto ni matar al hilo consumidor
+                descartados.increment();
+            }
+        }
+    }
+
+    private void vaciarSinFallar(DestinoEventos destino) {
+        try {
+            destino.vaciar();
+        } catch (RuntimeException e) {
+            descartados.increment();
+        }
+    }
+}
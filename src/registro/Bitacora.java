@@ -0,0 +1,81 @@
+package registro;
+
+/**
+ * Bitácora de eventos de una clase. Cada clase que emite eventos guarda la suya en una constante:
+ *
+ *   private static final Bitacora BITACORA = Bitacora.de(StockJSON.class);
+ *   BITACORA.error("stock.errorGuardado", "No se pudo guardar el stock", e, "archivo", nombreArchivo);
+ *
+ * Los eventos se publican en el AnotadorAsincrono global y se escriben en otro hilo, así emitir
+ * un evento no espera la consola ni el disco. Los eventos por debajo del nivel mínimo (por defecto
+ * INFO, configurable con la propiedad "registro.nivel") se descartan antes de crear el Evento, y
+ * mientras no haya destinos registrados (por ejemplo en los benchmarks) tampoco se crean.
+ *
+ * Las clases del núcleo no imprimen por consola: emiten eventos, y cada interfaz decide cómo
+ * mostrarlos registrando un DestinoEventos.
+ */
+public class Bitacora {
+    private static volatile Nivel nivelMinimo = Nivel.valueOf(System.getProperty("registro.nivel", Nivel.INFO.name()));
+
+    private final String origen;
+    private final AnotadorAsincrono anotador;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    private Bitacora(String origen, AnotadorAsincrono anotador) {
+        this.origen = origen;
+        this.anotador = anotador;
+    }
+
+    /**
+     * @param clase clase que emite los eventos
+     * @return la bitácora de la clase
+     */
+    public static Bitacora de(Class<?> clase) {
+        return new Bitacora(clase.getSimpleName(), AnotadorAsincrono.global());
+    }
+
+    // ---------------------- NIVEL ----------------------
+    public static Nivel getNivelMinimo() {
+        return nivelMinimo;
+    }
+
+    public static void setNivelMinimo(Nivel nivel) {
+        nivelMinimo = nivel;
+    }
+
+    public boolean estaHabilitado(Nivel nivel) {
+        return nivel.compareTo(nivelMinimo) >= 0 && anotador.tieneDestinos();
+    }
+
+    // ---------------------- EVENTOS ----------------------
+    /**
+     * @param tipo identificador del evento, por ejemplo "venta.procesada"
+     * @param mensaje descripción legible
+     * @param campos pares clave/valor con los datos del evento
+     */
+    public void debug(String tipo, String mensaje, Object... campos) {
+        emitir(Nivel.DEBUG, tipo, mensaje, null, campos);
+    }
+
+    public void info(String tipo, String mensaje, Object... campos) {
+        emitir(Nivel.INFO, tipo, mensaje, null, campos);
+    }
+
+    public void advertencia(String tipo, String mensaje, Object... campos) {
+        emitir(Nivel.ADVERTENCIA, tipo, mensaje, null, campos);
+    }
+
+    public void advertencia(String tipo, String mensaje, Throwable error, Object... campos) {
+        emitir(Nivel.ADVERTENCIA, tipo, mensaje, error, campos);
+    }
+
+    public void error(String tipo, String mensaje, Throwable error, Object... campos) {
+        emitir(Nivel.ERROR, tipo, mensaje, error, campos);
+    }
+
+    private void emitir(Nivel nivel, String tipo, String mensaje, Throwable error, Object[] campos) {
+        if (estaHabilitado(nivel)) {
+            anotador.publicar(new Evento(nivel, origen, tipo, mensaje, campos, error));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package registro;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Escribe los eventos en un archivo de texto, un JSON por línea (JSON Lines), agregando al final
+ * del archivo. Las líneas quedan en un buffer y se escriben al disco cuando el AnotadorAsincrono
+ * vacía la cola.
+ */
+public class DestinoArchivo implements DestinoEventos {
+    public static final String ARCHIVO_POR_DEFECTO = "logs/eventos.jsonl";
+
+    private final BufferedWriter escritor;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param ruta archivo donde se agregan los eventos (se crea la carpeta si no existe)
+     * @throws IOException si no se puede abrir el archivo
+     */
+    public DestinoArchivo(String ruta) throws IOException {
+        File archivo = new File(ruta);
+        File carpeta = archivo.getAbsoluteFile().getParentFile();
+        if (carpeta != null && !carpeta.exists()) {
+            carpeta.mkdirs();
+        }
+        this.escritor = new BufferedWriter(new FileWriter(archivo, true));
+    }
+
+    // ---------------------- METODOS ----------------------
+    @Override
+    public void escribir(Evento evento) {
+        try {
+            escritor.write(evento.aJson().toString());
+            escritor.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void vaciar() {
+        try {
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
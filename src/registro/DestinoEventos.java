@@ -0,0 +1,21 @@
+package registro;
+
+/**
+ * Lugar donde se escriben los eventos de la bitácora (archivo, consola, ...).
+ *
+ * Los métodos los llama un solo hilo, el del AnotadorAsincrono, así que las implementaciones no
+ * necesitan ser thread-safe y pueden tardar sin frenar a quien emitió el evento.
+ */
+public interface DestinoEventos {
+    /**
+     * Escribe un evento (puede quedar en un buffer hasta el próximo vaciar)
+     * @param evento evento a escribir
+     */
+    void escribir(Evento evento);
+
+    /**
+     * Se llama cada vez que la cola de eventos queda vacía, para escribir lo que quedó en buffer
+     */
+    default void vaciar() {
+    }
+}
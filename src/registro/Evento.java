@@ -0,0 +1,117 @@
+package registro;
+
+import org.json.JSONObject;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+
+/**
+ * Evento de la bitácora: qué pasó (tipo), dónde (origen), con qué gravedad (nivel) y los datos
+ * asociados como pares clave/valor, por ejemplo tipo "venta.procesada" con campos id, total y
+ * metodoPago. El mensaje es una descripción legible para quien muestre el evento.
+ *
+ * Los campos se guardan tal como llegaron (un arreglo clave, valor, clave, valor...) y recién se
+ * convierten a texto en el hilo del AnotadorAsincrono, así emitir un evento cuesta poco más que
+ * crear este objeto.
+ */
+public class Evento {
+    private final long instante;
+    private final Nivel nivel;
+    private final String origen;
+    private final String tipo;
+    private final String mensaje;
+    private final Object[] campos;
+    private final Throwable error;
+    private final String hilo;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param nivel gravedad del evento
+     * @param origen clase o componente que lo emite
+     * @param tipo identificador del evento, por ejemplo "stock.guardado"
+     * @param mensaje descripción legible
+     * @param campos pares clave/valor con los datos del evento
+     * @param error excepción asociada (puede ser null)
+     */
+    public Evento(Nivel nivel, String origen, String tipo, String mensaje, Object[] campos, Throwable error) {
+        if (campos.length % 2 != 0) {
+            throw new IllegalArgumentException("Los campos del evento deben ser pares clave/valor.");
+        }
+        this.instante = System.currentTimeMillis();
+        this.nivel = nivel;
+        this.origen = origen;
+        this.tipo = tipo;
+        this.mensaje = mensaje;
+        this.campos = campos;
+        this.error = error;
+        Thread actual = Thread.currentThread();
+        this.hilo = actual.getName().isEmpty() ? "virtual#" + actual.threadId() : actual.getName();
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public Instant getInstante() {
+        return Instant.ofEpochMilli(instante);
+    }
+    public Nivel getNivel() {
+        return nivel;
+    }
+    public String getOrigen() {
+        return origen;
+    }
+    public String getTipo() {
+        return tipo;
+    }
+    public String getMensaje() {
+        return mensaje;
+    }
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @param clave nombre del campo
+     * @return el valor del campo o null si el evento no lo tiene
+     */
+    public Object getCampo(String clave) {
+        for (int i = 0; i < campos.length; i += 2) {
+            if (clave.equals(campos[i])) {
+                return campos[i + 1];
+            }
+        }
+        return null;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @return el evento como JSON (una línea del archivo de eventos)
+     */
+    public JSONObject aJson() {
+        JSONObject json = new JSONObject();
+        json.put("instante", getInstante().toString());
+        json.put("nivel", nivel.name());
+        json.put("origen", origen);
+        json.put("tipo", tipo);
+        json.put("mensaje", mensaje);
+        json.put("hilo", hilo);
+        if (campos.length > 0) {
+            JSONObject datos = new JSONObject();
+            for (int i = 0; i < campos.length; i += 2) {
+                datos.put(String.valueOf(campos[i]), campos[i + 1] == null ? JSONObject.NULL : campos[i + 1]);
+            }
+            json.put("campos", datos);
+        }
+        if (error != null) {
+            StringWriter traza = new StringWriter();
+            error.printStackTrace(new PrintWriter(traza));
+            json.put("error", error.toString());
+            json.put("traza", traza.toString());
+        }
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return getInstante() + " " + nivel + " [" + origen + "] " + tipo + ": " + mensaje;
+    }
+}
@@ -0,0 +1,11 @@
+package registro;
+
+/**
+ * Niveles de los eventos de la bitácora, de menor a mayor gravedad.
+ */
+public enum Nivel {
+    DEBUG,
+    INFO,
+    ADVERTENCIA,
+    ERROR
+}
@@ -1,17 +1,32 @@
 package usuarios;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Objects;
 
+/**
+ * Credenciales de un usuario. La contraseña se guarda como hash (ver VerificadorPasswords);
+ * las cuentas viejas pueden tener todavía la contraseña en texto plano hasta su próximo login.
+ */
 public class Credenciales {
+    private static final long DURACION_CACHE_MS = 5 * 60 * 1000;
+
     private String email;
-    private String password;
-    
+    // volatile: el login la lee sin lock mientras la migración del hash la reemplaza
+    private volatile String password;
+    private volatile VerificacionCacheada verificacionCacheada;
+
     // ---------------------- CONSTRUCTORES ----------------------
+    /**
+     * @param email email del usuario
+     * @param password contraseña tal como está guardada (hash, o texto plano en cuentas viejas), o null
+     * si la cuenta no tiene contraseña (no puede iniciar sesión)
+     */
     public Credenciales(String email, String password) {
         this.email = email;
         this.password = password;
     }
-    
+
     // ---------------------- GETTERS Y SETTERS ----------------------
     public String getEmail() {
         return email;
@@ -24,18 +39,51 @@ public class Credenciales {
     }
     public void setPassword(String password) {
         this.password = password;
+        this.verificacionCacheada = null;
     }
-    
+
     // ---------------------- MÉTODOS DE AUTENTICACIÓN ----------------------
     /**
-     * Verifica que la contraseña ingresada en el login sea la misma que la contraseña del usuario
+     * Verifica que la contraseña ingresada en el login sea la misma que la contraseña del usuario.
+     * Si la misma contraseña se verificó hace poco, se compara contra el cache en lugar de recalcular el hash
+     * @param passwordIngresada contraseña ingresada
+     * @param verificador verificador con el que se generan y comprueban los hashes
      * @return Verdadero si la contraseña es la misma, Falso si no
      */
-    public boolean verificarPassword(String passwordIngresada) {
+    public boolean verificarPassword(String passwordIngresada, VerificadorPasswords verificador) {
+        // Se lee una sola vez: la migración puede reemplazarla mientras se verifica
+        String hashActual = password;
+        if (passwordIngresada == null || hashActual == null) {
+            return false;
+        }
 
-        return password.equals(passwordIngresada);
+        // Cuenta vieja con la contraseña en texto plano
+        if (!VerificadorPasswords.esHash(hashActual)) {
+            return MessageDigest.isEqual(hashActual.getBytes(StandardCharsets.UTF_8), passwordIngresada.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] huella = verificador.calcularHuella(hashActual, passwordIngresada);
+        VerificacionCacheada cache = verificacionCacheada;
+        if (cache != null && cache.esValidaPara(hashActual, huella, System.currentTimeMillis())) {
+            return true;
+        }
+
+        boolean valida = verificador.verificar(passwordIngresada, hashActual);
+        if (valida) {
+            verificacionCacheada = new VerificacionCacheada(hashActual, huella, System.currentTimeMillis() + DURACION_CACHE_MS);
+        }
+        return valida;
     }
-    
+
+    /**
+     * Indica si la contraseña guardada debe regenerarse (texto plano o costo menor al configurado)
+     * @param verificador verificador con el costo actual
+     * @return true si hay que volver a hashear la contraseña
+     */
+    public boolean necesitaMigracion(VerificadorPasswords verificador) {
+        return verificador.necesitaRehash(password);
+    }
+
     // ---------------------- MÉTODOS SOBREESCRITOS ----------------------
     @Override
     public boolean equals(Object o) {
@@ -44,16 +92,35 @@ public class Credenciales {
         Credenciales that = (Credenciales) o;
         return Objects.equals(email, that.email);
     }
-    
+
     @Override
     public int hashCode() {
         return Objects.hash(email);
     }
-    
+
     @Override
     public String toString() {
         return "Credenciales{" +
                 "email='" + email + '\'' +
                 '}';
     }
+
+    /**
+     * Resultado de la última verificación exitosa: la huella de la contraseña y hasta cuándo sirve
+     */
+    private static class VerificacionCacheada {
+        private final String hash;
+        private final byte[] huella;
+        private final long vence;
+
+        VerificacionCacheada(String hash, byte[] huella, long vence) {
+            this.hash = hash;
+            this.huella = huella;
+            this.vence = vence;
+        }
+
+        boolean esValidaPara(String hashActual, byte[] huellaIngresada, long ahora) {
+            return ahora < vence && hash.equals(hashActual) && MessageDigest.isEqual(huella, huellaIngresada);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+package usuarios;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Administra las sesiones abiertas del sistema.
+ *
+ * Validar una sesión es una búsqueda en un ConcurrentHashMap más una lectura volátil, sin locks,
+ * porque se hace en cada petición. Las sesiones expiradas se descartan al consultarlas y además
+ * una tarea de fondo las limpia cada cierto tiempo para que no se acumulen las abandonadas.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para sesiones: Usamos ConcurrentHashMap porque necesitamos buscar la sesión
+ *   por token en O(1) desde muchos hilos a la vez, mientras otros hilos abren o cierran sesiones.
+ */
+public class GestorSesiones {
+    public static final Duration INACTIVIDAD_POR_DEFECTO = Duration.ofMinutes(30);
+    private static final long RESOLUCION_ULTIMO_USO_MS = 1000;
+    private static final int BYTES_TOKEN = 32;
+
+    private final Map<String, Sesion> sesiones;
+    private final long inactividadMaximaMs;
+    private final SecureRandom generadorTokens;
+    private final ScheduledExecutorService limpiador;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    private GestorSesiones(Duration inactividadMaxima) {
+        if (inactividadMaxima == null || inactividadMaxima.isNegative() || inactividadMaxima.isZero()) {
+            throw new IllegalArgumentException("El tiempo de inactividad debe ser mayor a 0.");
+        }
+        this.sesiones = new ConcurrentHashMap<>();
+        this.inactividadMaximaMs = inactividadMaxima.toMillis();
+        this.generadorTokens = new SecureRandom();
+        this.limpiador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "limpiador-sesiones");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Crea un gestor con la inactividad por defecto y arranca la limpieza de fondo
+     * @return el gestor de sesiones
+     */
+    public static GestorSesiones iniciar() {
+        return iniciar(INACTIVIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un gestor y arranca la limpieza de fondo. La tarea se programa una vez construido el
+     * gestor, así el hilo del limpiador nunca ve un objeto a medio construir
+     * @param inactividadMaxima tiempo sin uso después del cual una sesión expira
+     * @return el gestor de sesiones
+     */
+    public static GestorSesiones iniciar(Duration inactividadMaxima) {
+        GestorSesiones gestor = new GestorSesiones(inactividadMaxima);
+        long periodo = Math.max(1000, gestor.inactividadMaximaMs / 2);
+        gestor.limpiador.scheduleAtFixedRate(gestor::purgarExpiradas, periodo, periodo, TimeUnit.MILLISECONDS);
+        return gestor;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Abre una sesión nueva para un usuario
+     * @param usuario usuario autenticado
+     * @return la sesión creada
+     */
+    public Sesion crearSesion(Usuario usuario) {
+        if (usuario == null) {
+            throw new IllegalArgumentException("El usuario no puede ser null.");
+        }
+        Sesion sesion = new Sesion(generarToken(), usuario, System.currentTimeMillis());
+        sesiones.put(sesion.getToken(), sesion);
+        return sesion;
+    }
+
+    /**
+     * Busca el usuario dueño de un token y marca la sesión como usada
+     * @param token token de la sesión
+     * @return el usuario de la sesión, o null si el token no existe o la sesión expiró
+     */
+    public Usuario validar(String token) {
+        if (token == null) {
+            return null;
+        }
+        Sesion sesion = sesiones.get(token);
+        if (sesion == null) {
+            return null;
+        }
+
+        long ahora = System.currentTimeMillis();
+        if (sesion.estaExpirada(ahora, inactividadMaximaMs)) {
+            sesiones.remove(token, sesion);
+            return null;
+        }
+        sesion.marcarUso(ahora, RESOLUCION_ULTIMO_USO_MS);
+        return sesion.getUsuario();
+    }
+
+    /**
+     * Cierra una sesión
+     * @param token token de la sesión a cerrar
+     * @return la sesión cerrada, o null si no existía
+     */
+    public Sesion cerrarSesion(String token) {
+        if (token == null) {
+            return null;
+        }
+        return sesiones.remove(token);
+    }
+
+    /**
+     * Cierra todas las sesiones de un usuario (por ejemplo cuando se lo da de baja)
+     * @param email email del usuario
+     */
+    public void cerrarSesionesDe(String email) {
+        sesiones.values().removeIf(sesion -> sesion.getUsuario().getEmail().equals(email));
+    }
+
+    /**
+     * Elimina las sesiones que superaron el tiempo de inactividad
+     */
+    public void purgarExpiradas() {
+        long ahora = System.currentTimeMillis();
+        sesiones.values().removeIf(sesion -> sesion.estaExpirada(ahora, inactividadMaximaMs));
+    }
+
+    /**
+     * @return la cantidad de sesiones abiertas
+     */
+    public int getCantidadSesiones() {
+        return sesiones.size();
+    }
+
+    private String generarToken() {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        generadorTokens.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
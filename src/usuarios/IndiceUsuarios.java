@@ -0,0 +1,304 @@
+package usuarios;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Índices de los usuarios del sistema: por email normalizado, por dni y por id, y además
+ * separados por rol, ordenados por apellido y con búsqueda por prefijo.
+ *
+ * El email se normaliza (sin espacios y en minúsculas) antes de usarlo como clave, así
+ * "Juan@x.com" y " juan@x.com" son la misma cuenta y la búsqueda sigue siendo O(1).
+ *
+ * Para la búsqueda por prefijo cada usuario se guarda bajo cuatro términos normalizados (sin
+ * tildes y en minúsculas): "nombre apellido", "apellido nombre", email y dni. Buscar "per"
+ * encuentra a "Juan Pérez" por el apellido y buscar "juan p" lo encuentra por el nombre completo.
+ * Cada término lleva el id al final para que dos usuarios con el mismo nombre no se pisen.
+ *
+ * El dni no se repite: SistemaAutenticacion rechaza registrar o modificar un usuario con el dni de
+ * otro. Si igual llega uno repetido (por ejemplo, en un archivo editado a mano), el índice por dni
+ * se queda con el primero y no lo pisa.
+ *
+ * Las modificaciones las hace SistemaAutenticacion desde sus métodos sincronizados; las
+ * búsquedas se pueden hacer desde cualquier hilo sin bloquear.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para los índices por email, dni e id: Usamos ConcurrentHashMap porque las
+ *   búsquedas (login, peticiones HTTP, menú de administración) llegan desde varios hilos a la vez y
+ *   no queremos revisar todos los usuarios uno por uno para encontrar uno por dni o por id.
+ *
+ * - ConcurrentSkipListMap para los índices por rol: Usamos un mapa ordenado porque necesitamos
+ *   recorrer los usuarios en orden y obtener solo los que empiezan con un prefijo (subMap) sin
+ *   recorrer el resto. Cada página sigue desde la clave donde terminó la anterior (tailMap), así
+ *   pedir una página lejana no recorre las anteriores. La versión concurrente permite leer mientras se registra otro.
+ *
+ * - EnumMap para separar por rol: Usamos EnumMap porque las claves son los valores de Rol y se
+ *   crea completo en el constructor, después solo se lee.
+ */
+public class IndiceUsuarios {
+    private final Map<String, Usuario> porEmail;
+    private final Map<String, Usuario> porDni;
+    private final Map<Integer, Usuario> porId;
+    private final Map<Rol, ConcurrentSkipListMap<String, Usuario>> ordenPorRol;
+    private final Map<Rol, ConcurrentSkipListMap<String, Usuario>> busquedaPorRol;
+    private final Map<Rol, AtomicInteger> cantidadPorRol;
+    private final Map<Integer, String[]> clavesIndexadas; // id -> claves con las que está en los mapas ordenados
+
+    private static final char SEPARADOR = '\u0000';
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public IndiceUsuarios() {
+        this.porEmail = new ConcurrentHashMap<>();
+        this.porDni = new ConcurrentHashMap<>();
+        this.porId = new ConcurrentHashMap<>();
+        this.ordenPorRol = new EnumMap<>(Rol.class);
+        this.busquedaPorRol = new EnumMap<>(Rol.class);
+        this.cantidadPorRol = new EnumMap<>(Rol.class);
+        for (Rol rol : Rol.values()) {
+            ordenPorRol.put(rol, new ConcurrentSkipListMap<>());
+            busquedaPorRol.put(rol, new ConcurrentSkipListMap<>());
+            cantidadPorRol.put(rol, new AtomicInteger());
+        }
+        this.clavesIndexadas = new ConcurrentHashMap<>();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Normaliza un email para usarlo como clave: sin espacios alrededor y en minúsculas
+     * @param email email tal como lo ingresó el usuario
+     * @return el email normalizado, o null si el email es null
+     */
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normaliza un texto para buscarlo por prefijo: sin tildes, sin espacios alrededor y en minúsculas
+     * @param texto texto a normalizar
+     * @return el texto normalizado ("" si es null)
+     */
+    public static String normalizarTexto(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String recortado = texto.trim();
+        for (int i = 0; i < recortado.length(); i++) {
+            // Solo hace falta quitar tildes si hay algún caracter que no sea ASCII
+            if (recortado.charAt(i) >= 0x80) {
+                recortado = DIACRITICOS.matcher(Normalizer.normalize(recortado, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return recortado.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Agrega (o reemplaza) un usuario en todos los índices
+     * @param usuario usuario a agregar
+     */
+    public void agregar(Usuario usuario) {
+        Usuario anterior = porEmail.put(normalizarEmail(usuario.getEmail()), usuario);
+        if (anterior != null && anterior != usuario) {
+            porId.remove(anterior.getId(), anterior);
+            if (anterior.getDni() != null) {
+                porDni.remove(anterior.getDni(), anterior);
+            }
+            quitarDeOrdenados(anterior);
+            cantidadPorRol.get(anterior.getRol()).decrementAndGet();
+        }
+        porId.put(usuario.getId(), usuario);
+        if (usuario.getDni() != null && !usuario.getDni().isEmpty()) {
+            porDni.putIfAbsent(usuario.getDni(), usuario);
+        }
+        if (anterior != usuario) {
+            cantidadPorRol.get(usuario.getRol()).incrementAndGet();
+        }
+        agregarAOrdenados(usuario);
+    }
+
+    /**
+     * Vuelve a indexar un usuario después de modificar su nombre, apellido o dni
+     * @param usuario usuario modificado (ya tiene los datos nuevos)
+     * @param dniAnterior dni que tenía antes del cambio
+     */
+    public void reindexar(Usuario usuario, String dniAnterior) {
+        if (dniAnterior != null) {
+            porDni.remove(dniAnterior, usuario);
+        }
+        if (usuario.getDni() != null && !usuario.getDni().isEmpty()) {
+            porDni.putIfAbsent(usuario.getDni(), usuario);
+        }
+        quitarDeOrdenados(usuario);
+        agregarAOrdenados(usuario);
+    }
+
+    /**
+     * @param email email del usuario (se normaliza antes de buscar)
+     * @return el usuario con ese email, o null si no existe
+     */
+    public Usuario buscarPorEmail(String email) {
+        String clave = normalizarEmail(email);
+        return clave == null ? null : porEmail.get(clave);
+    }
+
+    /**
+     * @param dni dni del usuario
+     * @return el usuario con ese dni, o null si no existe
+     */
+    public Usuario buscarPorDni(String dni) {
+        return dni == null ? null : porDni.get(dni.trim());
+    }
+
+    /**
+     * @param id id del usuario
+     * @return el usuario con ese id, o null si no existe
+     */
+    public Usuario buscarPorId(int id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Lista una página de los usuarios de un rol ordenados por apellido y nombre
+     * @param rol rol de los usuarios
+     * @param despuesDe posición donde terminó la página anterior (ver PaginaUsuarios), o null para la primera
+     * @param cantidad tamaño máximo de la página
+     * @return los usuarios de la página
+     */
+    public PaginaUsuarios listarPorRol(Rol rol, String despuesDe, int cantidad) {
+        ConcurrentNavigableMap<String, Usuario> orden = ordenPorRol.get(rol);
+        if (despuesDe != null) {
+            orden = orden.tailMap(despuesDe, false);
+        }
+        List<Usuario> pagina = new ArrayList<>(Math.min(cantidad, 64));
+        String ultimaClave = null;
+        for (Map.Entry<String, Usuario> entrada : orden.entrySet()) {
+            if (pagina.size() >= cantidad) {
+                return new PaginaUsuarios(pagina, ultimaClave);
+            }
+            pagina.add(entrada.getValue());
+            ultimaClave = entrada.getKey();
+        }
+        return new PaginaUsuarios(pagina, null);
+    }
+
+    /**
+     * Busca los usuarios de un rol cuyo nombre completo, email o dni empieza con el prefijo.
+     * Solo se recorren las entradas que coinciden desde donde terminó la página anterior, no todos
+     * los usuarios del rol. Un usuario que coincide por más de un término (por ejemplo nombre y
+     * email) aparece una sola vez, en la posición de su primer término
+     * @param rol rol de los usuarios
+     * @param prefijo comienzo del nombre, apellido, email o dni (sin distinguir mayúsculas ni tildes)
+     * @param despuesDe posición donde terminó la página anterior (ver PaginaUsuarios), o null para la primera
+     * @param cantidad tamaño máximo de la página
+     * @return los usuarios de la página, sin repetidos
+     */
+    public PaginaUsuarios buscarPorPrefijo(Rol rol, String prefijo, String despuesDe, int cantidad) {
+        String inicio = normalizarTexto(prefijo);
+        if (inicio.isEmpty()) {
+            return listarPorRol(rol, despuesDe, cantidad);
+        }
+
+        ConcurrentNavigableMap<String, Usuario> coincidencias = busquedaPorRol.get(rol).subMap(inicio, true, inicio + Character.MAX_VALUE, false);
+        if (despuesDe != null) {
+            coincidencias = coincidencias.tailMap(despuesDe, false);
+        }
+        List<Usuario> pagina = new ArrayList<>(Math.min(cantidad, 64));
+        String ultimaClave = null;
+        for (Map.Entry<String, Usuario> entrada : coincidencias.entrySet()) {
+            if (!entrada.getKey().equals(primerTermino(entrada.getValue(), inicio))) {
+                continue;
+            }
+            if (pagina.size() >= cantidad) {
+                return new PaginaUsuarios(pagina, ultimaClave);
+            }
+            pagina.add(entrada.getValue());
+            ultimaClave = entrada.getKey();
+        }
+        return new PaginaUsuarios(pagina, null);
+    }
+
+    /**
+     * @return el menor de los términos del usuario que empieza con el prefijo, o null si no está indexado
+     */
+    private String primerTermino(Usuario usuario, String inicio) {
+        String[] claves = clavesIndexadas.get(usuario.getId());
+        String primero = null;
+        for (int i = 1; claves != null && i < claves.length; i++) {
+            if (claves[i].startsWith(inicio) && (primero == null || claves[i].compareTo(primero) < 0)) {
+                primero = claves[i];
+            }
+        }
+        return primero;
+    }
+
+    /**
+     * @param rol rol de los usuarios
+     * @return la cantidad de usuarios con ese rol
+     */
+    public int getCantidadPorRol(Rol rol) {
+        return cantidadPorRol.get(rol).get();
+    }
+
+    /**
+     * @return una vista (no una copia) de todos los usuarios indexados
+     */
+    public Collection<Usuario> todos() {
+        return porEmail.values();
+    }
+
+    public boolean estaVacio() {
+        return porEmail.isEmpty();
+    }
+
+    public int getCantidad() {
+        return porEmail.size();
+    }
+
+    private void agregarAOrdenados(Usuario usuario) {
+        String sufijo = SEPARADOR + String.valueOf(usuario.getId());
+        String nombre = normalizarTexto(usuario.getNombre());
+        String apellido = normalizarTexto(usuario.getApellido());
+        String claveOrden = apellido + " " + nombre + sufijo;
+        String[] terminos = {
+                nombre + " " + apellido + sufijo,
+                apellido + " " + nombre + sufijo,
+                normalizarTexto(usuario.getEmail()) + sufijo,
+                normalizarTexto(usuario.getDni()) + sufijo
+        };
+
+        ordenPorRol.get(usuario.getRol()).put(claveOrden, usuario);
+        ConcurrentSkipListMap<String, Usuario> busqueda = busquedaPorRol.get(usuario.getRol());
+        for (String termino : terminos) {
+            busqueda.put(termino, usuario);
+        }
+
+        String[] claves = new String[terminos.length + 1];
+        claves[0] = claveOrden;
+        System.arraycopy(terminos, 0, claves, 1, terminos.length);
+        clavesIndexadas.put(usuario.getId(), claves);
+    }
+
+    private void quitarDeOrdenados(Usuario usuario) {
+        String[] claves = clavesIndexadas.remove(usuario.getId());
+        if (claves == null) {
+            return;
+        }
+        ordenPorRol.get(usuario.getRol()).remove(claves[0], usuario);
+        ConcurrentSkipListMap<String, Usuario> busqueda = busquedaPorRol.get(usuario.getRol());
+        for (int i = 1; i < claves.length; i++) {
+            busqueda.remove(claves[i], usuario);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package usuarios;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Limita los intentos de inicio de sesión por clave (email u origen) con cubetas de tokens.
+ *
+ * Solo las claves con fallos tienen cubeta: un intento de una clave sin fallos se consulta con una
+ * búsqueda en el mapa, sin crear nada, y la cubeta se crea (gastando un token) recién cuando el
+ * intento falla (registrarFallo). Así los logins correctos no ocupan lugar en el mapa.
+ *
+ * Si la clave ya tiene cubeta, el intento toma un token antes de calcular el hash de la contraseña,
+ * y los tokens se recargan con el tiempo. Tomarlo es atómico: si llegan muchos intentos a la vez,
+ * solo pasan tantos como tokens haya, y los demás se rechazan sin gastar CPU en el hash. Si el
+ * intento resulta exitoso, quien lo llamó devuelve el token (devolverIntento) o borra los fallos
+ * de la clave (limpiar). Los intentos de una clave sin fallos que llegan a la vez antes de que
+ * termine el primero pasan todos: a partir del primer fallo la clave ya tiene cubeta.
+ *
+ * Las cubetas que se recargaron por completo ya no aportan información y se descartan. Cada clave
+ * nueva revisa unas pocas cubetas, de la más antigua a la más nueva: descarta las llenas y manda
+ * al final las que siguen en uso, así el trabajo por fallo es constante. El mapa tiene un tamaño
+ * máximo: si está lleno, la clave nueva desaloja a la cubeta más antigua. Rechazar las claves
+ * nuevas con el mapa lleno dejaría a cualquiera sin poder iniciar sesión llenándolo de claves
+ * inventadas; desalojando, lo peor que logra es olvidar fallos viejos.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para las cubetas: Usamos ConcurrentHashMap porque los logins llegan desde
+ *   muchos hilos a la vez y la consulta por clave tiene que ser O(1) y sin bloquear.
+ *
+ * - ConcurrentLinkedQueue para el orden de revisión: agregar al final y sacar la más antigua son
+ *   O(1) y sin lock. Puede tener cubetas ya descartadas (por ejemplo con limpiar): se saltean al
+ *   sacarlas.
+ */
+public class LimitadorIntentos {
+    /**
+     * Resultado de tomarIntento para una clave sin fallos: el intento puede hacerse pero no tomó
+     * ningún token, así que si falla hay que contarlo con registrarFallo
+     */
+    public static final long SIN_FALLOS = -1;
+    // Cubetas que revisa cada clave nueva (alcanza con más de una para que la cola no crezca)
+    private static final int REVISADAS_POR_CLAVE_NUEVA = 4;
+    private final Map<String, Cubeta> cubetas;
+    private final Queue<Cubeta> orden;
+    private final int capacidad;
+    private final long nanosPorToken;
+    private final int maximoClaves;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param capacidad intentos fallidos permitidos seguidos antes de bloquear
+     * @param segundosPorToken cada cuántos segundos se recupera un intento
+     * @param maximoClaves cantidad máxima de claves que se siguen a la vez
+     */
+    public LimitadorIntentos(int capacidad, long segundosPorToken, int maximoClaves) {
+        if (capacidad <= 0 || segundosPorToken <= 0 || maximoClaves <= 0) {
+            throw new IllegalArgumentException("La capacidad, la recarga y el máximo de claves deben ser mayores a 0.");
+        }
+        this.cubetas = new ConcurrentHashMap<>();
+        this.orden = new ConcurrentLinkedQueue<>();
+        this.capacidad = capacidad;
+        this.nanosPorToken = segundosPorToken * 1_000_000_000L;
+        this.maximoClaves = maximoClaves;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Consulta si la clave puede hacer un intento. Si la clave tiene fallos, toma un token de su
+     * cubeta; si no tiene, no crea nada
+     * @param clave email u origen del intento
+     * @return 0 si se tomó un token, SIN_FALLOS si la clave no tiene fallos (o es null), o los
+     * segundos que faltan para que haya un token (el intento no debe hacerse)
+     */
+    public long tomarIntento(String clave) {
+        if (clave == null) {
+            return SIN_FALLOS;
+        }
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta == null) {
+            return SIN_FALLOS;
+        }
+        long nanos = cubeta.tomar(System.nanoTime(), capacidad, nanosPorToken);
+        return nanos == 0 ? 0 : Math.max(1, nanos / 1_000_000_000L);
+    }
+
+    /**
+     * Cuenta el fallo de un intento que no tomó token (tomarIntento devolvió SIN_FALLOS): crea la
+     * cubeta de la clave si no tiene y le gasta un token
+     * @param clave email u origen del intento
+     */
+    public void registrarFallo(String clave) {
+        if (clave == null) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta == null) {
+            hacerLugar(ahora);
+            Cubeta nueva = new Cubeta(clave, capacidad, ahora);
+            cubeta = cubetas.putIfAbsent(clave, nueva);
+            if (cubeta == null) {
+                cubeta = nueva;
+                orden.add(nueva);
+            }
+        }
+        cubeta.tomar(ahora, capacidad, nanosPorToken);
+    }
+
+    /**
+     * Devuelve el token de un intento que no hay que contar (por ejemplo un login exitoso)
+     * @param clave email u origen del intento
+     */
+    public void devolverIntento(String clave) {
+        if (clave == null) {
+            return;
+        }
+        Cubeta cubeta = cubetas.get(clave);
+        if (cubeta != null && cubeta.devolver(System.nanoTime(), capacidad, nanosPorToken)) {
+            // Llena no aporta información: se descarta (solo si sigue siendo la misma cubeta)
+            cubetas.remove(clave, cubeta);
+        }
+    }
+
+    /**
+     * Olvida los fallos de una clave (por ejemplo después de un login exitoso)
+     * @param clave email u origen del intento
+     */
+    public void limpiar(String clave) {
+        if (clave != null && !cubetas.isEmpty()) {
+            cubetas.remove(clave);
+        }
+    }
+
+    /**
+     * @return la cantidad de claves que se están siguiendo
+     */
+    public int getCantidadClaves() {
+        return cubetas.size();
+    }
+
+    /**
+     * Revisa las cubetas más antiguas: descarta las que ya se recargaron por completo y pasa al
+     * final las que siguen en uso. Si aun así el mapa está lleno, desaloja las más antiguas hasta
+     * que haya lugar para una clave nueva
+     */
+    private void hacerLugar(long ahora) {
+        for (int i = 0; i < REVISADAS_POR_CLAVE_NUEVA; i++) {
+            Cubeta cubeta = orden.poll();
+            if (cubeta == null) {
+                break;
+            }
+            if (cubetas.get(cubeta.clave) != cubeta) {
+                continue; // ya se descartó
+            }
+            if (cubeta.estaLlena(ahora, capacidad, nanosPorToken)) {
+                cubetas.remove(cubeta.clave, cubeta);
+            } else {
+                orden.add(cubeta);
+            }
+        }
+        while (cubetas.size() >= maximoClaves) {
+            Cubeta masAntigua = orden.poll();
+            if (masAntigua == null) {
+                break;
+            }
+            cubetas.remove(masAntigua.clave, masAntigua);
+        }
+    }
+
+    /**
+     * Cubeta de tokens de una clave. Los tokens se recalculan a partir del tiempo transcurrido
+     * cada vez que se usa, no hace falta ningún hilo que los recargue
+     */
+    private static class Cubeta {
+        private final String clave;
+        private double tokens;
+        private long ultimaRecarga;
+
+        Cubeta(String clave, int capacidad, long ahora) {
+            this.clave = clave;
+            this.tokens = capacidad;
+            this.ultimaRecarga = ahora;
+        }
+
+        /**
+         * @return 0 si tomó un token, o los nanosegundos que faltan para que haya uno
+         */
+        synchronized long tomar(long ahora, int capacidad, long nanosPorToken) {
+            recargar(ahora, capacidad, nanosPorToken);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) * nanosPorToken));
+        }
+
+        /**
+         * @return true si la cubeta quedó llena
+         */
+        synchronized boolean devolver(long ahora, int capacidad, long nanosPorToken) {
+            recargar(ahora, capacidad, nanosPorToken);
+            tokens = Math.min(capacidad, tokens + 1);
+            return tokens >= capacidad;
+        }
+
+        synchronized boolean estaLlena(long ahora, int capacidad, long nanosPorToken) {
+            recargar(ahora, capacidad, nanosPorToken);
+            return tokens >= capacidad;
+        }
+
+        private void recargar(long ahora, int capacidad, long nanosPorToken) {
+            tokens = Math.min(capacidad, tokens + (double) (ahora - ultimaRecarga) / nanosPorToken);
+            ultimaRecarga = ahora;
+        }
+    }
+}
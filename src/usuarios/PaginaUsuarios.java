@@ -0,0 +1,33 @@
+package usuarios;
+
+import java.util.List;
+
+/**
+ * Una página de un listado de usuarios, con la posición desde donde sigue la página siguiente.
+ *
+ * La posición es la clave del último usuario de la página en el índice (ver IndiceUsuarios): la
+ * página siguiente empieza justo después de esa clave, sin recorrer las anteriores, y no saltea ni
+ * repite usuarios aunque se registren otros entre una página y la siguiente.
+ */
+public class PaginaUsuarios {
+    private final List<Usuario> usuarios;
+    private final String siguiente;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    PaginaUsuarios(List<Usuario> usuarios, String siguiente) {
+        this.usuarios = usuarios;
+        this.siguiente = siguiente;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+
+    /**
+     * @return la posición para pedir la página siguiente, o null si esta es la última
+     */
+    public String getSiguiente() {
+        return siguiente;
+    }
+}
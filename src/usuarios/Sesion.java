@@ -0,0 +1,57 @@
+package usuarios;
+
+/**
+ * Sesión de un usuario autenticado, identificada por un token opaco.
+ * Guarda el momento del último uso para poder expirarla por inactividad.
+ */
+public class Sesion {
+    private final String token;
+    private final Usuario usuario;
+    private final long creadaEn;
+    private volatile long ultimoUso;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public Sesion(String token, Usuario usuario, long ahora) {
+        this.token = token;
+        this.usuario = usuario;
+        this.creadaEn = ahora;
+        this.ultimoUso = ahora;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public String getToken() {
+        return token;
+    }
+    public Usuario getUsuario() {
+        return usuario;
+    }
+    public long getCreadaEn() {
+        return creadaEn;
+    }
+    public long getUltimoUso() {
+        return ultimoUso;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Registra un uso de la sesión. Solo escribe si pasó al menos "resolucion" ms desde el último
+     * registro, así miles de peticiones por segundo sobre la misma sesión no escriben todas el mismo campo
+     * @param ahora momento actual en milisegundos
+     * @param resolucion cada cuántos milisegundos como mínimo se actualiza el último uso
+     */
+    void marcarUso(long ahora, long resolucion) {
+        if (ahora - ultimoUso >= resolucion) {
+            ultimoUso = ahora;
+        }
+    }
+
+    /**
+     * Indica si la sesión lleva más tiempo inactiva que el permitido
+     * @param ahora momento actual en milisegundos
+     * @param inactividadMaxima tiempo máximo de inactividad en milisegundos
+     * @return true si la sesión expiró
+     */
+    boolean estaExpirada(long ahora, long inactividadMaxima) {
+        return ahora - ultimoUso > inactividadMaxima;
+    }
+}
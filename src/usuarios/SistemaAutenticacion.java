@@ -3,12 +3,20 @@ package usuarios;
 import usuarios.clientes.Cliente;
 import usuarios.vendedores.Vendedor;
 import persistencia.GestorUsuariosJSON;
+import org.json.JSONObject;
 import excepciones.UsuarioYaExisteException;
 import excepciones.PasswordInvalidaException;
 import excepciones.CredencialesInvalidasException;
+import excepciones.DemasiadosIntentosException;
 import excepciones.ErrorPersistenciaException;
 import excepciones.UsuarioNoEncontradoException;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import registro.Bitacora;
+import utilidades.CargaDiferida;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.io.File;
 
 /**
@@ -17,28 +25,78 @@ import java.io.File;
  * - HashMap para credenciales: Usamos HashMap porque necesitamos buscar credenciales rápidamente
  *   por el email del usuario sin tener que revisar todas las credenciales una por una.
  *
- * - HashMap para usuarios: Usamos HashMap porque necesitamos buscar usuarios rápidamente por su
- *   email sin tener que revisar todos los usuarios uno por uno.
+ * - IndiceUsuarios para usuarios: guarda los usuarios indexados por email normalizado, dni e id
+ *   (ver IndiceUsuarios), así las búsquedas no distinguen mayúsculas y no revisan la lista completa.
+ *   Las credenciales también se guardan con el email normalizado como clave.
+ *
+ * - ConcurrentHashMap en lugar de HashMap: el servidor HTTP atiende varias peticiones a la vez,
+ *   así que las búsquedas de credenciales y usuarios pueden ocurrir mientras otro hilo registra
+ *   un usuario nuevo. ConcurrentHashMap permite esas lecturas sin bloquear y sin romper el mapa.
  *
  * - ArrayList para listar usuarios: Usamos ArrayList cuando necesitamos devolver una lista de
  *   todos los usuarios que podemos recorrer en orden.
+ *
+ * El archivo de usuarios se lee en otro hilo al crear el sistema (CargaDiferida): las operaciones
+ * que usan usuarios o credenciales esperan a que termine (esperarCarga), las demás no.
  */
 public class SistemaAutenticacion {
     private Map<String, Credenciales> credenciales;
-    private Map<String, Usuario> usuarios;
-    private Usuario usuarioActual;
+    private IndiceUsuarios usuarios;
+    private CargaDiferida<Integer> carga;
+    private GestorSesiones gestorSesiones;
+    private VerificadorPasswords verificadorPasswords;
+    private LimitadorIntentos limitadorPorEmail;
+    private LimitadorIntentos limitadorPorOrigen;
+    private String sesionConsola; // token de la sesión abierta desde el menú de consola
     private GestorUsuariosJSON gestorUsuariosJSON;
-    private static final String ARCHIVO_USUARIOS = "data/usuarios.json";
+    private String archivoUsuarios;
+    // Ordena las escrituras del archivo: copiasTomadas se cuenta con el lock de este objeto, y
+    // copiaGrabada (la última copia escrita) con el de escrituraArchivo
+    private final Object escrituraArchivo = new Object();
+    private long copiasTomadas;
+    private long copiaGrabada;
+    public static final String ARCHIVO_USUARIOS = "data/usuarios.json";
+    // Límites de intentos fallidos: 5 seguidos por cuenta (uno más por minuto) y 20 por origen (uno más cada 3 segundos)
+    private static final int INTENTOS_POR_EMAIL = 5;
+    private static final long SEGUNDOS_RECARGA_EMAIL = 60;
+    private static final int INTENTOS_POR_ORIGEN = 20;
+    private static final long SEGUNDOS_RECARGA_ORIGEN = 3;
+    private static final int MAXIMO_CLAVES_LIMITADAS = 100_000;
+    private static final Bitacora BITACORA = Bitacora.de(SistemaAutenticacion.class);
+    private static final HistogramaLatencias TIEMPO_LOGIN = Metricas.temporizador("autenticacion.login");
+    private static final HistogramaLatencias TIEMPO_BUSQUEDA = Metricas.temporizador("autenticacion.buscarUsuarios");
+    private static final LongAdder LOGINS_FALLIDOS = Metricas.contador("autenticacion.login.fallidos");
+    private static final LongAdder LOGINS_BLOQUEADOS = Metricas.contador("autenticacion.login.bloqueados");
     
     // ---------------------- CONSTRUCTORES ----------------------
     public SistemaAutenticacion() {
-        this.credenciales = new HashMap<>();
-        this.usuarios = new HashMap<>();
-        this.usuarioActual = null;
+        this(ARCHIVO_USUARIOS);
+    }
+
+    /**
+     * @param archivoUsuarios archivo JSON de donde se cargan y donde se guardan los usuarios
+     */
+    public SistemaAutenticacion(String archivoUsuarios) {
+        this.archivoUsuarios = archivoUsuarios;
+        this.credenciales = new ConcurrentHashMap<>();
+        this.usuarios = new IndiceUsuarios();
+        this.gestorSesiones = GestorSesiones.iniciar();
+        this.verificadorPasswords = new VerificadorPasswords();
+        this.limitadorPorEmail = new LimitadorIntentos(INTENTOS_POR_EMAIL, SEGUNDOS_RECARGA_EMAIL, MAXIMO_CLAVES_LIMITADAS);
+        this.limitadorPorOrigen = new LimitadorIntentos(INTENTOS_POR_ORIGEN, SEGUNDOS_RECARGA_ORIGEN, MAXIMO_CLAVES_LIMITADAS);
+        this.sesionConsola = null;
         this.gestorUsuariosJSON = new GestorUsuariosJSON();
         
-        // Cargar usuarios desde archivo JSON al inicializar
-        cargarUsuariosDesdeArchivo();
+        // Los usuarios se cargan en otro hilo; las operaciones que los necesitan esperan la carga (esperarCarga)
+        this.carga = new CargaDiferida<>("usuarios", this::cargarUsuariosDesdeArchivo);
+        this.carga.iniciar();
+    }
+
+    /**
+     * Espera a que terminen de cargarse los usuarios del archivo (si ya se cargaron vuelve enseguida)
+     */
+    private void esperarCarga() {
+        carga.obtener();
     }
     
     // ----------------------REGISTRO ----------------------
@@ -55,30 +113,50 @@ public class SistemaAutenticacion {
         if (usuario == null || password == null || password.trim().isEmpty()) {
             throw new PasswordInvalidaException("Usuario o contraseña inválidos.");
         }
+        esperarCarga();
         
-        String email = usuario.getEmail();
+        String email = IndiceUsuarios.normalizarEmail(usuario.getEmail());
 
-        // Verifica si ya existe un usuario con ese email
-        if (credenciales.containsKey(email)) {
-            throw new UsuarioYaExisteException("Ya existe un usuario con este email: " + email);
+        // Verifica si ya existe un usuario con ese email (sin distinguir mayúsculas)
+        if (email == null || credenciales.containsKey(email)) {
+            throw new UsuarioYaExisteException("Ya existe un usuario con este email: " + usuario.getEmail());
         }
+        exigirDniLibre(usuario);
 
         // Verifica que la contraseña tenga más de 6 caracteres
         if (password.length() < 6) {
             throw new PasswordInvalidaException("La contraseña debe tener al menos 6 caracteres.");
         }
         
-        // Creamos credenciales y registramos el usuario
-        Credenciales creds = new Credenciales(email, password);
-        credenciales.put(email, creds);
-        usuarios.put(email, usuario);
+        // Creamos credenciales guardando solo el hash de la contraseña (se calcula fuera del lock)
+        Credenciales creds = new Credenciales(usuario.getEmail(), verificadorPasswords.hashear(password));
         
-        // Guardamos el usuario en el archivo
-        guardarUsuariosEnArchivo();
+        synchronized (this) {
+            // Volvemos a verificar por si otro hilo registró el mismo email mientras calculábamos el hash
+            if (credenciales.containsKey(email)) {
+                throw new UsuarioYaExisteException("Ya existe un usuario con este email: " + usuario.getEmail());
+            }
+            exigirDniLibre(usuario);
+            credenciales.put(email, creds);
+            usuarios.agregar(usuario);
+            
+            // Guardamos el usuario en el archivo
+            guardarUsuariosEnArchivo();
+        }
         
-        System.out.println("✅ Usuario registrado exitosamente.");
+        BITACORA.info("usuarios.registrado", "Usuario registrado: " + usuario.getEmail(), "email", usuario.getEmail(),
+                "rol", String.valueOf(usuario.getRol()));
         return true;
     }
+
+    /**
+     * @throws UsuarioYaExisteException si otro usuario ya tiene el dni del usuario
+     */
+    private void exigirDniLibre(Usuario usuario) throws UsuarioYaExisteException {
+        if (usuario.getDni() != null && usuarios.buscarPorDni(usuario.getDni()) != null) {
+            throw new UsuarioYaExisteException("Ya existe un usuario con este DNI: " + usuario.getDni());
+        }
+    }
     
     // ---------------------- LOGIN ----------------------
     /**
@@ -89,8 +167,112 @@ public class SistemaAutenticacion {
      * @return true o false si el usuario se pudo loguear o no
      */
     public boolean login(String email, String password) throws CredencialesInvalidasException {
+        if (sesionConsola != null) {
+            gestorSesiones.cerrarSesion(sesionConsola);
+        }
+        sesionConsola = iniciarSesion(email, password);
+        System.out.println("✅ Login exitoso. Bienvenido, " + getUsuarioActual().getNombre() + "!");
+        return true;
+    }
+
+    /**
+     *  Autentica al usuario y le abre una sesión propia
+     * @param email email del usuario que quiere acceder al sistema
+     * @param password contraseña del usuario que quiere acceder al sistema
+     * @throws CredencialesInvalidasException si las credenciales no son validas
+     * @return el token de la sesión creada
+     */
+    public String iniciarSesion(String email, String password) throws CredencialesInvalidasException {
+        return iniciarSesion(email, password, null);
+    }
+
+    /**
+     *  Autentica al usuario y le abre una sesión propia, aplicando también el límite de intentos por origen
+     * @param email email del usuario que quiere acceder al sistema
+     * @param password contraseña del usuario que quiere acceder al sistema
+     * @param origen dirección desde donde llega el intento (puede ser null)
+     * @throws CredencialesInvalidasException si las credenciales no son validas
+     * @throws DemasiadosIntentosException si el email o el origen superaron el límite de intentos fallidos
+     * @return el token de la sesión creada
+     */
+    public String iniciarSesion(String email, String password, String origen) throws CredencialesInvalidasException {
+        Usuario usuario = autenticar(email, password, origen);
+        return gestorSesiones.crearSesion(usuario).getToken();
+    }
+
+    /**
+     *  Verifica las credenciales de un usuario sin abrirle una sesión
+     * @param email email del usuario que quiere acceder al sistema
+     * @param password contraseña del usuario que quiere acceder al sistema
+     * @throws CredencialesInvalidasException si las credenciales no son validas
+     * @return el usuario autenticado
+     */
+    public Usuario autenticar(String email, String password) throws CredencialesInvalidasException {
+        return autenticar(email, password, null);
+    }
+
+    /**
+     *  Verifica las credenciales de un usuario aplicando los límites de intentos fallidos por email y por origen.
+     *  Si el email o el origen ya tienen fallos, el intento toma un token de su límite antes de calcular el hash
+     *  de la contraseña (si no hay, se rechaza sin calcularlo). Un login correcto devuelve los tokens y uno
+     *  fallido se cuenta en los límites que todavía no lo contaron
+     * @param email email del usuario que quiere acceder al sistema
+     * @param password contraseña del usuario que quiere acceder al sistema
+     * @param origen dirección desde donde llega el intento (puede ser null)
+     * @throws CredencialesInvalidasException si las credenciales no son validas
+     * @throws DemasiadosIntentosException si el email o el origen superaron el límite de intentos fallidos
+     * @return el usuario autenticado
+     */
+    public Usuario autenticar(String email, String password, String origen) throws CredencialesInvalidasException {
+        String clave = IndiceUsuarios.normalizarEmail(email);
+        long porEmail = limitadorPorEmail.tomarIntento(clave);
+        long porOrigen = LimitadorIntentos.SIN_FALLOS;
+        if (porEmail <= 0) {
+            porOrigen = limitadorPorOrigen.tomarIntento(origen);
+            if (porOrigen > 0 && porEmail == 0) {
+                // El intento no se hace: no cuenta contra la cuenta
+                limitadorPorEmail.devolverIntento(clave);
+            }
+        }
+        long espera = Math.max(porEmail, porOrigen);
+        if (espera > 0) {
+            LOGINS_BLOQUEADOS.increment();
+            throw new DemasiadosIntentosException("Demasiados intentos fallidos. Intente nuevamente en " + espera + " segundos.", espera);
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Usuario usuario = verificarCredenciales(email, password);
+            limitadorPorEmail.limpiar(clave);
+            if (porOrigen == 0) {
+                limitadorPorOrigen.devolverIntento(origen);
+            }
+            return usuario;
+        } catch (CredencialesInvalidasException e) {
+            LOGINS_FALLIDOS.increment();
+            if (porEmail == LimitadorIntentos.SIN_FALLOS) {
+                limitadorPorEmail.registrarFallo(clave);
+            }
+            if (porOrigen == LimitadorIntentos.SIN_FALLOS) {
+                limitadorPorOrigen.registrarFallo(origen);
+            }
+            throw e;
+        } finally {
+            TIEMPO_LOGIN.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     *  Verifica email, contraseña y estado del usuario
+     * @param email email del usuario que quiere acceder al sistema
+     * @param password contraseña del usuario que quiere acceder al sistema
+     * @throws CredencialesInvalidasException si las credenciales no son validas
+     * @return el usuario autenticado
+     */
+    private Usuario verificarCredenciales(String email, String password) throws CredencialesInvalidasException {
+        esperarCarga();
         // Verifica si hay usuarios registrados
-        if (usuarios.isEmpty() || credenciales.isEmpty()) {
+        if (usuarios.estaVacio() || credenciales.isEmpty()) {
             throw new CredencialesInvalidasException("No hay usuarios registrados en el sistema. Por favor, regístrese primero antes de iniciar sesión.");
         }
 
@@ -100,56 +282,95 @@ public class SistemaAutenticacion {
         }
 
         // Verifica que el usuario tenga una cuenta en el sistema
-        Credenciales creds = credenciales.get(email);
+        Credenciales creds = credenciales.get(IndiceUsuarios.normalizarEmail(email));
         if (creds == null) {
             throw new CredencialesInvalidasException("Usuario no encontrado: " + email);
         }
 
         // Verifica que la contraseña sea correcta
-        if (creds.verificarPassword(password)) {
-            Usuario usuario = usuarios.get(email);
+        if (creds.verificarPassword(password, verificadorPasswords)) {
+            Usuario usuario = usuarios.buscarPorEmail(email);
             
             // Verifica que el usuario esté activo (estado = 1)
             if (usuario.getEstado() == 0) {
                 throw new CredencialesInvalidasException("No se puede iniciar sesión. El usuario está inactivo. Contacte al administrador.");
             }
             
-            usuarioActual = usuario;
-            usuarioActual.actualizarUltimoAcceso();
-            System.out.println("✅ Login exitoso. Bienvenido, " + usuarioActual.getNombre() + "!");
-            return true;
+            // Las cuentas con la contraseña en texto plano (o con un hash de menor costo) se migran ahora
+            if (creds.necesitaMigracion(verificadorPasswords)) {
+                migrarPassword(creds, password);
+            }
+            
+            usuario.actualizarUltimoAcceso();
+            return usuario;
         } else {
             throw new CredencialesInvalidasException("Contraseña incorrecta para el usuario: " + email);
         }
     }
 
+    /**
+     *  Reemplaza la contraseña guardada por su hash con el costo actual y guarda el archivo
+     * @param creds credenciales a migrar
+     * @param password contraseña en texto plano, ya verificada
+     */
+    private void migrarPassword(Credenciales creds, String password) {
+        // El hash se calcula fuera del lock para no frenar a los demás hilos que guardan usuarios
+        String nuevoHash = verificadorPasswords.hashear(password);
+        synchronized (this) {
+            if (creds.necesitaMigracion(verificadorPasswords)) {
+                creds.setPassword(nuevoHash);
+                guardarUsuariosEnArchivo();
+            }
+        }
+    }
+
     /**
      *  Cierre de sesión
      */
     public void logout() {
-        if (usuarioActual != null) {
-            System.out.println("👋 Hasta luego, " + usuarioActual.getNombre() + "!");
-            usuarioActual = null;
+        Usuario usuario = getUsuarioActual();
+        if (usuario != null) {
+            System.out.println("👋 Hasta luego, " + usuario.getNombre() + "!");
         } else {
             System.out.println("❌ No hay usuario logueado.");
         }
+        gestorSesiones.cerrarSesion(sesionConsola);
+        sesionConsola = null;
+    }
+
+    /**
+     *  Cierra una sesión
+     * @param token token de la sesión a cerrar
+     * @return true si la sesión existía
+     */
+    public boolean cerrarSesion(String token) {
+        return gestorSesiones.cerrarSesion(token) != null;
+    }
+
+    /**
+     *  Obtiene el usuario dueño de una sesión
+     * @param token token de la sesión
+     * @return el usuario de la sesión, o null si la sesión no existe o expiró
+     */
+    public Usuario obtenerUsuarioDeSesion(String token) {
+        return gestorSesiones.validar(token);
     }
     
     // ---------------------- METODOS  ----------------------
 
     /**
-     *  Obtiene el usuario que esta usando el sistema en ese momento
-     * @return el usuario actual
+     *  Obtiene el usuario que esta usando el sistema desde la consola
+     * @return el usuario actual, o null si no hay sesión o expiró
      */
     public Usuario getUsuarioActual() {
-        return usuarioActual;
+        return gestorSesiones.validar(sesionConsola);
     }
 
     /**
      *  Indica con true/false si el usuario está logueado
      */
     public boolean estaLogueado() {
-        return usuarioActual != null;
+        return getUsuarioActual() != null;
     }
 
     /**
@@ -157,20 +378,57 @@ public class SistemaAutenticacion {
      * @return una lista con todos los usuarios del sistema
      */
     public List<Usuario> listarUsuarios() {
-        return new ArrayList<>(usuarios.values());
+        esperarCarga();
+        return new ArrayList<>(usuarios.todos());
     }
 
+
+    /**
+     *  Lista una página de los usuarios de un rol, ordenados por apellido y nombre, o solo los que
+     *  empiezan con el texto buscado (nombre, apellido, email o dni)
+     * @param rol rol de los usuarios a listar
+     * @param texto comienzo del nombre, apellido, email o dni (vacío o null para listar todos)
+     * @param despuesDe posición donde terminó la página anterior (PaginaUsuarios.getSiguiente), o null para la primera
+     * @param cantidad tamaño máximo de la página
+     * @return los usuarios de la página y la posición de la siguiente
+     */
+    public PaginaUsuarios buscarUsuarios(Rol rol, String texto, String despuesDe, int cantidad) {
+        if (rol == null || cantidad <= 0) {
+            throw new IllegalArgumentException("El rol es obligatorio y 'cantidad' debe ser mayor a 0.");
+        }
+        esperarCarga();
+        long inicio = System.nanoTime();
+        try {
+            return usuarios.buscarPorPrefijo(rol, texto, despuesDe, cantidad);
+        } finally {
+            TIEMPO_BUSQUEDA.registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * @param rol rol de los usuarios
+     * @return la cantidad de usuarios registrados con ese rol
+     */
+    public int getCantidadUsuarios(Rol rol) {
+        esperarCarga();
+        return usuarios.getCantidadPorRol(rol);
+    }
     
     /**
-     * Verifica si hay usuarios registrados en el sistema
+     * Verifica si hay usuarios registrados en el sistema. No espera la carga: mientras se leen los
+     * usuarios alcanza con que el archivo tenga datos, porque solo se escribe al guardar usuarios
+     * (así el menú de consola aparece sin esperar a que se lea el archivo)
      * @return true/false si hay usuarios registrados o no
      */
     public boolean hayUsuariosRegistrados() {
-        return !usuarios.isEmpty() && !credenciales.isEmpty();
+        if (!carga.estaLista()) {
+            return new File(archivoUsuarios).length() > 0;
+        }
+        return !usuarios.estaVacio() && !credenciales.isEmpty();
     }
     
     /**
-     * Busca un usuario por su email
+     * Busca un usuario por su email (sin distinguir mayúsculas ni espacios alrededor)
      * @param email el email del usuario a buscar
      * @throws UsuarioNoEncontradoException si no encuentra el usuario
      * @return el usuario del sisitema que coincida con el email ingresado
@@ -179,8 +437,9 @@ public class SistemaAutenticacion {
         if (email == null || email.trim().isEmpty()) {
             throw new UsuarioNoEncontradoException("El email no puede ser nulo o vacío.");
         }
+        esperarCarga();
         
-        Usuario usuario = usuarios.get(email);
+        Usuario usuario = usuarios.buscarPorEmail(email);
         if (usuario == null) {
             throw new UsuarioNoEncontradoException("Usuario no encontrado con email: " + email, email);
         }
@@ -188,6 +447,42 @@ public class SistemaAutenticacion {
         return usuario;
     }
 
+    /**
+     * Busca un usuario por su dni
+     * @param dni el dni del usuario a buscar
+     * @throws UsuarioNoEncontradoException si no encuentra el usuario
+     * @return el usuario del sistema con ese dni
+     */
+    public Usuario buscarUsuarioPorDni(String dni) throws UsuarioNoEncontradoException {
+        if (dni == null || dni.trim().isEmpty()) {
+            throw new UsuarioNoEncontradoException("El DNI no puede ser nulo o vacío.");
+        }
+
+        esperarCarga();
+        Usuario usuario = usuarios.buscarPorDni(dni);
+        if (usuario == null) {
+            throw new UsuarioNoEncontradoException("Usuario no encontrado con DNI: " + dni);
+        }
+
+        return usuario;
+    }
+
+    /**
+     * Busca un usuario por su id
+     * @param id el id del usuario a buscar
+     * @throws UsuarioNoEncontradoException si no encuentra el usuario
+     * @return el usuario del sistema con ese id
+     */
+    public Usuario buscarUsuarioPorId(int id) throws UsuarioNoEncontradoException {
+        esperarCarga();
+        Usuario usuario = usuarios.buscarPorId(id);
+        if (usuario == null) {
+            throw new UsuarioNoEncontradoException("Usuario no encontrado con ID: " + id, id);
+        }
+
+        return usuario;
+    }
+
     
     /**
      * Da de baja lógica a un usuario (estado = 0 = Inactivo)
@@ -197,16 +492,30 @@ public class SistemaAutenticacion {
      * @return true si el usuario se pudo dar de baja
      */
     public boolean darBajaUsuario(String email) throws UsuarioNoEncontradoException {
+        return darBajaUsuario(email, getUsuarioActual());
+    }
+
+    /**
+     * Da de baja lógica a un usuario (estado = 0 = Inactivo)
+     * No permite que el solicitante se dé de baja a sí mismo
+     * @param email Email del usuario a dar de baja
+     * @param solicitante usuario que pide la baja (puede ser null)
+     * @throws UsuarioNoEncontradoException en caso de no encontrar el usuario
+     * @return true si el usuario se pudo dar de baja
+     */
+    public synchronized boolean darBajaUsuario(String email, Usuario solicitante) throws UsuarioNoEncontradoException {
         Usuario usuario = buscarUsuarioPorEmail(email);
         
-        // No permitir dar de baja al usuario actual
-        if (usuarioActual != null && usuarioActual.getEmail().equals(email)) {
+        // No permitir dar de baja al usuario que hace la solicitud
+        if (solicitante != null && IndiceUsuarios.normalizarEmail(solicitante.getEmail()).equals(IndiceUsuarios.normalizarEmail(usuario.getEmail()))) {
             throw new IllegalStateException("No puede dar de baja su propia cuenta.");
         }
         
         usuario.setEstado(0);
+        gestorSesiones.cerrarSesionesDe(usuario.getEmail());
         guardarUsuariosEnArchivo();
-        System.out.println("✅ Usuario dado de baja exitosamente: " + usuario.getNombre() + " " + usuario.getApellido());
+        BITACORA.info("usuarios.baja", "Usuario dado de baja: " + usuario.getEmail(), "email", usuario.getEmail(),
+                "solicitante", solicitante != null ? solicitante.getEmail() : null);
         return true;
     }
     
@@ -216,11 +525,11 @@ public class SistemaAutenticacion {
      * @throws UsuarioNoEncontradoException si el usuario no se encontró
      * @return true si el usuario pudo ser reactivado
      */
-    public boolean reactivarUsuario(String email) throws UsuarioNoEncontradoException {
+    public synchronized boolean reactivarUsuario(String email) throws UsuarioNoEncontradoException {
         Usuario usuario = buscarUsuarioPorEmail(email);
         usuario.setEstado(1); // 1 = Activo
         guardarUsuariosEnArchivo();
-        System.out.println("✅ Usuario reactivado exitosamente: " + usuario.getNombre() + " " + usuario.getApellido());
+        BITACORA.info("usuarios.reactivado", "Usuario reactivado: " + usuario.getEmail(), "email", usuario.getEmail());
         return true;
     }
     
@@ -231,11 +540,20 @@ public class SistemaAutenticacion {
      * @param nuevoApellido nuevo apellido del usuario
      * @param nuevoDni nuevo dni del usuario
      * @throws UsuarioNoEncontradoException si no se encuentra el usuario buscado por email
+     * @throws IllegalArgumentException si el dni nuevo ya es de otro usuario
      * @return true si el usuario fue modificado con éxito
      */
-    public boolean modificarUsuario(String email, String nuevoNombre, String nuevoApellido, String nuevoDni) throws UsuarioNoEncontradoException {
+    public synchronized boolean modificarUsuario(String email, String nuevoNombre, String nuevoApellido, String nuevoDni) throws UsuarioNoEncontradoException {
         Usuario usuario = buscarUsuarioPorEmail(email);
         
+        String dniAnterior = usuario.getDni();
+        if (nuevoDni != null && !nuevoDni.trim().isEmpty()) {
+            Usuario conEseDni = usuarios.buscarPorDni(nuevoDni);
+            if (conEseDni != null && conEseDni != usuario) {
+                throw new IllegalArgumentException("Ya existe un usuario con este DNI: " + nuevoDni.trim());
+            }
+        }
+
         if (nuevoNombre != null && !nuevoNombre.trim().isEmpty()) {
             usuario.setNombre(nuevoNombre.trim());
         }
@@ -247,6 +565,9 @@ public class SistemaAutenticacion {
         if (nuevoDni != null && !nuevoDni.trim().isEmpty()) {
             usuario.setDni(nuevoDni.trim());
         }
+
+        // Nombre, apellido y dni forman parte de los índices de búsqueda
+        usuarios.reindexar(usuario, dniAnterior);
         return true;
     }
     
@@ -258,7 +579,7 @@ public class SistemaAutenticacion {
      * @throws UsuarioNoEncontradoException si el usuario no existe
      * @return true si el cliente fue modificado con éxito
      */
-    public boolean modificarCliente(String email, String nuevaDireccion, String nuevoTelefono) throws UsuarioNoEncontradoException {
+    public synchronized boolean modificarCliente(String email, String nuevaDireccion, String nuevoTelefono) throws UsuarioNoEncontradoException {
         Usuario usuario = buscarUsuarioPorEmail(email);
         
         if (!(usuario instanceof Cliente)) {
@@ -287,7 +608,7 @@ public class SistemaAutenticacion {
      * @throws UsuarioNoEncontradoException si el vendedor no fue encontrado
      * @return true si se pudo modificar el vendedor
      */
-    public boolean modificarVendedor(String email, Double nuevoSalario, Double nuevaComision) throws UsuarioNoEncontradoException {
+    public synchronized boolean modificarVendedor(String email, Double nuevoSalario, Double nuevaComision) throws UsuarioNoEncontradoException {
         Usuario usuario = buscarUsuarioPorEmail(email);
 
         // verifica que el usuario sea un vendedor
@@ -314,42 +635,58 @@ public class SistemaAutenticacion {
     
     /**
      * Carga usuarios desde el archivo JSON
+     * @return la cantidad de usuarios cargados
      */
-    private void cargarUsuariosDesdeArchivo() {
+    private int cargarUsuariosDesdeArchivo() {
         try {
             // Creamos la carpeta donde se guardaran los json (si no existe)
-            File directorio = new File("data");
-            if (!directorio.exists()) {
+            File archivo = new File(archivoUsuarios);
+            File directorio = archivo.getAbsoluteFile().getParentFile();
+            if (directorio != null && !directorio.exists()) {
                 directorio.mkdirs(); // mkdirs es una función para crear carpetas
             }
             
             // Verificamos si existe el archivo
-            if (gestorUsuariosJSON.existeArchivoUsuarios()) {
-                List<Usuario> usuariosCargados = gestorUsuariosJSON.cargarUsuarios(ARCHIVO_USUARIOS);
-                Map<String, Credenciales> credencialesCargadas = gestorUsuariosJSON.cargarUsuariosConCredenciales(ARCHIVO_USUARIOS);
+            if (archivo.exists()) {
+                // Usuarios y credenciales salen de una sola lectura del archivo
+                Map<String, Credenciales> credencialesCargadas = new HashMap<>();
+                List<Usuario> usuariosCargados = gestorUsuariosJSON.cargarUsuarios(archivoUsuarios, credencialesCargadas);
                 
                 // Cargamos los usuarios usuarios en el sistema
                 for (Usuario usuario : usuariosCargados) {
-                    usuarios.put(usuario.getEmail(), usuario);
+                    Usuario mismoEmail = usuarios.buscarPorEmail(usuario.getEmail());
+                    if (mismoEmail != null) {
+                        BITACORA.advertencia("usuarios.emailDuplicado", "Email duplicado en el archivo (se conserva el último): "
+                                + usuario.getEmail(), "email", usuario.getEmail());
+                    }
+                    Usuario mismoDni = usuarios.buscarPorDni(usuario.getDni());
+                    if (mismoDni != null && mismoDni != mismoEmail) {
+                        BITACORA.advertencia("usuarios.dniDuplicado", "DNI duplicado en el archivo (se busca por DNI al primero): "
+                                + usuario.getDni(), "dni", usuario.getDni(), "email", usuario.getEmail(), "emailConEseDni", mismoDni.getEmail());
+                    }
+                    usuarios.agregar(usuario);
                 }
                 
-                // Cargamos las credenciales reales
-                credenciales.putAll(credencialesCargadas);
+                // Cargamos las credenciales reales con el email normalizado como clave
+                for (Map.Entry<String, Credenciales> entrada : credencialesCargadas.entrySet()) {
+                    credenciales.put(IndiceUsuarios.normalizarEmail(entrada.getKey()), entrada.getValue());
+                }
             }
         } catch (Exception e) {
             System.out.println("⚠️ Error al cargar usuarios: " + e.getMessage());
             System.out.println("📁 Continuando con usuarios vacíos.");
         }
+        return usuarios.getCantidad();
     }
     
     /**
      * Guarda usuarios en el archivo JSON
      */
-    private void guardarUsuariosEnArchivo() {
+    private synchronized void guardarUsuariosEnArchivo() {
         try {
-            gestorUsuariosJSON.guardarUsuarios(this, ARCHIVO_USUARIOS);
+            guardarUsuarios();
         } catch (ErrorPersistenciaException e) {
-            System.out.println("❌ Error al guardar usuarios: " + e.getMessage());
+            BITACORA.error("usuarios.errorGuardado", "Error al guardar usuarios: " + e.getMessage(), e, "archivo", archivoUsuarios);
         }
     }
     
@@ -357,6 +694,47 @@ public class SistemaAutenticacion {
      * Guarda usuarios manualmente (para uso externo)
      */
     public void guardarUsuarios() throws ErrorPersistenciaException {
-        gestorUsuariosJSON.guardarUsuarios(this, ARCHIVO_USUARIOS);
+        grabarCopia(copiarUsuarios());
+    }
+
+    /**
+     * Copia los usuarios para escribirlos después con grabarCopia: quien tenga que frenar los cambios
+     * mientras se copian (por ejemplo, el lock de los saldos) lo suelta antes de escribir el archivo
+     * @throws ErrorPersistenciaException si no se pueden serializar los usuarios
+     * @return la copia de los usuarios
+     */
+    public synchronized CopiaUsuarios copiarUsuarios() throws ErrorPersistenciaException {
+        // Sin esperar la carga se guardaría el archivo sin los usuarios que todavía no se leyeron
+        esperarCarga();
+        return new CopiaUsuarios(gestorUsuariosJSON.copiarUsuarios(this, archivoUsuarios), ++copiasTomadas);
+    }
+
+    /**
+     * Escribe en el archivo una copia de copiarUsuarios. Si dos guardados escriben a la vez queda la
+     * copia más nueva: una copia anterior a la última escrita se descarta
+     * @param copia copia de los usuarios
+     * @throws ErrorPersistenciaException si no se pueden guardar los usuarios en el archivo
+     */
+    public void grabarCopia(CopiaUsuarios copia) throws ErrorPersistenciaException {
+        synchronized (escrituraArchivo) {
+            if (copia.numero < copiaGrabada) {
+                return;
+            }
+            gestorUsuariosJSON.grabarCopia(copia.json, archivoUsuarios);
+            copiaGrabada = copia.numero;
+        }
+    }
+
+    /**
+     * Usuarios serializados en memoria, numerados en el orden en que se copiaron
+     */
+    public static final class CopiaUsuarios {
+        private final JSONObject json;
+        private final long numero;
+
+        private CopiaUsuarios(JSONObject json, long numero) {
+            this.json = json;
+            this.numero = numero;
+        }
     }
 }
@@ -2,6 +2,8 @@ package usuarios;
 
 import org.json.JSONObject;
 import entidades.IEntidad;
+import utilidades.GeneradorIds;
+import utilidades.SecuenciaIds;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -9,8 +11,12 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public abstract class Usuario implements Comparable<Usuario>, IEntidad<Integer> {
+    private static final SecuenciaIds SECUENCIA = GeneradorIds.secuencia("usuarios");
+    static {
+        // Los IDs de usuario empiezan en 1
+        SECUENCIA.asegurarMinimo(1);
+    }
     private int id;
-    private static int contador = 0;
     private String nombre;
     private String apellido;
     private String email;
@@ -22,7 +28,7 @@ public abstract class Usuario implements Comparable<Usuario>, IEntidad<Integer>
 
     // ---------------------- CONSTRUCTORES ----------------------
     public Usuario(String nombre, String apellido, String email, Rol rol, int estado, String dni) {
-        this.id = ++contador;
+        this.id = SECUENCIA.siguiente();
         this.nombre = nombre;
         this.apellido = apellido;
         this.email = email;
@@ -36,6 +42,7 @@ public abstract class Usuario implements Comparable<Usuario>, IEntidad<Integer>
     // Este es para que reciba el id (solo JSON)
     public Usuario(int id, String nombre, String apellido, String email, Rol rol, int estado, String dni) {
         this.id = id;
+        SECUENCIA.asegurarMinimo(id + 1L);
         this.nombre = nombre;
         this.apellido = apellido;
         this.email = email;
@@ -47,7 +54,7 @@ public abstract class Usuario implements Comparable<Usuario>, IEntidad<Integer>
     }
 
     public Usuario() {
-        this.id = ++contador;
+        this.id = SECUENCIA.siguiente();
         this.fechaRegistro = LocalDateTime.now();
         this.ultimoAcceso = null;
     }
@@ -57,11 +64,17 @@ public abstract class Usuario implements Comparable<Usuario>, IEntidad<Integer>
     public Integer getId() {
         return id;
     }
+    /**
+     * @return el último ID asignado (los IDs de usuario empiezan en 1)
+     */
     public static int getContador() {
-        return contador;
+        return (int) SECUENCIA.getProximo() - 1;
     }
+    /**
+     * @param nuevoContador ID mínimo ya usado: los próximos usuarios tienen IDs mayores (la secuencia nunca retrocede)
+     */
     public static void setContador(int nuevoContador) {
-        contador = nuevoContador;
+        SECUENCIA.asegurarMinimo(nuevoContador + 1L);
     }
     @Override
     public String getNombre() {
@@ -0,0 +1,205 @@
+package usuarios;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Genera y verifica hashes de contraseñas con PBKDF2 (incluido en el JDK) y sal aleatoria.
+ *
+ * El hash se guarda como "pbkdf2$<iteraciones>$<sal>$<hash>" (sal y hash en Base64), así cada
+ * contraseña recuerda con qué costo se generó y se puede subir el costo sin invalidar las viejas.
+ *
+ * Calcular un hash es caro a propósito, por eso se hace en un pool de hilos acotado: una ráfaga
+ * de logins espera en la cola (o se rechaza si la cola se llena) en lugar de ocupar todos los
+ * núcleos y frenar las compras.
+ *
+ * Configuración (propiedades del sistema):
+ * - tpfinal.password.iteraciones: costo de PBKDF2 (por defecto 210000)
+ * - tpfinal.password.hilos: hilos del pool (por defecto la mitad de los núcleos)
+ * - tpfinal.password.cola: verificaciones que pueden esperar en la cola (por defecto 256)
+ */
+public class VerificadorPasswords {
+    private static final String PREFIJO = "pbkdf2";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA512";
+    private static final int ITERACIONES_MINIMAS = 10_000;
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+
+    private final int iteraciones;
+    private final ThreadPoolExecutor pool;
+    private final SecureRandom aleatorio;
+    private final SecretKeySpec claveHuellas;
+
+    // ---------------------- CONSTRUCTORES ----------------------
+    public VerificadorPasswords() {
+        this(Integer.getInteger("tpfinal.password.iteraciones", 210_000),
+             Integer.getInteger("tpfinal.password.hilos", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+             Integer.getInteger("tpfinal.password.cola", 256));
+    }
+
+    public VerificadorPasswords(int iteraciones, int hilos, int capacidadCola) {
+        if (iteraciones < ITERACIONES_MINIMAS) {
+            throw new IllegalArgumentException("El costo del hash debe ser de al menos " + ITERACIONES_MINIMAS + " iteraciones.");
+        }
+        if (hilos <= 0 || capacidadCola <= 0) {
+            throw new IllegalArgumentException("El pool de verificación necesita al menos un hilo y lugar en la cola.");
+        }
+        this.iteraciones = iteraciones;
+        this.aleatorio = new SecureRandom();
+        this.pool = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+            Thread hilo = new Thread(tarea, "verificador-passwords");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        // Clave aleatoria por proceso para las huellas del cache de verificación
+        byte[] clave = new byte[32];
+        aleatorio.nextBytes(clave);
+        this.claveHuellas = new SecretKeySpec(clave, "HmacSHA256");
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public int getIteraciones() {
+        return iteraciones;
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * Genera el hash de una contraseña con una sal nueva
+     * @param password contraseña en texto plano
+     * @return el hash en formato "pbkdf2$iteraciones$sal$hash"
+     * @throws RejectedExecutionException si el pool de verificación está saturado
+     */
+    public String hashear(String password) {
+        byte[] sal = new byte[BYTES_SAL];
+        aleatorio.nextBytes(sal);
+        byte[] hash = ejecutarEnPool(() -> pbkdf2(password, sal, iteraciones));
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIJO + "$" + iteraciones + "$" + encoder.encodeToString(sal) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Verifica una contraseña contra un hash guardado
+     * @param password contraseña ingresada
+     * @param almacenado hash guardado
+     * @return true si la contraseña corresponde al hash (false si el hash está dañado)
+     * @throws RejectedExecutionException si el pool de verificación está saturado
+     */
+    public boolean verificar(String password, String almacenado) {
+        String[] partes = almacenado.split("\\$");
+        if (partes.length != 4 || !partes[0].equals(PREFIJO)) {
+            return false;
+        }
+        int iteracionesHash;
+        byte[] sal;
+        byte[] esperado;
+        try {
+            iteracionesHash = Integer.parseInt(partes[1]);
+            sal = Base64.getDecoder().decode(partes[2]);
+            esperado = Base64.getDecoder().decode(partes[3]);
+        } catch (IllegalArgumentException e) {
+            // Hash dañado (por ejemplo, un archivo editado a mano): no corresponde a ninguna contraseña.
+            // NumberFormatException también es una IllegalArgumentException
+            return false;
+        }
+        if (iteracionesHash <= 0 || sal.length == 0 || esperado.length == 0) {
+            return false;
+        }
+
+        byte[] calculado = ejecutarEnPool(() -> pbkdf2(password, sal, iteracionesHash));
+        return MessageDigest.isEqual(esperado, calculado);
+    }
+
+    /**
+     * Indica si un valor guardado ya es un hash (y no una contraseña vieja en texto plano)
+     * @param almacenado valor guardado en las credenciales
+     * @return true si es un hash generado por esta clase
+     */
+    public static boolean esHash(String almacenado) {
+        return almacenado != null && almacenado.startsWith(PREFIJO + "$");
+    }
+
+    /**
+     * Indica si un valor guardado debe regenerarse: está en texto plano o se generó con menos
+     * iteraciones que las configuradas actualmente
+     * @param almacenado valor guardado en las credenciales
+     * @return true si conviene volver a hashear la contraseña (false si el hash está dañado: no
+     * hay con qué regenerarlo, porque ninguna contraseña lo verifica)
+     */
+    public boolean necesitaRehash(String almacenado) {
+        if (!esHash(almacenado)) {
+            return true;
+        }
+        String[] partes = almacenado.split("\\$");
+        try {
+            return partes.length == 4 && Integer.parseInt(partes[1]) < iteraciones;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Calcula una huella rápida (HMAC con clave del proceso) de una contraseña ya verificada.
+     * Se usa para el cache de verificación: si la huella coincide, no hace falta repetir PBKDF2
+     * @param almacenado hash guardado
+     * @param password contraseña ingresada
+     * @return la huella calculada
+     */
+    byte[] calcularHuella(String almacenado, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(claveHuellas);
+            mac.update(almacenado.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no está disponible en este JDK.", e);
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] sal, int iteracionesHash) throws GeneralSecurityException {
+        char[] caracteres = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(caracteres, sal, iteracionesHash, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(caracteres, '\0');
+        }
+    }
+
+    private byte[] ejecutarEnPool(Callable<byte[]> calculo) {
+        Future<byte[]> resultado;
+        try {
+            resultado = pool.submit(calculo);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Hay demasiados inicios de sesión en curso. Intente nuevamente en unos segundos.", e);
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new IllegalStateException("Se interrumpió la verificación de la contraseña.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudo calcular el hash de la contraseña: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
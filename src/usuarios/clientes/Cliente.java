@@ -2,27 +2,32 @@ package usuarios.clientes;
 
 import usuarios.Rol;
 import usuarios.Usuario;
+import registro.Bitacora;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * ELECCION DE COLECCIONES:
  *
  * - ArrayList para historial de compras: Usamos ArrayList para mantener las compras en orden
  *   cronológico, donde vamos agregando cada compra una tras otra y luego podemos verlas todas
- *   en secuencia.
+ *   en secuencia. El historial guardado en archivo se arma recién la primera vez que se usa
+ *   (ver setHistorialComprasDiferido), así cargar muchos clientes no arma listas que nadie mira.
  *
  * - ArrayList para preferencias: Usamos ArrayList para guardar las preferencias del cliente
  *   en una lista simple donde podemos agregar y recorrer todas las preferencias en orden.
  */
 public class Cliente extends Usuario {
+    private static final Bitacora BITACORA = Bitacora.de(Cliente.class);
     private int cantProductosComprados = 0;
     private MetodoPago metodoPago = MetodoPago.EFECTIVO;
     private double saldo = 0;
     private String direccion;
     private String telefono;
     private List<String> historialCompras;
+    private Supplier<List<String>> historialComprasGuardado; // null cuando ya se armó el historial
     private List<String> preferencias;
 
     // ---------------------- CONSTRUCTORES ----------------------
@@ -96,11 +101,28 @@ public class Cliente extends Usuario {
     public void setTelefono(String telefono) {
         this.telefono = telefono;
     }
-    public List<String> getHistorialCompras() {
-        if (historialCompras == null) {
+    public synchronized List<String> getHistorialCompras() {
+        return new ArrayList<>(historialCompras());
+    }
+
+    /**
+     * Establece el historial de compras guardado (usado para deserialización). El historial se arma
+     * recién la primera vez que se consulta o se agrega una compra
+     * @param cargador función que arma el historial guardado
+     */
+    public synchronized void setHistorialComprasDiferido(Supplier<List<String>> cargador) {
+        this.historialComprasGuardado = cargador;
+    }
+
+    private List<String> historialCompras() {
+        if (historialComprasGuardado != null) {
+            List<String> guardado = historialComprasGuardado.get();
+            historialCompras = guardado != null ? new ArrayList<>(guardado) : new ArrayList<>();
+            historialComprasGuardado = null;
+        } else if (historialCompras == null) {
             historialCompras = new ArrayList<>();
         }
-        return new ArrayList<>(historialCompras);
+        return historialCompras;
     }
     public List<String> getPreferencias() {
         return new ArrayList<>(preferencias);
@@ -111,9 +133,9 @@ public class Cliente extends Usuario {
      * Agrega productos al historial de compras y aumenta la cantidad de productos comprados
      * @param descripcionCompra Descripcion de la compra
      */
-    public void agregarCompra(String descripcionCompra) {
+    public synchronized void agregarCompra(String descripcionCompra) {
         String compra = LocalDateTime.now() + " - " + descripcionCompra;
-        historialCompras.add(compra);
+        historialCompras().add(compra);
         cantProductosComprados++;
     }
     
@@ -124,21 +146,11 @@ public class Cliente extends Usuario {
         if (nuevoMetodo == null) {
             throw new IllegalArgumentException("El método de pago no puede ser null.");
         }
+        MetodoPago anterior = this.metodoPago;
         this.metodoPago = nuevoMetodo;
-        System.out.println("✅ Método de pago por defecto actualizado a: " + nuevoMetodo);
+        BITACORA.debug("cliente.metodoPagoActualizado", "Método de pago por defecto actualizado a: " + nuevoMetodo, "email", getEmail(), "anterior", anterior, "nuevo", nuevoMetodo);
     }
     
-    public void mostrarHistorialCompras() {
-        System.out.println("🛍️ HISTORIAL DE COMPRAS:");
-        if (historialCompras.isEmpty()) {
-            System.out.println("  No hay compras registradas.");
-        } else {
-            for (String compra : historialCompras) {
-                System.out.println("  • " + compra);
-            }
-        }
-    }
-
     // ---------------------- MÉTODOS SOBREESCRITOS ----------------------
     @Override
     public String toString() {
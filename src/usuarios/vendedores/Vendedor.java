@@ -2,22 +2,44 @@ package usuarios.vendedores;
 
 import usuarios.Rol;
 import usuarios.Usuario;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 /**
+ * El salario es el sueldo base: las comisiones no se suman en cada venta sino que las calcula la
+ * liquidación de cada período (liquidaciones.MotorLiquidaciones) a partir del libro de ventas, y
+ * totalComisiones es la suma de lo liquidado.
+ *
+ * La comisión tiene historial: cada cambio rige desde una fecha, así una liquidación usa para cada
+ * venta la comisión vigente el día de la venta.
+ *
  * ELECCION DE COLECCIONES:
  *
  * - ArrayList para historial de ventas: Usamos ArrayList para mantener las ventas en orden
  *   cronológico, donde vamos agregando cada venta una tras otra y luego podemos verlas todas
- *   en secuencia.
+ *   en secuencia. El historial guardado en archivo se arma recién la primera vez que se usa
+ *   (ver setHistorialVentasDiferido).
+ * - TreeMap para el historial de comisiones: ordenado por fecha de vigencia, la comisión de un
+ *   día es la entrada con la mayor fecha que no lo supera (floorEntry).
  */
 public class Vendedor extends Usuario {
+    /**
+     * Fecha desde la que rige la comisión inicial de un vendedor
+     */
+    public static final LocalDate VIGENCIA_INICIAL = LocalDate.EPOCH;
+
     private int cantVentas = 0;
     private double salario;
-    private double comisionPorVenta;
+    private NavigableMap<LocalDate, Double> historialComisiones;
     private List<String> historialVentas;
+    private Supplier<List<String>> historialVentasGuardado; // null cuando ya se armó el historial
     private double totalComisiones;
 
     // ---------------------- CONSTRUCTORES ----------------------
@@ -26,10 +48,8 @@ public class Vendedor extends Usuario {
         if (salario < 0) {
             throw new IllegalArgumentException("El salario del vendedor no puede ser negativo.");
         }
-        if (comisionPorVenta < 0) {
-            throw new IllegalArgumentException("La comisión por venta no puede ser negativa.");
-        }
         this.salario = salario;
+        this.historialComisiones = comisionInicial();
         this.historialVentas = new ArrayList<>();
         this.totalComisiones = 0.0;
     }
@@ -44,7 +64,7 @@ public class Vendedor extends Usuario {
         }
         this.cantVentas = cantVentas;
         this.salario = salario;
-        this.comisionPorVenta = 0.0;
+        this.historialComisiones = comisionInicial();
         this.historialVentas = new ArrayList<>();
         this.totalComisiones = 0.0;
     }
@@ -58,7 +78,7 @@ public class Vendedor extends Usuario {
         }
         this.cantVentas = cantVentas;
         this.salario = salario;
-        this.comisionPorVenta = 0.0;
+        this.historialComisiones = comisionInicial();
         this.historialVentas = new ArrayList<>();
         this.totalComisiones = 0.0;
     }
@@ -82,32 +102,101 @@ public class Vendedor extends Usuario {
         }
         this.salario = salario;
     }
+    /**
+     * @return la comisión (%) vigente hoy
+     */
     public double getComisionPorVenta() {
-        return comisionPorVenta;
+        return getComisionVigente(LocalDate.now());
     }
+    /**
+     * Cambia la comisión a partir de hoy (las ventas anteriores se liquidan con la comisión que tenían)
+     * @param comisionPorVenta nueva comisión (%)
+     */
     public void setComisionPorVenta(double comisionPorVenta) {
+        cambiarComision(comisionPorVenta, LocalDate.now());
+    }
+
+    /**
+     * @param dia día de la venta
+     * @return la comisión (%) vigente ese día
+     */
+    public synchronized double getComisionVigente(LocalDate dia) {
+        Map.Entry<LocalDate, Double> vigente = historialComisiones.floorEntry(dia);
+        return vigente == null ? 0.0 : vigente.getValue();
+    }
+
+    /**
+     * Programa un cambio de comisión (reemplaza otro cambio de la misma fecha)
+     * @param comisionPorVenta nueva comisión (%)
+     * @param vigenteDesde primer día en que rige
+     */
+    public synchronized void cambiarComision(double comisionPorVenta, LocalDate vigenteDesde) {
         if (comisionPorVenta < 0) {
             throw new IllegalArgumentException("La comisión por venta no puede ser negativa.");
         }
-        this.comisionPorVenta = comisionPorVenta;
+        if (vigenteDesde == null) {
+            throw new IllegalArgumentException("La fecha de vigencia no puede ser nula.");
+        }
+        historialComisiones.put(vigenteDesde, comisionPorVenta);
     }
-    public List<String> getHistorialVentas() {
-        if (historialVentas == null) {
-            historialVentas = new ArrayList<>();
+
+    /**
+     * @return cada fecha de vigencia con la comisión (%) que rige desde ese día
+     */
+    public synchronized NavigableMap<LocalDate, Double> getHistorialComisiones() {
+        return Collections.unmodifiableNavigableMap(new TreeMap<>(historialComisiones));
+    }
+
+    /**
+     * Establece el historial de comisiones (usado para deserialización)
+     */
+    public synchronized void setHistorialComisiones(Map<LocalDate, Double> historialComisiones) {
+        this.historialComisiones = comisionInicial();
+        if (historialComisiones != null) {
+            for (Map.Entry<LocalDate, Double> cambio : historialComisiones.entrySet()) {
+                cambiarComision(cambio.getValue(), cambio.getKey());
+            }
         }
-        return new ArrayList<>(historialVentas);
+    }
+
+    private static NavigableMap<LocalDate, Double> comisionInicial() {
+        NavigableMap<LocalDate, Double> historial = new TreeMap<>();
+        historial.put(VIGENCIA_INICIAL, 0.0);
+        return historial;
+    }
+    public synchronized List<String> getHistorialVentas() {
+        return new ArrayList<>(historialVentas());
     }
     
     /**
      * Establece el historial de ventas (usado para deserialización)
      */
-    public void setHistorialVentas(List<String> historialVentas) {
+    public synchronized void setHistorialVentas(List<String> historialVentas) {
+        this.historialVentasGuardado = null;
         if (historialVentas == null) {
             this.historialVentas = new ArrayList<>();
         } else {
             this.historialVentas = new ArrayList<>(historialVentas);
         }
     }
+
+    /**
+     * Establece el historial de ventas guardado (usado para deserialización). El historial se arma
+     * recién la primera vez que se consulta o se registra una venta
+     * @param cargador función que arma el historial guardado
+     */
+    public synchronized void setHistorialVentasDiferido(Supplier<List<String>> cargador) {
+        this.historialVentasGuardado = cargador;
+    }
+
+    private List<String> historialVentas() {
+        if (historialVentasGuardado != null) {
+            setHistorialVentas(historialVentasGuardado.get());
+        } else if (historialVentas == null) {
+            historialVentas = new ArrayList<>();
+        }
+        return historialVentas;
+    }
     public double getTotalComisiones() {
         return totalComisiones;
     }
@@ -122,27 +211,25 @@ public class Vendedor extends Usuario {
     // ---------------------- METODOS ----------------------
 
     /**
-     * Realiza la venta de un producto, aumenta la cantidad total de ventas del vendedor y agrega la comisión de la venta al salario
+     * Registra la venta en el historial y aumenta la cantidad total de ventas del vendedor.
+     * La comisión de la venta no se suma acá: la calcula la liquidación del período
      * @param descripcionVenta Descripción de la venta
      * @param montoVenta Monto del producto
      */
-    public void realizarVenta(String descripcionVenta, double montoVenta) {
+    public synchronized void realizarVenta(String descripcionVenta, double montoVenta) {
         String venta = LocalDateTime.now() + " - " + descripcionVenta + " - Monto: $" + String.format("%.2f", montoVenta);
-        historialVentas.add(venta);
+        historialVentas().add(venta);
         cantVentas++;
-        
-        // Calcular comisión y agregarla automáticamente al salario
-        double comision = montoVenta * (comisionPorVenta / 100.0);
-        salario += comision;
     }
 
     // ---------------------- MÉTODOS SOBREESCRITOS ----------------------
     @Override
     public String toString() {
         return super.toString() + "\n" +
-                "  💵 Salario (incluye comisiones): $" + String.format("%.2f", salario) + "\n" +
+                "  💵 Salario Base: $" + String.format("%.2f", salario) + "\n" +
                 "  📈 Cant. Ventas Realizadas: " + cantVentas + "\n" +
-                "  💰 Comisión por Venta: " + String.format("%.1f", comisionPorVenta) + "%\n" +
+                "  💰 Comisión por Venta: " + String.format("%.1f", getComisionPorVenta()) + "%\n" +
+                "  🧾 Comisiones Liquidadas: $" + String.format("%.2f", totalComisiones) + "\n" +
                 "══════════════════════════════════";
     }
 
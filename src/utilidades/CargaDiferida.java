@@ -0,0 +1,78 @@
+package utilidades;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Un valor que se carga una sola vez, la primera vez que se necesita (por ejemplo, el stock o los
+ * usuarios guardados en archivo).
+ *
+ * iniciar() adelanta la carga en un hilo aparte, así quien arranca el sistema no la espera: el menú
+ * o el servidor quedan disponibles enseguida, sin importar el tamaño de los archivos. obtener()
+ * devuelve el valor cargado; si la carga está en curso espera a que termine, y si nadie la inició
+ * la hace en el hilo que pide el valor. En cualquier caso la carga corre una sola vez.
+ *
+ * @param <T> tipo del valor cargado
+ */
+public class CargaDiferida<T> {
+    private final String nombre;
+    private final FutureTask<T> tarea;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    /**
+     * @param nombre nombre de la carga (se usa como nombre del hilo)
+     * @param cargador función que carga el valor (no debería devolver null)
+     */
+    public CargaDiferida(String nombre, Supplier<T> cargador) {
+        this.nombre = nombre;
+        this.tarea = new FutureTask<>(cargador::get);
+    }
+
+    // ---------------------- CARGA ----------------------
+    /**
+     * Empieza la carga en un hilo aparte, si todavía no empezó
+     */
+    public void iniciar() {
+        if (tarea.isDone()) {
+            return;
+        }
+        Thread hilo = new Thread(tarea, "carga-" + nombre);
+        // No frena el cierre del programa si se sale antes de que termine de cargar
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * @return el valor cargado (espera la carga o la hace, si hace falta)
+     * @throws IllegalStateException si la carga falló
+     */
+    public T obtener() {
+        // run() no hace nada si la carga ya corrió o está corriendo en otro hilo
+        tarea.run();
+        boolean interrumpido = false;
+        try {
+            while (true) {
+                try {
+                    return tarea.get();
+                } catch (InterruptedException e) {
+                    // La carga sigue: el valor hace falta igual, y la interrupción se restaura al final
+                    interrumpido = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en la carga de " + nombre + ": " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true si la carga ya terminó (obtener() no va a esperar)
+     */
+    public boolean estaLista() {
+        return tarea.isDone();
+    }
+}
@@ -0,0 +1,100 @@
+package utilidades;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diccionario de textos que se usa durante una carga (del stock o de los usuarios) para que los
+ * valores repetidos queden en una sola instancia.
+ *
+ * Al leer un archivo, cada campo es un String nuevo aunque el valor sea igual al de miles de
+ * entidades más (la marca "Lenovo", la plantilla de especificaciones de un modelo, la ciudad de una
+ * dirección). unico() devuelve siempre la primera instancia que vio de cada valor, así las demás
+ * copias quedan sin referencias y el GC las libera apenas termina la carga. El diccionario se
+ * descarta con la carga: no retiene nada después.
+ *
+ * A diferencia de String.intern(), no llena la tabla global de la JVM con textos que solo importan
+ * durante la carga, y cuenta lo ahorrado para la bitácora.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap de texto a su instancia única: la carga deserializa de a bloques en varios
+ *   hilos a la vez, y putIfAbsent resuelve en una sola operación quién registra cada valor.
+ * - LongAdder para los contadores: se suman desde todos los hilos de la carga sin competir.
+ */
+public class DeduplicadorTextos {
+    // Encabezado de un String más el del arreglo de bytes de su contenido (JVM de 64 bits con referencias comprimidas)
+    private static final int BYTES_STRING = 24;
+    private static final int BYTES_ARREGLO = 16;
+
+    private final Map<String, String> textos;
+    private final LongAdder repetidos;
+    private final LongAdder bytesAhorrados;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    public DeduplicadorTextos() {
+        this.textos = new ConcurrentHashMap<>();
+        this.repetidos = new LongAdder();
+        this.bytesAhorrados = new LongAdder();
+    }
+
+    // ---------------------- METODOS ----------------------
+    /**
+     * @param texto texto leído (puede ser null)
+     * @return la instancia única de ese valor (el mismo texto si es la primera vez que aparece)
+     */
+    public String unico(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String existente = textos.putIfAbsent(texto, texto);
+        if (existente == null) {
+            return texto;
+        }
+        repetidos.increment();
+        bytesAhorrados.add(tamanio(texto));
+        return existente;
+    }
+
+    /**
+     * @return bytes aproximados que ocupa un String en el heap (los textos latinos usan un byte por
+     * carácter, el resto dos)
+     */
+    private static long tamanio(String texto) {
+        int bytesPorCaracter = 1;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0xFF) {
+                bytesPorCaracter = 2;
+                break;
+            }
+        }
+        return BYTES_STRING + alinear(BYTES_ARREGLO + (long) texto.length() * bytesPorCaracter);
+    }
+
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    // ---------------------- GETTERS ----------------------
+    /**
+     * @return cantidad de valores distintos vistos
+     */
+    public int getDistintos() {
+        return textos.size();
+    }
+
+    /**
+     * @return cantidad de textos que se reemplazaron por una instancia ya vista
+     */
+    public long getRepetidos() {
+        return repetidos.sum();
+    }
+
+    /**
+     * @return bytes aproximados de heap que dejan de ocupar las copias repetidas
+     */
+    public long getBytesAhorrados() {
+        return bytesAhorrados.sum();
+    }
+}
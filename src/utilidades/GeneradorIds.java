@@ -0,0 +1,134 @@
+package utilidades;
+
+import registro.Bitacora;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de las secuencias de IDs (una por tipo de entidad) y del archivo donde se anota
+ * hasta dónde reservó cada una.
+ *
+ * Las entidades guardan su secuencia en una constante al cargarse (como las métricas), así tomar un
+ * ID no busca por nombre. El archivo de secuencias es chico ("productos=2048", una línea por
+ * secuencia) y se reescribe solo al reservar un bloque nuevo: se escribe en un archivo temporal que
+ * después reemplaza al anterior, así un corte a mitad de la escritura no deja el archivo a medias.
+ * Mientras no se abre un archivo (por ejemplo en los benchmarks) las secuencias funcionan igual,
+ * pero solo en memoria.
+ *
+ * ELECCION DE COLECCIONES:
+ *
+ * - ConcurrentHashMap para las secuencias: se registran desde cualquier hilo la primera vez que se
+ *   piden (computeIfAbsent).
+ * - TreeMap para lo anotado en el archivo: lo usan solo los métodos sincronizados y deja el archivo
+ *   ordenado por nombre.
+ */
+public class GeneradorIds {
+    public static final String NOMBRE_ARCHIVO = "secuencias.properties";
+    private static final Bitacora BITACORA = Bitacora.de(GeneradorIds.class);
+    private static final Map<String, SecuenciaIds> SECUENCIAS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> ANOTADOS = new TreeMap<>();
+    private static Path archivo;
+
+    private GeneradorIds() {
+    }
+
+    // ---------------------- REGISTRO ----------------------
+    /**
+     * Obtiene (o crea) una secuencia
+     * @param nombre nombre de la secuencia (por ejemplo "productos")
+     * @return la secuencia con ese nombre
+     */
+    public static SecuenciaIds secuencia(String nombre) {
+        return SECUENCIAS.computeIfAbsent(nombre, SecuenciaIds::new);
+    }
+
+    /**
+     * Abre el archivo de secuencias (si existe, las secuencias siguen desde lo que se había
+     * reservado) y desde ahí anota en él cada bloque reservado
+     * @param nombreArchivo archivo de secuencias
+     */
+    public static synchronized void abrir(String nombreArchivo) {
+        archivo = Paths.get(nombreArchivo);
+        ANOTADOS.clear();
+        if (Files.exists(archivo)) {
+            Properties guardadas = new Properties();
+            try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                guardadas.load(lector);
+                for (String nombre : guardadas.stringPropertyNames()) {
+                    ANOTADOS.put(nombre, Long.parseLong(guardadas.getProperty(nombre).trim()));
+                }
+            } catch (IOException | NumberFormatException e) {
+                BITACORA.error("secuencias.errorCarga", "Error al cargar las secuencias de IDs: " + e.getMessage(), e,
+                        "archivo", nombreArchivo);
+            }
+        }
+        for (Map.Entry<String, Long> anotado : ANOTADOS.entrySet()) {
+            secuencia(anotado.getKey()).asegurarMinimo(anotado.getValue());
+        }
+        // Los bloques reservados antes de abrir el archivo no quedaron anotados en él
+        for (SecuenciaIds secuencia : SECUENCIAS.values()) {
+            secuencia.descartarReserva();
+        }
+        BITACORA.info("secuencias.abiertas", "Secuencias de IDs abiertas", "archivo", nombreArchivo, "secuencias", ANOTADOS.size());
+    }
+
+    /**
+     * Reserva el bloque de una secuencia que empieza en un ID y lo anota en el archivo antes de
+     * repartirlo. Usa el mismo lock que abrir: una reserva que empezó antes de abrir otro archivo
+     * termina antes de que abrir descarte las reservas, y una que empieza después se anota en el
+     * archivo nuevo
+     * @param secuencia secuencia que se quedó sin rango
+     * @param id primer ID fuera del rango reservado
+     */
+    static synchronized void reservar(SecuenciaIds secuencia, long id) {
+        // Otro hilo pudo haber reservado el bloque mientras este esperaba
+        if (id < secuencia.getTecho()) {
+            return;
+        }
+        long nuevoTecho = id + SecuenciaIds.TAMANIO_BLOQUE;
+        anotar(secuencia.getNombre(), nuevoTecho);
+        secuencia.fijarTecho(nuevoTecho);
+    }
+
+    /**
+     * Anota en el archivo hasta dónde reservó una secuencia. Si no se puede escribir, la secuencia
+     * sigue repartiendo IDs en memoria y el error queda en la bitácora
+     * @param nombre nombre de la secuencia
+     * @param techo final del rango reservado
+     */
+    private static void anotar(String nombre, long techo) {
+        ANOTADOS.merge(nombre, techo, Math::max);
+        if (archivo == null) {
+            return;
+        }
+        StringBuilder contenido = new StringBuilder();
+        for (Map.Entry<String, Long> anotado : ANOTADOS.entrySet()) {
+            contenido.append(anotado.getKey()).append('=').append(anotado.getValue()).append('\n');
+        }
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            // DSYNC: el bloque tiene que estar en disco antes de repartir sus IDs
+            Files.write(temporal, contenido.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            BITACORA.error("secuencias.errorGuardado", "Error al guardar las secuencias de IDs: " + e.getMessage(), e,
+                    "archivo", archivo.toString(), "secuencia", nombre, "techo", techo);
+        }
+    }
+}
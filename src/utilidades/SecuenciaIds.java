@@ -0,0 +1,88 @@
+package utilidades;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Secuencia de IDs de un tipo de entidad (productos, usuarios, ventas).
+ *
+ * Los IDs se reparten de un rango reservado de a TAMANIO_BLOQUE: tomar un ID es un solo
+ * incremento atómico, sin locks, mientras quede rango. Cuando se termina, el primer hilo que lo
+ * nota reserva el bloque siguiente y lo anota en el archivo de secuencias (GeneradorIds) antes de
+ * repartirlo; los demás hilos solo esperan esa reserva, una vez cada TAMANIO_BLOQUE IDs. La reserva
+ * toma el lock de GeneradorIds, el mismo que abrir otro archivo: así no puede quedar un bloque en
+ * uso que no esté anotado en el archivo abierto.
+ *
+ * Como el archivo guarda el final del rango reservado, al reiniciar se sigue desde ahí: los IDs
+ * nunca se repiten ni bajan, aunque el sistema se cierre sin guardar. A cambio, los IDs que
+ * quedaban del último bloque se saltean (como las secuencias con caché de una base de datos).
+ */
+public class SecuenciaIds {
+    public static final int TAMANIO_BLOQUE = 1024;
+
+    private final String nombre;
+    private final AtomicLong proximo;
+    // Primer ID fuera del rango reservado: los IDs menores ya están anotados en el archivo
+    private volatile long techo;
+
+    // ---------------------- CONSTRUCTOR ----------------------
+    SecuenciaIds(String nombre) {
+        this.nombre = nombre;
+        this.proximo = new AtomicLong();
+        this.techo = 0;
+    }
+
+    // ---------------------- IDS ----------------------
+    /**
+     * @return un ID nuevo, mayor que todos los repartidos antes (también en ejecuciones anteriores)
+     */
+    public int siguiente() {
+        long id = proximo.getAndIncrement();
+        if (id >= techo) {
+            GeneradorIds.reservar(this, id);
+        }
+        return Math.toIntExact(id);
+    }
+
+    /**
+     * @param nuevoTecho final del rango recién reservado y anotado. Lo llama GeneradorIds con su lock tomado
+     */
+    void fijarTecho(long nuevoTecho) {
+        techo = nuevoTecho;
+    }
+
+    /**
+     * Descarta el rango reservado (al abrir otro archivo de secuencias): el próximo ID reserva un
+     * bloque nuevo y lo anota en el archivo abierto. Lo llama GeneradorIds con su lock tomado
+     */
+    void descartarReserva() {
+        techo = 0;
+    }
+
+    /**
+     * Asegura que los próximos IDs sean mayores o iguales a un valor (por ejemplo, al cargar
+     * entidades guardadas con sus IDs). Nunca hace retroceder la secuencia
+     * @param minimo valor mínimo del próximo ID
+     */
+    public void asegurarMinimo(long minimo) {
+        proximo.accumulateAndGet(minimo, Math::max);
+    }
+
+    // ---------------------- GETTERS ----------------------
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return el próximo ID que se va a repartir
+     */
+    public long getProximo() {
+        return proximo.get();
+    }
+
+    /**
+     * @return el final del rango reservado (el valor guardado en el archivo)
+     */
+    public long getTecho() {
+        return techo;
+    }
+}
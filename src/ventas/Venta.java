@@ -10,6 +10,11 @@ import excepciones.StockInsuficienteException;
 import excepciones.SaldoInsuficienteException;
 import excepciones.ProductoNoEncontradoException;
 import entidades.IEntidad;
+import metricas.HistogramaLatencias;
+import metricas.Metricas;
+import registro.Bitacora;
+import utilidades.GeneradorIds;
+import utilidades.SecuenciaIds;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -25,8 +30,10 @@ import java.util.*;
  *   y procesar la venta.
  */
 public class Venta implements IEntidad<Integer> {
+    private static final HistogramaLatencias TIEMPO_AGREGAR_PRODUCTO = Metricas.temporizador("venta.agregarProducto");
+    private static final Bitacora BITACORA = Bitacora.de(Venta.class);
+    private static final SecuenciaIds SECUENCIA = GeneradorIds.secuencia("ventas");
     private int id;
-    private static int contador = 0;
     private Cliente cliente;
     private Vendedor vendedor;
     private List<DetalleVenta> detalles;
@@ -39,8 +46,7 @@ public class Venta implements IEntidad<Integer> {
     
     // ---------------------- CONSTRUCTOR ----------------------
     public Venta(Cliente cliente, Vendedor vendedor, MetodoPago metodoPago) {
-        this.id = contador;
-        contador++;
+        this.id = SECUENCIA.siguiente();
         this.cliente = cliente;
         this.vendedor = vendedor;
         this.metodoPago = metodoPago;
@@ -57,8 +63,17 @@ public class Venta implements IEntidad<Integer> {
     public Integer getId() {
         return id;
     }
+    /**
+     * @return el próximo ID que se va a asignar
+     */
     public static int getContador() {
-        return contador;
+        return (int) SECUENCIA.getProximo();
+    }
+    /**
+     * @param nuevoContador valor mínimo del próximo ID (la secuencia nunca retrocede)
+     */
+    public static void setContador(int nuevoContador) {
+        SECUENCIA.asegurarMinimo(nuevoContador);
     }
     public Cliente getCliente() {
         return cliente;
@@ -120,6 +135,15 @@ public class Venta implements IEntidad<Integer> {
      * @return true si se pudo agregar el producto
      */
     public boolean agregarProducto(Producto producto, int cantidad, Stock stock) throws StockInsuficienteException {
+        long inicio = System.nanoTime();
+        try {
+            return agregarOActualizarDetalle(producto, cantidad, stock);
+        } finally {
+            TIEMPO_AGREGAR_PRODUCTO.registrarDesde(inicio);
+        }
+    }
+
+    private boolean agregarOActualizarDetalle(Producto producto, int cantidad, Stock stock) throws StockInsuficienteException {
         if (producto == null) {
             throw new IllegalArgumentException("El producto no puede ser null.");
         }
@@ -187,9 +211,9 @@ public class Venta implements IEntidad<Integer> {
 
 
     /**
-     *  Procesa la venta de un producto, realizando verificaciones, mostrando al usuario la info de la venta,
-     *  aplicando descuentos, verificando el saldo del cliente, removiendo los productos del stock una vez vendidos,
-     *  restandole el total de la venta al cliente y actualizando las estadisticas del cliente y vendedor
+     *  Procesa la venta de un producto, realizando verificaciones, aplicando descuentos, verificando el saldo del cliente, removiendo los productos del stock una vez vendidos,
+     *  restandole el total de la venta al cliente y actualizando las estadisticas del cliente y vendedor.
+     *  No imprime nada: emite el evento "venta.procesada" y quien la llamó decide qué mostrar
      * @param stock stock del producto a vender
      * @throws StockInsuficienteException si no hay stock suficiente
      * @throws SaldoInsuficienteException si el cliente no tiene saldo suficiente
@@ -217,17 +241,6 @@ public class Venta implements IEntidad<Integer> {
         this.descuento = descuentoAplicado;
         this.total = totalConDescuento;
         
-        // Mostramos elñ resumen de la venta
-        System.out.println("\n🧾 RESUMEN DE VENTA");
-        System.out.println("═══════════════════════════════════");
-        System.out.println("💰 Subtotal: $" + String.format("%.2f", subtotal));
-        if (descuentoAplicado > 0) {
-            System.out.println("🎯 Descuento (" + metodoPago + "): -$" + String.format("%.2f", descuentoAplicado));
-        }
-        System.out.println("💵 Total a pagar: $" + String.format("%.2f", totalConDescuento));
-        System.out.println("💳 Método de pago: " + metodoPago);
-        System.out.println("═══════════════════════════════════");
-        
         // Verificamos el saldo del cliente
         if (cliente.getSaldo() < totalConDescuento) {
             throw new SaldoInsuficienteException("Saldo insuficiente del cliente. Saldo actual: $" + String.format("%.2f", cliente.getSaldo()) + ", Total de la venta: $" + String.format("%.2f", totalConDescuento),cliente.getSaldo(), totalConDescuento);
@@ -249,10 +262,9 @@ public class Venta implements IEntidad<Integer> {
         cliente.agregarCompra(descripcionCompra);
         vendedor.realizarVenta("Venta #" + id, total);
         
-        System.out.println("✅ Venta procesada exitosamente.");
-        System.out.println("💰 Saldo restante del cliente: $" + String.format("%.2f", cliente.getSaldo()));
-        
         this.estado = "COMPLETADA";
+        BITACORA.info("venta.procesada", "Venta #" + id + " procesada", "id", id, "cliente", cliente.getEmail(), "vendedor", vendedor.getEmail(),
+                "subtotal", subtotal, "descuento", descuentoAplicado, "total", total, "metodoPago", metodoPago, "saldoRestante", cliente.getSaldo());
         return true;
     }
 
@@ -267,38 +279,6 @@ public class Venta implements IEntidad<Integer> {
         total = subtotal - descuento;
     }
     
-    // ---------------------- MÉTODOS DE CONSULTA ----------------------
-    public void mostrarDetallesVenta() {
-        System.out.println("🧾 DETALLE DE VENTA #" + id);
-        System.out.println("═══════════════════════════════════");
-        System.out.println("👤 Cliente: " + cliente.getNombre() + " " + cliente.getApellido());
-        System.out.println("💼 Vendedor: " + vendedor.getNombre() + " " + vendedor.getApellido());
-        System.out.println("💳 Método de pago: " + (metodoPago != null ? metodoPago : "No especificado"));
-        System.out.println("📅 Fecha: " + fechaVenta);
-        System.out.println("📊 Estado: " + estado);
-        System.out.println("═══════════════════════════════════");
-        
-        if (detalles.isEmpty()) {
-            System.out.println("📭 No hay productos en la venta.");
-        } else {
-            System.out.println("🛍️ PRODUCTOS:");
-            for (DetalleVenta detalle : detalles) {
-                System.out.println(String.format("  📱 %s x%d = $%.2f",
-                    detalle.getProducto().getNombre(),
-                    detalle.getCantidad(),
-                    detalle.getSubtotal()));
-            }
-            
-            System.out.println("═══════════════════════════════════");
-            System.out.println(String.format("💰 Subtotal: $%.2f", subtotal));
-            if (descuento > 0) {
-                System.out.println(String.format("🎯 Descuento: -$%.2f", descuento));
-            }
-            System.out.println(String.format("💵 Total: $%.2f", total));
-            System.out.println("═══════════════════════════════════");
-        }
-    }
-    
     // ---------------------- MÉTODOS SOBREESCRITOS ----------------------
     @Override
     public String toString() {
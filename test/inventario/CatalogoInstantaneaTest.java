@@ -0,0 +1,123 @@
+package inventario;
+
+import org.junit.jupiter.api.Test;
+import productos.Producto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CatalogoInstantaneaTest {
+
+    private static Producto producto(int id, String nombre, double precio) {
+        Producto producto = new Producto(id);
+        producto.setNombre(nombre);
+        producto.setPrecio(precio);
+        return producto;
+    }
+
+    @Test
+    void unaVentaCompartePorReferenciaLosProductosQueNoCambiaron() throws Exception {
+        Stock stock = new Stock();
+        stock.agregarProducto(producto(1, "Mouse", 10), 5);
+        stock.agregarProducto(producto(2, "Teclado", 20), 5);
+        stock.agregarProducto(producto(5_000, "Monitor", 300), 5);
+        stock.publicarCatalogo();
+        CatalogoInstantanea antes = stock.getCatalogo();
+
+        stock.eliminarProducto(2, 1);
+        stock.publicarCatalogo();
+        CatalogoInstantanea despues = stock.getCatalogo();
+
+        // La venta cambia solo cantidades: los productos son los mismos objetos, incluso el vendido
+        assertSame(antes.buscarProductoPorId(1), despues.buscarProductoPorId(1));
+        assertSame(antes.buscarProductoPorId(2), despues.buscarProductoPorId(2));
+        assertSame(antes.buscarProductoPorId(5_000), despues.buscarProductoPorId(5_000));
+        assertEquals(5, antes.obtenerCantidad(2));
+        assertEquals(4, despues.obtenerCantidad(2));
+        assertEquals(antes.getVersion() + 1, despues.getVersion());
+    }
+
+    @Test
+    void unCambioDePrecioCopiaSoloEseProductoYNoSeVeEnLaFotoAnterior() {
+        Stock stock = new Stock();
+        stock.agregarProducto(producto(1, "Mouse", 10), 5);
+        stock.agregarProducto(producto(2, "Teclado", 20), 5);
+        stock.publicarCatalogo();
+        CatalogoInstantanea antes = stock.getCatalogo();
+
+        stock.cambiarPrecio(stock.buscarProductoPorId(2), 25);
+        stock.publicarCatalogo();
+        CatalogoInstantanea despues = stock.getCatalogo();
+
+        assertSame(antes.buscarProductoPorId(1), despues.buscarProductoPorId(1));
+        assertNotSame(antes.buscarProductoPorId(2), despues.buscarProductoPorId(2));
+        assertEquals(20, antes.buscarProductoPorId(2).getPrecio());
+        assertEquals(25, despues.buscarProductoPorId(2).getPrecio());
+    }
+
+    @Test
+    void sinCambiosNoPublicaUnaFotoNueva() {
+        Stock stock = new Stock();
+        stock.agregarProducto(producto(1, "Mouse", 10), 5);
+        stock.publicarCatalogo();
+        CatalogoInstantanea foto = stock.getCatalogo();
+
+        stock.publicarCatalogo();
+
+        assertSame(foto, stock.getCatalogo());
+    }
+
+    @Test
+    void recorreIdsDispersosYMuyAltosEnOrden() {
+        Stock stock = new Stock();
+        int[] ids = {Integer.MAX_VALUE - 1, 3, 1_024, 1_000_000, 0};
+        for (int id : ids) {
+            stock.agregarProducto(producto(id, "P" + id, 1), 1);
+        }
+        stock.publicarCatalogo();
+        CatalogoInstantanea catalogo = stock.getCatalogo();
+
+        List<Integer> recorridos = new ArrayList<>();
+        for (int id = catalogo.siguienteId(0); id >= 0; id = catalogo.siguienteId(id + 1)) {
+            recorridos.add(id);
+        }
+
+        assertEquals(List.of(0, 3, 1_024, 1_000_000, Integer.MAX_VALUE - 1), recorridos);
+        assertEquals(5, catalogo.getCantidadProductos());
+        assertNull(catalogo.buscarProductoPorId(-1));
+        assertNull(catalogo.buscarProductoPorId(2_000_000));
+        assertEquals(0, catalogo.obtenerCantidad(4));
+    }
+
+    @Test
+    void buscarPorNombreDevuelveElDisponibleDeMenorId() throws Exception {
+        Stock stock = new Stock();
+        stock.agregarProducto(producto(7, "Mouse", 10), 1);
+        stock.agregarProducto(producto(3, "mouse ", 12), 1);
+        stock.agregarProducto(producto(9, "Teclado", 20), 1);
+        stock.publicarCatalogo();
+
+        assertEquals(3, stock.getCatalogo().buscarProductoPorNombre(" MOUSE").getId());
+        assertEquals(3, stock.buscarProductoPorNombre("Mouse").getId());
+
+        // Agotado deja de encontrarse y aparece el siguiente con el mismo nombre
+        stock.eliminarProducto(3, 1);
+        stock.publicarCatalogo();
+        assertEquals(7, stock.getCatalogo().buscarProductoPorNombre("mouse").getId());
+        assertEquals(7, stock.buscarProductoPorNombre("mouse").getId());
+
+        // Un producto renombrado se busca por el nombre nuevo
+        Producto teclado = stock.buscarProductoPorId(9);
+        teclado.setNombre("Teclado mecánico");
+        stock.agregarProducto(teclado, 0);
+        stock.publicarCatalogo();
+        assertNull(stock.getCatalogo().buscarProductoPorNombre("Teclado"));
+        assertNull(stock.buscarProductoPorNombre("Teclado"));
+        assertEquals(9, stock.getCatalogo().buscarProductoPorNombre("teclado mecánico").getId());
+    }
+}
@@ -0,0 +1,86 @@
+package persistencia;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentoParticionadoTest {
+    @TempDir
+    Path carpeta;
+
+    private Path escribir(String contenido) throws IOException {
+        Path archivo = carpeta.resolve("documento.json");
+        Files.writeString(archivo, contenido, StandardCharsets.UTF_8);
+        return archivo;
+    }
+
+    @Test
+    void ignoraComillasEscapadasYCorchetesDentroDeLosTextos() throws IOException {
+        Path archivo = escribir("{\n"
+                + "  \"version\": \"a ] b } c\",\n"
+                + "  \"productos\": [\n"
+                + "    {\"id\": 1, \"nombre\": \"Cable \\\"USB\\\" [2m]\", \"notas\": \"}{ ][\"},\n"
+                + "    {\"id\": 2, \"nombre\": \"Barra \\\\\", \"notas\": \"\\\\\\\"]\"}\n"
+                + "  ],\n"
+                + "  \"total\": 2\n"
+                + "}");
+
+        DocumentoParticionado documento = DocumentoParticionado.leer(archivo.toString(), "productos");
+        List<JSONObject> elementos = documento.deserializar(1, (indice, elemento) -> elemento);
+
+        assertEquals(2, documento.getCantidadElementos());
+        assertEquals("Cable \"USB\" [2m]", elementos.get(0).getString("nombre"));
+        assertEquals("}{ ][", elementos.get(0).getString("notas"));
+        assertEquals("Barra \\", elementos.get(1).getString("nombre"));
+        assertEquals("\\\"]", elementos.get(1).getString("notas"));
+        assertEquals("a ] b } c", documento.getCabecera().getString("version"));
+        assertEquals(2, documento.getCabecera().getInt("total"));
+    }
+
+    @Test
+    void respetaArreglosYObjetosAnidadosDentroDeCadaElemento() throws IOException {
+        Path archivo = escribir("{\"productos\":[{\"id\":1,\"tags\":[[1,2],[3,[4]]],\"extra\":{\"a\":[{\"b\":\"]\"}]}},"
+                + "{\"id\":2,\"tags\":[],\"extra\":{}},[],{\"id\":3}]}");
+
+        DocumentoParticionado documento = DocumentoParticionado.leer(archivo.toString(), "productos");
+        List<Integer> ids = documento.deserializar(2, (indice, elemento) -> elemento.getInt("id"));
+
+        // El tercer elemento es un arreglo, no un objeto: se descarta y el resto se carga en orden
+        assertEquals(4, documento.getCantidadElementos());
+        assertEquals(List.of(1, 2, 3), ids);
+    }
+
+    @Test
+    void dejaSinParsearLasClavesPedidas() throws IOException {
+        Path archivo = escribir("{\"usuarios\":[{\"id\":1,\"historial\":[{\"x\":\"[\\\"]\"}],\"nombre\":\"Ana\"}]}");
+
+        DocumentoParticionado documento = DocumentoParticionado.leer(archivo.toString(), "usuarios", "historial");
+        JSONObject elemento = documento.deserializar(10, (indice, e) -> e).get(0);
+
+        assertEquals("Ana", elemento.getString("nombre"));
+        String historial = elemento.getString("historial");
+        assertEquals("[\"]", new JSONArray(historial).getJSONObject(0).getString("x"));
+    }
+
+    @Test
+    void sinElArregloPedidoQuedaTodoEnLaCabecera() throws IOException {
+        Path archivo = escribir("{\"fecha\":\"2024-01-01\",\"otros\":[1,2,3]}");
+
+        DocumentoParticionado documento = DocumentoParticionado.leer(archivo.toString(), "productos");
+
+        assertFalse(documento.tieneArreglo());
+        assertEquals(0, documento.getCantidadElementos());
+        assertTrue(documento.getCabecera().has("otros"));
+    }
+}
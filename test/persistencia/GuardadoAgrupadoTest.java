@@ -0,0 +1,73 @@
+package persistencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuardadoAgrupadoTest {
+
+    @Test
+    void losCambiosDeUnaVentanaSalenEnUnSoloGuardado() throws InterruptedException {
+        AtomicInteger guardados = new AtomicInteger();
+        CountDownLatch guardo = new CountDownLatch(1);
+        GuardadoAgrupado agrupado = GuardadoAgrupado.iniciar("prueba-ventana", 200, () -> {
+            guardados.incrementAndGet();
+            guardo.countDown();
+        });
+
+        for (int i = 0; i < 1_000; i++) {
+            agrupado.marcar();
+        }
+
+        assertTrue(guardo.await(5, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        assertEquals(1, guardados.get());
+    }
+
+    @Test
+    void unGuardadoFallidoSeReintentaMasTarde() throws InterruptedException {
+        AtomicInteger intentos = new AtomicInteger();
+        CountDownLatch guardo = new CountDownLatch(1);
+        GuardadoAgrupado agrupado = GuardadoAgrupado.iniciar("prueba-reintento", 50, () -> {
+            if (intentos.incrementAndGet() == 1) {
+                throw new IOException("disco lleno");
+            }
+            guardo.countDown();
+        });
+
+        long inicio = System.nanoTime();
+        agrupado.marcar();
+
+        // El reintento es a los 5 segundos del fallo
+        assertTrue(guardo.await(15, TimeUnit.SECONDS), "el guardado fallido no se reintentó");
+        assertEquals(2, intentos.get());
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void guardarAhoraInformaElError() {
+        GuardadoAgrupado agrupado = GuardadoAgrupado.iniciar("prueba-ahora", 50, () -> {
+            throw new IOException("sin permiso");
+        });
+
+        IOException error = assertThrows(IOException.class, agrupado::guardarAhora);
+        assertEquals("sin permiso", error.getMessage());
+    }
+
+    @Test
+    void sinCambiosPendientesNoGuarda() {
+        AtomicInteger guardados = new AtomicInteger();
+        GuardadoAgrupado agrupado = GuardadoAgrupado.iniciar("prueba-pendiente", 50, guardados::incrementAndGet);
+
+        agrupado.guardarPendiente();
+
+        assertEquals(0, guardados.get());
+    }
+}
@@ -0,0 +1,88 @@
+package usuarios;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usuarios.clientes.Cliente;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IndiceUsuariosTest {
+    private IndiceUsuarios indice;
+
+    @BeforeEach
+    void armarIndice() {
+        indice = new IndiceUsuarios();
+        indice.agregar(new Cliente("Ana", "Pérez", "ana@x.com", Rol.CLIENTE, 1, "30000001"));
+        indice.agregar(new Cliente("Anabel", "Gómez", "anabel@x.com", Rol.CLIENTE, 1, "30000002"));
+        indice.agregar(new Cliente("Andrea", "Ruiz", "andrea@x.com", Rol.CLIENTE, 1, "30000003"));
+        indice.agregar(new Cliente("Bruno", "Anaya", "bruno@x.com", Rol.CLIENTE, 1, "30000004"));
+        indice.agregar(new Cliente("Ana", "Vendedora", "ana.v@x.com", Rol.VENDEDOR, 1, "30000005"));
+    }
+
+    private static List<String> emails(PaginaUsuarios pagina) {
+        List<String> emails = new ArrayList<>();
+        for (Usuario usuario : pagina.getUsuarios()) {
+            emails.add(usuario.getEmail());
+        }
+        return emails;
+    }
+
+    @Test
+    void elPrefijoIncluyeSoloLosTerminosQueEmpiezanConEl() {
+        // "ana" encuentra a Ana y Anabel por el nombre y a Bruno Anaya por el apellido, no a Andrea
+        List<String> encontrados = emails(indice.buscarPorPrefijo(Rol.CLIENTE, "ana", null, 10));
+
+        assertEquals(List.of("ana@x.com", "anabel@x.com", "bruno@x.com"), encontrados);
+        assertEquals(List.of(), emails(indice.buscarPorPrefijo(Rol.CLIENTE, "anab x", null, 10)));
+        assertEquals(List.of("andrea@x.com"), emails(indice.buscarPorPrefijo(Rol.CLIENTE, "and", null, 10)));
+    }
+
+    @Test
+    void elPrefijoNoDistingueMayusculasNiTildesYRespetaElRol() {
+        assertEquals(List.of("ana@x.com"), emails(indice.buscarPorPrefijo(Rol.CLIENTE, "  PEREZ", null, 10)));
+        assertEquals(List.of("ana@x.com"), emails(indice.buscarPorPrefijo(Rol.CLIENTE, "pérez a", null, 10)));
+        assertEquals(List.of("ana.v@x.com"), emails(indice.buscarPorPrefijo(Rol.VENDEDOR, "ana", null, 10)));
+        assertEquals(List.of("andrea@x.com"), emails(indice.buscarPorPrefijo(Rol.CLIENTE, "30000003", null, 10)));
+    }
+
+    @Test
+    void lasPaginasSiguenDesdeLaPosicionAnteriorSinRepetir() {
+        // Ana coincide por nombre y por email: aparece una sola vez, en la posición de "ana perez"
+        List<String> todos = new ArrayList<>();
+        String posicion = null;
+        int paginas = 0;
+        do {
+            PaginaUsuarios pagina = indice.buscarPorPrefijo(Rol.CLIENTE, "a", posicion, 1);
+            todos.addAll(emails(pagina));
+            posicion = pagina.getSiguiente();
+            paginas++;
+        } while (posicion != null);
+
+        assertEquals(List.of("ana@x.com", "anabel@x.com", "bruno@x.com", "andrea@x.com"), todos);
+        assertEquals(4, paginas);
+    }
+
+    @Test
+    void listarPorRolOrdenaPorApellidoYPagina() {
+        PaginaUsuarios primera = indice.listarPorRol(Rol.CLIENTE, null, 2);
+        PaginaUsuarios segunda = indice.listarPorRol(Rol.CLIENTE, primera.getSiguiente(), 2);
+
+        assertEquals(List.of("bruno@x.com", "anabel@x.com"), emails(primera));
+        assertEquals(List.of("ana@x.com", "andrea@x.com"), emails(segunda));
+        assertNull(segunda.getSiguiente());
+    }
+
+    @Test
+    void unDniRepetidoNoPisaAlPrimero() {
+        Usuario primero = indice.buscarPorDni("30000001");
+
+        indice.agregar(new Cliente("Otra", "Persona", "otra@x.com", Rol.CLIENTE, 1, "30000001"));
+
+        assertSame(primero, indice.buscarPorDni("30000001"));
+    }
+}
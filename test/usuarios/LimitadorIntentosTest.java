@@ -0,0 +1,88 @@
+package usuarios;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorIntentosTest {
+
+    @Test
+    void unaClaveSinFallosNoOcupaLugar() {
+        LimitadorIntentos limitador = new LimitadorIntentos(3, 60, 10);
+
+        assertEquals(LimitadorIntentos.SIN_FALLOS, limitador.tomarIntento("ana@x.com"));
+        assertEquals(LimitadorIntentos.SIN_FALLOS, limitador.tomarIntento(null));
+        assertEquals(0, limitador.getCantidadClaves());
+    }
+
+    @Test
+    void bloqueaAlAgotarLosIntentosYLosRecargaConElTiempo() throws InterruptedException {
+        LimitadorIntentos limitador = new LimitadorIntentos(2, 1, 10);
+
+        limitador.registrarFallo("ana@x.com");
+        assertEquals(0, limitador.tomarIntento("ana@x.com"));
+        long espera = limitador.tomarIntento("ana@x.com");
+        assertTrue(espera >= 1, "sin tokens tiene que pedir esperar, devolvió " + espera);
+
+        Thread.sleep(1_100);
+        assertEquals(0, limitador.tomarIntento("ana@x.com"));
+    }
+
+    @Test
+    void devolverElUltimoIntentoDescartaLaCubetaLlena() {
+        LimitadorIntentos limitador = new LimitadorIntentos(3, 60, 10);
+
+        limitador.registrarFallo("ana@x.com");
+        assertEquals(1, limitador.getCantidadClaves());
+        limitador.devolverIntento("ana@x.com");
+
+        assertEquals(0, limitador.getCantidadClaves());
+        assertEquals(LimitadorIntentos.SIN_FALLOS, limitador.tomarIntento("ana@x.com"));
+    }
+
+    @Test
+    void limpiarOlvidaLosFallos() {
+        LimitadorIntentos limitador = new LimitadorIntentos(1, 60, 10);
+
+        limitador.registrarFallo("ana@x.com");
+        assertTrue(limitador.tomarIntento("ana@x.com") > 0);
+        limitador.limpiar("ana@x.com");
+
+        assertEquals(LimitadorIntentos.SIN_FALLOS, limitador.tomarIntento("ana@x.com"));
+    }
+
+    @Test
+    void conElMapaLlenoLaClaveNuevaDesalojaAUnaAnterior() {
+        LimitadorIntentos limitador = new LimitadorIntentos(5, 60, 3);
+
+        for (int i = 1; i <= 4; i++) {
+            limitador.registrarFallo("clave" + i);
+        }
+
+        // La revisión rota las cubetas en uso, así que la desalojada es la menos revisada, no
+        // necesariamente la primera: alcanza con que salga una sola y la nueva quede
+        int desalojadas = 0;
+        for (int i = 1; i <= 3; i++) {
+            if (limitador.tomarIntento("clave" + i) == LimitadorIntentos.SIN_FALLOS) {
+                desalojadas++;
+            }
+        }
+        assertEquals(1, desalojadas);
+        assertEquals(3, limitador.getCantidadClaves());
+        assertEquals(0, limitador.tomarIntento("clave4"));
+    }
+
+    @Test
+    void muchasClavesInventadasNoSuperanElMaximo() {
+        LimitadorIntentos limitador = new LimitadorIntentos(5, 60, 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            limitador.registrarFallo("inventada" + i);
+        }
+
+        assertTrue(limitador.getCantidadClaves() <= 100);
+        limitador.registrarFallo("real@x.com");
+        assertEquals(0, limitador.tomarIntento("real@x.com"));
+    }
+}
@@ -0,0 +1,122 @@
+package utilidades;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las secuencias son globales (GeneradorIds), así que cada prueba usa una secuencia con nombre propio.
+ */
+class SecuenciaIdsTest {
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void reservaDeABloquesYAnotaElTechoAntesDeRepartir() throws IOException {
+        Path archivo = carpeta.resolve(GeneradorIds.NOMBRE_ARCHIVO);
+        GeneradorIds.abrir(archivo.toString());
+        SecuenciaIds secuencia = GeneradorIds.secuencia("prueba-bloques");
+
+        assertEquals(0, secuencia.siguiente());
+        assertEquals(SecuenciaIds.TAMANIO_BLOQUE, anotado(archivo, "prueba-bloques"));
+
+        for (int i = 1; i < SecuenciaIds.TAMANIO_BLOQUE; i++) {
+            secuencia.siguiente();
+        }
+        assertEquals(SecuenciaIds.TAMANIO_BLOQUE, anotado(archivo, "prueba-bloques"));
+
+        assertEquals(SecuenciaIds.TAMANIO_BLOQUE, secuencia.siguiente());
+        assertEquals(2L * SecuenciaIds.TAMANIO_BLOQUE, anotado(archivo, "prueba-bloques"));
+    }
+
+    @Test
+    void alReabrirElArchivoSigueDesdeElFinalDelBloqueReservado() throws IOException {
+        Path archivo = carpeta.resolve(GeneradorIds.NOMBRE_ARCHIVO);
+        GeneradorIds.abrir(archivo.toString());
+        SecuenciaIds secuencia = GeneradorIds.secuencia("prueba-reinicio");
+        for (int i = 0; i < 10; i++) {
+            secuencia.siguiente();
+        }
+
+        // Como al reiniciar: lo que quedaba del bloque se saltea y nunca se repite un ID
+        GeneradorIds.abrir(archivo.toString());
+
+        assertEquals(SecuenciaIds.TAMANIO_BLOQUE, secuencia.siguiente());
+        assertEquals(2L * SecuenciaIds.TAMANIO_BLOQUE, anotado(archivo, "prueba-reinicio"));
+    }
+
+    @Test
+    void asegurarMinimoNuncaRetrocede() {
+        GeneradorIds.abrir(carpeta.resolve(GeneradorIds.NOMBRE_ARCHIVO).toString());
+        SecuenciaIds secuencia = GeneradorIds.secuencia("prueba-minimo");
+
+        secuencia.asegurarMinimo(5_000);
+        secuencia.asegurarMinimo(10);
+
+        assertEquals(5_000, secuencia.siguiente());
+    }
+
+    @Test
+    void variosHilosNoRepitenIds() throws InterruptedException {
+        GeneradorIds.abrir(carpeta.resolve(GeneradorIds.NOMBRE_ARCHIVO).toString());
+        SecuenciaIds secuencia = GeneradorIds.secuencia("prueba-hilos");
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            hilos.execute(() -> {
+                for (int j = 0; j < 5_000; j++) {
+                    ids.add(secuencia.siguiente());
+                }
+            });
+        }
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(40_000, ids.size());
+        assertTrue(secuencia.getTecho() >= secuencia.getProximo());
+    }
+
+    @Test
+    void unaReservaDuranteAbrirQuedaAnotadaEnElArchivoAbierto() throws Exception {
+        SecuenciaIds secuencia = GeneradorIds.secuencia("prueba-abrir");
+        for (int ronda = 0; ronda < 50; ronda++) {
+            Path archivo = carpeta.resolve("secuencias" + (ronda % 3) + ".properties");
+            Thread tomador = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    secuencia.siguiente();
+                }
+            });
+            tomador.start();
+            GeneradorIds.abrir(archivo.toString());
+            tomador.join();
+
+            assertTrue(secuencia.getTecho() <= anotado(archivo, "prueba-abrir"),
+                    "el techo en uso tiene que estar anotado en el archivo abierto (ronda " + ronda + ")");
+        }
+    }
+
+    private static long anotado(Path archivo, String nombre) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            propiedades.load(lector);
+        }
+        return Long.parseLong(propiedades.getProperty(nombre, "0"));
+    }
+}